@@ -0,0 +1,22 @@
+package com.eventbus_demo;
+
+import android.app.Application;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+
+/**
+ * 应用入口 , 初始化 MyEventBus
+ */
+public class MyApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // 使用编译期生成的订阅者索引 , 注册订阅者时不再反射查找订阅方法
+        //      MyEventBusIndex 由 myeventbus-processor 注解处理器生成
+        MyEventBus.builder()
+                .addIndex(new MyEventBusIndex())
+                .installDefaultEventBus();
+    }
+}
@@ -0,0 +1,40 @@
+package com.eventbus_demo.myeventbus;
+
+import android.os.Looper;
+
+/**
+ * Android 中的主线程支持 , 主线程是 Looper 主线程
+ *      myeventbus-android 模块在 classpath 中时 , MyEventBusBuilder 自动通过反射创建该对象
+ */
+public class MyAndroidMainThreadSupport implements MyMainThreadSupport {
+
+    /**
+     * 主线程 Looper
+     */
+    private final Looper looper;
+
+    public MyAndroidMainThreadSupport() {
+        this(Looper.getMainLooper());
+    }
+
+    public MyAndroidMainThreadSupport(Looper looper) {
+        if (looper == null) {
+            throw new IllegalStateException("Main looper is not available");
+        }
+        this.looper = looper;
+    }
+
+    /**
+     * 获取 mainLooper 与 myLooper 进行比较 , 如果一致 , 说明该线程是主线程
+     * @return
+     */
+    @Override
+    public boolean isMainThread() {
+        return looper == Looper.myLooper();
+    }
+
+    @Override
+    public MyPoster createPoster(MyEventBus eventBus) {
+        return new MyHandlerPoster(eventBus, looper, eventBus.getMainThreadBatchBudgetMillis());
+    }
+}
@@ -0,0 +1,101 @@
+package com.eventbus_demo.myeventbus;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
+
+import java.util.List;
+
+/**
+ * 主线程分发器 , 整个 MyEventBus 只有一个
+ *      子线程发布的 MAIN / MAIN_ORDERED 事件放入队列 , 只发送一条 Message 到主线程 ,
+ *      主线程处理该 Message 时批量分发队列中的事件
+ *      单次处理时间超过 maxMillisInsideHandleMessage 时 , 重新发送 Message 让出主线程 ,
+ *      避免长时间阻塞界面绘制
+ */
+final class MyHandlerPoster extends Handler implements MyPoster {
+
+    /**
+     * 等待在主线程分发的事件
+     */
+    private final MyPendingPostQueue queue;
+    /**
+     * 单次处理 Message 的时间预算 , 单位毫秒
+     */
+    private final int maxMillisInsideHandleMessage;
+    private final MyEventBus eventBus;
+    /**
+     * 是否已经发送了 Message 等待处理
+     */
+    private boolean handlerActive;
+
+    MyHandlerPoster(MyEventBus eventBus, Looper looper, int maxMillisInsideHandleMessage) {
+        super(looper);
+        this.eventBus = eventBus;
+        this.maxMillisInsideHandleMessage = maxMillisInsideHandleMessage;
+        queue = new MyPendingPostQueue();
+    }
+
+    @Override
+    public void enqueue(MySubscription subscription, Object event) {
+        MyPendingPost pendingPost = MyPendingPost.obtainPendingPost(subscription, event);
+        synchronized (this) {
+            queue.enqueue(pendingPost);
+            // 已经有 Message 在等待处理 , 不再重复发送
+            if (!handlerActive) {
+                handlerActive = true;
+                if (!sendMessage(obtainMessage())) {
+                    throw new MyEventBusException("Could not send handler message");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void enqueueAll(MySubscription subscription, List<?> events) {
+        MyPendingPost first = MyPendingPost.obtainPendingPosts(subscription, events);
+        synchronized (this) {
+            queue.enqueueAll(first);
+            if (!handlerActive) {
+                handlerActive = true;
+                if (!sendMessage(obtainMessage())) {
+                    throw new MyEventBusException("Could not send handler message");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void handleMessage(Message msg) {
+        boolean rescheduled = false;
+        try {
+            long started = SystemClock.uptimeMillis();
+            while (true) {
+                MyPendingPost pendingPost = queue.poll();
+                if (pendingPost == null) {
+                    synchronized (this) {
+                        // 加锁后再检查一次 , 避免与 enqueue 竞争丢失事件
+                        pendingPost = queue.poll();
+                        if (pendingPost == null) {
+                            handlerActive = false;
+                            return;
+                        }
+                    }
+                }
+                eventBus.invokeSubscriber(pendingPost);
+                // 超过时间预算 , 让出主线程 , 剩余事件在下一条 Message 中处理
+                long timeInMethod = SystemClock.uptimeMillis() - started;
+                if (timeInMethod >= maxMillisInsideHandleMessage) {
+                    if (!sendMessage(obtainMessage())) {
+                        throw new MyEventBusException("Could not send handler message");
+                    }
+                    rescheduled = true;
+                    return;
+                }
+            }
+        } finally {
+            handlerActive = rescheduled;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyEventBusBuilder;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+import com.eventbus_demo.myeventbus.MyVirtualThreads;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ASYNC 线程模式下 , 有上限的线程池 对比 虚拟线程 的吞吐量
+ *      运行时不支持虚拟线程 ( JDK 21 以下 ) 时 , virtual 退化为线程池 , 结果与 pool 相同
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class AsyncExecutorBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"pool", "virtual"})
+    public String executor;
+
+    private MyEventBus eventBus;
+    private DeliveryCounter counter;
+    private BenchmarkEvent event;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MyEventBusBuilder builder = MyEventBus.builder().addIndex(new MyBenchmarkIndex());
+        if ("virtual".equals(executor) && MyVirtualThreads.isSupported()) {
+            builder.asyncVirtualThreads(true);
+        }
+        eventBus = builder.build();
+        counter = new DeliveryCounter();
+        eventBus.register(ThreadModeSubscribers.create(MyThreadMode.ASYNC, counter));
+        event = new BenchmarkEvent(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounter() {
+        counter.reset();
+        expected = 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long post() {
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.post(event);
+        }
+        expected += BATCH;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+}
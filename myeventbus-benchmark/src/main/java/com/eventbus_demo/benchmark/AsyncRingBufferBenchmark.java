@@ -0,0 +1,110 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyEventBusBuilder;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+import com.eventbus_demo.myeventbus.MyWaitStrategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ASYNC 线程模式下 , 线程池 对比 环形缓冲区 ( 3 种等待策略 ) , 都使用 2 个分发线程
+ *      throughput : 连续发布 BATCH 个事件 , 等待全部送达 , 结果为每毫秒送达的事件个数
+ *      latency : 发布一个事件 , 等待送达 , 分发线程空闲时的单次延迟分布
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class AsyncRingBufferBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final int THREADS = 2;
+    private static final int CAPACITY = 4096;
+
+    @Param({"executor", "ring-busy-spin", "ring-yield", "ring-park"})
+    public String engine;
+
+    private MyEventBus eventBus;
+    private DeliveryCounter counter;
+    private BenchmarkEvent event;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MyEventBusBuilder builder = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .asyncThreadPoolSize(THREADS)
+                .asyncQueueCapacity(CAPACITY);
+        switch (engine) {
+            case "executor":
+                break;
+            case "ring-busy-spin":
+                builder.asyncRingBuffer(CAPACITY, THREADS, MyWaitStrategy.BUSY_SPIN);
+                break;
+            case "ring-yield":
+                builder.asyncRingBuffer(CAPACITY, THREADS, MyWaitStrategy.YIELD);
+                break;
+            case "ring-park":
+                builder.asyncRingBuffer(CAPACITY, THREADS, MyWaitStrategy.PARK);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown engine " + engine);
+        }
+        eventBus = builder.build();
+        counter = new DeliveryCounter();
+        eventBus.register(ThreadModeSubscribers.create(MyThreadMode.ASYNC, counter));
+        event = new BenchmarkEvent(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounter() {
+        counter.reset();
+        expected = 0;
+    }
+
+    /**
+     * BUSY_SPIN / YIELD 的分发线程一直占用 CPU , 每组参数结束后停止 , 不影响之后的参数
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        eventBus.shutdownAsyncRingBuffer(5000);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH)
+    public long throughput() {
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.post(event);
+        }
+        expected += BATCH;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public long latency() {
+        eventBus.post(event);
+        expected++;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+}
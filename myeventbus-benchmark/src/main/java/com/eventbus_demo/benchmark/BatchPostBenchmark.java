@@ -0,0 +1,84 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐个 post 对比 postAll 批量发布 , 每次发布 BATCH 个事件并等待全部送达
+ *      结果为每毫秒送达的事件个数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BatchPostBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"POSTING", "MAIN", "ASYNC"})
+    public MyThreadMode threadMode;
+
+    private MyEventBus eventBus;
+    private DeliveryCounter counter;
+    private List<BenchmarkEvent> events;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .build();
+        counter = new DeliveryCounter();
+        eventBus.register(ThreadModeSubscribers.create(threadMode, counter));
+        events = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            events.add(new BenchmarkEvent(i));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounter() {
+        counter.reset();
+        expected = 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long post() {
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.post(events.get(i));
+        }
+        expected += BATCH;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long postAll() {
+        eventBus.postAll(events);
+        expected += BATCH;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+}
@@ -0,0 +1,12 @@
+package com.eventbus_demo.benchmark;
+
+/**
+ * 基准测试中发送的事件
+ */
+public class BenchmarkEvent {
+    public final long sequence;
+
+    public BenchmarkEvent(long sequence) {
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,105 @@
+package com.eventbus_demo.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对比两次 JMH 运行的 JSON 结果 ( -rf json ) , 作为修改事件总线时的回归检查
+ *      用法 : BenchmarkRegressionCheck <基线结果> <本次结果> [阈值百分比 , 默认 10]
+ *      thrpt 模式分数越大越好 , 其余模式 ( avgt / sample / ss ) 分数越小越好
+ *      退化幅度超过阈值 , 并且超出两次结果的误差范围时 , 以退出码 1 结束
+ */
+public class BenchmarkRegressionCheck {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkRegressionCheck <baseline.json> <results.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, JsonObject> baseline = read(args[0]);
+        Map<String, JsonObject> current = read(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonObject> entry : current.entrySet()) {
+            JsonObject before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println("NEW   " + entry.getKey());
+                continue;
+            }
+            JsonObject after = entry.getValue();
+            double beforeScore = score(before);
+            double afterScore = score(after);
+            boolean higherIsBetter = "thrpt".equals(after.get("mode").getAsString());
+            // 正数表示变差的百分比
+            double change = (higherIsBetter ? beforeScore - afterScore : afterScore - beforeScore)
+                    / beforeScore * 100;
+            double noise = error(before) + error(after);
+            boolean regressed = change > threshold && Math.abs(afterScore - beforeScore) > noise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%s %s : %.3f -> %.3f %s (%+.1f%%)",
+                    regressed ? "SLOW " : "OK   ", entry.getKey(), beforeScore, afterScore,
+                    after.getAsJsonObject("primaryMetric").get("scoreUnit").getAsString(),
+                    (afterScore - beforeScore) / beforeScore * 100));
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 读取 JMH 结果 , 以 基准测试名称 + 参数 + 模式 作为键
+     * @param file
+     * @return
+     */
+    private static Map<String, JsonObject> read(String file) throws IOException {
+        Map<String, JsonObject> results = new LinkedHashMap<>();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(Paths.get(file)), StandardCharsets.UTF_8)) {
+            JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject result = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+                JsonObject params = result.getAsJsonObject("params");
+                if (params != null) {
+                    // 参数排序 , 保证键与参数的书写顺序无关
+                    Map<String, String> sorted = new TreeMap<>();
+                    for (Map.Entry<String, JsonElement> param : params.entrySet()) {
+                        sorted.put(param.getKey(), param.getValue().getAsString());
+                    }
+                    key.append(sorted);
+                }
+                key.append(' ').append(result.get("mode").getAsString());
+                results.put(key.toString(), result);
+            }
+        }
+        return results;
+    }
+
+    private static double score(JsonObject result) {
+        return result.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+    }
+
+    private static double error(JsonObject result) {
+        JsonElement error = result.getAsJsonObject("primaryMetric").get("scoreError");
+        // 只有一次测量时 scoreError 为 "NaN"
+        if (error == null || !error.isJsonPrimitive() || Double.isNaN(error.getAsDouble())) {
+            return 0;
+        }
+        return error.getAsDouble();
+    }
+}
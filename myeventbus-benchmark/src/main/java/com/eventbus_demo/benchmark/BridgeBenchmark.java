@@ -0,0 +1,111 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBridge;
+import com.eventbus_demo.myeventbus.MyEventBus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两个进程之间通过 MyEventBridge 转发事件 , 另一个进程 ( BridgeEchoPeer ) 收到后回复
+ *      throughput : 连续发布 BATCH 个事件 , 等待全部回复 , 结果为每毫秒往返的事件个数 , 发送期间的事件合并为一帧
+ *      latency : 发布一个事件 , 等待回复 , 单次往返的延迟分布
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BridgeBenchmark {
+
+    private static final int BATCH = 1000;
+
+    private MyEventBus eventBus;
+    private MyEventBridge bridge;
+    private Process peer;
+    private DeliveryCounter counter;
+    private BenchmarkEvent event;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        eventBus = MyEventBus.builder().addIndex(new MyBenchmarkIndex()).build();
+        counter = new DeliveryCounter();
+        eventBus.register(new BridgeEchoPeer.ReplyCounter(counter));
+        bridge = MyEventBridge.builder(eventBus)
+                .serializer(BridgeEchoPeer.SERIALIZER)
+                .forwardEventType(BenchmarkEvent.class)
+                .receiveEventType(BridgeEchoPeer.Reply.class)
+                .listen(0);
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        peer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                BridgeEchoPeer.class.getName(), String.valueOf(bridge.getPort()))
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        // token 通过标准输入传给子进程 , 命令行参数对其它进程可见
+        Writer tokenWriter = new OutputStreamWriter(peer.getOutputStream(), "UTF-8");
+        tokenWriter.write(bridge.getToken() + "\n");
+        tokenWriter.close();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (bridge.getPeerCount() == 0) {
+            if (System.nanoTime() - deadline > 0 || !peer.isAlive()) {
+                throw new IllegalStateException("peer process did not connect");
+            }
+            Thread.sleep(10);
+        }
+        event = new BenchmarkEvent(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounter() {
+        counter.reset();
+        expected = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        bridge.close();
+        if (!peer.waitFor(5, TimeUnit.SECONDS)) {
+            peer.destroyForcibly();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH)
+    public long throughput() {
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.post(event);
+        }
+        expected += BATCH;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public long latency() {
+        eventBus.post(event);
+        expected++;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+}
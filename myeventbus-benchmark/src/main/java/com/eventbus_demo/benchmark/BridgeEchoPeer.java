@@ -0,0 +1,100 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBridge;
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyEventSerializer;
+import com.eventbus_demo.myeventbus.MySubscribe;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * BridgeBenchmark 启动的另一个进程 , 连接基准测试进程 , 收到的每个 BenchmarkEvent 回复一个 Reply
+ *      端口通过参数传入 , token 通过标准输入传入 , 连接断开后退出
+ */
+public final class BridgeEchoPeer {
+
+    private BridgeEchoPeer() {
+    }
+
+    /**
+     * 回复的事件
+     */
+    public static class Reply {
+        public final long sequence;
+
+        public Reply(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * 两个进程使用同一个序列化方式 , 只写入序号
+     */
+    static final MyEventSerializer SERIALIZER = new MyEventSerializer() {
+        @Override
+        public void write(Object event, DataOutput output) throws IOException {
+            output.writeLong(event instanceof Reply ? ((Reply) event).sequence : ((BenchmarkEvent) event).sequence);
+        }
+
+        @Override
+        public Object read(Class<?> eventType, DataInput input) throws IOException {
+            long sequence = input.readLong();
+            return eventType == Reply.class ? new Reply(sequence) : new BenchmarkEvent(sequence);
+        }
+    };
+
+    /**
+     * 在读取线程中回复
+     */
+    public static class Echo {
+        private final MyEventBus eventBus;
+
+        public Echo(MyEventBus eventBus) {
+            this.eventBus = eventBus;
+        }
+
+        @MySubscribe
+        public void onEvent(BenchmarkEvent event) {
+            eventBus.post(new Reply(event.sequence));
+        }
+    }
+
+    /**
+     * 基准测试进程中统计收到的回复
+     */
+    public static class ReplyCounter {
+        private final DeliveryCounter counter;
+
+        public ReplyCounter(DeliveryCounter counter) {
+            this.counter = counter;
+        }
+
+        @MySubscribe
+        public void onEvent(Reply event) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * @param args 监听的端口 , token 从标准输入读取
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String token = new BufferedReader(new InputStreamReader(System.in, "UTF-8")).readLine();
+        MyEventBus eventBus = MyEventBus.builder().addIndex(new MyBenchmarkIndex()).build();
+        eventBus.register(new Echo(eventBus));
+        MyEventBridge bridge = MyEventBridge.builder(eventBus)
+                .serializer(SERIALIZER)
+                .forwardEventType(Reply.class)
+                .receiveEventType(BenchmarkEvent.class)
+                .token(token)
+                .connect(Integer.parseInt(args[0]));
+        while (bridge.getPeerCount() > 0) {
+            Thread.sleep(100);
+        }
+        bridge.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个线程同时向同一个 MyEventBus 发送事件时的总吞吐量
+ *      post 不加锁 , 理想情况下吞吐量随线程个数线性增长
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ConcurrentPostBenchmark {
+
+    private MyEventBus eventBus;
+    private BenchmarkEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .build();
+        // 订阅方法不修改共享状态 , 避免计数器本身的竞争影响结果
+        eventBus.register(new RegisterSubscribers.S00());
+        event = new BenchmarkEvent(0);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void post1Thread() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void post2Threads() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void post4Threads() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void post8Threads() {
+        eventBus.post(event);
+    }
+}
@@ -0,0 +1,93 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MySubscribe;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 子线程连续发布 BURST 个 MAIN 事件 ( 如位置 / 进度更新 ) , 直到最新的事件在主线程处理完成的耗时
+ *      conflate 订阅方法只处理最新的事件 , 主线程的工作量与突发的事件个数无关
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ConflationBenchmark {
+
+    private static final int BURST = 1000;
+
+    public static class LatestSubscriber {
+        /**
+         * 已经处理的最新事件序号
+         */
+        public volatile long latest = -1;
+
+        /**
+         * 模拟主线程中更新界面的工作量
+         */
+        void update(BenchmarkEvent event) {
+            Blackhole.consumeCPU(100);
+            latest = event.sequence;
+        }
+    }
+
+    public static class QueuedSubscriber extends LatestSubscriber {
+        @MySubscribe(threadMode = MyThreadMode.MAIN)
+        public void onEvent(BenchmarkEvent event) {
+            update(event);
+        }
+    }
+
+    public static class ConflatedSubscriber extends LatestSubscriber {
+        @MySubscribe(threadMode = MyThreadMode.MAIN, conflate = true)
+        public void onEvent(BenchmarkEvent event) {
+            update(event);
+        }
+    }
+
+    @Param({"false", "true"})
+    public boolean conflate;
+
+    private MyEventBus eventBus;
+    private LatestSubscriber subscriber;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .build();
+        subscriber = conflate ? new ConflatedSubscriber() : new QueuedSubscriber();
+        eventBus.register(subscriber);
+    }
+
+    @Benchmark
+    public long burst() {
+        for (int i = 0; i < BURST; i++) {
+            eventBus.post(new BenchmarkEvent(sequence++));
+        }
+        long last = sequence - 1;
+        while (subscriber.latest < last) {
+            Thread.yield();
+        }
+        return last;
+    }
+}
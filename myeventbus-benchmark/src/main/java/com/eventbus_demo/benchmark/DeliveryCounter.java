@@ -0,0 +1,48 @@
+package com.eventbus_demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 统计订阅方法收到的事件个数
+ *      发送线程和订阅线程不是同一个线程时 , 发送线程通过 awaitAtLeast 等待事件全部送达 ,
+ *      这样测量的是 发送 + 分发 + 执行 的完整耗时 , 而不仅仅是入队的耗时
+ */
+public class DeliveryCounter {
+
+    /**
+     * 等待超时时间 , 超时说明事件丢失 , 直接让基准测试失败
+     */
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    public void increment() {
+        delivered.incrementAndGet();
+    }
+
+    public long get() {
+        return delivered.get();
+    }
+
+    public void reset() {
+        delivered.set(0);
+    }
+
+    /**
+     * 自旋等待 , 直到收到的事件个数不少于 expected
+     * @param expected
+     */
+    public void awaitAtLeast(long expected) {
+        if (delivered.get() >= expected) {
+            return;
+        }
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (delivered.get() < expected) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("expected " + expected + " events, delivered " + delivered.get());
+            }
+            Thread.yield();
+        }
+    }
+}
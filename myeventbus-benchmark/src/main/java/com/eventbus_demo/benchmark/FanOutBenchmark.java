@@ -0,0 +1,112 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.publisher_subscriber.Dispatcher;
+
+import org.greenrobot.eventbus.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个事件分发给 1 ~ 1000 个订阅者的耗时 , 对比 Dispatcher / MyEventBus / greenrobot EventBus
+ *      订阅方法都在发送线程中执行 , 测量的是纯粹的分发开销
+ *      加上 -prof gc 可以得到每次发送的内存分配量 ( gc.alloc.rate.norm )
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class FanOutBenchmark {
+
+    private static final String EVENT = "Hello";
+
+    @Param({"dispatcher", "myeventbus", "myeventbus-weak", "greenrobot"})
+    public String bus;
+
+    @Param({"1", "10", "100", "1000"})
+    public int subscribers;
+
+    private MyEventBus myEventBus;
+    private EventBus greenrobotEventBus;
+    private Dispatcher dispatcher;
+    private final List<Object> registered = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (bus) {
+            case "dispatcher":
+                // Dispatcher 是全局单例 , 结束时需要逐个取消注册
+                dispatcher = Dispatcher.getInstance();
+                for (int i = 0; i < subscribers; i++) {
+                    FanOutSubscribers.DispatcherSubscriber subscriber = new FanOutSubscribers.DispatcherSubscriber();
+                    dispatcher.register(subscriber);
+                    registered.add(subscriber);
+                }
+                break;
+            case "myeventbus":
+            case "myeventbus-weak":
+                // 弱引用模式下订阅者由 registered 持有强引用
+                myEventBus = MyEventBus.builder()
+                        .addIndex(new MyBenchmarkIndex())
+                        .weakSubscribers("myeventbus-weak".equals(bus))
+                        .build();
+                for (int i = 0; i < subscribers; i++) {
+                    FanOutSubscribers.MySubscriber subscriber = new FanOutSubscribers.MySubscriber();
+                    myEventBus.register(subscriber);
+                    registered.add(subscriber);
+                }
+                break;
+            case "greenrobot":
+                greenrobotEventBus = EventBus.builder()
+                        .logNoSubscriberMessages(false)
+                        .sendNoSubscriberEvent(false)
+                        .build();
+                for (int i = 0; i < subscribers; i++) {
+                    FanOutSubscribers.GreenrobotSubscriber subscriber = new FanOutSubscribers.GreenrobotSubscriber();
+                    greenrobotEventBus.register(subscriber);
+                    registered.add(subscriber);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown bus " + bus);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dispatcher != null) {
+            for (Object subscriber : registered) {
+                dispatcher.unregister((FanOutSubscribers.DispatcherSubscriber) subscriber);
+            }
+        }
+        registered.clear();
+    }
+
+    @Benchmark
+    public void post() {
+        if (myEventBus != null) {
+            myEventBus.post(EVENT);
+        } else if (greenrobotEventBus != null) {
+            greenrobotEventBus.post(EVENT);
+        } else {
+            dispatcher.post(EVENT);
+        }
+    }
+}
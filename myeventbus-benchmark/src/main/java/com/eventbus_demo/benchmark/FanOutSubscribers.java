@@ -0,0 +1,45 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MySubscribe;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+import com.eventbus_demo.publisher_subscriber.Subscriber;
+
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+
+/**
+ * 三种事件总线各自的订阅者 , 订阅方法都在发送线程中执行 , 只做计数
+ *      Dispatcher 只能发送 String , 为了公平三者都发送 String 类型的事件
+ */
+public final class FanOutSubscribers {
+
+    private FanOutSubscribers() {
+    }
+
+    public static class MySubscriber {
+        public int received;
+
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(String event) {
+            received++;
+        }
+    }
+
+    public static class GreenrobotSubscriber {
+        public int received;
+
+        @Subscribe(threadMode = ThreadMode.POSTING)
+        public void onEvent(String event) {
+            received++;
+        }
+    }
+
+    public static class DispatcherSubscriber implements Subscriber {
+        public int received;
+
+        @Override
+        public void onEvent(String msg) {
+            received++;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订阅方法的调用开销 : 索引生成的直接调用 对比 Method.invoke 反射调用
+ *      注册方式不同 , 订阅方法对应的 MySubscriberInvoker 也不同 , 其余分发流程完全一样
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class InvokerBenchmark {
+
+    @Param({"index", "reflection"})
+    public String lookup;
+
+    private MyEventBus eventBus;
+    private BenchmarkEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = "index".equals(lookup)
+                ? MyEventBus.builder().addIndex(new MyBenchmarkIndex()).build()
+                : MyEventBus.builder().ignoreGeneratedIndex(true).build();
+        eventBus.register(ThreadModeSubscribers.create(MyThreadMode.POSTING, new DeliveryCounter()));
+        event = new BenchmarkEvent(0);
+    }
+
+    @Benchmark
+    public void post() {
+        eventBus.post(event);
+    }
+}
@@ -0,0 +1,127 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyEventBusBuilder;
+import com.eventbus_demo.myeventbus.MyEventSerializer;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件日志的开销 : 关闭 / 开启日志时的发布吞吐量
+ *      post : POSTING 订阅方法 , 每个事件写入一条事件记录和一条确认记录
+ *      postAsync : ASYNC 订阅方法 , 连续发布 BATCH 个事件 , 等待全部送达 , 确认在分发线程中写入
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JournalBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"false", "true"})
+    public boolean journal;
+
+    private File directory;
+    private MyEventBus eventBus;
+    private MyEventBus asyncEventBus;
+    private DeliveryCounter counter;
+    private BenchmarkEvent event;
+    private long expected;
+
+    /**
+     * 只写入序号
+     */
+    private static final MyEventSerializer SERIALIZER = new MyEventSerializer() {
+        @Override
+        public void write(Object event, DataOutput output) throws IOException {
+            output.writeLong(((BenchmarkEvent) event).sequence);
+        }
+
+        @Override
+        public Object read(Class<?> eventType, DataInput input) throws IOException {
+            return new BenchmarkEvent(input.readLong());
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark").toFile();
+        eventBus = newEventBus(new File(directory, "posting"));
+        eventBus.register(new RegisterSubscribers.S00());
+        asyncEventBus = newEventBus(new File(directory, "async"));
+        counter = new DeliveryCounter();
+        asyncEventBus.register(ThreadModeSubscribers.create(MyThreadMode.ASYNC, counter));
+        event = new BenchmarkEvent(0);
+    }
+
+    private MyEventBus newEventBus(File journalDirectory) {
+        MyEventBusBuilder builder = MyEventBus.builder().addIndex(new MyBenchmarkIndex());
+        if (journal) {
+            builder.journal(journalDirectory, SERIALIZER).journalEventType(BenchmarkEvent.class);
+        }
+        return builder.build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounter() {
+        counter.reset();
+        expected = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.closeJournal();
+        asyncEventBus.closeJournal();
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Benchmark
+    public void post() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long postAsync() {
+        for (int i = 0; i < BATCH; i++) {
+            asyncEventBus.post(event);
+        }
+        expected += BATCH;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+}
@@ -0,0 +1,105 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MySubscribe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * N 个订阅者各自只关心一个 id 的事件 , 发布一个指定 id 的事件的耗时
+ *      filter : 所有订阅者都接收事件 , 在订阅方法中比较 id 后丢弃
+ *      keyed : 以 id 为 Key 注册 , 通过 post(event, key) 只分发给该 id 的订阅者
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class KeyedPostBenchmark {
+
+    public static class FilteringSubscriber {
+        final long id;
+        final DeliveryCounter counter;
+
+        FilteringSubscriber(long id, DeliveryCounter counter) {
+            this.id = id;
+            this.counter = counter;
+        }
+
+        @MySubscribe
+        public void onEvent(BenchmarkEvent event) {
+            if (event.sequence != id) {
+                return;
+            }
+            counter.increment();
+        }
+    }
+
+    public static class KeyedSubscriber {
+        final DeliveryCounter counter;
+
+        KeyedSubscriber(DeliveryCounter counter) {
+            this.counter = counter;
+        }
+
+        @MySubscribe
+        public void onEvent(BenchmarkEvent event) {
+            counter.increment();
+        }
+    }
+
+    @Param({"filter", "keyed"})
+    public String mode;
+
+    @Param({"10", "100", "1000"})
+    public int subscribers;
+
+    private MyEventBus eventBus;
+    private final DeliveryCounter counter = new DeliveryCounter();
+    private BenchmarkEvent[] events;
+    private Long[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .build();
+        events = new BenchmarkEvent[subscribers];
+        keys = new Long[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            events[i] = new BenchmarkEvent(i);
+            keys[i] = (long) i;
+            if ("keyed".equals(mode)) {
+                eventBus.register(new KeyedSubscriber(counter), keys[i]);
+            } else {
+                eventBus.register(new FilteringSubscriber(i, counter));
+            }
+        }
+    }
+
+    @Benchmark
+    public void post() {
+        int index = next;
+        next = index + 1 == subscribers ? 0 : index + 1;
+        if ("keyed".equals(mode)) {
+            eventBus.post(events[index], keys[index]);
+        } else {
+            eventBus.post(events[index]);
+        }
+    }
+}
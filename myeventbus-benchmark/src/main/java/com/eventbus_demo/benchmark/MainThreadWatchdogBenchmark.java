@@ -0,0 +1,80 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyEventBusBuilder;
+import com.eventbus_demo.myeventbus.MySlowHandlerListener;
+import com.eventbus_demo.myeventbus.MySlowHandlerReport;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 主线程订阅方法看门狗的开销 : MAIN_ORDERED 订阅方法 , 关闭 / 开启看门狗时的分发吞吐量
+ *      订阅方法都不超时 , 测量的是每次主线程分发的固定开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MainThreadWatchdogBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"false", "true"})
+    public boolean watchdog;
+
+    private MyEventBus eventBus;
+    private DeliveryCounter counter;
+    private BenchmarkEvent event;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MyEventBusBuilder builder = MyEventBus.builder().addIndex(new MyBenchmarkIndex());
+        if (watchdog) {
+            builder.mainThreadWatchdog(16, new MySlowHandlerListener() {
+                @Override
+                public void onSlowHandler(MySlowHandlerReport report) {
+                    System.err.println(report);
+                }
+            });
+        }
+        eventBus = builder.build();
+        counter = new DeliveryCounter();
+        event = new BenchmarkEvent(0);
+        eventBus.register(ThreadModeSubscribers.create(MyThreadMode.MAIN_ORDERED, counter));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounter() {
+        counter.reset();
+        expected = 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long mainOrdered() {
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.post(event);
+        }
+        expected += BATCH;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+}
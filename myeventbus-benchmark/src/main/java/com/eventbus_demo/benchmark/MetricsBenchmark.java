@@ -0,0 +1,57 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计的开销 : 同一个 POSTING 订阅方法 , 关闭 / 开启统计时的发布吞吐量
+ *      metrics = false 的结果应与 ConcurrentPostBenchmark.post1Thread 相同 , 用 jmhCheck 与基线比较
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MetricsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private MyEventBus eventBus;
+    private BenchmarkEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .metricsEnabled(metrics)
+                .build();
+        eventBus.register(new RegisterSubscribers.S00());
+        event = new BenchmarkEvent(0);
+    }
+
+    @Benchmark
+    public void post() {
+        eventBus.post(event);
+    }
+
+    @Benchmark
+    public void postNoSubscriber() {
+        eventBus.post(this);
+    }
+}
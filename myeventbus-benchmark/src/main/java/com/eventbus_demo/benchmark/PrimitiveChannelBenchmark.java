@@ -0,0 +1,122 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyLongChannel;
+import com.eventbus_demo.myeventbus.MyLongListener;
+import com.eventbus_demo.myeventbus.MyOverflowPolicy;
+import com.eventbus_demo.myeventbus.MySubscribe;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发布一个 long 值 ( 例如帧耗时 ) 的耗时和内存分配 , 需要加上 -prof gc 查看 gc.alloc.rate.norm
+ *      boxed : post(Long) , 每次发布装箱 , 按照 getClass() 查找订阅者
+ *      channel : MyLongChannel#publish(long) , 不装箱 , 不分配对象
+ *      posting : 在发布线程中回调
+ *      async : 子线程中回调 , boxed 使用订阅方法自己的有界队列 , channel 使用环形缓冲区 , 都是 1024 + BLOCK
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PrimitiveChannelBenchmark {
+
+    private static final int CAPACITY = 1024;
+
+    public static class PostingSubscriber implements MyLongListener {
+        long sum;
+
+        @MySubscribe
+        public void onEvent(Long value) {
+            sum += value;
+        }
+
+        @Override
+        public void onValue(long value) {
+            sum += value;
+        }
+    }
+
+    public static class AsyncSubscriber implements MyLongListener {
+        volatile long sum;
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, queueCapacity = CAPACITY, overflow = MyOverflowPolicy.BLOCK)
+        public void onEvent(Long value) {
+            sum += value;
+        }
+
+        @Override
+        public void onValue(long value) {
+            sum += value;
+        }
+    }
+
+    @Param({"boxed", "channel"})
+    public String api;
+
+    @Param({"posting", "async"})
+    public String delivery;
+
+    private ThreadPoolExecutor executor;
+    private MyEventBus eventBus;
+    private MyLongChannel channel;
+    private boolean boxed;
+    /**
+     * 超过 Long 的装箱缓存范围 , boxed 每次发布都分配对象
+     */
+    private long value = 1_000_000L;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 有界数组队列 , 提交回调任务时不分配节点
+        executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(16));
+        eventBus = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .asyncExecutor(executor)
+                .build();
+        channel = eventBus.getLongChannel("frame-time");
+        boxed = "boxed".equals(api);
+        Object subscriber = "async".equals(delivery) ? new AsyncSubscriber() : new PostingSubscriber();
+        if (boxed) {
+            eventBus.register(subscriber);
+        } else if (subscriber instanceof AsyncSubscriber) {
+            channel.subscribe((MyLongListener) subscriber, CAPACITY, MyOverflowPolicy.BLOCK);
+        } else {
+            channel.subscribe((MyLongListener) subscriber);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void publish() {
+        long next = value++;
+        if (boxed) {
+            eventBus.post(next);
+        } else {
+            channel.publish(next);
+        }
+    }
+}
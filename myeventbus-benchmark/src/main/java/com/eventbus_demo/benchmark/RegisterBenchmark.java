@@ -0,0 +1,97 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+
+import org.greenrobot.eventbus.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注册并取消注册 N 个不同订阅类的耗时
+ *      lookup : index 使用注解处理器生成的索引 , reflection 使用反射查找订阅方法 ( greenrobot 只测反射 )
+ *      cache : warm 复用订阅方法缓存 , cold 每次先清空静态缓存 , 模拟应用启动时第一次注册
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RegisterBenchmark {
+
+    @Param({"myeventbus-index", "myeventbus-reflection", "greenrobot-reflection"})
+    public String bus;
+
+    @Param({"1", "8", "32"})
+    public int subscriberClasses;
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    private MyEventBus myEventBus;
+    private EventBus greenrobotEventBus;
+    private Object[] subscribers;
+    private boolean cold;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (bus) {
+            case "myeventbus-index":
+                myEventBus = MyEventBus.builder()
+                        .addIndex(new MyBenchmarkIndex())
+                        .build();
+                break;
+            case "myeventbus-reflection":
+                myEventBus = MyEventBus.builder()
+                        .ignoreGeneratedIndex(true)
+                        .build();
+                break;
+            case "greenrobot-reflection":
+                greenrobotEventBus = EventBus.builder()
+                        .ignoreGeneratedIndex(true)
+                        .build();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown bus " + bus);
+        }
+        subscribers = RegisterSubscribers.create(subscriberClasses);
+        cold = "cold".equals(cache);
+    }
+
+    @Benchmark
+    public void registerUnregister() {
+        if (myEventBus != null) {
+            if (cold) {
+                MyEventBus.clearCaches();
+            }
+            for (Object subscriber : subscribers) {
+                myEventBus.register(subscriber);
+            }
+            for (Object subscriber : subscribers) {
+                myEventBus.unregister(subscriber);
+            }
+        } else {
+            if (cold) {
+                EventBus.clearCaches();
+            }
+            for (Object subscriber : subscribers) {
+                greenrobotEventBus.register(subscriber);
+            }
+            for (Object subscriber : subscribers) {
+                greenrobotEventBus.unregister(subscriber);
+            }
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MySubscribe;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.greenrobot.eventbus.Subscribe;
+
+/**
+ * 注册 / 取消注册 基准测试使用的订阅类
+ *      每个类都是不同的类型 , 冷启动时每个类都要重新查找一遍订阅方法
+ *      同一个方法同时标注 MySubscribe 和 greenrobot 的 Subscribe , 两种事件总线各自只识别自己的注解
+ */
+public final class RegisterSubscribers {
+
+    private RegisterSubscribers() {
+    }
+
+    static final Class<?>[] CLASSES = {
+            S00.class,
+            S01.class,
+            S02.class,
+            S03.class,
+            S04.class,
+            S05.class,
+            S06.class,
+            S07.class,
+            S08.class,
+            S09.class,
+            S10.class,
+            S11.class,
+            S12.class,
+            S13.class,
+            S14.class,
+            S15.class,
+            S16.class,
+            S17.class,
+            S18.class,
+            S19.class,
+            S20.class,
+            S21.class,
+            S22.class,
+            S23.class,
+            S24.class,
+            S25.class,
+            S26.class,
+            S27.class,
+            S28.class,
+            S29.class,
+            S30.class,
+            S31.class,
+    };
+
+    /**
+     * 创建前 count 个订阅类的实例
+     * @param count
+     * @return
+     */
+    static Object[] create(int count) {
+        if (count > CLASSES.length) {
+            throw new IllegalArgumentException("at most " + CLASSES.length + " subscriber classes");
+        }
+        Object[] subscribers = new Object[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                subscribers[i] = CLASSES[i].getDeclaredConstructor().newInstance();
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return subscribers;
+    }
+
+    public static class S00 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S01 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S02 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S03 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S04 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S05 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S06 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S07 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S08 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S09 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S10 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S11 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S12 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S13 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S14 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S15 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S16 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S17 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S18 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S19 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S20 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S21 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S22 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S23 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S24 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S25 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S26 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S27 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S28 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S29 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S30 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+
+    public static class S31 {
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+        }
+
+        @Subscribe
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onMessage(String message) {
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyOverflowPolicy;
+import com.eventbus_demo.myeventbus.MySubscribe;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个处理很慢的 ASYNC 订阅者与一个处理很快的 ASYNC 订阅者订阅同一个事件 ,
+ * 发布 BURST 个事件 , 直到快的订阅者处理完所有事件的耗时
+ *      shared : 两个订阅者共用 ASYNC 线程池的队列 , 快的订阅者排在慢的订阅者的任务之后
+ *      bounded : 慢的订阅者使用自己的有界队列 ( DROP_OLDEST ) , 最多占用一个线程
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SlowSubscriberBenchmark {
+
+    private static final int BURST = 100;
+    private static final int THREADS = 4;
+
+    public static class FastSubscriber {
+        final DeliveryCounter counter = new DeliveryCounter();
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(BenchmarkEvent event) {
+            Blackhole.consumeCPU(10);
+            counter.increment();
+        }
+    }
+
+    public static class SlowSubscriber {
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(BenchmarkEvent event) {
+            Blackhole.consumeCPU(10_000);
+        }
+    }
+
+    public static class BoundedSlowSubscriber {
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, queueCapacity = 16, overflow = MyOverflowPolicy.DROP_OLDEST)
+        public void onEvent(BenchmarkEvent event) {
+            Blackhole.consumeCPU(10_000);
+        }
+    }
+
+    @Param({"shared", "bounded"})
+    public String slowQueue;
+
+    private ThreadPoolExecutor executor;
+    private MyEventBus eventBus;
+    private FastSubscriber fastSubscriber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(THREADS);
+        eventBus = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .asyncExecutor(executor)
+                .build();
+        fastSubscriber = new FastSubscriber();
+        eventBus.register("bounded".equals(slowQueue) ? new BoundedSlowSubscriber() : new SlowSubscriber());
+        eventBus.register(fastSubscriber);
+    }
+
+    @Benchmark
+    public long burst() {
+        long target = fastSubscriber.counter.get() + BURST;
+        for (int i = 0; i < BURST; i++) {
+            eventBus.post(new BenchmarkEvent(i));
+        }
+        fastSubscriber.counter.awaitAtLeast(target);
+        return target;
+    }
+
+    /**
+     * 等待慢的订阅者处理完剩余的事件 , 不计入下一次调用的耗时
+     */
+    @TearDown(Level.Invocation)
+    public void drain() {
+        while (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+            Thread.yield();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+}
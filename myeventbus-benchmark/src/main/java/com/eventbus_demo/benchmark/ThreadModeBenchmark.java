@@ -0,0 +1,83 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各线程模式的 发送吞吐量 和 单个事件的送达延迟
+ *      throughput : 连续发送 BATCH 个事件 , 等待全部送达 , 结果为每毫秒送达的事件个数
+ *      latency : 发送一个事件 , 等待送达 , 结果为延迟分布 ( p50 / p99 / p99.99 )
+ *      JVM 上没有 Android 主线程 , MAIN / MAIN_ORDERED 由 MyExecutorMainThreadSupport 的单线程模拟 ,
+ *      基准测试线程不是主线程 , 因此 MAIN 和 MAIN_ORDERED 都会切换线程
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ThreadModeBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"POSTING", "MAIN", "MAIN_ORDERED", "BACKGROUND", "ASYNC"})
+    public MyThreadMode threadMode;
+
+    private MyEventBus eventBus;
+    private DeliveryCounter counter;
+    private BenchmarkEvent event;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = MyEventBus.builder()
+                .addIndex(new MyBenchmarkIndex())
+                .build();
+        counter = new DeliveryCounter();
+        event = new BenchmarkEvent(0);
+        eventBus.register(ThreadModeSubscribers.create(threadMode, counter));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounter() {
+        counter.reset();
+        expected = 0;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @OperationsPerInvocation(BATCH)
+    public long throughput() {
+        for (int i = 0; i < BATCH; i++) {
+            eventBus.post(event);
+        }
+        expected += BATCH;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long latency() {
+        eventBus.post(event);
+        expected++;
+        counter.awaitAtLeast(expected);
+        return expected;
+    }
+}
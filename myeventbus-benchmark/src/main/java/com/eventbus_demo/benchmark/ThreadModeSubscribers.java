@@ -0,0 +1,99 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MySubscribe;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+/**
+ * 每种线程模式各一个订阅类 , 订阅方法只做计数
+ */
+public final class ThreadModeSubscribers {
+
+    private ThreadModeSubscribers() {
+    }
+
+    public static abstract class Base {
+        public final DeliveryCounter counter;
+
+        Base(DeliveryCounter counter) {
+            this.counter = counter;
+        }
+    }
+
+    public static class Posting extends Base {
+        public Posting(DeliveryCounter counter) {
+            super(counter);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.POSTING)
+        public void onEvent(BenchmarkEvent event) {
+            counter.increment();
+        }
+    }
+
+    public static class Main extends Base {
+        public Main(DeliveryCounter counter) {
+            super(counter);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.MAIN)
+        public void onEvent(BenchmarkEvent event) {
+            counter.increment();
+        }
+    }
+
+    public static class MainOrdered extends Base {
+        public MainOrdered(DeliveryCounter counter) {
+            super(counter);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.MAIN_ORDERED)
+        public void onEvent(BenchmarkEvent event) {
+            counter.increment();
+        }
+    }
+
+    public static class Background extends Base {
+        public Background(DeliveryCounter counter) {
+            super(counter);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.BACKGROUND)
+        public void onEvent(BenchmarkEvent event) {
+            counter.increment();
+        }
+    }
+
+    public static class Async extends Base {
+        public Async(DeliveryCounter counter) {
+            super(counter);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(BenchmarkEvent event) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * 根据线程模式创建对应的订阅者
+     * @param threadMode
+     * @param counter
+     * @return
+     */
+    public static Object create(MyThreadMode threadMode, DeliveryCounter counter) {
+        switch (threadMode) {
+            case POSTING:
+                return new Posting(counter);
+            case MAIN:
+                return new Main(counter);
+            case MAIN_ORDERED:
+                return new MainOrdered(counter);
+            case BACKGROUND:
+                return new Background(counter);
+            case ASYNC:
+                return new Async(counter);
+            default:
+                throw new IllegalArgumentException("unknown thread mode " + threadMode);
+        }
+    }
+}
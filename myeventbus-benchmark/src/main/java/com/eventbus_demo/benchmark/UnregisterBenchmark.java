@@ -0,0 +1,82 @@
+package com.eventbus_demo.benchmark;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+
+import org.greenrobot.eventbus.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同一个事件类型有大量订阅者时 , 依次取消注册所有订阅者的耗时 ( 例如关闭一个页面 )
+ *      每次测量前重新注册所有订阅者 , 只测量取消注册的部分
+ *      按照注册顺序取消注册 , 每次移除的都是数组头部的订阅者
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = 1)
+@Measurement(iterations = 50, batchSize = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class UnregisterBenchmark {
+
+    @Param({"myeventbus", "greenrobot"})
+    public String bus;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int subscribers;
+
+    private MyEventBus myEventBus;
+    private EventBus greenrobotEventBus;
+    private Object[] registered;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("myeventbus".equals(bus)) {
+            myEventBus = MyEventBus.builder()
+                    .addIndex(new MyBenchmarkIndex())
+                    .build();
+        } else {
+            greenrobotEventBus = EventBus.builder().build();
+        }
+        registered = new Object[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            registered[i] = new RegisterSubscribers.S00();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void registerAll() {
+        for (Object subscriber : registered) {
+            if (myEventBus != null) {
+                myEventBus.register(subscriber);
+            } else {
+                greenrobotEventBus.register(subscriber);
+            }
+        }
+    }
+
+    @Benchmark
+    public void unregisterAll() {
+        if (myEventBus != null) {
+            for (Object subscriber : registered) {
+                myEventBus.unregister(subscriber);
+            }
+        } else {
+            for (Object subscriber : registered) {
+                greenrobotEventBus.unregister(subscriber);
+            }
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.eventbus_demo.myeventbus.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * 编译期扫描 @MySubscribe 注解 , 生成 MySubscriberInfoIndex 实现类
+ *      生成的类名通过注解处理器参数 myEventBusIndex 指定 , 如 :
+ *      annotationProcessorOptions { arguments = [ myEventBusIndex : 'com.eventbus_demo.MyEventBusIndex' ] }
+ *
+ * 运行时 MyEventBus 直接从索引中读取订阅方法 , 不再反射遍历订阅类的所有方法
+ * 每个订阅方法同时生成一个直接调用的 MySubscriberInvoker , 分发事件时不再使用 Method.invoke
+ */
+@SupportedAnnotationTypes(MyEventBusAnnotationProcessor.SUBSCRIBE_ANNOTATION)
+@SupportedOptions(MyEventBusAnnotationProcessor.OPTION_INDEX)
+public class MyEventBusAnnotationProcessor extends AbstractProcessor {
+
+    /**
+     * 注解全类名 , 处理器不依赖 MyEventBus 模块 , 使用字符串匹配
+     */
+    static final String SUBSCRIBE_ANNOTATION = "com.eventbus_demo.myeventbus.MySubscribe";
+
+    /**
+     * 生成的索引类全类名参数
+     */
+    static final String OPTION_INDEX = "myEventBusIndex";
+
+    /**
+     * MyEventBus 所在的包
+     */
+    private static final String BUS_PACKAGE = "com.eventbus_demo.myeventbus";
+
+    /**
+     * Key - 订阅类
+     * Value - 订阅类中声明的订阅方法
+     */
+    private final Map<TypeElement, List<ExecutableElement>> methodsByClass = new LinkedHashMap<>();
+
+    /**
+     * 索引只生成一次
+     */
+    private boolean writerRoundDone;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Messager messager = processingEnv.getMessager();
+        String index = processingEnv.getOptions().get(OPTION_INDEX);
+        if (index == null) {
+            if (!annotations.isEmpty()) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "No option " + OPTION_INDEX
+                        + " passed to annotation processor, subscriber index will not be generated");
+            }
+            return false;
+        }
+        if (annotations.isEmpty()) {
+            return false;
+        }
+        if (writerRoundDone) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Unexpected processing state: annotations still available after writing.");
+            return false;
+        }
+
+        // 收集所有订阅方法
+        collectSubscribers(annotations, roundEnv, messager);
+
+        if (!methodsByClass.isEmpty()) {
+            writeIndex(index);
+        } else {
+            messager.printMessage(Diagnostic.Kind.WARNING, "No @MySubscribe annotations found");
+        }
+        writerRoundDone = true;
+        return true;
+    }
+
+    /**
+     * 收集 @MySubscribe 修饰的方法 , 按订阅类分组
+     * @param annotations
+     * @param roundEnv
+     * @param messager
+     */
+    private void collectSubscribers(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv,
+                                    Messager messager) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) element;
+                if (checkHasNoErrors(method, messager)) {
+                    TypeElement classElement = (TypeElement) method.getEnclosingElement();
+                    List<ExecutableElement> methods = methodsByClass.get(classElement);
+                    if (methods == null) {
+                        methods = new ArrayList<>();
+                        methodsByClass.put(classElement, methods);
+                    }
+                    methods.add(method);
+                }
+            }
+        }
+    }
+
+    /**
+     * 与 MyEventBus 反射查找的规则保持一致 : public , 非 static , 非 abstract , 只有 1 个参数
+     *      final / synchronized 等其它修饰符两边都允许
+     * @param method
+     * @param messager
+     * @return
+     */
+    private boolean checkHasNoErrors(ExecutableElement method, Messager messager) {
+        if (method.getModifiers().contains(Modifier.STATIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Subscriber method must not be static", method);
+            return false;
+        }
+        if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Subscriber method must not be abstract", method);
+            return false;
+        }
+        if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Subscriber method must be public", method);
+            return false;
+        }
+        if (method.getParameters().size() != 1) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Subscriber method must have exactly 1 parameter", method);
+            return false;
+        }
+        if (readBooleanValue(method, "batch", false) && findBatchEventType(method) == null) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Batch subscriber method must take a single List<EventType> parameter", method);
+            return false;
+        }
+        int queueCapacity = readIntValue(method, "queueCapacity", 0);
+        if (queueCapacity < 0) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "queueCapacity must not be negative", method);
+            return false;
+        }
+        if (queueCapacity > 0 && !"ASYNC".equals(readEnumValue(method, "threadMode", "POSTING"))) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "queueCapacity can only be used with ASYNC", method);
+            return false;
+        }
+        if (queueCapacity > 0 && readBooleanValue(method, "conflate", false)) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "queueCapacity and conflate can not be both set", method);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 批量订阅方法的参数是 java.util.List<事件类型> , 获取其中的事件类型
+     * @param method 批量订阅方法
+     * @return 事件类型 , 参数不是 List<具体类型> 时返回 null
+     */
+    private TypeMirror findBatchEventType(ExecutableElement method) {
+        TypeMirror parameterType = method.getParameters().get(0).asType();
+        if (parameterType.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        DeclaredType declaredType = (DeclaredType) parameterType;
+        if (!((TypeElement) declaredType.asElement()).getQualifiedName().contentEquals("java.util.List")
+                || declaredType.getTypeArguments().size() != 1) {
+            return null;
+        }
+        TypeMirror eventType = declaredType.getTypeArguments().get(0);
+        return eventType.getKind() == TypeKind.DECLARED ? eventType : null;
+    }
+
+    /**
+     * 生成索引类
+     * @param index 索引类全类名
+     */
+    private void writeIndex(String index) {
+        int period = index.lastIndexOf('.');
+        String myPackage = period > 0 ? index.substring(0, period) : null;
+        String className = index.substring(period + 1);
+
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(index);
+            try (Writer writer = sourceFile.openWriter()) {
+                if (myPackage != null) {
+                    writer.write("package " + myPackage + ";\n\n");
+                }
+                writer.write("import " + BUS_PACKAGE + ".MyOverflowPolicy;\n");
+                writer.write("import " + BUS_PACKAGE + ".MySimpleSubscriberInfo;\n");
+                writer.write("import " + BUS_PACKAGE + ".MySubscriberInfo;\n");
+                writer.write("import " + BUS_PACKAGE + ".MySubscriberInfoIndex;\n");
+                writer.write("import " + BUS_PACKAGE + ".MySubscriberInvoker;\n");
+                writer.write("import " + BUS_PACKAGE + ".MySubscriberMethodInfo;\n");
+                writer.write("import " + BUS_PACKAGE + ".MyThreadMode;\n\n");
+                writer.write("import java.util.HashMap;\n");
+                writer.write("import java.util.Map;\n\n");
+                writer.write("/** This class is generated by MyEventBus, do not edit. */\n");
+                // 批量订阅方法的调用器中 , 将 Object 转换为 List<事件类型>
+                writer.write("@SuppressWarnings(\"unchecked\")\n");
+                writer.write("public class " + className + " implements MySubscriberInfoIndex {\n");
+                writer.write("    private static final Map<Class<?>, MySubscriberInfo> SUBSCRIBER_INDEX;\n\n");
+                writer.write("    static {\n");
+                writer.write("        SUBSCRIBER_INDEX = new HashMap<Class<?>, MySubscriberInfo>();\n\n");
+                writeIndexLines(writer, myPackage);
+                writer.write("    }\n\n");
+                writer.write("    private static void putIndex(MySubscriberInfo info) {\n");
+                writer.write("        SUBSCRIBER_INDEX.put(info.getSubscriberClass(), info);\n");
+                writer.write("    }\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public MySubscriberInfo getSubscriberInfo(Class<?> subscriberClass) {\n");
+                writer.write("        return SUBSCRIBER_INDEX.get(subscriberClass);\n");
+                writer.write("    }\n");
+                writer.write("}\n");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write source for " + index, e);
+        }
+    }
+
+    /**
+     * 每个订阅类生成一条 putIndex 语句
+     * @param writer
+     * @param myPackage 索引类所在的包
+     * @throws IOException
+     */
+    private void writeIndexLines(Writer writer, String myPackage) throws IOException {
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : methodsByClass.entrySet()) {
+            TypeElement subscriberTypeElement = entry.getKey();
+            // 索引类访问不到的订阅类不生成索引 , 运行时回退到反射
+            if (!isVisible(myPackage, subscriberTypeElement)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Falling back to reflection because class is not public", subscriberTypeElement);
+                continue;
+            }
+            List<String> methodLines = new ArrayList<>();
+            boolean visible = true;
+            for (ExecutableElement method : entry.getValue()) {
+                // 批量订阅方法的事件类型是 List 的元素类型
+                TypeMirror paramType = processingEnv.getTypeUtils().erasure(
+                        readBooleanValue(method, "batch", false)
+                                ? findBatchEventType(method) : method.getParameters().get(0).asType());
+                if (!isVisible(myPackage, paramType)) {
+                    visible = false;
+                    break;
+                }
+                methodLines.add(createMethodInfoLine(subscriberTypeElement, method, paramType));
+            }
+            if (!visible) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Falling back to reflection because event type is not public", subscriberTypeElement);
+                continue;
+            }
+
+            writer.write("        putIndex(new MySimpleSubscriberInfo("
+                    + subscriberTypeElement.getQualifiedName() + ".class, new MySubscriberMethodInfo[] {\n");
+            for (String line : methodLines) {
+                writer.write("            " + line + ",\n");
+            }
+            writer.write("        }));\n\n");
+        }
+    }
+
+    /**
+     * 生成 new MySubscriberMethodInfo(...) 表达式 , 总是写出 @MySubscribe 的全部属性 , 对应唯一的构造方法
+     * @param subscriberTypeElement 订阅类
+     * @param method 订阅方法
+     * @param paramType 擦除泛型后的事件类型
+     * @return
+     */
+    private String createMethodInfoLine(TypeElement subscriberTypeElement, ExecutableElement method,
+                                        TypeMirror paramType) {
+        String threadMode = readEnumValue(method, "threadMode", "POSTING");
+        int priority = readIntValue(method, "priority", 0);
+        boolean sticky = readBooleanValue(method, "sticky", false);
+        boolean batch = readBooleanValue(method, "batch", false);
+        boolean conflate = readBooleanValue(method, "conflate", false);
+        int queueCapacity = readIntValue(method, "queueCapacity", 0);
+        String overflow = readEnumValue(method, "overflow", "BLOCK");
+        return "new MySubscriberMethodInfo(\"" + method.getSimpleName() + "\", "
+                + paramType + ".class, MyThreadMode." + threadMode + ", " + priority + ", " + sticky
+                + ", " + batch + ", " + conflate + ", " + queueCapacity + ", MyOverflowPolicy." + overflow + ",\n"
+                + "                    " + createInvoker(subscriberTypeElement, method, paramType, batch) + ")";
+    }
+
+    /**
+     * 生成直接调用订阅方法的 MySubscriberInvoker 表达式
+     *      (MySubscriberInvoker) (subscriber, event) -> ((Subscriber) subscriber).onEvent((Event) event)
+     * @param subscriberTypeElement 订阅类
+     * @param method 订阅方法
+     * @param paramType 擦除泛型后的事件类型
+     * @param batch 是否是批量订阅方法 , 参数是 java.util.List<paramType>
+     * @return
+     */
+    private String createInvoker(TypeElement subscriberTypeElement, ExecutableElement method,
+                                 TypeMirror paramType, boolean batch) {
+        TypeMirror subscriberType = processingEnv.getTypeUtils().erasure(subscriberTypeElement.asType());
+        String argumentType = batch ? "java.util.List<" + paramType + ">" : paramType.toString();
+        return "(MySubscriberInvoker) (subscriber, event) -> ((" + subscriberType + ") subscriber)."
+                + method.getSimpleName() + "((" + argumentType + ") event)";
+    }
+
+    /**
+     * 读取 @MySubscribe 注解中枚举类型的属性值
+     * @param method 订阅方法
+     * @param name 属性名
+     * @param defaultValue 没有设置时的默认值
+     * @return 枚举常量名
+     */
+    private String readEnumValue(ExecutableElement method, String name, String defaultValue) {
+        AnnotationValue value = readValue(method, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return ((VariableElement) value.getValue()).getSimpleName().toString();
+    }
+
+    /**
+     * 读取 @MySubscribe 注解中 int 类型的属性值
+     * @param method 订阅方法
+     * @param name 属性名
+     * @param defaultValue 没有设置时的默认值
+     * @return
+     */
+    private int readIntValue(ExecutableElement method, String name, int defaultValue) {
+        AnnotationValue value = readValue(method, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return (Integer) value.getValue();
+    }
+
+    /**
+     * 读取 @MySubscribe 注解中 boolean 类型的属性值
+     * @param method 订阅方法
+     * @param name 属性名
+     * @param defaultValue 没有设置时的默认值
+     * @return
+     */
+    private boolean readBooleanValue(ExecutableElement method, String name, boolean defaultValue) {
+        AnnotationValue value = readValue(method, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return (Boolean) value.getValue();
+    }
+
+    /**
+     * 读取 @MySubscribe 注解中显式设置的属性值
+     * @param method 订阅方法
+     * @param name 属性名
+     * @return 没有显式设置返回 null
+     */
+    private AnnotationValue readValue(ExecutableElement method, String name) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(SUBSCRIBE_ANNOTATION)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(name)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 判断类型在索引类中是否可以访问
+     * @param myPackage 索引类所在的包
+     * @param typeMirror
+     * @return
+     */
+    private boolean isVisible(String myPackage, TypeMirror typeMirror) {
+        if (typeMirror.getKind().isPrimitive()) {
+            return true;
+        }
+        if (typeMirror.getKind() == TypeKind.ARRAY) {
+            return true;
+        }
+        if (typeMirror instanceof DeclaredType) {
+            return isVisible(myPackage, (TypeElement) ((DeclaredType) typeMirror).asElement());
+        }
+        return false;
+    }
+
+    /**
+     * 判断类在索引类中是否可以访问 , 内部类需要外部类也可以访问
+     * @param myPackage 索引类所在的包
+     * @param typeElement
+     * @return
+     */
+    private boolean isVisible(String myPackage, TypeElement typeElement) {
+        if (typeElement.getNestingKind() == NestingKind.ANONYMOUS
+                || typeElement.getNestingKind() == NestingKind.LOCAL) {
+            return false;
+        }
+        Set<Modifier> modifiers = typeElement.getModifiers();
+        boolean visible;
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            visible = true;
+        } else if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.PROTECTED)) {
+            visible = false;
+        } else {
+            // 包访问权限 , 需要与索引类在同一个包中
+            visible = getPackage(typeElement).getQualifiedName().contentEquals(
+                    myPackage == null ? "" : myPackage);
+        }
+        if (visible && typeElement.getNestingKind() == NestingKind.MEMBER) {
+            return isVisible(myPackage, (TypeElement) typeElement.getEnclosingElement());
+        }
+        return visible;
+    }
+
+    /**
+     * 获取类所在的包
+     * @param typeElement
+     * @return
+     */
+    private PackageElement getPackage(TypeElement typeElement) {
+        Element element = typeElement;
+        while (!(element instanceof PackageElement)) {
+            element = element.getEnclosingElement();
+        }
+        return (PackageElement) element;
+    }
+}
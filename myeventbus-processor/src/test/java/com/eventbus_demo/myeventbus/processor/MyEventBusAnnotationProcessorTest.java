@@ -0,0 +1,216 @@
+package com.eventbus_demo.myeventbus.processor;
+
+import com.eventbus_demo.myeventbus.MyEventBus;
+import com.eventbus_demo.myeventbus.MySubscriberInfo;
+import com.eventbus_demo.myeventbus.MySubscriberInfoIndex;
+import com.eventbus_demo.myeventbus.MySubscriberMethod;
+import com.eventbus_demo.myeventbus.MyThreadMode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 使用注解处理器编译订阅类 , 加载生成的索引 : 索引内容 , 通过索引注册后的分发 , 子类重写的订阅方法只分发一次 ,
+ *      修饰符的规则与反射查找一致
+ */
+public class MyEventBusAnnotationProcessorTest {
+
+    private static final String INDEX = "index.GeneratedIndex";
+
+    private static final String PARENT = "package test;\n"
+            + "import com.eventbus_demo.myeventbus.*;\n"
+            + "import java.util.*;\n"
+            + "public class Parent {\n"
+            + "    public final List<String> received = new ArrayList<>();\n"
+            + "    @MySubscribe(threadMode = MyThreadMode.POSTING, priority = 3)\n"
+            + "    public void onEvent(String event) { received.add(\"parent:\" + event); }\n"
+            + "}\n";
+
+    private static final String CHILD = "package test;\n"
+            + "import com.eventbus_demo.myeventbus.*;\n"
+            + "public class Child extends Parent {\n"
+            + "    @Override @MySubscribe\n"
+            + "    public void onEvent(String event) { received.add(\"child:\" + event); }\n"
+            + "    @MySubscribe(sticky = true)\n"
+            + "    public void onNumber(Integer event) { received.add(\"number:\" + event); }\n"
+            + "}\n";
+
+    private static final String HIDDEN = "package test;\n"
+            + "import com.eventbus_demo.myeventbus.*;\n"
+            + "class Hidden {\n"
+            + "    @MySubscribe\n"
+            + "    public void onEvent(Long event) { }\n"
+            + "}\n";
+
+    private static final String MODIFIED = "package test;\n"
+            + "import com.eventbus_demo.myeventbus.*;\n"
+            + "import java.util.*;\n"
+            + "public class Modified {\n"
+            + "    public final List<Object> received = new ArrayList<>();\n"
+            + "    @MySubscribe\n"
+            + "    public final void onString(String event) { received.add(event); }\n"
+            + "    @MySubscribe\n"
+            + "    public synchronized void onNumber(Integer event) { received.add(event); }\n"
+            + "}\n";
+
+    private static final String ABSTRACT = "package test;\n"
+            + "import com.eventbus_demo.myeventbus.*;\n"
+            + "public abstract class Abstract {\n"
+            + "    @MySubscribe\n"
+            + "    public abstract void onEvent(String event);\n"
+            + "}\n";
+
+    private File outputDirectory;
+    private URLClassLoader classLoader;
+
+    @Before
+    public void setUp() throws IOException {
+        outputDirectory = Files.createTempDirectory("myeventbus-processor").toFile();
+        compile(source("test.Parent", PARENT), source("test.Child", CHILD), source("test.Hidden", HIDDEN),
+                source("test.Modified", MODIFIED));
+        classLoader = new URLClassLoader(new URL[] {outputDirectory.toURI().toURL()},
+                getClass().getClassLoader());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        classLoader.close();
+        delete(outputDirectory);
+    }
+
+    @Test
+    public void generatedIndexContainsDeclaredMethods() throws Exception {
+        MySubscriberInfoIndex index = newIndex();
+
+        MySubscriberInfo parentInfo = index.getSubscriberInfo(classLoader.loadClass("test.Parent"));
+        assertNotNull(parentInfo);
+        MySubscriberMethod[] parentMethods = parentInfo.getSubscriberMethods();
+        assertEquals(1, parentMethods.length);
+        assertEquals("onEvent", parentMethods[0].getMethodName());
+        assertEquals(String.class, parentMethods[0].getEventType());
+        assertEquals(MyThreadMode.POSTING, parentMethods[0].getThreadMode());
+        assertEquals(3, parentMethods[0].getPriority());
+        assertNotNull(parentMethods[0].getInvoker());
+
+        // 每个类只记录自身声明的方法
+        MySubscriberMethod[] childMethods =
+                index.getSubscriberInfo(classLoader.loadClass("test.Child")).getSubscriberMethods();
+        assertEquals(2, childMethods.length);
+        assertTrue(childMethods[1].isSticky());
+
+        // 索引类在其它包中 , 访问不到包访问权限的类 , 运行时回退到反射
+        assertNull(index.getSubscriberInfo(classLoader.loadClass("test.Hidden")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void overriddenMethodIsDeliveredOnce() throws Exception {
+        MyEventBus eventBus = MyEventBus.builder().addIndex(newIndex()).requireGeneratedIndex(true).build();
+        Object child = classLoader.loadClass("test.Child").getConstructor().newInstance();
+        eventBus.register(child);
+        eventBus.post("a");
+        eventBus.post(1);
+
+        List<String> received = (List<String>) child.getClass().getField("received").get(child);
+        assertEquals(Arrays.asList("child:a", "number:1"), received);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void otherModifiersMatchReflection() throws Exception {
+        Class<?> modifiedClass = classLoader.loadClass("test.Modified");
+        assertEquals(2, newIndex().getSubscriberInfo(modifiedClass).getSubscriberMethods().length);
+
+        // final / synchronized 的订阅方法通过索引和反射都能找到
+        MyEventBus indexed = MyEventBus.builder().addIndex(newIndex()).requireGeneratedIndex(true).build();
+        MyEventBus reflected = MyEventBus.builder().ignoreGeneratedIndex(true).build();
+        for (MyEventBus eventBus : Arrays.asList(indexed, reflected)) {
+            Object subscriber = modifiedClass.getConstructor().newInstance();
+            eventBus.register(subscriber);
+            eventBus.post("a");
+            eventBus.post(1);
+            List<Object> received = (List<Object>) modifiedClass.getField("received").get(subscriber);
+            assertEquals(Arrays.<Object>asList("a", 1), received);
+        }
+    }
+
+    @Test
+    public void abstractMethodIsRejected() throws IOException {
+        File directory = Files.createTempDirectory("myeventbus-processor").toFile();
+        try {
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            assertFalse(compile(directory, diagnostics, source("test.Abstract", ABSTRACT)));
+            assertTrue(diagnostics.getDiagnostics().toString().contains("Subscriber method must not be abstract"));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private MySubscriberInfoIndex newIndex() throws Exception {
+        return (MySubscriberInfoIndex) classLoader.loadClass(INDEX).getConstructor().newInstance();
+    }
+
+    private void compile(JavaFileObject... sources) throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        assertTrue(diagnostics.getDiagnostics().toString(), compile(outputDirectory, diagnostics, sources));
+    }
+
+    private static boolean compile(File directory, DiagnosticCollector<JavaFileObject> diagnostics,
+                                   JavaFileObject... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            List<String> options = new ArrayList<>(Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", directory.getPath(),
+                    "-A" + MyEventBusAnnotationProcessor.OPTION_INDEX + "=" + INDEX));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options,
+                    null, Arrays.asList(sources));
+            task.setProcessors(Collections.singletonList(new MyEventBusAnnotationProcessor()));
+            return task.call();
+        }
+    }
+
+    private static JavaFileObject source(String className, final String code) {
+        return new SimpleJavaFileObject(
+                new File(className.replace('.', '/') + ".java").toURI(), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
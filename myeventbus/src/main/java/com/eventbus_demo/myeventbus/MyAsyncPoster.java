@@ -0,0 +1,132 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 异步分发器 , ASYNC 线程模式使用
+ *      每个事件都提交一次任务到线程池 , 订阅方法之间并发执行
+ *      任务本身就是该分发器 , 执行时从队列中取出一个事件 , 提交任务时不需要创建新的 Runnable
+ *      批量发布时 , 同一个订阅的所有事件作为一个任务提交 , 在同一个线程中按顺序分发
+ */
+final class MyAsyncPoster implements Runnable, MyPoster {
+
+    /**
+     * 等待分发的事件 , 队列长度与已提交未执行的任务个数一致
+     */
+    private final MyPendingPostQueue queue;
+    private final MyEventBus eventBus;
+    /**
+     * 运行订阅方法的线程池
+     */
+    private final Executor executor;
+    /**
+     * 线程池拒绝任务时的处理策略
+     */
+    private final MyAsyncRejectionPolicy rejectionPolicy;
+
+    MyAsyncPoster(MyEventBus eventBus, Executor executor, MyAsyncRejectionPolicy rejectionPolicy) {
+        this.eventBus = eventBus;
+        this.executor = executor;
+        this.rejectionPolicy = rejectionPolicy;
+        queue = new MyPendingPostQueue();
+    }
+
+    @Override
+    public void enqueue(MySubscription subscription, Object event) {
+        MyPendingPost pendingPost = MyPendingPost.obtainPendingPost(subscription, event);
+        queue.enqueue(pendingPost);
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            onRejected(e);
+        }
+    }
+
+    @Override
+    public void enqueueAll(MySubscription subscription, List<?> events) {
+        BatchTask task = new BatchTask(MyPendingPost.obtainPendingPosts(subscription, events));
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            switch (rejectionPolicy) {
+                case CALLER_RUNS:
+                    task.run();
+                    break;
+                case DISCARD:
+                    task.discard();
+                    break;
+                case ABORT:
+                    task.discard();
+                    throw new MyEventBusException("ASYNC executor is saturated, event batch rejected", e);
+            }
+        }
+    }
+
+    /**
+     * 线程池已满 , 任务被拒绝
+     *      先从队列中取出一个事件 , 保持队列长度与任务个数一致 , 再按照策略处理该事件
+     * @param e
+     */
+    private void onRejected(RejectedExecutionException e) {
+        MyPendingPost pendingPost = queue.poll();
+        if (pendingPost == null) {
+            return;
+        }
+        switch (rejectionPolicy) {
+            case CALLER_RUNS:
+                // 在发布线程中执行 , 发布线程变慢 , 形成背压
+                eventBus.invokeSubscriber(pendingPost);
+                break;
+            case DISCARD:
+                // 丢弃队列中最早的事件
+                MyPendingPost.releasePendingPost(pendingPost);
+                break;
+            case ABORT:
+                MyPendingPost.releasePendingPost(pendingPost);
+                throw new MyEventBusException("ASYNC executor is saturated, event rejected", e);
+        }
+    }
+
+    @Override
+    public void run() {
+        MyPendingPost pendingPost = queue.poll();
+        if (pendingPost == null) {
+            throw new IllegalStateException("No pending post available");
+        }
+        eventBus.invokeSubscriber(pendingPost);
+    }
+
+    /**
+     * 批量分发任务 , 依次分发链表中的事件
+     */
+    private final class BatchTask implements Runnable {
+        private MyPendingPost next;
+
+        BatchTask(MyPendingPost first) {
+            this.next = first;
+        }
+
+        @Override
+        public void run() {
+            while (next != null) {
+                MyPendingPost pendingPost = next;
+                // 节点分发时会被回收 , 先记录下一个节点
+                next = pendingPost.next;
+                eventBus.invokeSubscriber(pendingPost);
+            }
+        }
+
+        /**
+         * 丢弃所有事件 , 回收节点
+         */
+        void discard() {
+            while (next != null) {
+                MyPendingPost pendingPost = next;
+                next = pendingPost.next;
+                MyPendingPost.releasePendingPost(pendingPost);
+            }
+        }
+    }
+}
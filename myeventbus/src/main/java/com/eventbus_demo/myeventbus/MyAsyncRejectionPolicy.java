@@ -0,0 +1,19 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * ASYNC 线程池的线程和队列都已满时 , 新事件的处理策略
+ */
+public enum MyAsyncRejectionPolicy {
+    /**
+     * 在发布线程中直接调用订阅方法 , 让发布线程变慢 , 形成背压 , 不丢失事件
+     */
+    CALLER_RUNS,
+    /**
+     * 丢弃等待时间最长的事件
+     */
+    DISCARD,
+    /**
+     * 丢弃事件 , 并在发布线程中抛出 MyEventBusException
+     */
+    ABORT
+}
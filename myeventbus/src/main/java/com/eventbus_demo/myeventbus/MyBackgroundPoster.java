@@ -0,0 +1,89 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 子线程分发器 , BACKGROUND 线程模式使用
+ *      所有 BACKGROUND 事件放入同一个队列 , 由一个子线程按顺序依次分发
+ *      该线程空闲时才需要重新提交到线程池 , 分发期间新放入的事件直接由该线程处理
+ */
+final class MyBackgroundPoster implements Runnable, MyPoster {
+
+    /**
+     * 队列为空时 , 子线程最多等待的时间 , 避免频繁提交任务
+     */
+    private static final int IDLE_WAIT_MILLIS = 1000;
+
+    /**
+     * 等待在子线程分发的事件
+     */
+    private final MyPendingPostQueue queue;
+    private final MyEventBus eventBus;
+    /**
+     * 运行分发任务的线程池
+     */
+    private final Executor executor;
+    /**
+     * 分发任务是否正在运行
+     */
+    private volatile boolean executorRunning;
+
+    MyBackgroundPoster(MyEventBus eventBus, Executor executor) {
+        this.eventBus = eventBus;
+        this.executor = executor;
+        queue = new MyPendingPostQueue();
+    }
+
+    @Override
+    public void enqueue(MySubscription subscription, Object event) {
+        MyPendingPost pendingPost = MyPendingPost.obtainPendingPost(subscription, event);
+        synchronized (this) {
+            queue.enqueue(pendingPost);
+            // 分发任务正在运行时 , 只放入队列 , 不需要唤醒新的线程
+            if (!executorRunning) {
+                executorRunning = true;
+                executor.execute(this);
+            }
+        }
+    }
+
+    @Override
+    public void enqueueAll(MySubscription subscription, List<?> events) {
+        MyPendingPost first = MyPendingPost.obtainPendingPosts(subscription, events);
+        synchronized (this) {
+            queue.enqueueAll(first);
+            if (!executorRunning) {
+                executorRunning = true;
+                executor.execute(this);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                MyPendingPost pendingPost = queue.poll(IDLE_WAIT_MILLIS);
+                if (pendingPost == null) {
+                    synchronized (this) {
+                        // 加锁后再检查一次 , 避免与 enqueue 竞争丢失事件
+                        pendingPost = queue.poll();
+                        if (pendingPost == null) {
+                            executorRunning = false;
+                            return;
+                        }
+                    }
+                }
+                eventBus.invokeSubscriber(pendingPost);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // 被中断时 , 队列中剩余的事件由下一次 enqueue 重新提交的任务处理
+            synchronized (this) {
+                executorRunning = false;
+            }
+        }
+    }
+}
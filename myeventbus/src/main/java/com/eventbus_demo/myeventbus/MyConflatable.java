@@ -0,0 +1,15 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 可以按照 Key 合并的事件
+ *      conflate 订阅方法中 , 只合并 Key 相同的事件 , 不同 Key 的最新事件都会分发
+ *      例如下载进度事件以下载任务 ID 作为 Key , 每个任务只保留最新的进度
+ *      没有实现该接口的事件 , 同一个订阅方法只保留最新的一个事件
+ */
+public interface MyConflatable {
+    /**
+     * 获取合并事件使用的 Key , 按照 equals / hashCode 比较
+     * @return 返回 null 时与没有实现该接口的事件一起合并
+     */
+    Object getConflationKey();
+}
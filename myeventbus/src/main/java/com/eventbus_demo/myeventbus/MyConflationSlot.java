@@ -0,0 +1,90 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * conflate 订阅方法的合并槽 , 每个 MySubscription 一个
+ *      分发队列中只放入一个占位 , 占位出队时才读取槽中最新的事件
+ *      占位还没有出队时 , 新的事件直接替换槽中的旧事件 , 不再放入分发队列
+ */
+final class MyConflationSlot {
+
+    /**
+     * 没有 Key 的事件使用的占位
+     */
+    private static final Object UNKEYED = new Object();
+
+    /**
+     * 没有 Key 的事件中 , 最新的未分发事件
+     */
+    private final AtomicReference<Object> latest = new AtomicReference<>();
+
+    /**
+     * 有 Key 的事件中 , 每个 Key 最新的未分发事件 , 第一次遇到 MyConflatable 事件时创建
+     */
+    private volatile ConcurrentHashMap<Object, Object> latestByKey;
+
+    /**
+     * 被替换掉 , 没有分发的事件个数
+     */
+    private final AtomicLong conflatedCount = new AtomicLong();
+
+    /**
+     * 放入新的事件
+     * @param event
+     * @return 需要放入分发队列的占位 , 槽中已经有未分发的事件时返回 null , 旧事件被替换
+     */
+    Object offer(Object event) {
+        Object key = event instanceof MyConflatable ? ((MyConflatable) event).getConflationKey() : null;
+        Object previous;
+        Object token;
+        if (key == null) {
+            previous = latest.getAndSet(event);
+            token = UNKEYED;
+        } else {
+            previous = getLatestByKey().put(key, event);
+            token = key;
+        }
+        if (previous != null) {
+            conflatedCount.incrementAndGet();
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * 占位出队时 , 取出槽中最新的事件
+     * @param token offer 返回的占位
+     * @return 最新的事件
+     */
+    Object take(Object token) {
+        if (token == UNKEYED) {
+            return latest.getAndSet(null);
+        }
+        return latestByKey.remove(token);
+    }
+
+    /**
+     * 获取被替换掉的事件个数
+     * @return
+     */
+    long getConflatedCount() {
+        return conflatedCount.get();
+    }
+
+    private ConcurrentHashMap<Object, Object> getLatestByKey() {
+        ConcurrentHashMap<Object, Object> map = latestByKey;
+        if (map == null) {
+            synchronized (this) {
+                map = latestByKey;
+                if (map == null) {
+                    map = new ConcurrentHashMap<>();
+                    latestByKey = map;
+                }
+            }
+        }
+        return map;
+    }
+}
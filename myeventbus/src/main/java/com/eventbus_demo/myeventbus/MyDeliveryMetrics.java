@@ -0,0 +1,25 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 一个订阅方法的分发耗时
+ *      开启统计时 , 注册时保存到 MySubscription 中 , 分发时不需要查找
+ *      按事件类型的统计在快照时合并 , 分发时每次只记录一组直方图
+ */
+final class MyDeliveryMetrics {
+    /**
+     * 订阅方法订阅的事件类型
+     */
+    final Class<?> eventType;
+    /**
+     * 事件放入分发队列 , 到订阅方法开始执行的耗时 , 在发布线程直接调用时不记录
+     */
+    final MyLatencyHistogram queueWait = new MyLatencyHistogram();
+    /**
+     * 订阅方法的执行耗时
+     */
+    final MyLatencyHistogram execution = new MyLatencyHistogram();
+
+    MyDeliveryMetrics(Class<?> eventType) {
+        this.eventType = eventType;
+    }
+}
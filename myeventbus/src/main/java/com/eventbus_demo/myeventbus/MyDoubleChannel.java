@@ -0,0 +1,71 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * double 类型的事件通道 , 适合发布频率很高的数值 , 例如传感器采样值 , 通过 MyEventBus#getDoubleChannel 获取
+ *      发布时不装箱 , 不分配对象 , 订阅者与 MyEventBus 中的订阅者互相独立
+ *      在发布线程中回调的订阅者按照注册顺序依次回调 ,
+ *      子线程订阅者有自己预先分配的环形缓冲区 , 在 ASYNC 线程池中按照发布顺序回调
+ */
+public final class MyDoubleChannel extends MyPrimitiveChannel {
+
+    MyDoubleChannel(MyEventBus eventBus, String name) {
+        super(eventBus, name);
+    }
+
+    /**
+     * 发布一个值
+     * @param value
+     */
+    public void publish(double value) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.ringBuffer != null) {
+                subscriber.ringBuffer.offer(Double.doubleToRawLongBits(value));
+            } else {
+                deliver(subscriber, value);
+            }
+        }
+    }
+
+    /**
+     * 注册订阅者 , 在发布线程中回调
+     * @param listener
+     */
+    public void subscribe(MyDoubleListener listener) {
+        addListener(listener, 0, MyOverflowPolicy.BLOCK);
+    }
+
+    /**
+     * 注册订阅者 , 使用预先分配的环形缓冲区在 ASYNC 线程池中回调
+     * @param listener
+     * @param capacity 环形缓冲区的容量 , 向上取整为 2 的幂 , 最小为 2
+     * @param overflowPolicy 环形缓冲区已满时的处理策略
+     */
+    public void subscribe(MyDoubleListener listener, int capacity, MyOverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new MyEventBusException("Channel " + getName() + ": capacity must be positive, got " + capacity);
+        }
+        addListener(listener, capacity, overflowPolicy);
+    }
+
+    /**
+     * 取消注册订阅者
+     * @param listener
+     * @return 该订阅者是否注册过
+     */
+    public boolean unsubscribe(MyDoubleListener listener) {
+        return removeListener(listener);
+    }
+
+    @Override
+    void deliverBits(Subscriber subscriber, long bits) {
+        deliver(subscriber, Double.longBitsToDouble(bits));
+    }
+
+    private void deliver(Subscriber subscriber, double value) {
+        try {
+            ((MyDoubleListener) subscriber.listener).onValue(value);
+        } catch (RuntimeException e) {
+            onListenerException(subscriber, value, e);
+        }
+    }
+}
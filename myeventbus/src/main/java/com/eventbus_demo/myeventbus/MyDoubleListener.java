@@ -0,0 +1,13 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * double 通道的订阅者 , 见 MyDoubleChannel
+ *      回调参数是基本类型 , 不装箱
+ */
+public interface MyDoubleListener {
+    /**
+     * 接收通道中发布的值
+     * @param value
+     */
+    void onValue(double value);
+}
@@ -0,0 +1,882 @@
+package com.eventbus_demo.myeventbus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程间的事件桥 , 把指定类型的事件转发给其它进程的 MyEventBus , 如 Android 中的 :sync 进程和界面进程
+ *      一个进程通过 listen 在本机回环地址上监听 , 其它进程通过 connect 连接 , 连接后双向转发
+ *      收到的事件在本进程中发布 , 订阅者与本进程发布的事件一样注册 , 收到的事件不会再转发 , 不会在进程之间来回发送
+ *      每个 MyEventBus 只能连接一个事件桥 , 多个进程时都连接到同一个监听的进程 , 监听的进程不会转发其它进程的事件
+ *      Android 中使用回环地址同样需要 INTERNET 权限
+ *
+ * 信任模型 : 本机的任何进程 ( Android 中包括其它应用 ) 都可以连接回环地址上的端口 , 端口本身不能作为认证
+ *      监听的进程创建随机的 token ( 或者通过 MyEventBridgeBuilder#token 指定 ) , 通过 getToken 获取
+ *      token 需要通过其它进程无法读取的方式传给子进程 , 如 Intent extra / 应用私有目录中的文件 , 连接时通过 MyEventBridgeBuilder#token 指定
+ *      连接方先发送带 token 的握手帧 , 监听方验证通过后才回复握手帧 , 之后才转发和接收事件 , token 错误的连接直接断开
+ *      知道 token 的进程与本进程完全互信 , 可以接收所有转发的事件 , 也可以发布所有接收的类型 , 回环地址上的数据不加密
+ *
+ * 帧格式 : 长度 ( int , 不包含自身 ) + 内容
+ *      连接后第一帧 : MAGIC + VERSION + token ( UTF , 监听方为空 ) + 转发的类型个数 + 类名 , 之后用类名的序号表示事件类型
+ *      之后每帧 : 事件个数 + 多个事件 , 每个事件为 类型序号 ( int ) + 长度 ( int ) + 序列化的事件
+ * 发布线程把事件追加到待发送的帧中 , 发送线程每次取走整帧 , 一次写入所有连接 , 发送期间发布的事件合并到下一帧
+ *      帧使用直接内存的 ByteBuffer , 写入 / 读取 Socket 时不再复制 , 两个帧轮流使用
+ *      连接使用非阻塞模式 , 发送线程先写入每个连接能立即接收的部分 , 再等待可写 , 超过 writeTimeoutMillis 没有写完的连接被断开
+ */
+public final class MyEventBridge {
+
+    private static final int MAGIC = 0x4D594252;
+    private static final int VERSION = 2;
+    /**
+     * 帧头 : 长度 + 事件个数
+     */
+    private static final int FRAME_HEADER = 4 + 4;
+    /**
+     * 事件头 : 类型序号 + 长度
+     */
+    private static final int MESSAGE_HEADER = 4 + 4;
+    /**
+     * 对方发送的帧超过该大小时认为数据有误 , 断开连接
+     */
+    private static final int MAX_RECEIVE_FRAME_SIZE = 64 * 1024 * 1024;
+    /**
+     * 握手帧的最大字节数 , 没有通过验证的连接不会分配更大的缓冲区
+     */
+    private static final int MAX_HELLO_FRAME_SIZE = 64 * 1024;
+    /**
+     * 握手的最长时间 , 超时后断开 , 不发送握手帧的连接不会一直占用读取线程
+     */
+    private static final long HANDSHAKE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private static final Peer[] NO_PEERS = new Peer[0];
+
+    /**
+     * 发布线程序列化事件使用的缓冲区 , 每个线程一个 , 重复使用
+     */
+    private static final class Output extends ByteArrayOutputStream {
+        final DataOutputStream data = new DataOutputStream(this);
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * 读取 ByteBuffer 中的一段 , 反序列化时不复制到数组
+     */
+    private static final class ByteBufferInput extends InputStream {
+        private ByteBuffer source;
+        private ByteBuffer view;
+
+        void reset(ByteBuffer buffer, int position, int limit) {
+            if (source != buffer) {
+                source = buffer;
+                view = buffer.duplicate();
+            }
+            view.limit(limit);
+            view.position(position);
+        }
+
+        @Override
+        public int read() {
+            return view.hasRemaining() ? view.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!view.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, view.remaining());
+            view.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return view.remaining();
+        }
+    }
+
+    private final MyEventBus eventBus;
+    private final MyEventSerializer serializer;
+    private final int maxFrameSize;
+    private final long writeTimeoutNanos;
+    /**
+     * 监听方验证连接方的 token , 连接方发送给监听方
+     */
+    private final String token;
+    /**
+     * 转发的事件类型到序号的映射 , 以及按照序号排列的类名
+     */
+    private final Map<Class<?>, Integer> forwardTypeIndexes = new HashMap<>();
+    private final List<String> forwardTypeNames = new ArrayList<>();
+    /**
+     * 接收的事件类型 , 按照类名查找
+     */
+    private final Map<String, Class<?>> receiveTypesByName = new HashMap<>();
+
+    private final ThreadLocal<Output> outputs = new ThreadLocal<Output>() {
+        @Override
+        protected Output initialValue() {
+            return new Output();
+        }
+    };
+
+    /**
+     * 以下三个字段只在持有 lock 时读写
+     *      pending : 发布线程正在追加的帧 , spare : 发送线程正在发送的帧
+     */
+    private final Object lock = new Object();
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private int pendingCount;
+
+    private volatile boolean closed;
+    /**
+     * 所有已经完成握手的连接 , 不可变的快照 , 在 peersLock 中拷贝出新数组
+     */
+    private volatile Peer[] peers = NO_PEERS;
+    private final Object peersLock = new Object();
+    private final AtomicInteger peerIds = new AtomicInteger();
+    private volatile ServerSocketChannel serverChannel;
+
+    /**
+     * 发送的帧个数和事件个数 , 只有发送线程写入
+     */
+    private volatile long sentFrameCount;
+    private volatile long sentEventCount;
+
+    MyEventBridge(MyEventBridgeBuilder builder) {
+        this.eventBus = builder.eventBus;
+        this.serializer = builder.serializer;
+        this.maxFrameSize = builder.maxFrameSize;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(builder.writeTimeoutMillis);
+        this.token = builder.token != null ? builder.token : newToken();
+        for (Class<?> eventType : builder.forwardEventTypes) {
+            forwardTypeIndexes.put(eventType, forwardTypeNames.size());
+            forwardTypeNames.add(eventType.getName());
+        }
+        for (Class<?> eventType : builder.receiveEventTypes) {
+            receiveTypesByName.put(eventType.getName(), eventType);
+        }
+        pending = ByteBuffer.allocateDirect(maxFrameSize);
+        pending.position(FRAME_HEADER);
+        spare = ByteBuffer.allocateDirect(maxFrameSize);
+    }
+
+    /**
+     * 创建事件桥
+     * @param eventBus 转发该 MyEventBus 中发布的事件 , 收到的事件也在其中发布
+     * @return
+     */
+    public static MyEventBridgeBuilder builder(MyEventBus eventBus) {
+        return new MyEventBridgeBuilder(eventBus);
+    }
+
+    /**
+     * 监听端口 , 接受连接的线程一直运行到 close
+     * @param port
+     */
+    void listen(int port) {
+        eventBus.attachBridge(this);
+        try {
+            ServerSocketChannel channel = ServerSocketChannel.open();
+            serverChannel = channel;
+            // Android API 24 之前没有 ServerSocketChannel#bind
+            channel.socket().bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port));
+        } catch (IOException e) {
+            close();
+            throw new MyEventBusException("Could not listen on port " + port, e);
+        }
+        startWriter();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "MyEventBridge-acceptor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 连接其它进程监听的端口 , 握手完成后返回 , token 错误时监听方断开连接 , 抛出异常
+     * @param port
+     */
+    void connect(int port) {
+        eventBus.attachBridge(this);
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port));
+            addPeer(channel, false);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            close();
+            throw new MyEventBusException("Could not connect to port " + port, e);
+        }
+        startWriter();
+    }
+
+    private void startWriter() {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeFrames();
+            }
+        }, "MyEventBridge-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 事件类型是否需要转发
+     * @param eventType 事件的实际类型
+     * @return
+     */
+    boolean isForwarded(Class<?> eventType) {
+        return forwardTypeIndexes.containsKey(eventType);
+    }
+
+    /**
+     * 在发布线程中序列化事件 , 追加到待发送的帧中
+     *      没有连接时直接返回 , 待发送的帧已满时等待发送线程取走
+     * @param event
+     */
+    void send(Object event) {
+        if (peers.length == 0) {
+            return;
+        }
+        Integer typeIndex = forwardTypeIndexes.get(event.getClass());
+        Output output = outputs.get();
+        output.reset();
+        try {
+            serializer.write(event, output.data);
+        } catch (IOException e) {
+            throw new MyEventBusException("Could not serialize event " + event.getClass().getName(), e);
+        }
+        int length = output.size();
+        if (FRAME_HEADER + MESSAGE_HEADER + length > maxFrameSize) {
+            throw new MyEventBusException("Event " + event.getClass().getName() + " of " + length
+                    + " bytes does not fit in maxFrameSize " + maxFrameSize);
+        }
+        boolean interrupted = false;
+        synchronized (lock) {
+            while (!closed && pending.remaining() < MESSAGE_HEADER + length) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (!closed) {
+                pending.putInt(typeIndex).putInt(length).put(output.buffer(), 0, length);
+                // 发送线程只在没有事件时等待
+                if (pendingCount++ == 0) {
+                    lock.notifyAll();
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 发送线程 , 取走待发送的帧 , 写入所有连接
+     *      取走后发布线程立即写入另一个帧 , 发送期间发布的事件在下一帧中一起发送
+     */
+    private void writeFrames() {
+        Selector selector;
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            new MyEventBusException("Event bridge could not start writer", e).printStackTrace();
+            close();
+            return;
+        }
+        try {
+            while (true) {
+                ByteBuffer frame;
+                int count;
+                synchronized (lock) {
+                    while (!closed && pendingCount == 0) {
+                        try {
+                            lock.wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    frame = pending;
+                    count = pendingCount;
+                    pending = spare;
+                    pending.clear();
+                    pending.position(FRAME_HEADER);
+                    pendingCount = 0;
+                    spare = frame;
+                    // 唤醒等待空间的发布线程
+                    lock.notifyAll();
+                }
+                frame.putInt(0, frame.position() - 4);
+                frame.putInt(4, count);
+                frame.flip();
+                writeToPeers(selector, frame);
+                sentFrameCount++;
+                sentEventCount += count;
+            }
+        } finally {
+            closeSelector(selector);
+        }
+    }
+
+    /**
+     * 非阻塞地把一帧写入所有连接 , 先写入每个连接能立即接收的部分 , 剩余的部分等待可写后继续写入
+     *      超时后仍然没有写完的连接被断开 , 慢的连接不会阻塞其它连接 , 写完后帧才能再给发布线程使用
+     * @param selector 发送线程的 Selector , 只注册写事件
+     * @param frame
+     */
+    private void writeToPeers(Selector selector, ByteBuffer frame) {
+        Peer[] current = peers;
+        int unfinished = 0;
+        for (Peer peer : current) {
+            peer.writing = frame.duplicate();
+            if (!peer.write(selector)) {
+                unfinished++;
+            }
+        }
+        long deadline = System.nanoTime() + writeTimeoutNanos;
+        while (unfinished > 0) {
+            long timeoutMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (timeoutMillis <= 0) {
+                break;
+            }
+            try {
+                selector.select(timeoutMillis);
+            } catch (IOException e) {
+                break;
+            }
+            selector.selectedKeys().clear();
+            unfinished = 0;
+            for (Peer peer : current) {
+                if (peer.writing != null && !peer.write(selector)) {
+                    unfinished++;
+                }
+            }
+        }
+        if (unfinished > 0) {
+            for (Peer peer : current) {
+                if (peer.writing != null) {
+                    peer.writing = null;
+                    if (!closed && peer.channel.isOpen()) {
+                        new MyEventBusException("Event bridge connection " + peer.id + " did not accept a frame in "
+                                + TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos) + " ms, disconnected").printStackTrace();
+                    }
+                    removePeer(peer);
+                }
+            }
+            // 注销已断开连接的写事件 , channel 注销后才真正关闭
+            try {
+                selector.selectNow();
+            } catch (IOException e) {
+                // 忽略
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * 接受连接的线程 , close 时关闭监听的 channel 后退出
+     */
+    private void accept() {
+        ServerSocketChannel channel = serverChannel;
+        while (!closed) {
+            SocketChannel peerChannel;
+            try {
+                peerChannel = channel.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    new MyEventBusException("Event bridge stopped accepting connections", e).printStackTrace();
+                }
+                return;
+            }
+            try {
+                addPeer(peerChannel, true);
+            } catch (IOException e) {
+                closeQuietly(peerChannel);
+            }
+        }
+    }
+
+    /**
+     * 切换到非阻塞模式 , 启动读取线程
+     *      连接方在当前线程中完成握手后再加入连接列表 , 监听方在读取线程中验证 token 后加入 , 接受连接的线程不会等待对方
+     * @param channel
+     * @param accepted 是否是监听方接受的连接
+     * @throws IOException
+     */
+    private void addPeer(SocketChannel channel, boolean accepted) throws IOException {
+        channel.configureBlocking(false);
+        // Android API 24 之前没有 SocketChannel#setOption
+        channel.socket().setTcpNoDelay(true);
+        Selector readSelector = Selector.open();
+        Peer peer;
+        try {
+            peer = new Peer(channel, readSelector, channel.register(readSelector, SelectionKey.OP_READ),
+                    accepted, peerIds.incrementAndGet());
+        } catch (IOException e) {
+            closeSelector(readSelector);
+            throw e;
+        }
+        if (!accepted) {
+            try {
+                if (!peer.handshake()) {
+                    throw new IOException("Event bridge connection closed during handshake");
+                }
+            } catch (IOException | RuntimeException e) {
+                peer.close();
+                closeSelector(readSelector);
+                throw e;
+            }
+            activatePeer(peer);
+        }
+        Thread thread = new Thread(peer, "MyEventBridge-reader-" + peer.id);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 握手完成后加入连接列表 , 之后发送线程才会写入该连接
+     * @param peer
+     * @return 已经关闭时返回 false
+     */
+    private boolean activatePeer(Peer peer) {
+        synchronized (peersLock) {
+            if (closed) {
+                peer.close();
+                return false;
+            }
+            Peer[] newPeers = new Peer[peers.length + 1];
+            System.arraycopy(peers, 0, newPeers, 0, peers.length);
+            newPeers[peers.length] = peer;
+            peers = newPeers;
+            return true;
+        }
+    }
+
+    private void removePeer(Peer peer) {
+        synchronized (peersLock) {
+            int index = -1;
+            for (int i = 0; i < peers.length; i++) {
+                if (peers[i] == peer) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index >= 0) {
+                Peer[] newPeers = new Peer[peers.length - 1];
+                System.arraycopy(peers, 0, newPeers, 0, index);
+                System.arraycopy(peers, index + 1, newPeers, index, peers.length - index - 1);
+                peers = newPeers;
+            }
+        }
+        peer.close();
+    }
+
+    /**
+     * 握手帧
+     * @param token 连接方发送 token , 监听方为空
+     * @return
+     * @throws IOException
+     */
+    private ByteBuffer helloFrame(String token) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(0);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeUTF(token);
+        output.writeInt(forwardTypeNames.size());
+        for (String typeName : forwardTypeNames) {
+            output.writeUTF(typeName);
+        }
+        ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+        frame.putInt(0, frame.capacity() - 4);
+        return frame;
+    }
+
+    /**
+     * 一个连接 , 读取线程读取对方发送的帧 , 反序列化后在本进程中发布
+     *      channel 是非阻塞的 , 读取线程没有数据时在自己的 Selector 中等待
+     */
+    private final class Peer implements Runnable {
+        final SocketChannel channel;
+        final int id;
+        private final Selector readSelector;
+        private final SelectionKey readKey;
+        /**
+         * 是否是监听方接受的连接 , 读取线程先完成握手
+         */
+        private final boolean accepted;
+        /**
+         * 握手期间读写的截止时间 , 握手完成后为 0 , 一直等待
+         */
+        private long deadlineNanos;
+        /**
+         * 以下两个字段只有发送线程读写 : 正在写入的帧的剩余部分 , 在发送线程的 Selector 中注册的写事件
+         */
+        ByteBuffer writing;
+        private SelectionKey writeKey;
+        private final ByteBuffer header = ByteBuffer.allocateDirect(4);
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(maxFrameSize);
+        private final ByteBufferInput input = new ByteBufferInput();
+        private final DataInputStream data = new DataInputStream(input);
+        /**
+         * 对方转发的类型序号对应的本进程中的类型 , 不接收的类型为 null
+         */
+        private Class<?>[] types;
+
+        Peer(SocketChannel channel, Selector readSelector, SelectionKey readKey, boolean accepted, int id) {
+            this.channel = channel;
+            this.readSelector = readSelector;
+            this.readKey = readKey;
+            this.accepted = accepted;
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (accepted && (!handshake() || !activatePeer(this))) {
+                    return;
+                }
+                while (readFrame(MAX_RECEIVE_FRAME_SIZE)) {
+                    dispatchFrame();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!closed && channel.isOpen()) {
+                    new MyEventBusException("Event bridge connection " + id + " failed", e).printStackTrace();
+                }
+            } finally {
+                removePeer(this);
+                closeSelector(readSelector);
+            }
+        }
+
+        /**
+         * 发送线程中调用 , 非阻塞地写入 writing 中剩余的部分
+         *      没有写完时注册写事件 , 写入失败时断开该连接 , 不影响其它连接
+         * @param selector 发送线程的 Selector
+         * @return 写完或者连接已断开时返回 true
+         */
+        boolean write(Selector selector) {
+            try {
+                channel.write(writing);
+                if (!writing.hasRemaining()) {
+                    writing = null;
+                    if (writeKey != null) {
+                        writeKey.interestOps(0);
+                    }
+                    return true;
+                }
+                if (writeKey == null) {
+                    writeKey = channel.register(selector, SelectionKey.OP_WRITE);
+                } else {
+                    writeKey.interestOps(SelectionKey.OP_WRITE);
+                }
+                return false;
+            } catch (IOException | CancelledKeyException e) {
+                writing = null;
+                close();
+                return true;
+            }
+        }
+
+        /**
+         * 握手 , 连接方先发送带 token 的握手帧 , 监听方验证 token 后才回复 , 在 HANDSHAKE_TIMEOUT_NANOS 内完成
+         * @return 对方关闭了连接时返回 false
+         * @throws IOException 超时 , 协议不符或者 token 错误
+         */
+        boolean handshake() throws IOException {
+            deadlineNanos = System.nanoTime() + HANDSHAKE_TIMEOUT_NANOS;
+            if (!accepted) {
+                writeHello(helloFrame(token));
+            }
+            if (!readFrame(MAX_HELLO_FRAME_SIZE)) {
+                return false;
+            }
+            readHello();
+            if (accepted) {
+                writeHello(helloFrame(""));
+            }
+            deadlineNanos = 0;
+            return true;
+        }
+
+        /**
+         * 写入握手帧 , 只在握手期间调用 , 此时发送线程还不会写入该连接
+         */
+        private void writeHello(ByteBuffer frame) throws IOException {
+            while (frame.hasRemaining()) {
+                if (channel.write(frame) == 0) {
+                    readKey.interestOps(SelectionKey.OP_WRITE);
+                    await();
+                    readKey.interestOps(SelectionKey.OP_READ);
+                }
+            }
+        }
+
+        /**
+         * 在 Selector 中等待可读 / 可写 , 握手期间超时后抛出异常
+         */
+        private void await() throws IOException {
+            if (deadlineNanos == 0) {
+                readSelector.select();
+            } else {
+                long timeoutMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if (timeoutMillis <= 0) {
+                    throw new IOException("Event bridge handshake timed out");
+                }
+                readSelector.select(timeoutMillis);
+            }
+            readSelector.selectedKeys().clear();
+        }
+
+        /**
+         * 关闭 channel , 唤醒在 Selector 中等待数据的读取线程
+         */
+        void close() {
+            closeQuietly(channel);
+            readSelector.wakeup();
+        }
+
+        /**
+         * 读取一帧到 buffer 中
+         * @param maxLength 超过该长度时认为数据有误
+         * @return 连接已经关闭时返回 false
+         */
+        private boolean readFrame(int maxLength) throws IOException {
+            header.clear();
+            if (!readFully(header)) {
+                return false;
+            }
+            int length = header.getInt(0);
+            if (length < 0 || length > maxLength) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            if (length > buffer.capacity()) {
+                buffer = ByteBuffer.allocateDirect(length);
+            }
+            buffer.clear();
+            buffer.limit(length);
+            if (!readFully(buffer)) {
+                return false;
+            }
+            buffer.flip();
+            return true;
+        }
+
+        private boolean readFully(ByteBuffer target) throws IOException {
+            while (target.hasRemaining()) {
+                int read = channel.read(target);
+                if (read < 0) {
+                    return false;
+                }
+                if (read == 0) {
+                    await();
+                }
+            }
+            return true;
+        }
+
+        private void readHello() throws IOException {
+            input.reset(buffer, 0, buffer.limit());
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                throw new IOException("Unknown event bridge protocol");
+            }
+            String peerToken = data.readUTF();
+            if (accepted && !tokenEquals(token, peerToken)) {
+                throw new IOException("Invalid event bridge token");
+            }
+            int count = data.readInt();
+            types = new Class<?>[count];
+            for (int i = 0; i < count; i++) {
+                types[i] = receiveTypesByName.get(data.readUTF());
+            }
+        }
+
+        /**
+         * 依次发布帧中的事件 , 不接收的类型和无法反序列化的事件跳过
+         */
+        private void dispatchFrame() {
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int typeIndex = buffer.getInt();
+                int length = buffer.getInt();
+                int position = buffer.position();
+                buffer.position(position + length);
+                Class<?> eventType = typeIndex >= 0 && typeIndex < types.length ? types[typeIndex] : null;
+                if (eventType == null) {
+                    continue;
+                }
+                Object event;
+                try {
+                    input.reset(buffer, position, position + length);
+                    event = serializer.read(eventType, data);
+                } catch (IOException | RuntimeException e) {
+                    new MyEventBusException("Could not read event " + eventType.getName()
+                            + " from event bridge, event dropped", e).printStackTrace();
+                    continue;
+                }
+                if (event == null) {
+                    continue;
+                }
+                try {
+                    eventBus.post(new MyRemoteEvent(event));
+                } catch (RuntimeException e) {
+                    // 订阅方法的异常策略是抛出时 , 不影响之后的事件和连接
+                    new MyEventBusException("Could not post event " + eventType.getName()
+                            + " received from event bridge", e).printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取监听的端口
+     * @return 没有监听时返回 -1
+     */
+    public int getPort() {
+        ServerSocketChannel channel = serverChannel;
+        return channel == null ? -1 : channel.socket().getLocalPort();
+    }
+
+    /**
+     * 获取连接使用的 token , 监听的进程把它传给需要连接的进程
+     *      只能通过其它进程无法读取的方式传递 , 见类注释中的信任模型
+     * @return
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * 获取已经完成握手的连接个数
+     * @return
+     */
+    public int getPeerCount() {
+        return peers.length;
+    }
+
+    /**
+     * 获取发送的帧个数 , 与 getSentEventCount 比较可以看出合并的程度
+     * @return
+     */
+    public long getSentFrameCount() {
+        return sentFrameCount;
+    }
+
+    /**
+     * 获取发送的事件个数
+     * @return
+     */
+    public long getSentEventCount() {
+        return sentEventCount;
+    }
+
+    /**
+     * 断开所有连接 , 停止监听 , 之后发布的事件不再转发 , 待发送的帧被丢弃
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        eventBus.detachBridge(this);
+        closeQuietly(serverChannel);
+        Peer[] current;
+        synchronized (peersLock) {
+            current = peers;
+            peers = NO_PEERS;
+        }
+        for (Peer peer : current) {
+            peer.close();
+        }
+    }
+
+    /**
+     * 随机的 token , 128 位
+     */
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 比较 token , 耗时只与长度有关 , 不会通过耗时猜出相同的前缀
+     */
+    private static boolean tokenEquals(String expected, String actual) {
+        if (expected.length() != actual.length()) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < expected.length(); i++) {
+            diff |= expected.charAt(i) ^ actual.charAt(i);
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Android API 19 之前 Selector 没有实现 Closeable
+     */
+    private static void closeSelector(Selector selector) {
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // 忽略
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // 忽略
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 创建 MyEventBridge , 配置转发和接收的事件类型
+ *      通过 MyEventBridge.builder(eventBus) 获取 , 一个进程调用 listen , 另一个进程指定监听方的 token 后调用 connect
+ */
+public class MyEventBridgeBuilder {
+
+    final MyEventBus eventBus;
+
+    /**
+     * 事件的序列化方式
+     */
+    MyEventSerializer serializer;
+
+    /**
+     * 本进程发布时转发给其它进程的事件类型 , 只精确匹配
+     */
+    final Set<Class<?>> forwardEventTypes = new LinkedHashSet<>();
+
+    /**
+     * 从其它进程接收的事件类型 , 其它类型的事件被忽略
+     */
+    final Set<Class<?>> receiveEventTypes = new LinkedHashSet<>();
+
+    /**
+     * 一帧的最大字节数
+     */
+    int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+
+    /**
+     * 一帧写入一个连接的最长时间
+     */
+    long writeTimeoutMillis = DEFAULT_WRITE_TIMEOUT_MILLIS;
+
+    /**
+     * 监听方验证的 token , 连接时必须指定 , 监听时为 null 表示随机创建
+     */
+    String token;
+
+    /**
+     * 默认一帧最多 64 KB
+     */
+    private static final int DEFAULT_MAX_FRAME_SIZE = 64 * 1024;
+
+    /**
+     * 默认 1 秒内没有写完一帧的连接被断开
+     */
+    private static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 1000;
+
+    MyEventBridgeBuilder(MyEventBus eventBus) {
+        if (eventBus == null) {
+            throw new NullPointerException("eventBus == null");
+        }
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * 设置事件的序列化方式 , 两个进程必须使用对称的序列化方式
+     * @param serializer
+     * @return
+     */
+    public MyEventBridgeBuilder serializer(MyEventSerializer serializer) {
+        if (serializer == null) {
+            throw new NullPointerException("serializer == null");
+        }
+        this.serializer = serializer;
+        return this;
+    }
+
+    /**
+     * 本进程发布该类型的事件时 , 同时转发给所有连接的进程 , 只精确匹配
+     *      指定 Key 发布时 , Key 不会转发 , 其它进程中分发给所有订阅者
+     * @param eventType
+     * @return
+     */
+    public MyEventBridgeBuilder forwardEventType(Class<?> eventType) {
+        forwardEventTypes.add(eventType);
+        return this;
+    }
+
+    /**
+     * 接收其它进程转发的该类型的事件 , 在本进程中发布 , 订阅者与本进程发布的事件一样注册
+     *      只按照类名匹配 , 不会加载其它类
+     * @param eventType
+     * @return
+     */
+    public MyEventBridgeBuilder receiveEventType(Class<?> eventType) {
+        receiveEventTypes.add(eventType);
+        return this;
+    }
+
+    /**
+     * 一帧的最大字节数 , 默认 64 KB
+     *      发布线程写入待发送的帧 , 写满时等待发送线程取走 , 单个事件序列化后不能超过该大小
+     * @param maxFrameSize 至少 1 KB
+     * @return
+     */
+    public MyEventBridgeBuilder maxFrameSize(int maxFrameSize) {
+        if (maxFrameSize < 1024) {
+            throw new IllegalArgumentException("maxFrameSize must be at least 1024");
+        }
+        this.maxFrameSize = maxFrameSize;
+        return this;
+    }
+
+    /**
+     * 一帧写入一个连接的最长时间 , 默认 1 秒
+     *      对方不读取时 , 超时后断开该连接 , 其它连接继续接收 , 发送线程最多为慢的连接等待该时间
+     * @param writeTimeoutMillis 大于 0
+     * @return
+     */
+    public MyEventBridgeBuilder writeTimeoutMillis(long writeTimeoutMillis) {
+        if (writeTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("writeTimeoutMillis must be positive");
+        }
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * 连接时指定监听方 MyEventBridge#getToken 返回的 token
+     *      监听时也可以指定 , 如父进程启动子进程之前已经生成了 token , 否则随机创建
+     * @param token 不能为空
+     * @return
+     */
+    public MyEventBridgeBuilder token(String token) {
+        if (token == null) {
+            throw new NullPointerException("token == null");
+        }
+        if (token.isEmpty()) {
+            throw new IllegalArgumentException("token must not be empty");
+        }
+        this.token = token;
+        return this;
+    }
+
+    /**
+     * 在本机回环地址上监听 , 接受任意个数的其它进程连接
+     * @param port 端口 , 0 表示自动分配 , 通过 MyEventBridge#getPort 获取
+     * @return
+     */
+    public MyEventBridge listen(int port) {
+        MyEventBridge bridge = create();
+        bridge.listen(port);
+        return bridge;
+    }
+
+    /**
+     * 连接本机回环地址上另一个进程监听的端口 , 连接断开后不会重连
+     *      必须先通过 token 指定监听方的 token
+     * @param port
+     * @return
+     */
+    public MyEventBridge connect(int port) {
+        if (token == null) {
+            throw new MyEventBusException("token must be set to connect, see MyEventBridge#getToken");
+        }
+        MyEventBridge bridge = create();
+        bridge.connect(port);
+        return bridge;
+    }
+
+    private MyEventBridge create() {
+        if (serializer == null) {
+            throw new MyEventBusException("serializer must be set");
+        }
+        if (forwardEventTypes.isEmpty() && receiveEventTypes.isEmpty()) {
+            throw new MyEventBusException("At least one forwardEventType or receiveEventType must be set");
+        }
+        return new MyEventBridge(this);
+    }
+}
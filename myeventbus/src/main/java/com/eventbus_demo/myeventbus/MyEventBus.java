@@ -0,0 +1,1989 @@
+package com.eventbus_demo.myeventbus;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MyEventBus {
+
+    /**
+     * 方法缓存 , 按照查找订阅方法的配置分开缓存
+     *      Key - 查找配置 , 见 methodCacheKey , 使用不同索引的 MyEventBus 不会读到彼此的查找结果
+     *      Value - 该配置下 订阅类类型 到 订阅方法 MySubscriberMethod 集合 的缓存
+     * 取名与 EventBus 一致
+     * 多个线程可能同时注册 , 使用 ConcurrentHashMap
+     */
+    private static final ConcurrentHashMap<List<Object>, Map<Class<?>, List<MySubscriberMethod>>> METHOD_CACHE =
+            new ConcurrentHashMap<>();
+
+    /**
+     * 事件类型继承关系缓存
+     *      Key - 事件类型
+     *      Value - 事件类型本身 + 所有父类 + 所有实现的接口 , 已去重
+     */
+    private static final Map<Class<?>, Class<?>[]> EVENT_TYPES_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 没有订阅者时使用的空数组
+     */
+    private static final MySubscription[] NO_SUBSCRIPTIONS = new MySubscription[0];
+
+    /**
+     * 带有这些修饰符的方法不是订阅方法
+     */
+    private static final int IGNORED_MODIFIERS = Modifier.STATIC | Modifier.ABSTRACT;
+
+    /**
+     * 按照优先级从高到低排序 , 优先级相同的保持注册顺序
+     */
+    private static final Comparator<MySubscription> PRIORITY_ORDER = new Comparator<MySubscription>() {
+        @Override
+        public int compare(MySubscription o1, MySubscription o2) {
+            return Integer.compare(o2.getSubscriberMethod().getPriority(), o1.getSubscriberMethod().getPriority());
+        }
+    };
+
+    /**
+     * 解除注册时使用
+     *      Key - 订阅者对象 , 弱引用模式下是 MySubscriberReference
+     *      Value - 该订阅者的注册句柄 , 保存了该订阅者的所有 MySubscription
+     *
+     * 只在持有 registryLock 时修改
+     */
+    private final Map<Object, MyRegistration> registrations;
+
+    /**
+     * 每个事件类型的数组中 , 已经取消注册但还没有移除的订阅个数
+     *      取消注册时只将订阅标记为无效 , 无效的订阅超过一半时才拷贝一次新数组 ,
+     *      这样依次取消注册 N 个订阅者 , 总的拷贝次数是 O(N) 而不是 O(N^2)
+     * 只在持有 registryLock 时读写
+     */
+    private final Map<Class<?>, Integer> inactiveCounts = new HashMap<>();
+
+    /**
+     * Key - 订阅者方法事件参数类型
+     * Value - 封装 订阅者对象 与 订阅方法 的 MySubscription 数组
+     * 在构造函数中初始化
+     * 数组是不可变的快照 , 注册 / 取消注册时在 registryLock 中拷贝出新数组 ,
+     *      写完之后 , 将 Map 中的引用指向新的数组 ,
+     *      post 时直接读取当前快照 , 不需要加锁
+     */
+    private final ConcurrentHashMap<Class<?>, MySubscription[]> subscriptionsByEventType;
+
+    /**
+     * 注册 / 取消注册时的写锁 , 保证写操作串行执行
+     *      post 只读取 subscriptionsByEventType 中的快照 , 不需要获取该锁
+     */
+    private final Object registryLock = new Object();
+
+    /**
+     * 事件分发缓存
+     *      Key - 发布的事件的实际类型
+     *      Value - 接收该事件的所有订阅者 , 包括订阅了父类 / 接口的订阅者
+     * post 时第一次遇到某个事件类型时计算 , 之后直接读取 , 不再遍历 getSuperclass / getInterfaces
+     * 注册 / 取消注册时 , 只移除受影响的事件类型 ( 是被修改的事件类型的子类的 )
+     */
+    private final ConcurrentHashMap<Class<?>, MySubscription[]> dispatchCache;
+
+    /**
+     * 按照 Key 分发的索引缓存 , post(event, key) 使用
+     *      Key - 发布的事件的实际类型
+     *      Value - 由该类型的分发快照建立的索引 , 快照被替换后在下次 post(event, key) 时重新建立
+     * 与 dispatchCache 一起失效
+     */
+    private final ConcurrentHashMap<Class<?>, MyKeyedSubscriptions> keyedDispatchCache;
+
+    /**
+     * 基本类型的事件通道
+     *      Key - 通道名称
+     *      Value - MyIntChannel / MyLongChannel / MyDoubleChannel
+     */
+    private final ConcurrentHashMap<String, MyPrimitiveChannel> primitiveChannels;
+
+    /**
+     * 注册表版本号 , 每次修改 subscriptionsByEventType 之后自增
+     *      post 计算分发缓存期间注册表被修改 , 则丢弃计算结果 , 避免缓存旧的快照
+     */
+    private volatile int registryVersion;
+
+    /**
+     * 弱引用模式下 , 被回收的订阅者的引用队列 , 强引用模式下为 null
+     *      post 不读取该队列 , 只在注册 / 取消注册时批量清理
+     */
+    private final ReferenceQueue<Object> staleSubscribers;
+
+    /**
+     * conflate 订阅方法中被替换掉的事件个数
+     */
+    private final AtomicLong conflatedEventCount = new AtomicLong();
+
+    /**
+     * 订阅方法自己的队列已满时被丢弃的事件个数
+     */
+    private final AtomicLong droppedEventCount = new AtomicLong();
+
+    /**
+     * 统计 , 没有开启统计时为 null
+     */
+    private final MyEventBusMetrics metrics;
+
+    /**
+     * 主线程订阅方法看门狗 , 没有开启时为 null
+     */
+    private final MyMainThreadWatchdog mainThreadWatchdog;
+
+    /**
+     * 同一个订阅方法两次打印异常的最小间隔
+     */
+    private static final long EXCEPTION_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * 订阅方法抛出异常时的处理策略
+     */
+    private final MyExceptionPolicy exceptionPolicy;
+
+    /**
+     * 订阅方法连续失败多少次之后停用 , 0 表示不停用
+     */
+    private final int maxConsecutiveFailures;
+
+    /**
+     * 是否支持事件继承 , 订阅了父类 / 接口的订阅者也能接收子类事件
+     */
+    private final boolean eventInheritance;
+
+    /**
+     * 不使用事件继承的事件类型 , 发布这些类型时只精确匹配
+     */
+    private final Set<Class<?>> skipInheritanceTypes;
+
+    /**
+     * 粘性事件存储
+     */
+    private final MyStickyEventStore stickyEvents;
+
+    /**
+     * 事件日志 , 没有开启时为 null
+     */
+    private final MyJournal journal;
+
+    /**
+     * 连接的进程间事件桥 , 没有连接时为 null
+     */
+    private volatile MyEventBridge bridge;
+
+    /**
+     * 每个发布线程的分发状态 , 包括等待分发的事件队列 , 以及用于取消事件分发的状态
+     */
+    private final ThreadLocal<MyPostingThreadState> currentPostingThreadState =
+            new ThreadLocal<MyPostingThreadState>() {
+                @Override
+                protected MyPostingThreadState initialValue() {
+                    return new MyPostingThreadState();
+                }
+            };
+
+    /**
+     * 子线程分发器
+     *      主线程发布的 BACKGROUND 事件 , 放入同一个队列 , 由一个子线程按顺序分发
+     */
+    private final MyPoster backgroundPoster;
+
+    /**
+     * 异步分发器
+     *      所有 ASYNC 事件 , 提交到线程数和队列长度都有上限的线程池中并发执行
+     */
+    private final MyPoster asyncPoster;
+
+    /**
+     * ASYNC 分发器使用的线程池 , 订阅方法自己的有界队列也在该线程池中分发
+     */
+    private final Executor asyncExecutor;
+
+    /**
+     * 主线程支持 , Android 中是 Looper 主线程 , 普通 JVM 中是单线程的线程池
+     */
+    private final MyMainThreadSupport mainThreadSupport;
+
+    /**
+     * 主线程单次批量分发的时间预算 , 单位毫秒
+     */
+    private final int mainThreadBatchBudgetMillis;
+
+    /**
+     * 主线程分发器
+     *      子线程发布的 MAIN 事件 , 以及所有 MAIN_ORDERED 事件 , 通过该分发器在主线程批量分发
+     */
+    private final MyPoster mainThreadPoster;
+
+    /**
+     * 编译期生成的订阅者索引 , 可能为 null
+     */
+    private final List<MySubscriberInfoIndex> subscriberInfoIndexes;
+
+    /**
+     * 是否忽略生成的索引
+     */
+    private final boolean ignoreGeneratedIndex;
+
+    /**
+     * 是否要求订阅类必须在索引中
+     */
+    private final boolean requireGeneratedIndex;
+
+    /**
+     * 当前查找配置使用的方法缓存 , 与相同配置的 MyEventBus 共用
+     */
+    private final Map<Class<?>, List<MySubscriberMethod>> methodCache;
+
+    /**
+     * 全局单例
+     *      可以通过 MyEventBusBuilder#installDefaultEventBus 设置
+     */
+    static volatile MyEventBus instance;
+    private MyEventBus() {
+        this(new MyEventBusBuilder());
+    }
+    MyEventBus(MyEventBusBuilder builder) {
+        subscriptionsByEventType = new ConcurrentHashMap<>();
+        dispatchCache = new ConcurrentHashMap<>();
+        keyedDispatchCache = new ConcurrentHashMap<>();
+        primitiveChannels = new ConcurrentHashMap<>();
+        registrations = new ConcurrentHashMap<>();
+        staleSubscribers = builder.weakSubscribers ? new ReferenceQueue<Object>() : null;
+        metrics = builder.metricsEnabled ? new MyEventBusMetrics() : null;
+        exceptionPolicy = builder.exceptionPolicy;
+        maxConsecutiveFailures = builder.maxConsecutiveFailures;
+        mainThreadWatchdog = builder.slowHandlerListener == null ? null : new MyMainThreadWatchdog(
+                TimeUnit.MILLISECONDS.toNanos(builder.slowHandlerBudgetMillis),
+                builder.slowHandlerListener, builder.slowHandlerRerouteAfter);
+        backgroundPoster = new MyBackgroundPoster(this, createBackgroundExecutor());
+        asyncExecutor = createAsyncExecutor(builder);
+        asyncPoster = builder.asyncRingBufferCapacity > 0
+                ? new MyRingBufferPoster(this, builder.asyncRingBufferCapacity, builder.asyncRingBufferThreads,
+                        builder.asyncWaitStrategy, builder.asyncRejectionPolicy)
+                : new MyAsyncPoster(this, asyncExecutor, builder.asyncRejectionPolicy);
+        mainThreadBatchBudgetMillis = builder.mainThreadBatchBudgetMillis;
+        mainThreadSupport = builder.getMainThreadSupport();
+        mainThreadPoster = mainThreadSupport.createPoster(this);
+        subscriberInfoIndexes = builder.subscriberInfoIndexes;
+        ignoreGeneratedIndex = builder.ignoreGeneratedIndex;
+        requireGeneratedIndex = builder.requireGeneratedIndex;
+        methodCache = getMethodCache(methodCacheKey(ignoreGeneratedIndex, requireGeneratedIndex,
+                subscriberInfoIndexes));
+        eventInheritance = builder.eventInheritance;
+        skipInheritanceTypes = builder.skipInheritanceTypes == null
+                ? Collections.<Class<?>>emptySet() : new HashSet<>(builder.skipInheritanceTypes);
+        stickyEvents = new MyStickyEventStore(builder.stickyEventMaxWeight, builder.stickyEventWeigher);
+        journal = builder.journalDirectory == null ? null : MyJournal.open(builder.journalDirectory,
+                builder.journalSerializer, builder.journalEventTypes, builder.journalSegmentSize,
+                builder.journalSyncIntervalMillis);
+    }
+    /**
+     * BACKGROUND 线程模式使用的线程池 , 最多只有一个线程 , 空闲 60 秒后销毁
+     * @return
+     */
+    private static Executor createBackgroundExecutor() {
+        return new ThreadPoolExecutor(0, 1,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new MyNamedThreadFactory("MyEventBus-background"));
+    }
+
+    /**
+     * ASYNC 线程模式使用的线程池
+     *      优先使用自定义的线程池 , 其次是虚拟线程 , 默认是线程个数和队列长度都有上限的线程池
+     *      队列已满时抛出 RejectedExecutionException , 由 MyAsyncPoster 按照拒绝策略处理
+     * @param builder
+     * @return
+     */
+    private static Executor createAsyncExecutor(MyEventBusBuilder builder) {
+        if (builder.asyncExecutor != null) {
+            return builder.asyncExecutor;
+        }
+        if (builder.asyncVirtualThreads) {
+            // 每次分发一个虚拟线程 , 适合阻塞在 I/O 上的订阅方法
+            return MyVirtualThreads.newVirtualThreadPerTaskExecutor();
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                builder.asyncThreadPoolSize, builder.asyncThreadPoolSize,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(builder.asyncQueueCapacity),
+                new MyNamedThreadFactory("MyEventBus-async"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // 空闲时销毁所有线程
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 清空所有 MyEventBus 共用的静态缓存 ( 订阅方法缓存 , 事件类型继承关系缓存 )
+     *      用于测试和基准测试中模拟冷启动注册
+     */
+    public static void clearCaches() {
+        // 已经创建的 MyEventBus 持有各自配置的缓存 , 逐个清空
+        for (Map<Class<?>, List<MySubscriberMethod>> cache : METHOD_CACHE.values()) {
+            cache.clear();
+        }
+        EVENT_TYPES_CACHE.clear();
+    }
+
+    /**
+     * 查找订阅方法的配置 , 配置相同的 MyEventBus 查找结果相同 , 可以共用方法缓存
+     *      生成的索引类没有状态 , 按照索引类比较
+     * @param ignoreGeneratedIndex
+     * @param requireGeneratedIndex
+     * @param subscriberInfoIndexes
+     * @return
+     */
+    private static List<Object> methodCacheKey(boolean ignoreGeneratedIndex, boolean requireGeneratedIndex,
+                                               List<MySubscriberInfoIndex> subscriberInfoIndexes) {
+        List<Object> key = new ArrayList<>();
+        key.add(ignoreGeneratedIndex);
+        if (ignoreGeneratedIndex) {
+            return key;
+        }
+        key.add(requireGeneratedIndex);
+        if (subscriberInfoIndexes != null) {
+            for (MySubscriberInfoIndex index : subscriberInfoIndexes) {
+                key.add(index.getClass());
+            }
+        }
+        return key;
+    }
+
+    private static Map<Class<?>, List<MySubscriberMethod>> getMethodCache(List<Object> key) {
+        Map<Class<?>, List<MySubscriberMethod>> cache = METHOD_CACHE.get(key);
+        if (cache == null) {
+            Map<Class<?>, List<MySubscriberMethod>> newCache = new ConcurrentHashMap<>();
+            cache = METHOD_CACHE.putIfAbsent(key, newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    public static MyEventBusBuilder builder() {
+        return new MyEventBusBuilder();
+    }
+    public static MyEventBus getInstance() {
+        // 双重检查 , instance 使用 volatile 修饰 , 保证其它线程看到的是初始化完成的对象
+        MyEventBus myEventBus = instance;
+        if (myEventBus == null) {
+            synchronized (MyEventBus.class) {
+                myEventBus = instance;
+                if (myEventBus == null) {
+                    myEventBus = new MyEventBus();
+                    instance = myEventBus;
+                }
+            }
+        }
+        return myEventBus;
+    }
+
+    /**
+     * 注册订阅者
+     *      订阅方法接收粘性事件时 , 注册完成后立即将已有的粘性事件发送给该订阅方法
+     *      订阅者已经注册过时 , 不会重复订阅 , 直接返回之前的注册句柄
+     * @param subscriber
+     * @return 注册句柄 , 可以用来取消注册
+     */
+    public MyRegistration register(Object subscriber) {
+        return register(subscriber, null);
+    }
+
+    /**
+     * 以指定的 Key 注册订阅者
+     *      该订阅者的订阅方法只接收 post(event) 发布的事件 , 以及 post(event, key) 中 Key 相等的事件 ,
+     *      不再接收其它 Key 的事件 , 例如以数据 ID 作为 Key , 订阅者只接收自己关心的数据的事件
+     *      post(event, key) 按照 Key 查找索引 , 不会调用其它 Key 的订阅方法
+     * @param subscriber
+     * @param key 按照 equals / hashCode 比较 , 为 null 时与 register(subscriber) 相同
+     * @return 注册句柄 , 可以用来取消注册
+     */
+    public MyRegistration register(Object subscriber, Object key) {
+        // 获取订阅者所属类
+        Class<?> clazz = subscriber.getClass();
+        // 查找订阅方法
+        List<MySubscriberMethod> subscriberMethods = findSubscriberMethods(clazz);
+
+        // 接收粘性事件的订阅
+        List<MySubscription> stickySubscriptions = null;
+        MyRegistration registration;
+        synchronized (registryLock) {
+            purgeStaleSubscribersLocked();
+            registration = registrations.get(lookupKey(subscriber));
+            if (registration != null) {
+                Object registeredKey = registration.getKey();
+                if (registeredKey == null ? key != null : !registeredKey.equals(key)) {
+                    throw new MyEventBusException("Subscriber " + subscriber.getClass()
+                            + " is already registered with key " + registeredKey);
+                }
+                return registration;
+            }
+            // 弱引用模式下 , 该订阅者的所有订阅共用一个弱引用
+            Object subscriberKey = staleSubscribers != null
+                    ? new MySubscriberReference(subscriber, staleSubscribers) : subscriber;
+            MySubscription[] subscriptions = new MySubscription[subscriberMethods.size()];
+            // 遍历所有订阅方法 , 进行订阅
+            for (int i = 0; i < subscriptions.length; i++) {
+                MySubscriberMethod method = subscriberMethods.get(i);
+                // 正式进行订阅
+                MySubscription subscription = subscribe(subscriberKey, method, key);
+                subscriptions[i] = subscription;
+                if (method.isSticky()) {
+                    if (stickySubscriptions == null) {
+                        stickySubscriptions = new ArrayList<>();
+                    }
+                    stickySubscriptions.add(subscription);
+                }
+            }
+            // 为取消注册准备数据
+            registration = new MyRegistration(this, subscriberKey, subscriptions, key);
+            registrations.put(subscriberKey, registration);
+        }
+
+        // 在锁外发送粘性事件 , 订阅方法中可能再次注册 / 发布
+        if (stickySubscriptions != null) {
+            boolean isMainThread = isMainThread();
+            for (MySubscription subscription : stickySubscriptions) {
+                Class<?> eventType = subscription.getSubscriberMethod().getEventType();
+                for (Object stickyEvent : stickyEvents.findMatching(eventType, eventInheritance)) {
+                    postSingleSubscription(subscription, stickyEvent, isMainThread);
+                }
+            }
+        }
+        return registration;
+    }
+
+    /**
+     * 判断订阅者是否已经注册
+     * @param subscriber
+     * @return
+     */
+    public boolean isRegistered(Object subscriber) {
+        return registrations.containsKey(lookupKey(subscriber));
+    }
+
+    /**
+     * 用于在 registrations 中查找订阅者的 Key
+     *      弱引用模式下 , 创建一个不关联引用队列的 MySubscriberReference , 按照订阅者对象的身份比较
+     * @param subscriber
+     * @return
+     */
+    private Object lookupKey(Object subscriber) {
+        return staleSubscribers != null ? new MySubscriberReference(subscriber, null) : subscriber;
+    }
+
+    /**
+     * 方法订阅
+     *      将 订阅方法参数类型 和 订阅类 + 订阅方法 封装类 , 保存到
+     *      Map<Class<?>, MySubscription[]> subscriptionsByEventType 集合中
+     *          Key - 订阅者方法事件参数类型
+     *          Value - 封装 订阅者对象 与 订阅方法 的 MySubscription 数组
+     *
+     * 调用时必须持有 registryLock
+     *
+     * @param subscriber    订阅者对象 , 弱引用模式下是 MySubscriberReference
+     * @param subscriberMethod        订阅方法
+     * @param key 注册时指定的 Key , 可以为 null
+     * @return 创建的 订阅者对象 + 订阅方法 对象
+     */
+    private MySubscription subscribe(Object subscriber, MySubscriberMethod subscriberMethod, Object key) {
+        // 获取订阅方法接收的参数类型
+        Class<?> eventType = subscriberMethod.getEventType();
+        // 获取 eventType 参数类型对应的 订阅者封装类 ( 封装 订阅者对象 + 订阅方法 ) 数组
+        MySubscription[] subscriptions = subscriptionsByEventType.get(eventType);
+
+        // 封装 订阅者对象 + 订阅方法 对象
+        MySubscription subscription = subscriber instanceof MySubscriberReference
+                ? new MySubscription((MySubscriberReference) subscriber, subscriberMethod)
+                : new MySubscription(subscriber, subscriberMethod);
+        subscription.key = key;
+        // 设置了队列容量的 ASYNC 订阅方法 , 使用自己的有界队列
+        if (subscriberMethod.getQueueCapacity() > 0) {
+            subscription.queue = new MySubscriberQueue(this, asyncExecutor,
+                    subscriberMethod.getQueueCapacity(), subscriberMethod.getOverflowPolicy());
+        }
+        // 开启统计时 , 注册时找到统计对象 , 分发时不需要查找
+        if (metrics != null) {
+            subscription.metrics = metrics.forSubscriber(subscription.getSubscriber().getClass(), subscriberMethod);
+        }
+        // 开启看门狗时 , 监控在主线程中执行的订阅方法
+        MyThreadMode threadMode = subscriberMethod.getThreadMode();
+        if (mainThreadWatchdog != null
+                && (threadMode == MyThreadMode.MAIN || threadMode == MyThreadMode.MAIN_ORDERED)) {
+            subscription.watchdogState = new MyMainThreadWatchdog.HandlerState();
+        }
+
+        // 拷贝出新的数组 , 按照优先级将创建的 订阅者对象 + 订阅方法 对象 插入到对应位置
+        //      数组在注册时就已经排好序 , post 时直接按顺序分发
+        //      如果获取的数组为空 , 说明 eventType 参数对应的订阅方法一个也没有注册过
+        MySubscription[] newSubscriptions;
+        // 数组中有已经取消注册的订阅 , 反正要拷贝 , 拷贝时一并移除
+        if (subscriptions != null && inactiveCounts.remove(eventType) != null) {
+            subscriptions = activeSubscriptions(subscriptions);
+        }
+        if (subscriptions == null) {
+            newSubscriptions = new MySubscription[] { subscription };
+        } else {
+            // 插入到所有优先级大于等于该订阅方法的订阅者之后
+            int priority = subscriberMethod.getPriority();
+            int index = subscriptions.length;
+            for (int i = 0; i < subscriptions.length; i++) {
+                if (priority > subscriptions[i].getSubscriberMethod().getPriority()) {
+                    index = i;
+                    break;
+                }
+            }
+            newSubscriptions = new MySubscription[subscriptions.length + 1];
+            System.arraycopy(subscriptions, 0, newSubscriptions, 0, index);
+            newSubscriptions[index] = subscription;
+            System.arraycopy(subscriptions, index, newSubscriptions, index + 1, subscriptions.length - index);
+        }
+        // 将新的数组设置到 subscriptionsByEventType 键值对集合中 , 之后的 post 读取新的快照
+        subscriptionsByEventType.put(eventType, newSubscriptions);
+        // 移除受影响的分发缓存
+        invalidateDispatchCache(eventType);
+        return subscription;
+    }
+
+    /**
+     * 根据订阅方法的事件参数查找订阅方法
+     *      优先从编译期生成的索引中查找 , 索引中没有再使用反射
+     * @param subscriberClass   订阅者对象的类型
+     * @return
+     */
+    private List<MySubscriberMethod> findSubscriberMethods(Class<?> subscriberClass) {
+        // 获取 Class<?> clazz 参数类型对应的 订阅者封装类
+        List<MySubscriberMethod> subscriberMethods = methodCache.get(subscriberClass);
+
+        // 如果当前不是第一次获取, 则直接返回从 methodCache 缓存中获取的 订阅者封装类 集合
+        if (subscriberMethods != null) {
+            return subscriberMethods;
+        }
+
+        // 说明是首次获取 , 初始化 methodCache 缓存
+        if (ignoreGeneratedIndex) {
+            // 反射获取 Class<?> subscriberClass 中的所有订阅方法
+            subscriberMethods = findByReflection(subscriberClass);
+        } else {
+            // 从索引中获取订阅方法
+            subscriberMethods = findUsingIndex(subscriberClass);
+        }
+
+        if (! subscriberMethods.isEmpty()) {
+            methodCache.put(subscriberClass, subscriberMethods);
+        }
+        return subscriberMethods;
+    }
+
+    /**
+     * 从编译期生成的索引中获取 Class<?> subscriberClass 订阅方法
+     *      索引中每个类只记录自身声明的订阅方法 , 这里沿着父类向上逐个类查找 , 直到系统类为止
+     *      继承链中不在索引中的类 ( 注解处理器跳过的非 public 类 ) , 只反射该类自身声明的方法
+     *      子类重写的订阅方法优先 , 父类中 方法名 + 事件类型 相同的订阅方法不再添加 , 避免重复分发
+     *      整个继承链都不在索引中时 , 回退到反射 , 如果要求必须使用索引 , 则抛出异常
+     * @param subscriberClass 订阅类
+     * @return
+     */
+    private List<MySubscriberMethod> findUsingIndex(Class<?> subscriberClass) {
+        if (subscriberInfoIndexes == null && !requireGeneratedIndex) {
+            return findByReflection(subscriberClass);
+        }
+        // 继承链中每个类的索引信息 , 不在索引中的类为 null
+        List<Class<?>> classes = new ArrayList<>();
+        List<MySubscriberInfo> subscriberInfos = new ArrayList<>();
+        // 是否在索引中找到了该类或其父类
+        boolean indexed = false;
+        for (Class<?> clazz = subscriberClass;
+             clazz != null && !isSystemClass(clazz);
+             clazz = clazz.getSuperclass()) {
+            MySubscriberInfo subscriberInfo = subscriberInfoIndexes == null ? null : getSubscriberInfo(clazz);
+            indexed |= subscriberInfo != null;
+            classes.add(clazz);
+            subscriberInfos.add(subscriberInfo);
+        }
+
+        if (!indexed) {
+            if (requireGeneratedIndex) {
+                throw new MyEventBusException("Subscriber class " + subscriberClass.getName()
+                        + " is not in the generated index (requireGeneratedIndex is enabled)");
+            }
+            return findByReflection(subscriberClass);
+        }
+
+        // 要返回的 MySubscriberMethod 集合
+        List<MySubscriberMethod> subscriberMethods = new ArrayList<>();
+        // 已经添加的 方法名 + 事件类型
+        Set<String> methodKeys = new HashSet<>();
+        for (int i = 0; i < classes.size(); i++) {
+            MySubscriberInfo subscriberInfo = subscriberInfos.get(i);
+            List<MySubscriberMethod> declaredMethods;
+            if (subscriberInfo != null) {
+                declaredMethods = Arrays.asList(subscriberInfo.getSubscriberMethods());
+            } else {
+                declaredMethods = new ArrayList<>();
+                addSubscriberMethods(classes.get(i).getDeclaredMethods(), declaredMethods);
+                if (requireGeneratedIndex && !declaredMethods.isEmpty()) {
+                    throw new MyEventBusException("Subscriber class " + classes.get(i).getName()
+                            + " is not in the generated index (requireGeneratedIndex is enabled)");
+                }
+            }
+            for (MySubscriberMethod subscriberMethod : declaredMethods) {
+                if (methodKeys.add(subscriberMethod.getMethodName() + '>'
+                        + subscriberMethod.getEventType().getName())) {
+                    subscriberMethods.add(subscriberMethod);
+                }
+            }
+        }
+        return subscriberMethods;
+    }
+
+    /**
+     * 遍历所有索引 , 查找订阅类的索引信息
+     * @param subscriberClass 订阅类
+     * @return
+     */
+    private MySubscriberInfo getSubscriberInfo(Class<?> subscriberClass) {
+        for (MySubscriberInfoIndex index : subscriberInfoIndexes) {
+            MySubscriberInfo subscriberInfo = index.getSubscriberInfo(subscriberClass);
+            if (subscriberInfo != null) {
+                return subscriberInfo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 系统类中不会有订阅方法 , 查找父类时跳过
+     * @param clazz
+     * @return
+     */
+    private static boolean isSystemClass(Class<?> clazz) {
+        String name = clazz.getName();
+        return name.startsWith("java.") || name.startsWith("javax.")
+                || name.startsWith("android.") || name.startsWith("androidx.");
+    }
+
+    /**
+     * 通过反射获取 Class<?> subscriberClass 订阅方法
+     * @param subscriberClass 订阅类
+     * @return
+     */
+    private List<MySubscriberMethod> findByReflection(Class<?> subscriberClass) {
+        // 要返回的 MySubscriberMethod 集合
+        List<MySubscriberMethod> subscriberMethods = new ArrayList<>();
+        // 通过反射获取所有 public 方法 , 子类重写的方法只返回子类中的
+        addSubscriberMethods(subscriberClass.getMethods(), subscriberMethods);
+        return subscriberMethods;
+    }
+
+    /**
+     * 从方法中筛选出带 @MySubscribe 注解的订阅方法
+     * @param methods
+     * @param subscriberMethods 找到的订阅方法加入该集合
+     */
+    private static void addSubscriberMethods(Method[] methods, List<MySubscriberMethod> subscriberMethods) {
+        // 遍历所有的方法 , 查找注解
+        for (Method method : methods) {
+            // 获取方法修饰符
+            int modifiers = method.getModifiers();
+            // 获取方法参数
+            Class<?>[] params = method.getParameterTypes();
+            // 确保修饰符包含 public , 不是 static / abstract , 参数长度必须是 1
+            //      final / synchronized 等其它修饰符不影响 , 与注解处理器生成的索引一致
+            //      编译器生成的桥接方法会复制注解 , 跳过 , 只保留实际声明的方法
+            if (Modifier.isPublic(modifiers) && (modifiers & IGNORED_MODIFIERS) == 0
+                    && !method.isBridge() && !method.isSynthetic() && params.length == 1) {
+                // 获取 MySubscribe 注解
+                MySubscribe annotation = method.getAnnotation(MySubscribe.class);
+                // 获取注解不为空
+                if (annotation != null) {
+                    // 获取线程模式
+                    MyThreadMode threadMode = annotation.threadMode();
+                    // 批量订阅方法接收的事件类型是 List 的元素类型
+                    Class<?> eventType = annotation.batch() ? findBatchEventType(method) : params[0];
+                    // 此时已经完全确定该方法是一个订阅方法 , 直接进行封装
+                    MySubscriberMethod subscriberMethod = new MySubscriberMethod(
+                            method,                 // 方法对象
+                            threadMode,             // 线程模式
+                            eventType,              // 事件参数
+                            annotation.priority(),  // 优先级
+                            annotation.sticky(),    // 是否接收粘性事件
+                            annotation.batch(),     // 是否批量接收事件
+                            annotation.conflate(),  // 是否合并未分发的事件
+                            annotation.queueCapacity(), // 订阅方法自己的队列容量
+                            annotation.overflow()   // 队列已满时的处理策略
+                    );
+                    // 加入到返回集合中
+                    subscriberMethods.add(subscriberMethod);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取批量订阅方法接收的事件类型
+     *      参数必须是 List<事件类型> , 事件类型必须是具体的类或接口 , 不能是类型变量或通配符
+     * @param method 批量订阅方法
+     * @return List 的元素类型
+     */
+    private static Class<?> findBatchEventType(Method method) {
+        Type parameterType = method.getGenericParameterTypes()[0];
+        if (parameterType instanceof ParameterizedType
+                && ((ParameterizedType) parameterType).getRawType() == List.class) {
+            Type elementType = ((ParameterizedType) parameterType).getActualTypeArguments()[0];
+            if (elementType instanceof Class) {
+                return (Class<?>) elementType;
+            }
+        }
+        throw new MyEventBusException("Batch subscriber method " + method
+                + " must take a single List<EventType> parameter");
+    }
+
+    /**
+     * 接收到了 发布者 Publisher 发送给本消息中心 的 Event 消息事件对象
+     *      将该事件对象转发给相应接收该类型消息的 订阅者 ( 订阅对象 + 订阅方法 )
+     *      通过事件类型到
+     *      Map<Class<?>, MySubscription[]> subscriptionsByEventType
+     *      集合中查找相应的 订阅对象 + 订阅方法
+     * 读取的是不可变快照 , 不需要加锁 , 可以在任意线程调用
+     *
+     * 事件先放入当前线程的队列中 , 如果当前线程没有在分发事件 , 则依次分发队列中的事件
+     *      订阅方法中再次调用 post 时 , 只是放入队列 , 由外层循环在当前事件分发完成后分发
+     * @param event
+     */
+    public void post(Object event) {
+        post(event, null);
+    }
+
+    /**
+     * 按照 Key 发布事件
+     *      只分发给以该 Key 注册的订阅者 , 以及没有指定 Key 的订阅者 , 见 register(Object, Object)
+     *      按照 Key 查找索引 , 其它 Key 的订阅者不会被调用
+     * @param event
+     * @param key 按照 equals / hashCode 比较 , 为 null 时与 post(event) 相同 , 分发给所有订阅者
+     */
+    public void post(Object event, Object key) {
+        MyPostingThreadState postingState = currentPostingThreadState.get();
+        postingState.enqueue(event, key);
+
+        // 当前线程正在分发事件 , 说明是在订阅方法中调用的 post , 交给外层循环处理
+        if (postingState.isPosting) {
+            return;
+        }
+
+        // 每次 post 只判断一次是否是主线程
+        postingState.isMainThread = isMainThread();
+        postingState.isPosting = true;
+        try {
+            Object pendingEvent;
+            while ((pendingEvent = postingState.poll()) != null) {
+                postSingleEvent(pendingEvent, postingState);
+            }
+        } finally {
+            // 订阅方法之外抛出异常时 , 丢弃剩余的事件 , 避免影响该线程之后的 post
+            postingState.clear();
+            postingState.isPosting = false;
+            postingState.isMainThread = false;
+        }
+    }
+
+    /**
+     * 批量发布事件
+     *      按照事件的实际类型分组 , 每种类型只查找一次订阅者
+     *      发布线程中执行的订阅方法 , 与逐个 post 一样按事件顺序调用 , 可以取消分发
+     *      需要切换线程的订阅方法 , 同一个订阅的所有事件一次性放入分发队列 , 只切换一次线程
+     *      批量订阅方法 ( @MySubscribe(batch = true) ) 一次接收该组中的所有事件
+     * 同一类型的事件保持发布顺序 , 不同类型按照每种类型第一次出现的顺序依次分发
+     * 订阅方法中调用 post 发布的事件 , 在整批事件分发完成后再分发
+     * @param events
+     */
+    public void postAll(Collection<?> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        MyPostingThreadState postingState = currentPostingThreadState.get();
+
+        // 在订阅方法中调用 , 与 post 一样放入当前线程的队列 , 交给外层循环处理
+        if (postingState.isPosting) {
+            for (Object event : events) {
+                postingState.enqueue(event);
+            }
+            return;
+        }
+
+        postingState.isMainThread = isMainThread();
+        postingState.isPosting = true;
+        try {
+            for (List<Object> group : groupByType(events)) {
+                // 写入日志的事件逐个分发 , 每个事件单独确认 ; 转发的事件逐个转发
+                if (isSingleDispatchType(group.get(0).getClass())) {
+                    for (Object event : group) {
+                        postSingleEvent(event, postingState);
+                    }
+                } else {
+                    postEventGroup(group, postingState);
+                }
+            }
+            Object pendingEvent;
+            while ((pendingEvent = postingState.poll()) != null) {
+                postSingleEvent(pendingEvent, postingState);
+            }
+        } finally {
+            postingState.clear();
+            postingState.isPosting = false;
+            postingState.isMainThread = false;
+        }
+    }
+
+    /**
+     * 按照事件的实际类型分组 , 组内保持发布顺序
+     * @param events
+     * @return
+     */
+    private static Collection<List<Object>> groupByType(Collection<?> events) {
+        Map<Class<?>, List<Object>> groups = new LinkedHashMap<>();
+        // 大多数批量发布的都是同一类型的事件 , 与上一个事件类型相同时不查找 Map
+        Class<?> lastType = null;
+        List<Object> lastGroup = null;
+        for (Object event : events) {
+            if (event == null) {
+                throw new MyEventBusException("Event may not be null");
+            }
+            Class<?> eventType = event.getClass();
+            if (eventType != lastType) {
+                lastType = eventType;
+                lastGroup = groups.get(eventType);
+                if (lastGroup == null) {
+                    lastGroup = new ArrayList<>();
+                    groups.put(eventType, lastGroup);
+                }
+            }
+            lastGroup.add(event);
+        }
+        return groups.values();
+    }
+
+    /**
+     * 分发一组同类型的事件
+     * @param events 实际类型相同的事件
+     * @param postingState 当前线程的分发状态
+     */
+    @SuppressWarnings("unchecked")
+    private void postEventGroup(List<Object> events, MyPostingThreadState postingState) {
+        MySubscription[] subscriptions = findSubscriptions(events.get(0).getClass());
+        if (metrics != null) {
+            metrics.postCount.addAndGet(events.size());
+            if (subscriptions == null || subscriptions.length == 0) {
+                metrics.noSubscriberCount.addAndGet(events.size());
+            }
+        }
+        if (subscriptions == null || subscriptions.length == 0) {
+            return;
+        }
+
+        // 每个订阅只选择一次分发器
+        //      需要切换线程的订阅 , 以及批量订阅方法 , 先收集事件 , 整组事件处理完之后再一次性分发
+        MyPoster[] posters = new MyPoster[subscriptions.length];
+        // 不能直接创建泛型数组 , 数组只在本方法中使用 , 元素都是 ArrayList<Object>
+        @SuppressWarnings("unchecked")
+        List<Object>[] deferred = (List<Object>[]) new List<?>[subscriptions.length];
+        for (int i = 0; i < subscriptions.length; i++) {
+            posters[i] = findPoster(subscriptions[i], postingState.isMainThread);
+            if (posters[i] != null || subscriptions[i].getSubscriberMethod().isBatch()) {
+                deferred[i] = new ArrayList<>(events.size());
+            }
+        }
+
+        try {
+            for (Object event : events) {
+                postingState.event = event;
+                postingState.canceled = false;
+                for (int i = 0; i < subscriptions.length; i++) {
+                    if (deferred[i] != null) {
+                        deferred[i].add(event);
+                    } else {
+                        postingState.subscription = subscriptions[i];
+                        invokeMethod(subscriptions[i], event);
+                    }
+                    // 订阅方法取消了该事件 , 优先级更低的订阅者不再接收
+                    if (postingState.canceled) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            postingState.event = null;
+            postingState.subscription = null;
+            postingState.canceled = false;
+        }
+
+        for (int i = 0; i < subscriptions.length; i++) {
+            List<Object> subscriptionEvents = deferred[i];
+            if (subscriptionEvents == null || subscriptionEvents.isEmpty()) {
+                continue;
+            }
+            if (subscriptions[i].getSubscriberMethod().isBatch()) {
+                // 整组事件作为一个 List 传给批量订阅方法
+                List<Object> batch = Collections.unmodifiableList(subscriptionEvents);
+                if (posters[i] == null) {
+                    invokeMethod(subscriptions[i], batch);
+                } else if (subscriptions[i].conflation != null) {
+                    enqueueConflated(posters[i], subscriptions[i], batch);
+                } else if (subscriptions[i].queue != null) {
+                    subscriptions[i].queue.enqueue(subscriptions[i], batch);
+                } else {
+                    posters[i].enqueue(subscriptions[i], batch);
+                }
+            } else if (subscriptions[i].conflation != null) {
+                // 合并槽中只保留最新的事件 , 逐个放入 , 最多放入一次分发队列
+                for (Object event : subscriptionEvents) {
+                    enqueueConflated(posters[i], subscriptions[i], event);
+                }
+            } else if (subscriptions[i].queue != null) {
+                // 有界队列逐个放入 , 队列已满时按照每个事件分别处理
+                for (Object event : subscriptionEvents) {
+                    subscriptions[i].queue.enqueue(subscriptions[i], event);
+                }
+            } else {
+                posters[i].enqueueAll(subscriptions[i], subscriptionEvents);
+            }
+        }
+    }
+
+    /**
+     * 分发单个事件
+     *      订阅者已经按照优先级排好序 , 依次调用 , 直到某个订阅方法取消分发
+     * @param event
+     * @param postingState 当前线程的分发状态
+     */
+    private void postSingleEvent(Object event, MyPostingThreadState postingState) {
+        // 重放日志中的事件 , 已经写入了日志
+        MyJournalTicket ticket = null;
+        if (event instanceof MyJournalTicket) {
+            ticket = (MyJournalTicket) event;
+            event = ticket.event;
+        }
+        // 其它进程转发的事件 , 不再转发
+        boolean remote = false;
+        if (event instanceof MyRemoteEvent) {
+            event = ((MyRemoteEvent) event).event;
+            remote = true;
+        }
+        // 获取事件类型
+        Class<?> eventType = event.getClass();
+        MyEventBridge bridge = this.bridge;
+        if (remote || bridge == null || !bridge.isForwarded(eventType)) {
+            postToSubscriptions(event, eventType, ticket, postingState);
+            return;
+        }
+        // 本进程分发之后再转发 , 订阅方法抛出异常时也转发
+        try {
+            postToSubscriptions(event, eventType, ticket, postingState);
+        } finally {
+            forwardToBridge(bridge, event);
+        }
+    }
+
+    /**
+     * 转发给其它进程 , 序列化失败或事件超过帧大小时只打印异常
+     *      不影响本进程的分发 , 也不影响发布线程队列中之后的事件
+     * @param bridge
+     * @param event
+     */
+    private static void forwardToBridge(MyEventBridge bridge, Object event) {
+        try {
+            bridge.send(event);
+        } catch (RuntimeException e) {
+            new MyEventBusException("Could not forward event " + event.getClass().getName()
+                    + " to event bridge", e).printStackTrace();
+        }
+    }
+
+    /**
+     * 分发给本进程中的订阅者
+     * @param event
+     * @param eventType
+     * @param ticket 写入日志的事件 , 否则为 null
+     * @param postingState
+     */
+    private void postToSubscriptions(Object event, Class<?> eventType, MyJournalTicket ticket,
+                                     MyPostingThreadState postingState) {
+        // 获取事件类型对应的 订阅者 数组 , 指定了 Key 时只获取该 Key 的订阅者
+        Object key = postingState.key;
+        MySubscription[] subscriptions = key == null
+                ? findSubscriptions(eventType) : findKeyedSubscriptions(eventType, key);
+        if (metrics != null) {
+            metrics.postCount.incrementAndGet();
+            if (subscriptions == null || subscriptions.length == 0) {
+                metrics.noSubscriberCount.incrementAndGet();
+            }
+        }
+
+        // 确保订阅者大于等于 1 个 , 没有订阅者的事件不写入日志
+        if (subscriptions == null || subscriptions.length == 0) {
+            if (ticket != null) {
+                ticket.release();
+            }
+            return;
+        }
+        if (ticket == null && journal != null && journal.isJournaled(eventType)) {
+            ticket = journal.append(event);
+        }
+
+        postingState.event = event;
+        postingState.canceled = false;
+        try {
+            // 遍历订阅者并调用订阅方法
+            for (MySubscription subscription : subscriptions) {
+                postingState.subscription = subscription;
+                if (ticket == null) {
+                    postSingleSubscription(subscription, event, postingState.isMainThread);
+                } else {
+                    postJournaledSubscription(subscription, ticket, postingState.isMainThread);
+                }
+                // 订阅方法取消了该事件 , 优先级更低的订阅者不再接收
+                if (postingState.canceled) {
+                    break;
+                }
+            }
+        } finally {
+            postingState.event = null;
+            postingState.subscription = null;
+            postingState.canceled = false;
+            // 释放发布线程持有的计数 , 需要切换线程的订阅都执行完后确认
+            if (ticket != null) {
+                ticket.release();
+            }
+        }
+    }
+
+    /**
+     * 发布粘性事件
+     *      保存该事件类型最近一次发布的事件 , 之后注册的 sticky 订阅方法会立即接收到该事件
+     *      然后与 post 一样分发给当前的订阅者
+     * @param event
+     */
+    public void postSticky(Object event) {
+        stickyEvents.put(event);
+        post(event);
+    }
+
+    /**
+     * 获取该类型最近一次发布的粘性事件
+     * @param eventType 粘性事件类型
+     * @return 没有返回 null
+     */
+    public <T> T getStickyEvent(Class<T> eventType) {
+        return eventType.cast(stickyEvents.get(eventType));
+    }
+
+    /**
+     * 移除该类型的粘性事件
+     * @param eventType 粘性事件类型
+     * @return 被移除的事件 , 没有返回 null
+     */
+    public <T> T removeStickyEvent(Class<T> eventType) {
+        return eventType.cast(stickyEvents.remove(eventType));
+    }
+
+    /**
+     * 移除该粘性事件 , 如果该类型保存的已经是更新的事件 , 则不移除
+     * @param event 粘性事件
+     * @return 是否移除
+     */
+    public boolean removeStickyEvent(Object event) {
+        return stickyEvents.remove(event);
+    }
+
+    /**
+     * 移除所有粘性事件
+     */
+    public void removeAllStickyEvents() {
+        stickyEvents.clear();
+    }
+
+    /**
+     * 取消事件分发 , 优先级更低的订阅方法不再接收该事件
+     *      只能在 POSTING 线程模式的订阅方法中调用 , 并且只能取消当前正在处理的事件
+     * @param event 订阅方法正在处理的事件
+     */
+    public void cancelEventDelivery(Object event) {
+        MyPostingThreadState postingState = currentPostingThreadState.get();
+        if (!postingState.isPosting) {
+            throw new MyEventBusException(
+                    "This method may only be called from inside event handling methods on the posting thread");
+        } else if (event == null) {
+            throw new MyEventBusException("Event may not be null");
+        } else if (postingState.event != event) {
+            throw new MyEventBusException("Only the currently handled event may be aborted");
+        } else if (postingState.subscription.getSubscriberMethod().getThreadMode() != MyThreadMode.POSTING) {
+            throw new MyEventBusException("event handlers may only abort the incoming event");
+        }
+        postingState.canceled = true;
+    }
+
+    /**
+     * 查找接收该事件类型的订阅者
+     *      开启事件继承时 , 从分发缓存中读取 , 包括订阅了父类 / 接口的订阅者
+     * @param eventType 发布的事件的实际类型
+     * @return 可能为 null
+     */
+    private MySubscription[] findSubscriptions(Class<?> eventType) {
+        if (!eventInheritance || skipInheritanceTypes.contains(eventType)) {
+            return subscriptionsByEventType.get(eventType);
+        }
+        MySubscription[] subscriptions = dispatchCache.get(eventType);
+        if (subscriptions == null) {
+            subscriptions = resolveSubscriptions(eventType);
+        }
+        return subscriptions;
+    }
+
+    /**
+     * 查找接收该 Key 的事件的订阅者
+     *      索引由当前的分发快照建立 , 快照没有变化时直接使用缓存的索引
+     * @param eventType 发布的事件的实际类型
+     * @param key 不为 null
+     * @return
+     */
+    private MySubscription[] findKeyedSubscriptions(Class<?> eventType, Object key) {
+        // 先记录版本号 , 再读取分发快照
+        int version = registryVersion;
+        MySubscription[] subscriptions = findSubscriptions(eventType);
+        if (subscriptions == null || subscriptions.length == 0) {
+            return subscriptions;
+        }
+        MyKeyedSubscriptions index = keyedDispatchCache.get(eventType);
+        if (index == null || index.source != subscriptions) {
+            index = MyKeyedSubscriptions.build(subscriptions);
+            keyedDispatchCache.put(eventType, index);
+            // 与 resolveSubscriptions 相同 , 计算期间注册表被修改时移除 , 避免缓存中持有旧的订阅者
+            if (registryVersion != version) {
+                keyedDispatchCache.remove(eventType, index);
+            }
+        }
+        return index.get(key);
+    }
+
+    /**
+     * 合并事件类型本身 + 所有父类 + 所有接口 的订阅者 , 放入分发缓存
+     * @param eventType 发布的事件的实际类型
+     * @return
+     */
+    private MySubscription[] resolveSubscriptions(Class<?> eventType) {
+        // 先记录版本号 , 再读取注册表
+        int version = registryVersion;
+
+        List<MySubscription> merged = null;
+        int mergedTypes = 0;
+        for (Class<?> type : lookupAllEventTypes(eventType)) {
+            MySubscription[] subscriptions = subscriptionsByEventType.get(type);
+            if (subscriptions != null) {
+                if (merged == null) {
+                    merged = new ArrayList<>();
+                }
+                Collections.addAll(merged, subscriptions);
+                mergedTypes++;
+            }
+        }
+        MySubscription[] resolved = merged == null ? NO_SUBSCRIPTIONS : merged.toArray(NO_SUBSCRIPTIONS);
+        // 每个事件类型的订阅者已经排好序 , 合并了多个事件类型时需要重新排序
+        //      排序是稳定的 , 优先级相同时 , 子类型的订阅者在前
+        if (mergedTypes > 1) {
+            Arrays.sort(resolved, PRIORITY_ORDER);
+        }
+
+        dispatchCache.put(eventType, resolved);
+        // 计算期间注册表被修改 , 缓存的可能是旧的快照 , 将其移除 , 下次 post 重新计算
+        //      注册表先修改再自增版本号 , 最后清理缓存 , 所以这里要在放入缓存之后检查
+        if (registryVersion != version) {
+            dispatchCache.remove(eventType, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * 事件类型 eventType 的订阅者发生了变化 , 移除分发缓存中受影响的类型
+     *      只有 eventType 本身及其子类的缓存受影响 , 其它事件类型的缓存保留
+     * 调用时必须持有 registryLock
+     * @param eventType 订阅者发生变化的事件类型
+     */
+    private void invalidateDispatchCache(Class<?> eventType) {
+        registryVersion++;
+        for (Class<?> cachedType : dispatchCache.keySet()) {
+            if (eventType.isAssignableFrom(cachedType)) {
+                dispatchCache.remove(cachedType);
+            }
+        }
+        for (Class<?> cachedType : keyedDispatchCache.keySet()) {
+            if (eventType.isAssignableFrom(cachedType)) {
+                keyedDispatchCache.remove(cachedType);
+            }
+        }
+    }
+
+    /**
+     * 获取事件类型本身 + 所有父类 + 所有实现的接口
+     * @param eventClass 事件类型
+     * @return
+     */
+    static Class<?>[] lookupAllEventTypes(Class<?> eventClass) {
+        Class<?>[] eventTypes = EVENT_TYPES_CACHE.get(eventClass);
+        if (eventTypes == null) {
+            // LinkedHashSet 去重 , 接口可能从多个路径被继承
+            Set<Class<?>> types = new LinkedHashSet<>();
+            for (Class<?> clazz = eventClass; clazz != null; clazz = clazz.getSuperclass()) {
+                types.add(clazz);
+                addInterfaces(types, clazz.getInterfaces());
+            }
+            eventTypes = types.toArray(new Class<?>[0]);
+            EVENT_TYPES_CACHE.put(eventClass, eventTypes);
+        }
+        return eventTypes;
+    }
+
+    /**
+     * 递归添加接口及其父接口
+     * @param types
+     * @param interfaces
+     */
+    private static void addInterfaces(Set<Class<?>> types, Class<?>[] interfaces) {
+        for (Class<?> interfaceClass : interfaces) {
+            if (types.add(interfaceClass)) {
+                addInterfaces(types, interfaceClass.getInterfaces());
+            }
+        }
+    }
+
+    /**
+     * 判断当前线程是否是主线程
+     * @return
+     */
+    private boolean isMainThread() {
+        return mainThreadSupport.isMainThread();
+    }
+
+    /**
+     * 主线程单次批量分发的时间预算 , 主线程分发器使用
+     * @return
+     */
+    int getMainThreadBatchBudgetMillis() {
+        return mainThreadBatchBudgetMillis;
+    }
+
+    /**
+     * 分发写入了日志的事件给一个订阅 , 需要切换线程时放入队列的是分发计数
+     * @param subscription
+     * @param ticket
+     * @param isMainThread 发布线程是否是主线程
+     */
+    private void postJournaledSubscription(MySubscription subscription, MyJournalTicket ticket,
+                                           boolean isMainThread) {
+        MyPoster poster = findPoster(subscription, isMainThread);
+        // 发布线程中执行 , 在释放发布线程的计数之前完成 ; conflate 和批量订阅方法放入队列后即视为送达
+        if (poster == null || subscription.conflation != null || subscription.getSubscriberMethod().isBatch()) {
+            postSingleSubscription(subscription, ticket.event, isMainThread);
+            return;
+        }
+        // 放入队列的是分发计数 , 订阅方法执行完后释放 , 被有界队列丢弃的事件不会确认 , 重启后重放
+        ticket.retain();
+        if (subscription.queue != null) {
+            subscription.queue.enqueue(subscription, ticket);
+        } else {
+            poster.enqueue(subscription, ticket);
+        }
+    }
+
+    /**
+     * 调用订阅方法
+     * @param subscription
+     * @param event
+     * @param isMainThread 发布线程是否是主线程
+     */
+    private void postSingleSubscription(MySubscription subscription, Object event, boolean isMainThread) {
+        // 批量订阅方法 , 单个事件以只有一个元素的 List 传入
+        if (subscription.getSubscriberMethod().isBatch()) {
+            event = Collections.singletonList(event);
+        }
+        MyPoster poster = findPoster(subscription, isMainThread);
+        if (poster == null) {
+            invokeMethod(subscription, event);
+        } else if (subscription.conflation != null) {
+            enqueueConflated(poster, subscription, event);
+        } else if (subscription.queue != null) {
+            subscription.queue.enqueue(subscription, event);
+        } else {
+            poster.enqueue(subscription, event);
+        }
+    }
+
+    /**
+     * conflate 订阅方法 , 事件放入合并槽 , 槽中没有未分发的事件时才放入分发队列
+     * @param poster
+     * @param subscription
+     * @param event
+     */
+    private void enqueueConflated(MyPoster poster, MySubscription subscription, Object event) {
+        Object token = subscription.conflation.offer(event);
+        if (token != null) {
+            poster.enqueue(subscription, token);
+        } else {
+            conflatedEventCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 获取所有 conflate 订阅方法中 , 被新事件替换掉而没有分发的事件个数
+     * @return
+     */
+    public long getConflatedEventCount() {
+        return conflatedEventCount.get();
+    }
+
+    /**
+     * 订阅方法自己的队列已满 , 丢弃了一个事件
+     */
+    void onSubscriberQueueOverflow() {
+        droppedEventCount.incrementAndGet();
+    }
+
+    /**
+     * 获取所有订阅方法自己的队列已满时被丢弃的事件个数
+     * @return
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * 获取 int 类型的事件通道 , 同一个名称总是返回同一个通道
+     *      发布时不装箱 , 适合发布频率很高的数值 , 获取一次之后保存在字段中使用
+     * @param name 通道名称
+     * @return
+     */
+    public MyIntChannel getIntChannel(String name) {
+        MyPrimitiveChannel channel = primitiveChannels.get(name);
+        if (channel == null) {
+            channel = putChannelIfAbsent(name, new MyIntChannel(this, name));
+        }
+        return castChannel(channel, MyIntChannel.class);
+    }
+
+    /**
+     * 获取 long 类型的事件通道 , 同一个名称总是返回同一个通道
+     * @param name 通道名称
+     * @return
+     */
+    public MyLongChannel getLongChannel(String name) {
+        MyPrimitiveChannel channel = primitiveChannels.get(name);
+        if (channel == null) {
+            channel = putChannelIfAbsent(name, new MyLongChannel(this, name));
+        }
+        return castChannel(channel, MyLongChannel.class);
+    }
+
+    /**
+     * 获取 double 类型的事件通道 , 同一个名称总是返回同一个通道
+     * @param name 通道名称
+     * @return
+     */
+    public MyDoubleChannel getDoubleChannel(String name) {
+        MyPrimitiveChannel channel = primitiveChannels.get(name);
+        if (channel == null) {
+            channel = putChannelIfAbsent(name, new MyDoubleChannel(this, name));
+        }
+        return castChannel(channel, MyDoubleChannel.class);
+    }
+
+    private MyPrimitiveChannel putChannelIfAbsent(String name, MyPrimitiveChannel channel) {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        MyPrimitiveChannel existing = primitiveChannels.putIfAbsent(name, channel);
+        return existing != null ? existing : channel;
+    }
+
+    /**
+     * 同一个名称只能对应一种类型的通道
+     */
+    private static <T extends MyPrimitiveChannel> T castChannel(MyPrimitiveChannel channel, Class<T> channelType) {
+        if (!channelType.isInstance(channel)) {
+            throw new MyEventBusException("Channel " + channel.getName() + " is a "
+                    + channel.getClass().getSimpleName() + ", not a " + channelType.getSimpleName());
+        }
+        return channelType.cast(channel);
+    }
+
+    /**
+     * 基本类型通道的子线程订阅者使用的线程池
+     * @return
+     */
+    Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * 该类型的事件是否需要逐个发布 , 写入日志或者转发给其它进程的事件不按组分发
+     * @param eventType 事件的实际类型
+     * @return
+     */
+    private boolean isSingleDispatchType(Class<?> eventType) {
+        if (journal != null && journal.isJournaled(eventType)) {
+            return true;
+        }
+        MyEventBridge bridge = this.bridge;
+        return bridge != null && bridge.isForwarded(eventType);
+    }
+
+    /**
+     * 连接进程间事件桥 , 见 MyEventBridge
+     * @param bridge
+     */
+    void attachBridge(MyEventBridge bridge) {
+        synchronized (registryLock) {
+            if (this.bridge != null) {
+                throw new MyEventBusException("Event bus already has an event bridge, close it first");
+            }
+            this.bridge = bridge;
+        }
+    }
+
+    /**
+     * 断开进程间事件桥 , 之后发布的事件不再转发
+     * @param bridge
+     */
+    void detachBridge(MyEventBridge bridge) {
+        synchronized (registryLock) {
+            if (this.bridge == bridge) {
+                this.bridge = null;
+            }
+        }
+    }
+
+    /**
+     * 重新发布上次运行时写入日志但没有全部送达的事件 , 需要通过 MyEventBusBuilder#journal 开启日志
+     *      在注册完接收这些事件的订阅者之后调用 , 只有第一次调用会重放 , 按照原来的发布顺序在当前线程中发布
+     *      重放的事件使用原来的日志记录 , 全部送达后确认 , 再次崩溃时仍然会重放
+     * @return 重放的事件个数
+     */
+    public int replayJournal() {
+        if (journal == null) {
+            return 0;
+        }
+        int count = 0;
+        for (MyJournal.Entry entry : journal.takeRecovered()) {
+            MyJournalTicket ticket = journal.replay(entry);
+            if (ticket != null) {
+                post(ticket);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取日志中没有确认的事件个数 , 订阅方法返回之后才确认 , 测试中用于等待确认
+     * @return 没有开启日志时返回 0
+     */
+    int getJournalPendingCount() {
+        return journal == null ? 0 : journal.getPendingCount();
+    }
+
+    /**
+     * 刷盘并关闭事件日志 , 之后发布需要写入日志的事件会抛出 MyEventBusException
+     *      用于退出前释放日志目录 , 没有开启日志时什么也不做
+     */
+    public void closeJournal() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * 停止 asyncRingBuffer 的分发线程 , 需要通过 MyEventBusBuilder#asyncRingBuffer 开启
+     *      已经放入缓冲区的事件分发完之后线程退出 , 之后发布 ASYNC 事件会抛出 MyEventBusException
+     *      BUSY_SPIN / YIELD 策略下分发线程一直占用 CPU , 不再使用时需要调用 , 没有开启时什么也不做
+     * @param timeoutMillis 等待分发线程退出的最长时间
+     * @return 分发线程是否都已经退出
+     * @throws InterruptedException
+     */
+    public boolean shutdownAsyncRingBuffer(long timeoutMillis) throws InterruptedException {
+        if (asyncPoster instanceof MyRingBufferPoster) {
+            return ((MyRingBufferPoster) asyncPoster).shutdown(timeoutMillis);
+        }
+        return true;
+    }
+
+    /**
+     * 获取统计的快照 , 需要通过 MyEventBusBuilder#metricsEnabled 开启统计
+     * @return 没有开启统计时返回 null
+     */
+    public MyMetricsSnapshot getMetricsSnapshot() {
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * 根据订阅方法的线程模式 , 选择分发器
+     * @param subscription
+     * @param isMainThread 发布线程是否是主线程
+     * @return 需要在发布线程直接调用订阅方法时返回 null
+     */
+    private MyPoster findPoster(MySubscription subscription, boolean isMainThread) {
+        // 判断订阅方法的线程模式
+        MyThreadMode threadMode = subscription.getSubscriberMethod().getThreadMode();
+
+        switch (threadMode) {
+            case POSTING:
+                // 直接在发布线程调用订阅方法
+                return null;
+            case MAIN:
+                // 看门狗发现多次超时的订阅方法 , 改为在子线程中按顺序执行
+                if (subscription.watchdogState != null && subscription.watchdogState.rerouted) {
+                    return backgroundPoster;
+                }
+                // 如果发布线程是主线程, 直接调用
+                //      否则放入主线程分发队列 , 在主线程中批量执行订阅方法
+                return isMainThread ? null : mainThreadPoster;
+            case MAIN_ORDERED:
+                if (subscription.watchdogState != null && subscription.watchdogState.rerouted) {
+                    return backgroundPoster;
+                }
+                // 总是放入主线程分发队列 , 即使发布线程就是主线程
+                //      保证订阅方法按照发布顺序执行 , 并且不会阻塞发布线程
+                return mainThreadPoster;
+            case BACKGROUND:
+                // 如果是主线程 , 放入子线程分发队列 , 由同一个子线程按顺序执行
+                //      如果是子线程直接执行
+                return isMainThread ? backgroundPoster : null;
+            case ASYNC:
+                // 总是在线程池中执行 , 不会阻塞发布线程
+                return asyncPoster;
+            default:
+                throw new IllegalStateException("Unknown thread mode: " + threadMode);
+        }
+    }
+
+    /**
+     * 分发器从队列中取出事件后 , 调用订阅方法
+     *      节点回收到对象池
+     * @param pendingPost
+     */
+    void invokeSubscriber(MyPendingPost pendingPost) {
+        Object event = pendingPost.event;
+        MySubscription subscription = pendingPost.subscription;
+        long enqueueNanos = pendingPost.enqueueNanos;
+        MyPendingPost.releasePendingPost(pendingPost);
+        invokeSubscriber(subscription, event, enqueueNanos);
+    }
+
+    /**
+     * 在其它线程中调用订阅方法 , 分发器没有使用 MyPendingPost 时调用
+     * @param subscription
+     * @param event
+     * @param enqueueNanos 放入队列的时间 , 订阅没有开启统计时为 0
+     */
+    void invokeSubscriber(MySubscription subscription, Object event, long enqueueNanos) {
+        if (subscription.metrics != null) {
+            subscription.metrics.queueWait.record(System.nanoTime() - enqueueNanos);
+        }
+        // 写入了日志的事件 , 订阅方法执行完后释放计数
+        if (event instanceof MyJournalTicket) {
+            MyJournalTicket ticket = (MyJournalTicket) event;
+            try {
+                invokeMethod(subscription, ticket.event);
+            } finally {
+                ticket.release();
+            }
+            return;
+        }
+        // conflate 订阅方法 , 队列中的是占位 , 取出合并槽中最新的事件
+        if (subscription.conflation != null) {
+            event = subscription.conflation.take(event);
+            if (event == null) {
+                return;
+            }
+        }
+        invokeMethod(subscription, event);
+    }
+
+    /**
+     * 调用订阅者的订阅方法
+     *      通过订阅方法的调用器调用 , 索引中的订阅方法是直接调用 , 否则是反射调用
+     * @param subscription 订阅者对象 + 订阅方法
+     * @param event 发布者传递的消息事件
+     */
+    private void invokeMethod(MySubscription subscription, Object event) {
+        // 已经取消注册 , 事件是在取消注册之前放入分发队列的
+        if (!subscription.active) {
+            return;
+        }
+        Object subscriber = subscription.getSubscriber();
+        // 弱引用模式下订阅者已被回收 , 等待下次清理时移除
+        if (subscriber == null) {
+            return;
+        }
+        // 开启看门狗时 , 测量主线程中的分发 , 已经改为在子线程中分发的不再测量
+        if (subscription.watchdogState != null && !subscription.watchdogState.rerouted) {
+            long start = mainThreadWatchdog.begin(subscription);
+            try {
+                invokeMethod(subscription, subscriber, event);
+            } finally {
+                mainThreadWatchdog.end(subscription, start);
+            }
+        } else {
+            invokeMethod(subscription, subscriber, event);
+        }
+    }
+
+    /**
+     * 调用订阅方法 , 订阅方法抛出的异常不会影响其它订阅者
+     * @param subscription
+     * @param subscriber 订阅者对象 , 不为 null
+     * @param event
+     */
+    private void invokeMethod(MySubscription subscription, Object subscriber, Object event) {
+        if (subscription.metrics != null) {
+            invokeMethodWithMetrics(subscription, subscriber, event);
+            return;
+        }
+        try {
+            subscription.getSubscriberMethod().getInvoker().invoke(
+                    subscriber,     // 订阅者对象
+                    event           // 事件参数类型
+            );
+        } catch (Exception e) {
+            handleSubscriberException(subscription, subscriber, event, e);
+            return;
+        }
+        onSubscriberSuccess(subscription);
+    }
+
+    /**
+     * 开启统计时调用订阅方法 , 记录调用次数 , 异常个数和执行耗时
+     * @param subscription
+     * @param subscriber
+     * @param event
+     */
+    private void invokeMethodWithMetrics(MySubscription subscription, Object subscriber, Object event) {
+        metrics.deliveryCount.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            subscription.getSubscriberMethod().getInvoker().invoke(subscriber, event);
+            onSubscriberSuccess(subscription);
+        } catch (Exception e) {
+            metrics.exceptionCount.incrementAndGet();
+            handleSubscriberException(subscription, subscriber, event, e);
+        } finally {
+            subscription.metrics.execution.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 订阅方法执行成功 , 开启了连续失败停用时 , 清零连续失败次数
+     * @param subscription
+     */
+    private void onSubscriberSuccess(MySubscription subscription) {
+        if (maxConsecutiveFailures > 0) {
+            MySubscriberFailures failures = subscription.failures;
+            if (failures != null) {
+                failures.recordSuccess();
+            }
+        }
+    }
+
+    /**
+     * 基本类型通道的订阅者抛出异常 , 按照 exceptionPolicy 处理 , 通道的订阅者不会被停用
+     * @param listener 通道的订阅者
+     * @param failures 该订阅者的失败记录
+     * @param value 装箱后的值
+     * @param e 订阅者抛出的异常
+     */
+    void handleChannelException(Object listener, MySubscriberFailures failures, Object value, RuntimeException e) {
+        switch (exceptionPolicy) {
+            case RETHROW:
+                throw new MyEventBusException(describeFailure(listener, "onValue", value, -1, false), e);
+            case POST_EVENT:
+                MySubscription[] subscriptions = findSubscriptions(MySubscriberExceptionEvent.class);
+                if (subscriptions != null && subscriptions.length > 0) {
+                    post(new MySubscriberExceptionEvent(this, e, value, listener, "onValue", false));
+                } else {
+                    // 没有订阅者 , 按照 LOG 处理
+                    logFailure(failures, listener, "onValue", value, false, e);
+                }
+                break;
+            case LOG:
+            default:
+                logFailure(failures, listener, "onValue", value, false, e);
+                break;
+        }
+    }
+
+    /**
+     * 订阅方法抛出异常 , 连续失败次数达到上限时停用该订阅 , 然后按照 exceptionPolicy 处理
+     * @param subscription
+     * @param subscriber
+     * @param event
+     * @param e 订阅方法抛出的异常
+     */
+    private void handleSubscriberException(MySubscription subscription, Object subscriber, Object event,
+                                           Exception e) {
+        MySubscriberFailures failures = subscription.getOrCreateFailures();
+        int consecutive = failures.recordFailure();
+        boolean disabled = maxConsecutiveFailures > 0 && consecutive >= maxConsecutiveFailures
+                && disableSubscription(subscription);
+        String methodName = subscription.getSubscriberMethod().getMethodName();
+
+        switch (exceptionPolicy) {
+            case RETHROW:
+                throw new MyEventBusException(describeFailure(subscriber, methodName, event, -1, disabled), e);
+            case POST_EVENT:
+                // 处理异常事件的订阅方法本身失败时不再发布 , 避免无限循环
+                MySubscription[] subscriptions = event instanceof MySubscriberExceptionEvent
+                        ? null : findSubscriptions(MySubscriberExceptionEvent.class);
+                if (subscriptions != null && subscriptions.length > 0) {
+                    post(new MySubscriberExceptionEvent(this, e, event, subscriber, methodName, disabled));
+                } else {
+                    // 没有订阅者 , 按照 LOG 处理
+                    logFailure(failures, subscriber, methodName, event, disabled, e);
+                }
+                break;
+            case LOG:
+            default:
+                logFailure(failures, subscriber, methodName, event, disabled, e);
+                break;
+        }
+    }
+
+    /**
+     * 打印订阅方法的失败 , 同一个订阅方法按照间隔打印 , 停用订阅时总是打印
+     * @param failures 该订阅方法的失败记录
+     * @param subscriber
+     * @param methodName
+     * @param event
+     * @param disabled 是否停用了该订阅
+     * @param e 订阅方法抛出的异常
+     */
+    private void logFailure(MySubscriberFailures failures, Object subscriber, String methodName, Object event,
+                            boolean disabled, Exception e) {
+        int suppressed = failures.tryLog(System.nanoTime(), EXCEPTION_LOG_INTERVAL_NANOS);
+        if (suppressed >= 0 || disabled) {
+            new MyEventBusException(describeFailure(subscriber, methodName, event, suppressed, disabled), e)
+                    .printStackTrace();
+        }
+    }
+
+    /**
+     * 订阅方法失败的描述
+     * @param subscriber
+     * @param methodName
+     * @param event
+     * @param suppressed 上次打印之后没有打印的异常个数 , 小于等于 0 时不输出
+     * @param disabled 是否停用了该订阅
+     * @return
+     */
+    private String describeFailure(Object subscriber, String methodName, Object event, int suppressed,
+                                   boolean disabled) {
+        StringBuilder builder = new StringBuilder("Could not dispatch event ")
+                .append(event.getClass().getName())
+                .append(" to subscriber method ")
+                .append(subscriber.getClass().getName()).append('#').append(methodName);
+        if (suppressed > 0) {
+            builder.append(" (").append(suppressed).append(" similar failures not logged)");
+        }
+        if (disabled) {
+            builder.append(", subscriber method disabled after ").append(maxConsecutiveFailures)
+                    .append(" consecutive failures");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 停用连续失败的订阅 , 与取消注册一样标记为无效 , 按需压缩该事件类型的订阅数组
+     * @param subscription
+     * @return 是否由本次调用停用 , 已经停用或取消注册时返回 false
+     */
+    private boolean disableSubscription(MySubscription subscription) {
+        synchronized (registryLock) {
+            if (!subscription.active) {
+                return false;
+            }
+            subscription.active = false;
+            onSubscriptionInactiveLocked(subscription);
+            return true;
+        }
+    }
+
+    /**
+     * 取消注册
+     *      从 Map<Object, MyRegistration> registrations 集合中获取订阅者的注册句柄 ,
+     *      句柄中保存了该订阅者的所有 MySubscription , 不需要遍历查找
+     *      订阅者没有注册过时不做任何操作
+     * @param subscriber
+     */
+    public void unregister(Object subscriber) {
+        synchronized (registryLock) {
+            purgeStaleSubscribersLocked();
+            MyRegistration registration = registrations.get(lookupKey(subscriber));
+            if (registration != null) {
+                unregisterLocked(registration);
+            }
+        }
+    }
+
+    /**
+     * 通过注册句柄取消注册 , 由 MyRegistration#unregister 调用
+     * @param registration
+     */
+    void unregister(MyRegistration registration) {
+        synchronized (registryLock) {
+            purgeStaleSubscribersLocked();
+            unregisterLocked(registration);
+        }
+    }
+
+    /**
+     * 取消注册
+     *      将该订阅者的所有订阅标记为无效 , post 时跳过无效的订阅
+     *      每个事件类型中无效的订阅超过一半时 , 才拷贝一次只包含有效订阅的新数组
+     * 调用时必须持有 registryLock
+     * @param registration
+     */
+    private void unregisterLocked(MyRegistration registration) {
+        // 已经取消注册 , 或者已经被新的注册替换
+        if (!registration.isActive() || registrations.get(registration.subscriberKey) != registration) {
+            return;
+        }
+        registrations.remove(registration.subscriberKey);
+
+        // 统计每个事件类型新增的无效订阅个数
+        //      因为连续失败已经停用的订阅已经统计过 , 不再重复统计
+        for (MySubscription subscription : registration.subscriptions) {
+            if (subscription.active) {
+                subscription.active = false;
+                onSubscriptionInactiveLocked(subscription);
+            }
+        }
+        registration.deactivate();
+    }
+
+    /**
+     * 订阅被标记为无效 , 统计该事件类型的无效订阅个数 , 超过一半时压缩订阅数组
+     * 调用时必须持有 registryLock
+     * @param subscription
+     */
+    private void onSubscriptionInactiveLocked(MySubscription subscription) {
+        Class<?> type = subscription.getSubscriberMethod().getEventType();
+        Integer count = inactiveCounts.get(type);
+        int inactive = count == null ? 1 : count + 1;
+        MySubscription[] subscriptions = subscriptionsByEventType.get(type);
+        if (subscriptions != null && inactive * 2 >= subscriptions.length) {
+            compactSubscriptions(type, subscriptions);
+        } else {
+            inactiveCounts.put(type, inactive);
+        }
+    }
+
+    /**
+     * 拷贝出只包含有效订阅的新数组 , 替换 subscriptionsByEventType 中的快照
+     *      没有有效订阅时直接移除该事件类型
+     * 调用时必须持有 registryLock
+     * @param type 事件类型
+     * @param subscriptions 该事件类型当前的订阅数组
+     */
+    private void compactSubscriptions(Class<?> type, MySubscription[] subscriptions) {
+        inactiveCounts.remove(type);
+        MySubscription[] remaining = activeSubscriptions(subscriptions);
+        if (remaining.length == subscriptions.length) {
+            return;
+        }
+        if (remaining.length == 0) {
+            subscriptionsByEventType.remove(type);
+        } else {
+            subscriptionsByEventType.put(type, remaining);
+        }
+        // 移除受影响的分发缓存
+        invalidateDispatchCache(type);
+    }
+
+    /**
+     * 拷贝出只包含有效订阅的数组 , 保持原有顺序
+     * @param subscriptions
+     * @return
+     */
+    private static MySubscription[] activeSubscriptions(MySubscription[] subscriptions) {
+        List<MySubscription> remaining = new ArrayList<>(subscriptions.length);
+        for (MySubscription subscription : subscriptions) {
+            if (subscription.active) {
+                remaining.add(subscription);
+            }
+        }
+        return remaining.toArray(NO_SUBSCRIPTIONS);
+    }
+
+    /**
+     * 立即移除所有已被回收的弱引用订阅者
+     *      register / unregister 时会自动清理 , 长时间没有注册操作时可以手动调用
+     * @return 移除的订阅者个数 , 强引用模式下总是 0
+     */
+    public int purgeStaleSubscribers() {
+        if (staleSubscribers == null) {
+            return 0;
+        }
+        synchronized (registryLock) {
+            return purgeStaleSubscribersLocked();
+        }
+    }
+
+    /**
+     * 批量移除已被回收的订阅者
+     *      引用队列为空时直接返回 , 不遍历注册表
+     *      否则遍历注册表 , 与取消注册一样处理所有订阅者已被回收的注册句柄
+     * 调用时必须持有 registryLock
+     * @return 移除的订阅者个数
+     */
+    private int purgeStaleSubscribersLocked() {
+        if (staleSubscribers == null || staleSubscribers.poll() == null) {
+            return 0;
+        }
+        // 清空引用队列 , 之后通过引用是否为空判断订阅者是否被回收
+        while (staleSubscribers.poll() != null) {
+            // 继续出队
+        }
+
+        List<MyRegistration> stale = new ArrayList<>();
+        for (MyRegistration registration : registrations.values()) {
+            if (registration.getSubscriber() == null) {
+                stale.add(registration);
+            }
+        }
+        for (MyRegistration registration : stale) {
+            unregisterLocked(registration);
+        }
+        return stale.size();
+    }
+}
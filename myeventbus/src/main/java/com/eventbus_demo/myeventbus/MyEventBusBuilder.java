@@ -0,0 +1,627 @@
+package com.eventbus_demo.myeventbus;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * 创建 MyEventBus 实例 , 配置 MyEventBus
+ *      通过 MyEventBus.builder() 获取
+ */
+public class MyEventBusBuilder {
+
+    /**
+     * 编译期生成的订阅者索引
+     */
+    List<MySubscriberInfoIndex> subscriberInfoIndexes;
+
+    /**
+     * 是否忽略生成的索引 , 强制使用反射查找订阅方法
+     */
+    boolean ignoreGeneratedIndex;
+
+    /**
+     * 是否要求所有订阅类都必须在索引中
+     *      开启后 , 索引中找不到的订阅类直接抛出异常 , 不再回退到反射
+     */
+    boolean requireGeneratedIndex;
+
+    /**
+     * 是否支持事件继承 , 默认开启
+     */
+    boolean eventInheritance = true;
+
+    /**
+     * 不使用事件继承的事件类型
+     */
+    Set<Class<?>> skipInheritanceTypes;
+
+    /**
+     * 是否以弱引用持有订阅者 , 默认关闭
+     */
+    boolean weakSubscribers;
+
+    /**
+     * 是否开启统计 , 默认关闭
+     */
+    boolean metricsEnabled;
+
+    /**
+     * 订阅方法抛出异常时的处理策略
+     */
+    MyExceptionPolicy exceptionPolicy = MyExceptionPolicy.LOG;
+
+    /**
+     * 订阅方法连续失败多少次之后停用 , 0 表示不停用
+     */
+    int maxConsecutiveFailures;
+
+    /**
+     * 粘性事件总权重上限
+     */
+    long stickyEventMaxWeight = DEFAULT_STICKY_EVENT_MAX_WEIGHT;
+
+    /**
+     * 粘性事件权重计算
+     */
+    MyStickyEventWeigher stickyEventWeigher;
+
+    /**
+     * 主线程单次批量分发的时间预算 , 单位毫秒
+     */
+    int mainThreadBatchBudgetMillis = DEFAULT_MAIN_THREAD_BATCH_BUDGET_MILLIS;
+
+    /**
+     * 主线程订阅方法的时间预算 , 单位毫秒 , 0 表示不监控
+     */
+    long slowHandlerBudgetMillis;
+
+    /**
+     * 主线程订阅方法超时的回调
+     */
+    MySlowHandlerListener slowHandlerListener;
+
+    /**
+     * 主线程订阅方法超时多少次之后改为在子线程中分发 , 0 表示不改变
+     */
+    int slowHandlerRerouteAfter;
+
+    /**
+     * ASYNC 线程池的线程个数
+     */
+    int asyncThreadPoolSize = DEFAULT_ASYNC_THREAD_POOL_SIZE;
+
+    /**
+     * ASYNC 线程池的队列长度
+     */
+    int asyncQueueCapacity = DEFAULT_ASYNC_QUEUE_CAPACITY;
+
+    /**
+     * 自定义的 ASYNC 线程池
+     */
+    Executor asyncExecutor;
+
+    /**
+     * ASYNC 订阅方法是否每次分发使用一个虚拟线程
+     */
+    boolean asyncVirtualThreads;
+
+    /**
+     * ASYNC 线程池已满时的处理策略
+     */
+    MyAsyncRejectionPolicy asyncRejectionPolicy = MyAsyncRejectionPolicy.CALLER_RUNS;
+
+    /**
+     * ASYNC 环形缓冲区的槽位个数 , 0 表示使用线程池分发 ASYNC 事件
+     */
+    int asyncRingBufferCapacity;
+
+    /**
+     * ASYNC 环形缓冲区的分发线程个数
+     */
+    int asyncRingBufferThreads;
+
+    /**
+     * ASYNC 环形缓冲区的分发线程没有事件时的等待策略
+     */
+    MyWaitStrategy asyncWaitStrategy;
+
+    /**
+     * 事件日志所在的目录 , null 表示不写入日志
+     */
+    File journalDirectory;
+
+    /**
+     * 写入日志的事件的序列化方式
+     */
+    MyEventSerializer journalSerializer;
+
+    /**
+     * 写入日志的事件类型 , 只精确匹配
+     */
+    Set<Class<?>> journalEventTypes;
+
+    /**
+     * 日志文件的大小
+     */
+    int journalSegmentSize = DEFAULT_JOURNAL_SEGMENT_SIZE;
+
+    /**
+     * 日志刷盘的间隔 , 单位毫秒
+     */
+    int journalSyncIntervalMillis = DEFAULT_JOURNAL_SYNC_INTERVAL_MILLIS;
+
+    /**
+     * 主线程支持
+     */
+    MyMainThreadSupport mainThreadSupport;
+
+    /**
+     * 默认最多保存 1024 个粘性事件
+     */
+    private static final long DEFAULT_STICKY_EVENT_MAX_WEIGHT = 1024;
+
+    /**
+     * myeventbus-android 模块中的 Android 主线程支持
+     */
+    private static final String ANDROID_MAIN_THREAD_SUPPORT =
+            "com.eventbus_demo.myeventbus.MyAndroidMainThreadSupport";
+
+    /**
+     * 默认主线程单次批量分发 10 毫秒 , 给界面绘制留出时间
+     */
+    private static final int DEFAULT_MAIN_THREAD_BATCH_BUDGET_MILLIS = 10;
+
+    /**
+     * 默认 ASYNC 线程个数为 CPU 核数的 2 倍 , 至少 4 个
+     */
+    private static final int DEFAULT_ASYNC_THREAD_POOL_SIZE =
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * 默认 ASYNC 队列长度
+     */
+    private static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 4096;
+
+    /**
+     * 默认日志文件 4 MB
+     */
+    private static final int DEFAULT_JOURNAL_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * 默认每 10 毫秒刷盘一次
+     */
+    private static final int DEFAULT_JOURNAL_SYNC_INTERVAL_MILLIS = 10;
+
+    MyEventBusBuilder() {
+    }
+
+    /**
+     * 添加注解处理器生成的订阅者索引
+     * @param index
+     * @return
+     */
+    public MyEventBusBuilder addIndex(MySubscriberInfoIndex index) {
+        if (subscriberInfoIndexes == null) {
+            subscriberInfoIndexes = new ArrayList<>();
+        }
+        subscriberInfoIndexes.add(index);
+        return this;
+    }
+
+    /**
+     * 忽略生成的索引 , 默认 false
+     * @param ignoreGeneratedIndex
+     * @return
+     */
+    public MyEventBusBuilder ignoreGeneratedIndex(boolean ignoreGeneratedIndex) {
+        this.ignoreGeneratedIndex = ignoreGeneratedIndex;
+        return this;
+    }
+
+    /**
+     * 要求订阅类必须在索引中 , 默认 false
+     *      用于确认冷启动注册时不会走到反射
+     * @param requireGeneratedIndex
+     * @return
+     */
+    public MyEventBusBuilder requireGeneratedIndex(boolean requireGeneratedIndex) {
+        this.requireGeneratedIndex = requireGeneratedIndex;
+        return this;
+    }
+
+    /**
+     * 是否支持事件继承 , 默认 true
+     *      开启后 , 订阅了父类 / 接口的订阅方法也能接收子类事件
+     *      关闭后 , 只有订阅了事件实际类型的订阅方法能接收该事件
+     * @param eventInheritance
+     * @return
+     */
+    public MyEventBusBuilder eventInheritance(boolean eventInheritance) {
+        this.eventInheritance = eventInheritance;
+        return this;
+    }
+
+    /**
+     * 发布该类型的事件时不使用事件继承 , 只精确匹配
+     *      用于高频发布的事件类型 , 省去分发缓存的查找
+     * @param eventType
+     * @return
+     */
+    public MyEventBusBuilder skipEventInheritance(Class<?> eventType) {
+        if (skipInheritanceTypes == null) {
+            skipInheritanceTypes = new HashSet<>();
+        }
+        skipInheritanceTypes.add(eventType);
+        return this;
+    }
+
+    /**
+     * 是否以弱引用持有订阅者 , 默认 false
+     *      开启后 , 忘记取消注册的订阅者 ( 如已经销毁的 Activity ) 可以被回收 , 不再接收事件
+     *      被回收的订阅者在之后的 register / unregister / purgeStaleSubscribers 中批量移除
+     *      订阅者必须由调用方持有强引用 , 否则可能在注册之后任意时刻被回收
+     * @param weakSubscribers
+     * @return
+     */
+    public MyEventBusBuilder weakSubscribers(boolean weakSubscribers) {
+        this.weakSubscribers = weakSubscribers;
+        return this;
+    }
+
+    /**
+     * 是否开启统计 , 默认 false
+     *      开启后统计事件 / 调用 / 异常个数 , 以及按事件类型和订阅方法统计排队耗时和执行耗时 ,
+     *      通过 MyEventBus#getMetricsSnapshot 获取
+     *      关闭时分发路径上不读取时钟 , 不修改任何计数器
+     * @param metricsEnabled
+     * @return
+     */
+    public MyEventBusBuilder metricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+        return this;
+    }
+
+    /**
+     * 订阅方法抛出异常时的处理策略 , 默认 LOG
+     * @param exceptionPolicy
+     * @return
+     */
+    public MyEventBusBuilder exceptionPolicy(MyExceptionPolicy exceptionPolicy) {
+        if (exceptionPolicy == null) {
+            throw new NullPointerException("exceptionPolicy must not be null");
+        }
+        this.exceptionPolicy = exceptionPolicy;
+        return this;
+    }
+
+    /**
+     * 订阅方法连续失败 failures 次之后停用该订阅方法 , 默认不停用
+     *      停用后不再接收事件 , 与取消注册一样从注册表中移除 , 同一个订阅者的其它订阅方法不受影响
+     *      订阅方法成功一次后连续失败次数清零
+     * @param failures 大于 0
+     * @return
+     */
+    public MyEventBusBuilder disableSubscriberAfterFailures(int failures) {
+        if (failures <= 0) {
+            throw new IllegalArgumentException("failures must be positive");
+        }
+        this.maxConsecutiveFailures = failures;
+        return this;
+    }
+
+    /**
+     * 粘性事件总权重上限 , 超过上限时淘汰最近最少使用的粘性事件
+     *      默认每个事件权重为 1 , 上限 1024 , 可以通过 stickyEventWeigher 按照占用内存计算权重
+     * @param stickyEventMaxWeight
+     * @return
+     */
+    public MyEventBusBuilder stickyEventMaxWeight(long stickyEventMaxWeight) {
+        this.stickyEventMaxWeight = stickyEventMaxWeight;
+        return this;
+    }
+
+    /**
+     * 粘性事件权重计算
+     * @param stickyEventWeigher
+     * @return
+     */
+    public MyEventBusBuilder stickyEventWeigher(MyStickyEventWeigher stickyEventWeigher) {
+        this.stickyEventWeigher = stickyEventWeigher;
+        return this;
+    }
+
+    /**
+     * 主线程单次批量分发的时间预算 , 默认 10 毫秒
+     *      超过预算后让出主线程 , 剩余事件在下一条 Message 中继续分发
+     * @param mainThreadBatchBudgetMillis
+     * @return
+     */
+    public MyEventBusBuilder mainThreadBatchBudgetMillis(int mainThreadBatchBudgetMillis) {
+        if (mainThreadBatchBudgetMillis <= 0) {
+            throw new IllegalArgumentException("mainThreadBatchBudgetMillis must be positive");
+        }
+        this.mainThreadBatchBudgetMillis = mainThreadBatchBudgetMillis;
+        return this;
+    }
+
+    /**
+     * 开启主线程订阅方法看门狗 , 默认关闭
+     *      MAIN / MAIN_ORDERED 订阅方法在主线程中执行超过 budgetMillis 时回调 listener ,
+     *      看门狗线程在超时时采样一次主线程的调用栈 , 同一个订阅方法每 10 秒最多回调一次
+     * @param budgetMillis 时间预算 , 如 16 毫秒 ( 一帧 )
+     * @param listener 在主线程中回调
+     * @return
+     */
+    public MyEventBusBuilder mainThreadWatchdog(long budgetMillis, MySlowHandlerListener listener) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("budgetMillis must be positive");
+        }
+        if (listener == null) {
+            throw new NullPointerException("listener must not be null");
+        }
+        this.slowHandlerBudgetMillis = budgetMillis;
+        this.slowHandlerListener = listener;
+        return this;
+    }
+
+    /**
+     * 主线程订阅方法超时 slowCount 次之后 , 之后的事件改为在 BACKGROUND 子线程中按顺序分发 , 默认不改变
+     *      需要同时开启 mainThreadWatchdog , 只适用于不操作界面的订阅方法
+     * @param slowCount 大于 0
+     * @return
+     */
+    public MyEventBusBuilder rerouteSlowMainThreadHandlers(int slowCount) {
+        if (slowCount <= 0) {
+            throw new IllegalArgumentException("slowCount must be positive");
+        }
+        this.slowHandlerRerouteAfter = slowCount;
+        return this;
+    }
+
+    /**
+     * ASYNC 线程池的线程个数 , 默认为 CPU 核数的 2 倍 , 至少 4 个
+     * @param asyncThreadPoolSize
+     * @return
+     */
+    public MyEventBusBuilder asyncThreadPoolSize(int asyncThreadPoolSize) {
+        if (asyncThreadPoolSize <= 0) {
+            throw new IllegalArgumentException("asyncThreadPoolSize must be positive");
+        }
+        this.asyncThreadPoolSize = asyncThreadPoolSize;
+        return this;
+    }
+
+    /**
+     * ASYNC 线程池的队列长度 , 默认 4096
+     *      线程都在忙并且队列已满时 , 按照 asyncRejectionPolicy 处理新事件
+     * @param asyncQueueCapacity
+     * @return
+     */
+    public MyEventBusBuilder asyncQueueCapacity(int asyncQueueCapacity) {
+        if (asyncQueueCapacity <= 0) {
+            throw new IllegalArgumentException("asyncQueueCapacity must be positive");
+        }
+        this.asyncQueueCapacity = asyncQueueCapacity;
+        return this;
+    }
+
+    /**
+     * 使用自定义的线程池执行 ASYNC 订阅方法
+     *      设置后 asyncThreadPoolSize / asyncQueueCapacity 不再生效 ,
+     *      该线程池抛出 RejectedExecutionException 时仍然按照 asyncRejectionPolicy 处理
+     * @param asyncExecutor
+     * @return
+     */
+    public MyEventBusBuilder asyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        return this;
+    }
+
+    /**
+     * ASYNC 订阅方法每次分发使用一个虚拟线程 , 默认 false
+     *      适合阻塞在 I/O 上的订阅方法 , 需要 JDK 21 及以上 , 可以先通过 MyVirtualThreads#isSupported 判断
+     * @param asyncVirtualThreads
+     * @return
+     */
+    public MyEventBusBuilder asyncVirtualThreads(boolean asyncVirtualThreads) {
+        this.asyncVirtualThreads = asyncVirtualThreads;
+        return this;
+    }
+
+    /**
+     * ASYNC 线程池已满时的处理策略 , 默认 CALLER_RUNS
+     * @param asyncRejectionPolicy
+     * @return
+     */
+    public MyEventBusBuilder asyncRejectionPolicy(MyAsyncRejectionPolicy asyncRejectionPolicy) {
+        if (asyncRejectionPolicy == null) {
+            throw new NullPointerException("asyncRejectionPolicy == null");
+        }
+        this.asyncRejectionPolicy = asyncRejectionPolicy;
+        return this;
+    }
+
+    /**
+     * ASYNC 事件改为通过预先分配的环形缓冲区分发 , 默认使用线程池
+     *      放入事件时不创建节点 , 不提交任务 , 固定个数的分发线程每次取出一批事件
+     *      缓冲区已满时按照 asyncRejectionPolicy 处理 , 订阅方法自己的有界队列和基本类型通道仍然使用 ASYNC 线程池
+     * @param capacity 槽位个数 , 向上取整为 2 的幂
+     * @param threads 分发线程个数 , 第一次发布 ASYNC 事件时启动 , 之后一直运行
+     * @param waitStrategy 分发线程没有事件时的等待策略
+     * @return
+     */
+    public MyEventBusBuilder asyncRingBuffer(int capacity, int threads, MyWaitStrategy waitStrategy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        if (waitStrategy == null) {
+            throw new NullPointerException("waitStrategy == null");
+        }
+        this.asyncRingBufferCapacity = capacity;
+        this.asyncRingBufferThreads = threads;
+        this.asyncWaitStrategy = waitStrategy;
+        return this;
+    }
+
+    /**
+     * 开启事件日志 , 默认关闭
+     *      journalEventType 指定的事件类型在分发之前写入日志 , 所有订阅方法执行完后确认
+     *      进程退出时没有确认的事件 , 在下次启动后通过 MyEventBus#replayJournal 重新发布
+     *      日志写入内存映射的文件 , 进程崩溃不丢失 , 系统崩溃最多丢失 journalSyncIntervalMillis 内写入的事件
+     *      同一个目录同时只能被一个 MyEventBus 使用
+     * @param directory 日志目录 , 不存在时创建
+     * @param serializer 写入日志的事件的序列化方式
+     * @return
+     */
+    public MyEventBusBuilder journal(File directory, MyEventSerializer serializer) {
+        if (directory == null) {
+            throw new NullPointerException("directory == null");
+        }
+        if (serializer == null) {
+            throw new NullPointerException("serializer == null");
+        }
+        this.journalDirectory = directory;
+        this.journalSerializer = serializer;
+        return this;
+    }
+
+    /**
+     * 发布该类型的事件时写入日志 , 只精确匹配 , 需要同时设置 journal
+     * @param eventType
+     * @return
+     */
+    public MyEventBusBuilder journalEventType(Class<?> eventType) {
+        if (journalEventTypes == null) {
+            journalEventTypes = new HashSet<>();
+        }
+        journalEventTypes.add(eventType);
+        return this;
+    }
+
+    /**
+     * 日志文件的大小 , 默认 4 MB
+     *      写满后创建新文件 , 大部分事件已经确认的旧文件被合并到新文件中 , 全部确认的文件被删除
+     * @param journalSegmentSize 单位字节 , 至少 4 KB
+     * @return
+     */
+    public MyEventBusBuilder journalSegmentSize(int journalSegmentSize) {
+        if (journalSegmentSize < 4096) {
+            throw new IllegalArgumentException("journalSegmentSize must be at least 4096");
+        }
+        this.journalSegmentSize = journalSegmentSize;
+        return this;
+    }
+
+    /**
+     * 日志刷盘的间隔 , 默认 10 毫秒 , 在后台线程中刷盘 , 不阻塞发布线程
+     * @param journalSyncIntervalMillis 单位毫秒
+     * @return
+     */
+    public MyEventBusBuilder journalSyncIntervalMillis(int journalSyncIntervalMillis) {
+        if (journalSyncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("journalSyncIntervalMillis must be positive");
+        }
+        this.journalSyncIntervalMillis = journalSyncIntervalMillis;
+        return this;
+    }
+
+    /**
+     * 设置主线程支持
+     *      默认在 Android 中使用 Looper 主线程 , 普通 JVM 中使用 MyExecutorMainThreadSupport.getDefault()
+     * @param mainThreadSupport
+     * @return
+     */
+    public MyEventBusBuilder mainThreadSupport(MyMainThreadSupport mainThreadSupport) {
+        this.mainThreadSupport = mainThreadSupport;
+        return this;
+    }
+
+    /**
+     * 获取主线程支持 , 没有设置时自动检测运行环境
+     * @return
+     */
+    MyMainThreadSupport getMainThreadSupport() {
+        if (mainThreadSupport != null) {
+            return mainThreadSupport;
+        }
+        MyMainThreadSupport androidMainThreadSupport = createAndroidMainThreadSupport();
+        if (androidMainThreadSupport != null) {
+            return androidMainThreadSupport;
+        }
+        return MyExecutorMainThreadSupport.getDefault();
+    }
+
+    /**
+     * myeventbus-android 模块在 classpath 中 , 并且主线程 Looper 可用时 , 创建 Android 主线程支持
+     * @return 不是 Android 环境时返回 null
+     */
+    private static MyMainThreadSupport createAndroidMainThreadSupport() {
+        try {
+            Class<?> clazz = Class.forName(ANDROID_MAIN_THREAD_SUPPORT);
+            return (MyMainThreadSupport) clazz.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            // 构造方法抛出异常 , 如主线程 Looper 不可用 , 或 Android SDK 中的 stub 实现
+            return null;
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException e) {
+            throw new MyEventBusException("Could not create " + ANDROID_MAIN_THREAD_SUPPORT, e);
+        } catch (LinkageError e) {
+            // 有 Android 模块 , 但没有 Android 运行环境 , 如普通 JVM 中运行单元测试
+            return null;
+        }
+    }
+
+    /**
+     * 使用当前配置创建 MyEventBus , 并设置为 MyEventBus.getInstance() 返回的全局单例
+     *      必须在第一次调用 MyEventBus.getInstance() 之前调用
+     * @return
+     */
+    public MyEventBus installDefaultEventBus() {
+        synchronized (MyEventBus.class) {
+            if (MyEventBus.instance != null) {
+                throw new MyEventBusException("Default instance already exists." +
+                        " It may be only set once before it's used the first time to ensure consistent behavior.");
+            }
+            MyEventBus.instance = build();
+            return MyEventBus.instance;
+        }
+    }
+
+    /**
+     * 使用当前配置创建 MyEventBus
+     * @return
+     */
+    public MyEventBus build() {
+        if (ignoreGeneratedIndex && requireGeneratedIndex) {
+            throw new MyEventBusException("ignoreGeneratedIndex and requireGeneratedIndex can not be both enabled");
+        }
+        if (asyncExecutor != null && asyncVirtualThreads) {
+            throw new MyEventBusException("asyncExecutor and asyncVirtualThreads can not be both set");
+        }
+        if (asyncVirtualThreads && !MyVirtualThreads.isSupported()) {
+            throw new MyEventBusException("asyncVirtualThreads requires a runtime with virtual threads (JDK 21+)");
+        }
+        if (asyncRingBufferCapacity > 0 && asyncVirtualThreads) {
+            throw new MyEventBusException("asyncRingBuffer and asyncVirtualThreads can not be both set");
+        }
+        if (slowHandlerRerouteAfter > 0 && slowHandlerListener == null) {
+            throw new MyEventBusException("rerouteSlowMainThreadHandlers requires mainThreadWatchdog to be set");
+        }
+        if (journalDirectory == null && journalEventTypes != null) {
+            throw new MyEventBusException("journalEventType requires journal to be set");
+        }
+        if (journalDirectory != null && journalEventTypes == null) {
+            throw new MyEventBusException("journal requires at least one journalEventType");
+        }
+        return new MyEventBus(this);
+    }
+}
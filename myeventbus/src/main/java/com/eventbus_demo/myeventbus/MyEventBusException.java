@@ -0,0 +1,17 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * MyEventBus 内部错误 , 如配置错误 , 索引缺失等
+ */
+public class MyEventBusException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public MyEventBusException(String message) {
+        super(message);
+    }
+
+    public MyEventBusException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,53 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MyEventBus 的统计 , 通过 MyEventBusBuilder#metricsEnabled 开启
+ *      关闭时 MyEventBus 中该对象为 null , 分发路径上只多一次判空
+ */
+final class MyEventBusMetrics {
+
+    final AtomicLong postCount = new AtomicLong();
+    final AtomicLong deliveryCount = new AtomicLong();
+    final AtomicLong noSubscriberCount = new AtomicLong();
+    final AtomicLong exceptionCount = new AtomicLong();
+
+    /**
+     * Key - 订阅者类名#订阅方法名(事件类名) , 重载的订阅方法分别统计
+     */
+    private final ConcurrentHashMap<String, MyDeliveryMetrics> bySubscriber = new ConcurrentHashMap<>();
+
+    /**
+     * 只在注册时调用 , 同一个类的多个订阅者对象共用一个统计
+     * @param subscriberClass
+     * @param subscriberMethod
+     * @return
+     */
+    MyDeliveryMetrics forSubscriber(Class<?> subscriberClass, MySubscriberMethod subscriberMethod) {
+        String key = subscriberClass.getName() + "#" + subscriberMethod.getMethodName()
+                + "(" + subscriberMethod.getEventType().getName() + ")";
+        MyDeliveryMetrics metrics = bySubscriber.get(key);
+        if (metrics == null) {
+            MyDeliveryMetrics created = new MyDeliveryMetrics(subscriberMethod.getEventType());
+            metrics = bySubscriber.putIfAbsent(key, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    MyMetricsSnapshot snapshot() {
+        MyMetricsSnapshot snapshot = new MyMetricsSnapshot(
+                postCount.get(), deliveryCount.get(), noSubscriberCount.get(), exceptionCount.get());
+        for (Map.Entry<String, MyDeliveryMetrics> entry : bySubscriber.entrySet()) {
+            MyDeliveryMetrics metrics = entry.getValue();
+            snapshot.putSubscriber(entry.getKey(), metrics.eventType.getName(),
+                    metrics.queueWait.snapshot(), metrics.execution.snapshot());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,29 @@
+package com.eventbus_demo.myeventbus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 写入日志或者转发给其它进程的事件的序列化方式 , 见 MyEventBusBuilder#journal 和 MyEventBridgeBuilder#serializer
+ *      只写入事件的字段 , 事件类型由日志或者事件桥记录 , 同一个类型的写入和读取必须对称
+ *      在发布线程中调用 , 可能被多个线程同时调用
+ */
+public interface MyEventSerializer {
+    /**
+     * 写入事件
+     * @param event 需要写入日志或者转发的事件
+     * @param output
+     * @throws IOException
+     */
+    void write(Object event, DataOutput output) throws IOException;
+
+    /**
+     * 读取事件 , 重放日志 , 或者收到其它进程转发的事件时调用
+     * @param eventType 写入时事件的实际类型
+     * @param input 只包含该事件写入的内容
+     * @return
+     * @throws IOException
+     */
+    Object read(Class<?> eventType, DataInput input) throws IOException;
+}
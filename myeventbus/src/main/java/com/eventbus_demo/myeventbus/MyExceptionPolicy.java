@@ -0,0 +1,21 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 订阅方法抛出异常时的处理策略 , 见 MyEventBusBuilder#exceptionPolicy
+ */
+public enum MyExceptionPolicy {
+    /**
+     * 打印异常 , 同一个订阅方法每 5 秒最多打印一次 , 期间的异常只计数 , 默认策略
+     */
+    LOG,
+    /**
+     * 发布 MySubscriberExceptionEvent , 由订阅了该事件的订阅者处理
+     *      没有订阅者 , 或者处理 MySubscriberExceptionEvent 的订阅方法本身抛出异常时 , 按照 LOG 处理
+     */
+    POST_EVENT,
+    /**
+     * 包装为 MyEventBusException 抛出 , 在发布线程中分发时从 post 中抛出 ,
+     * 在其它线程中分发时由该线程的线程池处理
+     */
+    RETHROW
+}
@@ -0,0 +1,78 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 普通 JVM 中的主线程支持
+ *      没有 Looper , 使用一个单线程的线程池作为主线程 , MAIN / MAIN_ORDERED 订阅方法都在该线程中执行
+ *      实现了 Executor , 可以将其它任务也放到该主线程中执行
+ */
+public class MyExecutorMainThreadSupport implements MyMainThreadSupport, Executor {
+
+    /**
+     * 默认的主线程 , 所有没有指定主线程支持的 MyEventBus 共用
+     */
+    private static volatile MyExecutorMainThreadSupport defaultInstance;
+
+    /**
+     * 主线程
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 主线程对象 , 第一次执行任务时创建
+     */
+    private volatile Thread mainThread;
+
+    public MyExecutorMainThreadSupport() {
+        final ThreadFactory threadFactory = new MyNamedThreadFactory("MyEventBus-main");
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = threadFactory.newThread(runnable);
+                mainThread = thread;
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * 获取默认的主线程支持
+     * @return
+     */
+    public static MyExecutorMainThreadSupport getDefault() {
+        MyExecutorMainThreadSupport instance = defaultInstance;
+        if (instance == null) {
+            synchronized (MyExecutorMainThreadSupport.class) {
+                instance = defaultInstance;
+                if (instance == null) {
+                    instance = new MyExecutorMainThreadSupport();
+                    defaultInstance = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return Thread.currentThread() == mainThread;
+    }
+
+    @Override
+    public MyPoster createPoster(MyEventBus eventBus) {
+        return new MyExecutorPoster(eventBus, executor);
+    }
+
+    /**
+     * 在主线程中执行任务
+     * @param command
+     */
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+}
@@ -0,0 +1,84 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 通过单线程的线程池切换线程的分发器 , 普通 JVM 中作为主线程分发器
+ *      与 MyHandlerPoster 一样 , 队列不为空时只提交一个任务 , 在目标线程中批量分发
+ *      队列为空时任务立即结束 , 不占用目标线程
+ */
+final class MyExecutorPoster implements Runnable, MyPoster {
+
+    /**
+     * 等待分发的事件
+     */
+    private final MyPendingPostQueue queue;
+    private final MyEventBus eventBus;
+    /**
+     * 目标线程
+     */
+    private final Executor executor;
+    /**
+     * 是否已经提交了任务等待执行
+     */
+    private boolean executorRunning;
+
+    MyExecutorPoster(MyEventBus eventBus, Executor executor) {
+        this.eventBus = eventBus;
+        this.executor = executor;
+        queue = new MyPendingPostQueue();
+    }
+
+    @Override
+    public void enqueue(MySubscription subscription, Object event) {
+        MyPendingPost pendingPost = MyPendingPost.obtainPendingPost(subscription, event);
+        synchronized (this) {
+            queue.enqueue(pendingPost);
+            if (!executorRunning) {
+                executorRunning = true;
+                executor.execute(this);
+            }
+        }
+    }
+
+    @Override
+    public void enqueueAll(MySubscription subscription, List<?> events) {
+        MyPendingPost first = MyPendingPost.obtainPendingPosts(subscription, events);
+        synchronized (this) {
+            queue.enqueueAll(first);
+            if (!executorRunning) {
+                executorRunning = true;
+                executor.execute(this);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean completed = false;
+        try {
+            while (true) {
+                MyPendingPost pendingPost = queue.poll();
+                if (pendingPost == null) {
+                    synchronized (this) {
+                        // 加锁后再检查一次 , 避免与 enqueue 竞争丢失事件
+                        pendingPost = queue.poll();
+                        if (pendingPost == null) {
+                            executorRunning = false;
+                            completed = true;
+                            return;
+                        }
+                    }
+                }
+                eventBus.invokeSubscriber(pendingPost);
+            }
+        } finally {
+            if (!completed) {
+                // 异常策略是抛出时 , 订阅方法的异常结束了该任务 , 重新提交任务分发剩余的事件
+                //      executorRunning 保持为 true , 新的任务发现队列为空时再清除
+                executor.execute(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * int 通道的订阅者 , 见 MyIntChannel
+ *      回调参数是基本类型 , 不装箱
+ */
+public interface MyIntListener {
+    /**
+     * 接收通道中发布的值
+     * @param value
+     */
+    void onValue(int value);
+}
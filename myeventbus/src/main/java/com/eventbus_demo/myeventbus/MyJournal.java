@@ -0,0 +1,753 @@
+package com.eventbus_demo.myeventbus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 事件日志 , 见 MyEventBusBuilder#journal
+ *      指定类型的事件在发布时写入内存映射的分段文件 , 所有订阅方法执行完后写入确认记录
+ *      写入内存映射区域后进程崩溃不会丢失 , 同步线程按照间隔批量刷盘 , 发布线程不等待刷盘
+ *      切换分段时 , 旧分段的刷盘和压缩也交给同步线程 , 压缩复制的事件刷盘之后才删除旧分段
+ *      启动时读取所有分段 , 没有确认的事件由 MyEventBus#replayJournal 重新发布
+ *
+ * 分段文件格式 : MAGIC + VERSION , 之后是连续的记录 , 长度为 0 的位置是末尾
+ *      记录 : 长度 ( int ) + CRC32 ( int ) + 内容 , 内容的第一个字节是记录类型
+ *      TYPE : 类型编号 ( int ) + 类名 , 每个分段中第一次出现该类型时写入 , 之后的事件只写编号
+ *      EVENT : 序号 ( long ) + 类型编号 ( int ) + 序列化的事件
+ *      ACK : 序号 ( long )
+ * 最早的分段中所有事件都已确认后删除 ; 切换分段时 , 最早的分段中只剩少量未确认的事件 , 复制到当前分段后删除
+ */
+final class MyJournal implements Runnable {
+
+    private static final int MAGIC = 0x4D594A4C;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER = 8;
+    /**
+     * 记录头 : 长度 + CRC32
+     */
+    private static final int RECORD_HEADER = 8;
+
+    private static final byte TYPE = 1;
+    private static final byte EVENT = 2;
+    private static final byte ACK = 3;
+
+    private static final int TYPE_HEADER = 1 + 4;
+    private static final int EVENT_HEADER = 1 + 8 + 4;
+    private static final int ACK_RECORD = RECORD_HEADER + 1 + 8;
+
+    /**
+     * 未确认的事件不超过该比例时 , 切换分段时复制到当前分段
+     */
+    private static final int COMPACT_LIVE_RATIO = 4;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "journal.lock";
+
+    /**
+     * Android API 19 之前没有 StandardCharsets
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * 一个分段文件
+     */
+    static final class Segment {
+        final long id;
+        final File file;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        /**
+         * 下一条记录的写入位置 , 只有当前分段会写入
+         */
+        int position;
+        /**
+         * 写入的事件个数 , 以及其中还没有确认的个数
+         */
+        int eventCount;
+        int liveCount;
+        /**
+         * 该分段中已经写入的类型编号
+         */
+        final Map<String, Integer> typeIds = new HashMap<>();
+        /**
+         * 写入该分段的所有事件 , 压缩时只遍历该分段的事件 , 已确认或已复制到其它分段的跳过
+         */
+        final List<Entry> written = new ArrayList<>();
+
+        Segment(long id, File file, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+    }
+
+    /**
+     * 一个未确认的事件 , 以及它最新的一份记录所在的位置
+     */
+    static final class Entry {
+        final long sequence;
+        final String typeName;
+        Segment segment;
+        int payloadOffset;
+        int payloadLength;
+
+        Entry(long sequence, String typeName) {
+            this.sequence = sequence;
+            this.typeName = typeName;
+        }
+    }
+
+    /**
+     * 发布线程序列化事件使用的缓冲区 , 每个线程一个 , 重复使用
+     */
+    private static final class Output extends ByteArrayOutputStream {
+        final DataOutputStream data = new DataOutputStream(this);
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    private final File directory;
+    private final MyEventSerializer serializer;
+    /**
+     * 需要写入日志的事件类型 , 只精确匹配 , 以及类名到类型的映射 , 重放时使用
+     */
+    private final Set<Class<?>> eventTypes;
+    private final Map<String, Class<?>> eventTypesByName;
+    private final int segmentSize;
+    private final long syncIntervalMillis;
+
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private final ThreadLocal<Output> outputs = new ThreadLocal<Output>() {
+        @Override
+        protected Output initialValue() {
+            return new Output();
+        }
+    };
+
+    /**
+     * 以下字段只在持有 this 锁时读写
+     */
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private Segment active;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long nextSequence;
+    private long nextSegmentId;
+    /**
+     * 启动时恢复的未确认的事件 , 按照序号排序 , 等待重放
+     */
+    private List<Entry> recovered = Collections.emptyList();
+    /**
+     * 上次刷盘之后是否写入了记录
+     */
+    private boolean dirty;
+    /**
+     * 已经切换掉 , 还没有刷盘的分段 , 由同步线程刷盘
+     */
+    private final List<Segment> unsynced = new ArrayList<>();
+    /**
+     * 切换分段后需要压缩 , 由同步线程执行
+     */
+    private boolean compactPending;
+    private boolean closed;
+    private final CRC32 crc = new CRC32();
+    private final byte[] scratch = new byte[EVENT_HEADER];
+
+    private MyJournal(File directory, MyEventSerializer serializer, Set<Class<?>> eventTypes, int segmentSize,
+                      long syncIntervalMillis, FileChannel lockChannel, FileLock lock) {
+        this.directory = directory;
+        this.serializer = serializer;
+        this.eventTypes = eventTypes;
+        this.segmentSize = segmentSize;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        eventTypesByName = new HashMap<>();
+        for (Class<?> eventType : eventTypes) {
+            eventTypesByName.put(eventType.getName(), eventType);
+        }
+    }
+
+    /**
+     * 打开日志目录 , 读取已有的分段 , 启动同步线程
+     * @param directory 日志目录 , 同一时刻只能被一个 MyEventBus 使用
+     * @return
+     */
+    static MyJournal open(File directory, MyEventSerializer serializer, Set<Class<?>> eventTypes, int segmentSize,
+                          long syncIntervalMillis) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new MyEventBusException("Could not create journal directory " + directory);
+        }
+        FileChannel lockChannel = null;
+        try {
+            lockChannel = new RandomAccessFile(new File(directory, LOCK_FILE), "rw").getChannel();
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new MyEventBusException("Journal directory " + directory + " is already in use");
+            }
+            MyJournal journal = new MyJournal(directory, serializer, new HashSet<>(eventTypes), segmentSize,
+                    syncIntervalMillis, lockChannel, lock);
+            synchronized (journal) {
+                journal.recover();
+            }
+            Thread thread = new Thread(journal, "MyEventBus-journal");
+            thread.setDaemon(true);
+            thread.start();
+            return journal;
+        } catch (IOException e) {
+            closeQuietly(lockChannel);
+            throw new MyEventBusException("Could not open journal " + directory, e);
+        } catch (RuntimeException e) {
+            closeQuietly(lockChannel);
+            throw e;
+        }
+    }
+
+    /**
+     * 事件类型是否需要写入日志
+     * @param eventType 事件的实际类型
+     * @return
+     */
+    boolean isJournaled(Class<?> eventType) {
+        return eventTypes.contains(eventType);
+    }
+
+    /**
+     * 在发布线程中序列化事件并写入日志
+     * @param event
+     * @return 该事件的分发计数
+     */
+    MyJournalTicket append(Object event) {
+        Output output = outputs.get();
+        output.reset();
+        try {
+            serializer.write(event, output.data);
+        } catch (IOException e) {
+            throw new MyEventBusException("Could not serialize event " + event.getClass().getName(), e);
+        }
+        long sequence = write(event.getClass().getName(), output.buffer(), output.size());
+        return new MyJournalTicket(this, sequence, event);
+    }
+
+    private synchronized long write(String typeName, byte[] payload, int length) {
+        if (closed) {
+            throw new MyEventBusException("Journal " + directory + " is closed");
+        }
+        try {
+            int eventSize = RECORD_HEADER + EVENT_HEADER + length;
+            int typeSize = active.typeIds.containsKey(typeName) ? 0 : typeRecordSize(typeName);
+            if (active.remaining() < typeSize + eventSize) {
+                roll(typeRecordSize(typeName) + eventSize);
+            }
+            long sequence = nextSequence++;
+            Entry entry = new Entry(sequence, typeName);
+            writeEvent(entry, payload, length);
+            entries.put(sequence, entry);
+            active.eventCount++;
+            dirty = true;
+            return sequence;
+        } catch (IOException e) {
+            throw new MyEventBusException("Could not append to journal " + directory, e);
+        }
+    }
+
+    /**
+     * 所有订阅方法执行完 , 写入确认记录 , 最早的分段全部确认后由同步线程删除
+     * @param sequence
+     */
+    synchronized void acknowledge(long sequence) {
+        Entry entry = entries.remove(sequence);
+        if (entry == null || closed) {
+            return;
+        }
+        entry.segment.liveCount--;
+        try {
+            if (active.remaining() < ACK_RECORD) {
+                roll(ACK_RECORD);
+            }
+            putByte(0, ACK);
+            putLong(1, sequence);
+            writeRecord(1 + 8, null, 0);
+            dirty = true;
+        } catch (IOException e) {
+            // 确认丢失只会导致重启后重复分发
+            new MyEventBusException("Could not acknowledge event " + sequence + " in journal " + directory, e)
+                    .printStackTrace();
+        }
+    }
+
+    /**
+     * 取出启动时恢复的未确认的事件 , 只返回一次
+     * @return 按照序号排序
+     */
+    synchronized List<Entry> takeRecovered() {
+        List<Entry> result = recovered;
+        recovered = Collections.emptyList();
+        return result;
+    }
+
+    /**
+     * 读取恢复的事件 , 创建重放使用的分发计数 , 仍然使用原来的序号
+     * @param entry
+     * @return 该事件已经确认 , 类型不再需要写入日志 , 或者无法读取时返回 null , 后两种情况直接确认
+     */
+    MyJournalTicket replay(Entry entry) {
+        byte[] payload;
+        synchronized (this) {
+            if (entries.get(entry.sequence) != entry) {
+                return null;
+            }
+            payload = new byte[entry.payloadLength];
+            ByteBuffer buffer = entry.segment.buffer.duplicate();
+            buffer.position(entry.payloadOffset);
+            buffer.get(payload);
+        }
+        Class<?> eventType = eventTypesByName.get(entry.typeName);
+        try {
+            if (eventType == null) {
+                throw new MyEventBusException("Event type " + entry.typeName + " is not journaled anymore");
+            }
+            Object event = serializer.read(eventType, new DataInputStream(new ByteArrayInputStream(payload)));
+            if (event == null) {
+                throw new MyEventBusException("Serializer returned null for " + entry.typeName);
+            }
+            return new MyJournalTicket(this, entry.sequence, event);
+        } catch (IOException | RuntimeException e) {
+            new MyEventBusException("Could not replay journaled event " + entry.sequence + " of type "
+                    + entry.typeName + ", event dropped", e).printStackTrace();
+            acknowledge(entry.sequence);
+            return null;
+        }
+    }
+
+    /**
+     * 刷盘并关闭所有分段 , 之后写入日志会抛出异常 , 确认被忽略
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : unsynced) {
+                segment.buffer.force();
+            }
+            unsynced.clear();
+            active.buffer.force();
+            for (Segment segment : segments) {
+                closeQuietly(segment.channel);
+            }
+            try {
+                lock.release();
+            } catch (IOException e) {
+                // 关闭 channel 时也会释放
+            }
+            closeQuietly(lockChannel);
+            notifyAll();
+        }
+    }
+
+    /**
+     * 同步线程 , 按照间隔把当前分段刷盘 , 一次刷盘包含期间所有发布线程的写入
+     *      切换分段时被唤醒 , 刷盘切换掉的分段 , 压缩最早的分段 , 刷盘之后再删除已经没有未确认事件的分段
+     *      压缩在刷盘之前执行 , 删除的分段中复制出去的事件一定已经刷盘 , 系统崩溃也不会丢失
+     */
+    @Override
+    public void run() {
+        while (true) {
+            List<Segment> rolled;
+            MappedByteBuffer buffer;
+            synchronized (this) {
+                if (unsynced.isEmpty() && !compactPending) {
+                    try {
+                        wait(syncIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                if (compactPending) {
+                    compactPending = false;
+                    compact();
+                }
+                // 压缩时可能切换了分段 , 压缩之后再取出 , 复制的事件所在的分段都在本次刷盘
+                rolled = new ArrayList<>(unsynced);
+                unsynced.clear();
+                buffer = dirty ? active.buffer : null;
+                dirty = false;
+            }
+            for (Segment segment : rolled) {
+                segment.buffer.force();
+            }
+            if (buffer != null) {
+                buffer.force();
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                deleteAcknowledgedSegments();
+            }
+        }
+    }
+
+    /**
+     * 读取已有的分段 , 分段末尾不完整或者校验失败的记录忽略
+     */
+    private void recover() throws IOException {
+        File[] files = directory.listFiles();
+        List<File> segmentFiles = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    segmentFiles.add(file);
+                }
+            }
+        }
+        Collections.sort(segmentFiles, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return Long.compare(segmentId(o1), segmentId(o2));
+            }
+        });
+        for (File file : segmentFiles) {
+            long id = segmentId(file);
+            recoverSegment(file, id);
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+        }
+
+        List<Entry> pending = new ArrayList<>(entries.values());
+        Collections.sort(pending, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry o1, Entry o2) {
+                return Long.compare(o1.sequence, o2.sequence);
+            }
+        });
+        recovered = pending;
+        active = createSegment(segmentSize);
+        deleteAcknowledgedSegments();
+    }
+
+    private void recoverSegment(File file, long id) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        long size = channel.size();
+        if (size < SEGMENT_HEADER) {
+            // 创建时崩溃 , 没有任何记录
+            closeQuietly(channel);
+            file.delete();
+            return;
+        }
+        if (size > Integer.MAX_VALUE) {
+            closeQuietly(channel);
+            throw new MyEventBusException("Journal segment " + file + " is too large");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            closeQuietly(channel);
+            throw new MyEventBusException("Unknown journal segment format " + file);
+        }
+        Segment segment = new Segment(id, file, channel, buffer);
+        segments.addLast(segment);
+
+        Map<Integer, String> typeNames = new HashMap<>();
+        int position = SEGMENT_HEADER;
+        while (position + RECORD_HEADER <= size) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > size - position - RECORD_HEADER) {
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.position(position + RECORD_HEADER);
+            buffer.get(body);
+            crc.reset();
+            crc.update(body, 0, length);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                // 写入时崩溃 , 之后的内容都不可信
+                break;
+            }
+            ByteBuffer record = ByteBuffer.wrap(body);
+            byte kind = record.get();
+            if (kind == TYPE) {
+                int typeId = record.getInt();
+                typeNames.put(typeId, new String(body, TYPE_HEADER, length - TYPE_HEADER, UTF_8));
+            } else if (kind == EVENT) {
+                long sequence = record.getLong();
+                String typeName = typeNames.get(record.getInt());
+                if (typeName == null) {
+                    break;
+                }
+                // 压缩时复制到新分段的事件 , 以新分段中的为准
+                Entry previous = entries.get(sequence);
+                if (previous != null) {
+                    previous.segment.liveCount--;
+                }
+                Entry entry = new Entry(sequence, typeName);
+                entry.segment = segment;
+                entry.payloadOffset = position + RECORD_HEADER + EVENT_HEADER;
+                entry.payloadLength = length - EVENT_HEADER;
+                entries.put(sequence, entry);
+                segment.written.add(entry);
+                segment.eventCount++;
+                segment.liveCount++;
+                nextSequence = Math.max(nextSequence, sequence + 1);
+            } else if (kind == ACK) {
+                long sequence = record.getLong();
+                Entry entry = entries.remove(sequence);
+                if (entry != null) {
+                    entry.segment.liveCount--;
+                }
+                nextSequence = Math.max(nextSequence, sequence + 1);
+            } else {
+                break;
+            }
+            position += RECORD_HEADER + length;
+        }
+        segment.position = position;
+    }
+
+    private Segment createSegment(int size) throws IOException {
+        long id = nextSegmentId++;
+        File file = new File(directory, String.format(Locale.US, "%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            Segment segment = new Segment(id, file, channel, buffer);
+            segment.position = SEGMENT_HEADER;
+            segments.addLast(segment);
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            file.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * 当前分段已满 , 切换到新的分段 , 旧分段的刷盘和压缩交给同步线程 , 发布线程不等待
+     * @param required 需要写入的记录大小
+     */
+    private void roll(int required) throws IOException {
+        Segment previous = active;
+        active = createSegment(Math.max(segmentSize, SEGMENT_HEADER + required));
+        unsynced.add(previous);
+        compactPending = true;
+        notifyAll();
+    }
+
+    /**
+     * 最早的分段中只剩少量未确认的事件 , 复制到当前分段 , 当前分段刷盘后可以删除
+     *      只从最早的分段开始依次处理 , 到开始压缩时的当前分段为止
+     *      压缩晚于切换分段执行 , 当前分段可能已经写入了很多记录 , 放不下时切换到新的分段再复制
+     *      只遍历该分段写入的事件 , 不遍历所有未确认的事件
+     * 在同步线程中调用 , 调用时必须持有 this 锁
+     */
+    private void compact() {
+        Segment last = active;
+        // 切换分段会修改 segments , 遍历副本
+        for (Segment segment : new ArrayList<>(segments)) {
+            if (segment == last) {
+                break;
+            }
+            if (segment.liveCount == 0) {
+                continue;
+            }
+            if (segment.liveCount * COMPACT_LIVE_RATIO > segment.eventCount) {
+                break;
+            }
+            List<Entry> live = new ArrayList<>(segment.liveCount);
+            int required = 0;
+            for (Entry entry : segment.written) {
+                if (entry.segment == segment && entries.get(entry.sequence) == entry) {
+                    live.add(entry);
+                    required += RECORD_HEADER + EVENT_HEADER + entry.payloadLength + typeRecordSize(entry.typeName);
+                }
+            }
+            if (required > active.remaining()) {
+                try {
+                    roll(required);
+                } catch (IOException e) {
+                    new MyEventBusException("Could not compact journal " + directory, e).printStackTrace();
+                    return;
+                }
+            }
+            Collections.sort(live, new Comparator<Entry>() {
+                @Override
+                public int compare(Entry o1, Entry o2) {
+                    return Long.compare(o1.sequence, o2.sequence);
+                }
+            });
+            for (Entry entry : live) {
+                byte[] payload = new byte[entry.payloadLength];
+                ByteBuffer buffer = entry.segment.buffer.duplicate();
+                buffer.position(entry.payloadOffset);
+                buffer.get(payload);
+                entry.segment.liveCount--;
+                writeEvent(entry, payload, payload.length);
+                active.eventCount++;
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * 在当前分段写入事件记录 , 需要时先写入类型记录
+     */
+    private void writeEvent(Entry entry, byte[] payload, int length) {
+        Integer typeId = active.typeIds.get(entry.typeName);
+        if (typeId == null) {
+            typeId = active.typeIds.size();
+            active.typeIds.put(entry.typeName, typeId);
+            byte[] name = entry.typeName.getBytes(UTF_8);
+            putByte(0, TYPE);
+            putInt(1, typeId);
+            writeRecord(TYPE_HEADER, name, name.length);
+        }
+        putByte(0, EVENT);
+        putLong(1, entry.sequence);
+        putInt(9, typeId);
+        entry.payloadOffset = writeRecord(EVENT_HEADER, payload, length);
+        entry.payloadLength = length;
+        entry.segment = active;
+        active.liveCount++;
+        active.written.add(entry);
+    }
+
+    /**
+     * 在当前分段末尾写入一条记录 , 内容为 scratch 的前 headerLength 个字节 + payload
+     *      最后写入长度 , 写入期间崩溃时该记录被忽略
+     * @return payload 在分段中的位置
+     */
+    private int writeRecord(int headerLength, byte[] payload, int payloadLength) {
+        Segment segment = active;
+        int position = segment.position;
+        crc.reset();
+        crc.update(scratch, 0, headerLength);
+        if (payloadLength > 0) {
+            crc.update(payload, 0, payloadLength);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.position(position + RECORD_HEADER);
+        buffer.put(scratch, 0, headerLength);
+        if (payloadLength > 0) {
+            buffer.put(payload, 0, payloadLength);
+        }
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, headerLength + payloadLength);
+        segment.position = position + RECORD_HEADER + headerLength + payloadLength;
+        return position + RECORD_HEADER + headerLength;
+    }
+
+    /**
+     * 从最早的分段开始 , 删除所有事件都已确认 ( 或已复制并刷盘 ) 的分段
+     *      确认记录总是在事件所在的分段或者之后的分段中 , 只删除最前面的分段 , 不会丢失仍然需要的确认
+     *      还没有刷盘的分段不删除
+     */
+    private void deleteAcknowledgedSegments() {
+        while (!segments.isEmpty()) {
+            Segment segment = segments.peekFirst();
+            if (segment == active || segment.liveCount > 0 || unsynced.contains(segment)) {
+                return;
+            }
+            segments.pollFirst();
+            closeQuietly(segment.channel);
+            segment.file.delete();
+        }
+    }
+
+    /**
+     * 获取没有确认的事件个数 , 包括启动时恢复还没有重放的事件
+     * @return
+     */
+    synchronized int getPendingCount() {
+        return entries.size();
+    }
+
+    /**
+     * 获取日志目录中的分段个数
+     * @return
+     */
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    private static int typeRecordSize(String typeName) {
+        return RECORD_HEADER + TYPE_HEADER + typeName.getBytes(UTF_8).length;
+    }
+
+    private static long segmentId(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new MyEventBusException("Unexpected journal segment name " + file);
+        }
+    }
+
+    private void putByte(int offset, byte value) {
+        scratch[offset] = value;
+    }
+
+    private void putInt(int offset, int value) {
+        scratch[offset] = (byte) (value >>> 24);
+        scratch[offset + 1] = (byte) (value >>> 16);
+        scratch[offset + 2] = (byte) (value >>> 8);
+        scratch[offset + 3] = (byte) value;
+    }
+
+    private void putLong(int offset, long value) {
+        putInt(offset, (int) (value >>> 32));
+        putInt(offset + 4, (int) value);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // 忽略
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个写入了日志的事件的分发计数 , 所有订阅方法执行完后确认 , 重启后不再重放
+ *      需要切换线程的订阅 , 放入分发队列的是该对象 , 调用订阅方法前取出事件 , 与 conflate 的占位相同
+ *      发布线程持有一个计数 , 遍历完订阅者后释放 , 避免在分发期间确认
+ */
+final class MyJournalTicket {
+
+    private final MyJournal journal;
+    final long sequence;
+    final Object event;
+    /**
+     * 还没有执行完的分发个数 + 发布线程持有的一个
+     */
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    MyJournalTicket(MyJournal journal, long sequence, Object event) {
+        this.journal = journal;
+        this.sequence = sequence;
+        this.event = event;
+    }
+
+    /**
+     * 放入一个分发队列之前调用
+     */
+    void retain() {
+        pending.incrementAndGet();
+    }
+
+    /**
+     * 一次分发执行完 , 最后一次时确认
+     */
+    void release() {
+        if (pending.decrementAndGet() == 0) {
+            journal.acknowledge(sequence);
+        }
+    }
+}
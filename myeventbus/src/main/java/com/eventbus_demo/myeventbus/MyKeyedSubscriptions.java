@@ -0,0 +1,93 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个事件类型的订阅者按照 Key 建立的索引 , post(event, key) 使用
+ *      没有 Key 的订阅者接收所有事件 , 有 Key 的订阅者只接收 Key 相同的事件
+ *      每个 Key 的数组已经包含了没有 Key 的订阅者 , 并保持原数组中的优先级顺序 , 分发时只查找一次
+ *      索引由分发快照计算 , 快照被替换后重新计算 , 本身不可修改
+ */
+final class MyKeyedSubscriptions {
+
+    /**
+     * 计算该索引使用的分发快照
+     */
+    final MySubscription[] source;
+
+    /**
+     * 没有 Key 的订阅者 , Key 没有对应的订阅者时使用
+     */
+    private final MySubscription[] unkeyed;
+
+    /**
+     * Key - 订阅者注册时指定的 Key
+     * Value - 该 Key 的订阅者 + 没有 Key 的订阅者
+     */
+    private final Map<Object, MySubscription[]> byKey;
+
+    private MyKeyedSubscriptions(MySubscription[] source, MySubscription[] unkeyed,
+                                 Map<Object, MySubscription[]> byKey) {
+        this.source = source;
+        this.unkeyed = unkeyed;
+        this.byKey = byKey;
+    }
+
+    /**
+     * 由分发快照建立索引 , 只遍历一次快照
+     * @param source 已经按照优先级排好序的分发快照
+     * @return
+     */
+    static MyKeyedSubscriptions build(MySubscription[] source) {
+        List<MySubscription> unkeyed = new ArrayList<>(source.length);
+        Map<Object, List<MySubscription>> keyed = null;
+        for (MySubscription subscription : source) {
+            Object key = subscription.key;
+            if (key == null) {
+                // 没有 Key 的订阅者加入所有 Key 的数组
+                unkeyed.add(subscription);
+                if (keyed != null) {
+                    for (List<MySubscription> subscriptions : keyed.values()) {
+                        subscriptions.add(subscription);
+                    }
+                }
+                continue;
+            }
+            if (keyed == null) {
+                keyed = new LinkedHashMap<>();
+            }
+            List<MySubscription> subscriptions = keyed.get(key);
+            if (subscriptions == null) {
+                // 第一次遇到该 Key , 先加入排在前面的没有 Key 的订阅者
+                subscriptions = new ArrayList<>(unkeyed);
+                keyed.put(key, subscriptions);
+            }
+            subscriptions.add(subscription);
+        }
+
+        // 没有任何订阅者指定 Key , 直接使用原快照
+        if (keyed == null) {
+            return new MyKeyedSubscriptions(source, source, Collections.<Object, MySubscription[]>emptyMap());
+        }
+        Map<Object, MySubscription[]> byKey = new HashMap<>(keyed.size() * 2);
+        for (Map.Entry<Object, List<MySubscription>> entry : keyed.entrySet()) {
+            byKey.put(entry.getKey(), entry.getValue().toArray(new MySubscription[0]));
+        }
+        return new MyKeyedSubscriptions(source, unkeyed.toArray(new MySubscription[0]), byKey);
+    }
+
+    /**
+     * 获取接收该 Key 的事件的订阅者
+     * @param key 不为 null
+     * @return
+     */
+    MySubscription[] get(Object key) {
+        MySubscription[] subscriptions = byKey.get(key);
+        return subscriptions != null ? subscriptions : unkeyed;
+    }
+}
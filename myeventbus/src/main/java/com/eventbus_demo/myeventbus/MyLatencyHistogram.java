@@ -0,0 +1,54 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 耗时直方图 , 按照 2 的幂分桶 , 第 0 个桶记录 0 纳秒 , 第 i 个桶记录 [2^(i-1), 2^i) 纳秒的耗时
+ *      记录只需要几次原子自增 , 不分配对象 , 精度是 2 倍以内 , 足够定位慢在哪里
+ */
+final class MyLatencyHistogram {
+
+    /**
+     * 桶的个数 , 覆盖 long 的全部非负值
+     */
+    static final int BUCKET_COUNT = 64;
+
+    /**
+     * 各个桶的记录次数 , 总次数在快照时求和 , 记录时少一次原子操作
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     * @param nanos 负数 ( 时钟回拨 ) 按 0 记录
+     */
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        // 0 纳秒在第 0 个桶 , 其余按照最高位所在的位置分桶
+        buckets.incrementAndGet(BUCKET_COUNT - Long.numberOfLeadingZeros(nanos));
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get())) {
+            if (maxNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 获取当前的快照 , 记录与快照并发时各个数值之间可能有少量偏差
+     * @return
+     */
+    MyLatencySnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new MyLatencySnapshot(counts, totalNanos.get(), maxNanos.get());
+    }
+}
@@ -0,0 +1,115 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.Locale;
+
+/**
+ * 耗时直方图的快照 , 见 MyMetricsSnapshot
+ *      按照 2 的幂分桶 , 百分位数返回所在桶的上限 , 误差在 2 倍以内
+ */
+public final class MyLatencySnapshot {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    MyLatencySnapshot(long[] bucketCounts, long totalNanos, long maxNanos) {
+        long count = 0;
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * 合并两个快照 , 如同一个事件类型的多个订阅方法
+     * @param other
+     * @return 新的快照
+     */
+    MyLatencySnapshot plus(MyLatencySnapshot other) {
+        long[] counts = new long[bucketCounts.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = bucketCounts[i] + other.bucketCounts[i];
+        }
+        return new MyLatencySnapshot(counts, totalNanos + other.totalNanos, Math.max(maxNanos, other.maxNanos));
+    }
+
+    /**
+     * 记录的次数
+     * @return
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * 获取百分位数
+     * @param percentile 0 ~ 100 , 如 50 / 99 / 99.9
+     * @return 该百分位所在桶的上限 ( 不超过最大值 ) , 没有记录时返回 0
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * 各个桶的记录次数 , 第 0 个桶是 0 纳秒 , 第 i 个桶是 [2^(i-1), 2^i) 纳秒
+     * @return 数组的拷贝
+     */
+    public long[] getBucketCounts() {
+        return bucketCounts.clone();
+    }
+
+    /**
+     * 第 i 个桶中最大的耗时
+     * @param bucket
+     * @return
+     */
+    public static long getBucketUpperBound(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count
+                + " mean=" + formatMicros(getMeanNanos())
+                + " p50=" + formatMicros(getPercentileNanos(50))
+                + " p99=" + formatMicros(getPercentileNanos(99))
+                + " max=" + formatMicros(maxNanos);
+    }
+
+    private static String formatMicros(long nanos) {
+        return String.format(Locale.ROOT, "%.2fus", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,13 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * long 通道的订阅者 , 见 MyLongChannel
+ *      回调参数是基本类型 , 不装箱
+ */
+public interface MyLongListener {
+    /**
+     * 接收通道中发布的值
+     * @param value
+     */
+    void onValue(long value);
+}
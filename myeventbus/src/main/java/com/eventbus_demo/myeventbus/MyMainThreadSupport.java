@@ -0,0 +1,22 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 主线程支持 , 将 MyEventBus 与 Android 解耦
+ *      Android 中由 myeventbus-android 模块的 MyAndroidMainThreadSupport 实现 , 主线程是 Looper 主线程
+ *      普通 JVM 中默认使用 MyExecutorMainThreadSupport , 主线程是一个单线程的线程池
+ */
+public interface MyMainThreadSupport {
+
+    /**
+     * 当前线程是否是主线程
+     * @return
+     */
+    boolean isMainThread();
+
+    /**
+     * 创建主线程分发器 , MAIN / MAIN_ORDERED 事件通过该分发器切换到主线程
+     * @param eventBus
+     * @return
+     */
+    MyPoster createPoster(MyEventBus eventBus);
+}
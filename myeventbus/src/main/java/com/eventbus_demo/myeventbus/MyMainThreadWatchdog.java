@@ -0,0 +1,175 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 主线程订阅方法看门狗 , 见 MyEventBusBuilder#mainThreadWatchdog
+ *      主线程中每次分发只读取两次时钟 , 写几个 volatile 字段
+ *      看门狗线程定期检查当前分发是否超过时间预算 , 只在超时时采样一次主线程的调用栈
+ *      同一个订阅方法的超时回调有最小间隔 , 可以在正式版本中开启
+ */
+final class MyMainThreadWatchdog implements Runnable {
+
+    /**
+     * 同一个订阅方法两次回调的最小间隔 , 期间的超时只计数
+     */
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * 没有分发超过该时间 , 看门狗线程退出 , 下次分发时重新启动
+     */
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * 每个被监控的订阅 ( MAIN / MAIN_ORDERED ) 的超时状态
+     */
+    static final class HandlerState {
+        /**
+         * 累计超时次数 , 只在主线程中读写
+         */
+        int slowCount;
+        /**
+         * 上次回调的时间 , 只在主线程中读写
+         */
+        long lastReportNanos;
+        /**
+         * 之后的事件是否改为在 BACKGROUND 子线程中分发
+         */
+        volatile boolean rerouted;
+    }
+
+    private final long budgetNanos;
+    private final MySlowHandlerListener listener;
+    /**
+     * 超时多少次之后改为在子线程中分发 , 0 表示不改变
+     */
+    private final int rerouteAfter;
+
+    /**
+     * 当前正在分发的订阅 , 没有分发时为 null , 只在主线程中写入
+     */
+    private volatile MySubscription current;
+    private volatile Thread currentThread;
+    private volatile long currentStartNanos;
+    /**
+     * 分发序号 , 用于判断调用栈采样属于哪一次分发
+     */
+    private volatile long currentSequence;
+
+    /**
+     * 看门狗线程采样的调用栈 , 以及所属的分发序号
+     */
+    private volatile StackTraceElement[] sample;
+    private volatile long sampleSequence = -1;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    MyMainThreadWatchdog(long budgetNanos, MySlowHandlerListener listener, int rerouteAfter) {
+        this.budgetNanos = budgetNanos;
+        this.listener = listener;
+        this.rerouteAfter = rerouteAfter;
+    }
+
+    /**
+     * 主线程中开始分发
+     * @param subscription
+     * @return 开始时间 , 在订阅方法中嵌套分发时返回 -1 , 只监控最外层的订阅方法
+     */
+    long begin(MySubscription subscription) {
+        if (current != null) {
+            return -1;
+        }
+        long start = System.nanoTime();
+        currentThread = Thread.currentThread();
+        currentStartNanos = start;
+        currentSequence++;
+        current = subscription;
+        if (!running.get() && running.compareAndSet(false, true)) {
+            startThread();
+        }
+        return start;
+    }
+
+    /**
+     * 主线程中分发结束 , 超过时间预算时计数 , 按照间隔回调 , 超时次数达到上限时改为在子线程中分发
+     * @param subscription
+     * @param start begin 的返回值
+     */
+    void end(MySubscription subscription, long start) {
+        if (start < 0) {
+            return;
+        }
+        long end = System.nanoTime();
+        current = null;
+        long duration = end - start;
+        if (duration <= budgetNanos) {
+            return;
+        }
+
+        HandlerState state = subscription.watchdogState;
+        state.slowCount++;
+        if (rerouteAfter > 0 && state.slowCount >= rerouteAfter && !state.rerouted) {
+            state.rerouted = true;
+        } else if (state.lastReportNanos != 0 && end - state.lastReportNanos < REPORT_INTERVAL_NANOS) {
+            return;
+        }
+        state.lastReportNanos = end;
+
+        StackTraceElement[] stackTrace = sampleSequence == currentSequence ? sample : null;
+        MySubscriberMethod method = subscription.getSubscriberMethod();
+        Object subscriber = subscription.getSubscriber();
+        listener.onSlowHandler(new MySlowHandlerReport(
+                subscriber != null ? subscriber.getClass() : Object.class,
+                method.getMethodName(),
+                method.getEventType(),
+                duration,
+                state.slowCount,
+                stackTrace,
+                state.rerouted));
+    }
+
+    private void startThread() {
+        Thread thread = new Thread(this, "MyEventBus-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 看门狗线程 , 每半个时间预算检查一次当前分发
+     */
+    @Override
+    public void run() {
+        long intervalMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(budgetNanos) / 2);
+        long lastActiveNanos = System.nanoTime();
+        long lastSequence = currentSequence;
+        try {
+            while (true) {
+                Thread.sleep(intervalMillis);
+                long now = System.nanoTime();
+                long sequence = currentSequence;
+                Thread thread = currentThread;
+                if (current != null && sequence != sampleSequence && now - currentStartNanos > budgetNanos) {
+                    StackTraceElement[] stackTrace = thread.getStackTrace();
+                    // 采样期间该次分发已经结束 , 调用栈不属于该订阅方法
+                    if (current != null && currentSequence == sequence) {
+                        sample = stackTrace;
+                        sampleSequence = sequence;
+                    }
+                }
+                if (sequence != lastSequence || current != null) {
+                    lastSequence = sequence;
+                    lastActiveNanos = now;
+                } else if (now - lastActiveNanos > IDLE_NANOS) {
+                    running.set(false);
+                    // 退出前再检查一次 , 避免与 begin 竞争导致没有看门狗线程
+                    if (current == null || !running.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            running.set(false);
+        }
+    }
+}
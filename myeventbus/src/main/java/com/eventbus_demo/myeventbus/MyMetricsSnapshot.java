@@ -0,0 +1,128 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MyEventBus 统计的快照 , 通过 MyEventBus#getMetricsSnapshot 获取
+ *      计数器 : 发布的事件个数 , 订阅方法的调用次数 , 没有订阅者的事件个数 , 订阅方法抛出的异常个数
+ *      耗时 : 按照订阅的事件类型 , 以及 订阅者类名#订阅方法名(事件类名) , 分别统计排队耗时和执行耗时
+ */
+public final class MyMetricsSnapshot {
+
+    private final long postCount;
+    private final long deliveryCount;
+    private final long noSubscriberCount;
+    private final long exceptionCount;
+
+    private final Map<String, MyLatencySnapshot> queueWaitByEventType = new TreeMap<>();
+    private final Map<String, MyLatencySnapshot> executionByEventType = new TreeMap<>();
+    private final Map<String, MyLatencySnapshot> queueWaitBySubscriber = new TreeMap<>();
+    private final Map<String, MyLatencySnapshot> executionBySubscriber = new TreeMap<>();
+
+    MyMetricsSnapshot(long postCount, long deliveryCount, long noSubscriberCount, long exceptionCount) {
+        this.postCount = postCount;
+        this.deliveryCount = deliveryCount;
+        this.noSubscriberCount = noSubscriberCount;
+        this.exceptionCount = exceptionCount;
+    }
+
+    /**
+     * 放入一个订阅方法的统计 , 同时合并到事件类型的统计中
+     */
+    void putSubscriber(String subscriber, String eventType,
+                       MyLatencySnapshot queueWait, MyLatencySnapshot execution) {
+        queueWaitBySubscriber.put(subscriber, queueWait);
+        executionBySubscriber.put(subscriber, execution);
+        merge(queueWaitByEventType, eventType, queueWait);
+        merge(executionByEventType, eventType, execution);
+    }
+
+    private static void merge(Map<String, MyLatencySnapshot> map, String key, MyLatencySnapshot latency) {
+        MyLatencySnapshot existing = map.get(key);
+        map.put(key, existing == null ? latency : existing.plus(latency));
+    }
+
+    /**
+     * 发布的事件个数 , postAll 中的每个事件都计数
+     * @return
+     */
+    public long getPostCount() {
+        return postCount;
+    }
+
+    /**
+     * 订阅方法的调用次数 , 批量订阅方法每次调用计数一次
+     * @return
+     */
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    /**
+     * 没有任何订阅者的事件个数
+     * @return
+     */
+    public long getNoSubscriberCount() {
+        return noSubscriberCount;
+    }
+
+    /**
+     * 订阅方法抛出的异常个数
+     * @return
+     */
+    public long getExceptionCount() {
+        return exceptionCount;
+    }
+
+    /**
+     * Key - 订阅的事件类名 , 按名称排序
+     * @return
+     */
+    public Map<String, MyLatencySnapshot> getQueueWaitByEventType() {
+        return Collections.unmodifiableMap(queueWaitByEventType);
+    }
+
+    public Map<String, MyLatencySnapshot> getExecutionByEventType() {
+        return Collections.unmodifiableMap(executionByEventType);
+    }
+
+    /**
+     * Key - 订阅者类名#订阅方法名(事件类名) , 按名称排序
+     * @return
+     */
+    public Map<String, MyLatencySnapshot> getQueueWaitBySubscriber() {
+        return Collections.unmodifiableMap(queueWaitBySubscriber);
+    }
+
+    public Map<String, MyLatencySnapshot> getExecutionBySubscriber() {
+        return Collections.unmodifiableMap(executionBySubscriber);
+    }
+
+    /**
+     * 导出为文本 , 每行一项 , 用于日志 / 调试
+     * @return
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("posts=").append(postCount)
+                .append(" deliveries=").append(deliveryCount)
+                .append(" noSubscriber=").append(noSubscriberCount)
+                .append(" exceptions=").append(exceptionCount).append('\n');
+        appendLatencies(builder, "event ", queueWaitByEventType, executionByEventType);
+        appendLatencies(builder, "subscriber ", queueWaitBySubscriber, executionBySubscriber);
+        return builder.toString();
+    }
+
+    private static void appendLatencies(StringBuilder builder, String prefix,
+                                        Map<String, MyLatencySnapshot> queueWait,
+                                        Map<String, MyLatencySnapshot> execution) {
+        for (Map.Entry<String, MyLatencySnapshot> entry : execution.entrySet()) {
+            builder.append(prefix).append(entry.getKey()).append('\n')
+                    .append("    queueWait ").append(queueWait.get(entry.getKey())).append('\n')
+                    .append("    execution ").append(entry.getValue()).append('\n');
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建 MyEventBus 使用的线程 , 线程名称带有前缀 , 方便在线程列表中定位
+ *      创建的都是守护线程 , 不会阻止进程退出
+ */
+final class MyNamedThreadFactory implements ThreadFactory {
+    /**
+     * 线程名称前缀
+     */
+    private final String prefix;
+    /**
+     * 线程编号
+     */
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    MyNamedThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + "-" + threadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
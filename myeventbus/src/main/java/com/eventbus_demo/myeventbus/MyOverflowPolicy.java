@@ -0,0 +1,24 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 订阅者队列已满时 , 新事件的处理策略 , 见 MySubscribe#queueCapacity
+ */
+public enum MyOverflowPolicy {
+    /**
+     * 阻塞发布线程 , 直到订阅者处理完队列中的事件 , 不丢失事件
+     *      在主线程中发布时会阻塞主线程 , 订阅方法中给自己发布事件时不阻塞 , 允许超出容量
+     */
+    BLOCK,
+    /**
+     * 丢弃队列中等待时间最长的事件 , 放入新事件
+     */
+    DROP_OLDEST,
+    /**
+     * 丢弃新事件
+     */
+    DROP_NEWEST,
+    /**
+     * 丢弃新事件 , 并在发布线程中抛出 MyEventBusException
+     */
+    FAIL
+}
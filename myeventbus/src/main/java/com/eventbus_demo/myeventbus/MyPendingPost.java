@@ -0,0 +1,134 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 等待分发的事件 , 作为队列中的节点
+ *      节点使用完之后回收到对象池中复用 , 稳定状态下发布事件不再创建新对象
+ */
+final class MyPendingPost {
+    /**
+     * 跨线程使用的节点对象池 , 如 主线程 / 子线程 分发队列
+     *      发布线程自己的队列使用 MyPostingThreadState 中的对象池 , 不需要同步
+     */
+    private final static List<MyPendingPost> pendingPostPool = new ArrayList<>();
+
+    /**
+     * 对象池中最多保留的节点个数
+     */
+    private static final int MAX_POOL_SIZE = 10000;
+
+    /**
+     * 等待分发的事件
+     */
+    Object event;
+    /**
+     * 接收事件的 订阅者对象 + 订阅方法 , 发布线程自己的队列中为 null
+     */
+    MySubscription subscription;
+    /**
+     * 队列中的下一个节点
+     */
+    MyPendingPost next;
+    /**
+     * 放入队列的时间 , 只在订阅开启了统计时记录
+     */
+    long enqueueNanos;
+    /**
+     * 发布线程自己的队列中 , post(event, key) 的 Key
+     */
+    Object key;
+
+    /**
+     * 从对象池中获取节点
+     * @param subscription
+     * @param event
+     * @return
+     */
+    static MyPendingPost obtainPendingPost(MySubscription subscription, Object event) {
+        synchronized (pendingPostPool) {
+            int size = pendingPostPool.size();
+            if (size > 0) {
+                MyPendingPost pendingPost = pendingPostPool.remove(size - 1);
+                pendingPost.event = event;
+                pendingPost.subscription = subscription;
+                pendingPost.next = null;
+                pendingPost.enqueueNanos = enqueueNanos(subscription);
+                return pendingPost;
+            }
+        }
+        MyPendingPost pendingPost = new MyPendingPost();
+        pendingPost.event = event;
+        pendingPost.subscription = subscription;
+        pendingPost.enqueueNanos = enqueueNanos(subscription);
+        return pendingPost;
+    }
+
+    /**
+     * 订阅开启了统计时读取时钟 , 用于统计排队耗时 , 否则不读取
+     * @param subscription
+     * @return
+     */
+    private static long enqueueNanos(MySubscription subscription) {
+        return subscription != null && subscription.metrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * 从对象池中一次获取多个节点 , 按照事件顺序连接成链表 , 只获取一次对象池的锁
+     * @param subscription
+     * @param events 不能为空
+     * @return 链表头节点
+     */
+    static MyPendingPost obtainPendingPosts(MySubscription subscription, List<?> events) {
+        MyPendingPost head = null;
+        MyPendingPost tail = null;
+        int index = 0;
+        long enqueueNanos = enqueueNanos(subscription);
+        synchronized (pendingPostPool) {
+            for (int size = pendingPostPool.size(); size > 0 && index < events.size(); size--, index++) {
+                MyPendingPost pendingPost = pendingPostPool.remove(size - 1);
+                pendingPost.event = events.get(index);
+                pendingPost.subscription = subscription;
+                pendingPost.next = null;
+                pendingPost.enqueueNanos = enqueueNanos;
+                if (tail == null) {
+                    head = pendingPost;
+                } else {
+                    tail.next = pendingPost;
+                }
+                tail = pendingPost;
+            }
+        }
+        // 对象池中的节点不够 , 创建新的节点
+        for (; index < events.size(); index++) {
+            MyPendingPost pendingPost = new MyPendingPost();
+            pendingPost.event = events.get(index);
+            pendingPost.subscription = subscription;
+            pendingPost.enqueueNanos = enqueueNanos;
+            if (tail == null) {
+                head = pendingPost;
+            } else {
+                tail.next = pendingPost;
+            }
+            tail = pendingPost;
+        }
+        return head;
+    }
+
+    /**
+     * 回收节点到对象池
+     * @param pendingPost
+     */
+    static void releasePendingPost(MyPendingPost pendingPost) {
+        pendingPost.event = null;
+        pendingPost.subscription = null;
+        pendingPost.next = null;
+        synchronized (pendingPostPool) {
+            // 防止对象池无限增长
+            if (pendingPostPool.size() < MAX_POOL_SIZE) {
+                pendingPostPool.add(pendingPost);
+            }
+        }
+    }
+}
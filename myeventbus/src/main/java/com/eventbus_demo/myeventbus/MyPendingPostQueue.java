@@ -0,0 +1,82 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 跨线程使用的分发队列 , 由 MyPendingPost 节点组成的链表
+ */
+final class MyPendingPostQueue {
+    /**
+     * 队头 / 队尾
+     */
+    private MyPendingPost head;
+    private MyPendingPost tail;
+
+    /**
+     * 放入队尾 , 唤醒等待的线程
+     * @param pendingPost
+     */
+    synchronized void enqueue(MyPendingPost pendingPost) {
+        if (pendingPost == null) {
+            throw new NullPointerException("null cannot be enqueued");
+        }
+        if (tail != null) {
+            tail.next = pendingPost;
+            tail = pendingPost;
+        } else if (head == null) {
+            head = tail = pendingPost;
+        } else {
+            throw new IllegalStateException("Head present, but no tail");
+        }
+        notifyAll();
+    }
+
+    /**
+     * 将 obtainPendingPosts 获取的链表整体放入队尾 , 只唤醒一次等待的线程
+     * @param first 链表头节点
+     */
+    void enqueueAll(MyPendingPost first) {
+        MyPendingPost last = first;
+        while (last.next != null) {
+            last = last.next;
+        }
+        synchronized (this) {
+            if (tail != null) {
+                tail.next = first;
+                tail = last;
+            } else if (head == null) {
+                head = first;
+                tail = last;
+            } else {
+                throw new IllegalStateException("Head present, but no tail");
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * 取出队头
+     * @return 队列为空时返回 null
+     */
+    synchronized MyPendingPost poll() {
+        MyPendingPost pendingPost = head;
+        if (head != null) {
+            head = head.next;
+            if (head == null) {
+                tail = null;
+            }
+        }
+        return pendingPost;
+    }
+
+    /**
+     * 取出队头 , 队列为空时最多等待 maxMillisToWait 毫秒
+     * @param maxMillisToWait
+     * @return 超时仍然为空时返回 null
+     * @throws InterruptedException
+     */
+    synchronized MyPendingPost poll(int maxMillisToWait) throws InterruptedException {
+        if (head == null) {
+            wait(maxMillisToWait);
+        }
+        return poll();
+    }
+}
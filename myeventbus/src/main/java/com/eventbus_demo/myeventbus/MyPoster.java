@@ -0,0 +1,27 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.List;
+
+/**
+ * 将事件切换到其它线程分发
+ */
+public interface MyPoster {
+    /**
+     * 放入分发队列 , 由目标线程调用订阅方法
+     * @param subscription 订阅者对象 + 订阅方法
+     * @param event 事件
+     */
+    void enqueue(MySubscription subscription, Object event);
+
+    /**
+     * 将同一个订阅的多个事件一次性放入分发队列 , 只切换一次线程
+     *      默认实现逐个调用 enqueue , 分发器可以覆盖该方法一次性放入队列
+     * @param subscription 订阅者对象 + 订阅方法
+     * @param events 按发布顺序排列的事件
+     */
+    default void enqueueAll(MySubscription subscription, List<?> events) {
+        for (Object event : events) {
+            enqueue(subscription, event);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 发布线程的状态 , 每个线程一份 , 保存在 ThreadLocal 中
+ *      订阅方法中再次调用 post 时 , 事件先放入本线程的队列 ,
+ *      等外层事件分发完成后再依次分发 , 不会递归调用 , 也能保证分发顺序
+ */
+final class MyPostingThreadState {
+    /**
+     * 对象池中最多保留的节点个数
+     */
+    private static final int MAX_POOL_SIZE = 64;
+
+    /**
+     * 当前线程是否正在分发事件
+     */
+    boolean isPosting;
+    /**
+     * 当前线程是否是主线程 , 每次 post 时只判断一次
+     */
+    boolean isMainThread;
+    /**
+     * 正在分发的事件
+     */
+    Object event;
+    /**
+     * 最近一次 poll 取出的事件的 Key , post(event) 发布的事件为 null
+     */
+    Object key;
+    /**
+     * 正在调用的 订阅者对象 + 订阅方法
+     */
+    MySubscription subscription;
+    /**
+     * 订阅方法是否取消了后续分发
+     */
+    boolean canceled;
+
+    /**
+     * 等待分发的事件队列 , 队头 / 队尾
+     */
+    private MyPendingPost head;
+    private MyPendingPost tail;
+
+    /**
+     * 回收的节点 , 只在本线程使用 , 不需要同步
+     */
+    private MyPendingPost pool;
+    private int poolSize;
+
+    /**
+     * 事件放入队尾
+     * @param event
+     */
+    void enqueue(Object event) {
+        enqueue(event, null);
+    }
+
+    /**
+     * 事件放入队尾
+     * @param event
+     * @param key post(event, key) 的 Key , 可以为 null
+     */
+    void enqueue(Object event, Object key) {
+        MyPendingPost pendingPost = pool;
+        if (pendingPost != null) {
+            pool = pendingPost.next;
+            poolSize--;
+            pendingPost.next = null;
+        } else {
+            pendingPost = new MyPendingPost();
+        }
+        pendingPost.event = event;
+        pendingPost.key = key;
+
+        if (tail != null) {
+            tail.next = pendingPost;
+        } else {
+            head = pendingPost;
+        }
+        tail = pendingPost;
+    }
+
+    /**
+     * 取出队头的事件 , 节点回收到对象池 , 事件的 Key 保存到 key 字段
+     * @return 队列为空时返回 null
+     */
+    Object poll() {
+        MyPendingPost pendingPost = head;
+        if (pendingPost == null) {
+            key = null;
+            return null;
+        }
+        head = pendingPost.next;
+        if (head == null) {
+            tail = null;
+        }
+        Object event = pendingPost.event;
+        key = pendingPost.key;
+
+        // 回收节点
+        pendingPost.event = null;
+        pendingPost.key = null;
+        if (poolSize < MAX_POOL_SIZE) {
+            pendingPost.next = pool;
+            pool = pendingPost;
+            poolSize++;
+        } else {
+            pendingPost.next = null;
+        }
+        return event;
+    }
+
+    /**
+     * 清空队列 , 分发过程中抛出异常时调用
+     */
+    void clear() {
+        while (poll() != null) {
+            // 回收所有节点
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 基本类型事件通道的公共部分 , 见 MyEventBus#getIntChannel / getLongChannel / getDoubleChannel
+ *      订阅者保存在不可修改的数组中 , 注册 / 取消注册时在锁中复制替换 , 发布时无锁读取
+ *      发布时不装箱 , 不按照 getClass() 查找订阅者 , 不分配对象
+ *      子线程订阅者使用预先分配的环形缓冲区 , 值统一按照 long 保存
+ */
+abstract class MyPrimitiveChannel {
+
+    /**
+     * 通道中的一个订阅者
+     */
+    static final class Subscriber {
+        /**
+         * 基本类型的回调 , 由子类转换为具体的类型
+         */
+        final Object listener;
+        /**
+         * 子线程订阅者的环形缓冲区 , 在发布线程中回调时为 null
+         */
+        final MyPrimitiveRingBuffer ringBuffer;
+        /**
+         * 取消注册之后为 false , 环形缓冲区中剩余的值不再回调
+         */
+        volatile boolean active = true;
+        /**
+         * 失败记录 , 第一次抛出异常时创建
+         */
+        private volatile MySubscriberFailures failures;
+
+        Subscriber(MyPrimitiveChannel channel, Object listener, Executor executor, int capacity,
+                   MyOverflowPolicy overflowPolicy) {
+            this.listener = listener;
+            this.ringBuffer = capacity > 0
+                    ? new MyPrimitiveRingBuffer(channel, this, executor, capacity, overflowPolicy) : null;
+        }
+
+        MySubscriberFailures getOrCreateFailures() {
+            MySubscriberFailures result = failures;
+            if (result == null) {
+                synchronized (this) {
+                    result = failures;
+                    if (result == null) {
+                        result = new MySubscriberFailures();
+                        failures = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    final MyEventBus eventBus;
+    private final String name;
+
+    /**
+     * 订阅者快照 , 按照注册顺序 , 只在持有 this 锁时替换
+     */
+    volatile Subscriber[] subscribers = NO_SUBSCRIBERS;
+
+    MyPrimitiveChannel(MyEventBus eventBus, String name) {
+        this.eventBus = eventBus;
+        this.name = name;
+    }
+
+    /**
+     * 获取通道名称
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 注册订阅者
+     * @param listener 基本类型的回调
+     * @param capacity 环形缓冲区的容量 , 0 表示在发布线程中回调
+     * @param overflowPolicy 环形缓冲区已满时的处理策略
+     */
+    final void addListener(Object listener, int capacity, MyOverflowPolicy overflowPolicy) {
+        if (listener == null) {
+            throw new NullPointerException("listener == null");
+        }
+        if (capacity < 0) {
+            throw new MyEventBusException("Channel " + name + ": capacity must not be negative, got " + capacity);
+        }
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy == null");
+        }
+        synchronized (this) {
+            Subscriber[] current = subscribers;
+            for (Subscriber subscriber : current) {
+                if (subscriber.listener == listener) {
+                    throw new MyEventBusException("Listener " + listener + " is already subscribed to channel " + name);
+                }
+            }
+            Subscriber[] next = new Subscriber[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = new Subscriber(this, listener, eventBus.getAsyncExecutor(), capacity,
+                    overflowPolicy);
+            subscribers = next;
+        }
+    }
+
+    /**
+     * 取消注册订阅者 , 环形缓冲区中还没有回调的值被丢弃
+     * @param listener
+     * @return 该订阅者是否注册过
+     */
+    final boolean removeListener(Object listener) {
+        synchronized (this) {
+            Subscriber[] current = subscribers;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].listener != listener) {
+                    continue;
+                }
+                current[i].active = false;
+                if (current.length == 1) {
+                    subscribers = NO_SUBSCRIBERS;
+                } else {
+                    Subscriber[] next = new Subscriber[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    subscribers = next;
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 通道中是否有订阅者
+     * @return
+     */
+    public boolean hasListeners() {
+        return subscribers.length > 0;
+    }
+
+    /**
+     * 获取所有环形缓冲区已满被丢弃的值的个数
+     * @return
+     */
+    public long getDroppedCount() {
+        long count = 0;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.ringBuffer != null) {
+                count += subscriber.ringBuffer.getDroppedCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 在子线程中回调环形缓冲区中取出的值
+     * @param subscriber
+     * @param bits 按照 long 保存的值
+     */
+    abstract void deliverBits(Subscriber subscriber, long bits);
+
+    /**
+     * 回调抛出异常 , 按照 MyEventBus 的异常处理策略处理 , 只在失败时装箱
+     * @param subscriber
+     * @param value 装箱后的值
+     * @param e
+     */
+    final void onListenerException(Subscriber subscriber, Object value, RuntimeException e) {
+        eventBus.handleChannelException(subscriber.listener, subscriber.getOrCreateFailures(), value, e);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + name + "]";
+    }
+}
@@ -0,0 +1,229 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基本类型通道中子线程订阅者的环形缓冲区 , 见 MyPrimitiveChannel
+ *      创建时分配所有槽位 , 放入 / 取出值都不分配对象 , int / double 按照 long 保存
+ *      每个槽位有一个序号 , 多个发布线程通过 CAS 竞争队尾 , 不使用锁
+ *      同一时刻最多只有一个任务在线程池中回调 , 按照放入顺序依次回调
+ */
+final class MyPrimitiveRingBuffer implements Runnable {
+
+    /**
+     * BLOCK 策略下等待空间时每次休眠的时间
+     */
+    private static final long BLOCK_PARK_NANOS = 50_000L;
+
+    private final MyPrimitiveChannel channel;
+    private final MyPrimitiveChannel.Subscriber subscriber;
+    private final Executor executor;
+    private final MyOverflowPolicy overflowPolicy;
+
+    private final long[] values;
+    /**
+     * 槽位序号 , 等于 位置 时可以放入 , 等于 位置 + 1 时可以取出
+     */
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    /**
+     * 下一个放入 / 取出的位置 , 只增不减
+     */
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 是否已经提交了回调任务
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /**
+     * 正在回调的线程 , 用于判断是否是回调中给自己发布
+     */
+    private volatile Thread drainingThread;
+    /**
+     * 缓冲区已满被丢弃的值的个数
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * @param capacity 向上取整为 2 的幂 , 最小为 2 , 只有一个槽位时无法通过序号区分空和满
+     */
+    MyPrimitiveRingBuffer(MyPrimitiveChannel channel, MyPrimitiveChannel.Subscriber subscriber, Executor executor,
+                          int capacity, MyOverflowPolicy overflowPolicy) {
+        this.channel = channel;
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.overflowPolicy = overflowPolicy;
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        if (size <= 0) {
+            throw new MyEventBusException("Ring buffer capacity is too large: " + capacity);
+        }
+        values = new long[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * 放入一个值 , 缓冲区已满时按照策略处理 , 然后提交回调任务
+     * @param bits 按照 long 保存的值
+     * @return 值是否放入了缓冲区 , 被丢弃时返回 false
+     */
+    boolean offer(long bits) {
+        while (!tryOffer(bits)) {
+            if (!makeRoom()) {
+                return false;
+            }
+        }
+        if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // 线程池已满 , 在发布线程中回调 , 仍然只有一个线程在回调
+                run();
+            }
+        }
+        return true;
+    }
+
+    private boolean tryOffer(long bits) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    values[index] = bits;
+                    // 发布该槽位 , 写入 values 对取出的线程可见
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // 槽位还没有被取出 , 缓冲区已满
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 取得队头的位置 , 调用者读取值之后调用 release
+     * @return 队头的位置 , 缓冲区为空时返回 -1
+     */
+    private long claimHead() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * 释放槽位 , 供下一圈放入
+     */
+    private void release(long position) {
+        sequences.lazySet((int) position & mask, position + mask + 1);
+    }
+
+    /**
+     * 缓冲区已满 , 按照策略腾出空间
+     * @return 是否可以再次尝试放入
+     */
+    private boolean makeRoom() {
+        switch (overflowPolicy) {
+            case BLOCK:
+                // 回调中给自己发布 , 等待会造成死锁 , 丢弃新值
+                if (drainingThread == Thread.currentThread()) {
+                    onDropped();
+                    return false;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    onDropped();
+                    throw new MyEventBusException("Interrupted while waiting for the ring buffer of channel "
+                            + channel.getName());
+                }
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                return true;
+            case DROP_OLDEST:
+                long position = claimHead();
+                if (position >= 0) {
+                    release(position);
+                    onDropped();
+                }
+                return true;
+            case DROP_NEWEST:
+                onDropped();
+                return false;
+            case FAIL:
+            default:
+                onDropped();
+                throw new MyEventBusException("Ring buffer of channel " + channel.getName() + " is full (capacity "
+                        + values.length + ")");
+        }
+    }
+
+    private void onDropped() {
+        droppedCount.incrementAndGet();
+        channel.eventBus.onSubscriberQueueOverflow();
+    }
+
+    private boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    @Override
+    public void run() {
+        drainingThread = Thread.currentThread();
+        boolean completed = false;
+        try {
+            while (true) {
+                long position;
+                while ((position = claimHead()) >= 0) {
+                    long bits = values[(int) position & mask];
+                    release(position);
+                    if (subscriber.active) {
+                        channel.deliverBits(subscriber, bits);
+                    }
+                }
+                drainingThread = null;
+                scheduled.set(false);
+                // 清除标志之后放入的值 , 由放入的线程重新提交任务 , 或者由本线程继续回调
+                if (isEmpty() || !scheduled.compareAndSet(false, true)) {
+                    completed = true;
+                    return;
+                }
+                drainingThread = Thread.currentThread();
+            }
+        } finally {
+            // 回调抛出异常而退出时 , 允许下一次 offer 重新提交任务
+            if (!completed) {
+                drainingThread = null;
+                scheduled.set(false);
+            }
+        }
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
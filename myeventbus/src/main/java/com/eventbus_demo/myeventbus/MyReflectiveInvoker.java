@@ -0,0 +1,42 @@
+package com.eventbus_demo.myeventbus;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 通过反射调用订阅方法 , 订阅类不在索引中时使用
+ */
+class MyReflectiveInvoker implements MySubscriberInvoker {
+    /**
+     * 订阅方法
+     */
+    private final Method method;
+
+    MyReflectiveInvoker(Method method) {
+        this.method = method;
+        // 关闭访问检查 , 减少每次调用的开销
+        //      订阅方法都是 public 的 , 订阅类不是 public 时仍然需要该设置
+        try {
+            method.setAccessible(true);
+        } catch (SecurityException e) {
+            // 无法关闭访问检查时 , 仍然可以正常调用 public 方法
+        }
+    }
+
+    @Override
+    public void invoke(Object subscriber, Object event) throws Exception {
+        try {
+            method.invoke(subscriber, event);
+        } catch (InvocationTargetException e) {
+            // 与生成的调用器保持一致 , 直接抛出订阅方法本身抛出的异常
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
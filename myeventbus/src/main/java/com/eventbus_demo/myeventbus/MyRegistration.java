@@ -0,0 +1,111 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 订阅者的注册句柄 , 由 MyEventBus#register 返回
+ *      保存该订阅者的所有 MySubscription , 取消注册时不需要再按照订阅者对象查找
+ *      可以直接调用 unregister 取消注册 , 效果与 MyEventBus#unregister(subscriber) 相同
+ */
+public final class MyRegistration {
+
+    private final MyEventBus eventBus;
+
+    /**
+     * 订阅者对象 , 弱引用模式下是 MySubscriberReference
+     */
+    final Object subscriberKey;
+
+    /**
+     * 该订阅者的所有订阅 , 与订阅方法一一对应
+     */
+    final MySubscription[] subscriptions;
+
+    /**
+     * 注册时指定的 Key , 没有指定时为 null
+     */
+    private final Object key;
+
+    /**
+     * 是否处于注册状态 , 只在持有 registryLock 时修改
+     */
+    private volatile boolean active = true;
+
+    MyRegistration(MyEventBus eventBus, Object subscriberKey, MySubscription[] subscriptions, Object key) {
+        this.eventBus = eventBus;
+        this.subscriberKey = subscriberKey;
+        this.subscriptions = subscriptions;
+        this.key = key;
+    }
+
+    /**
+     * 获取注册时指定的 Key , 见 MyEventBus#register(Object, Object)
+     * @return 没有指定时返回 null
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    /**
+     * 获取订阅者对象
+     * @return 弱引用模式下订阅者已被回收时返回 null
+     */
+    public Object getSubscriber() {
+        return subscriberKey instanceof MySubscriberReference
+                ? ((MySubscriberReference) subscriberKey).get() : subscriberKey;
+    }
+
+    /**
+     * 是否仍处于注册状态
+     * @return
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * 获取该订阅者的 conflate 订阅方法中 , 被新事件替换掉而没有分发的事件个数
+     * @return
+     */
+    public long getConflatedEventCount() {
+        long count = 0;
+        for (MySubscription subscription : subscriptions) {
+            if (subscription.conflation != null) {
+                count += subscription.conflation.getConflatedCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取该订阅者自己的队列已满时被丢弃的事件个数
+     * @return
+     */
+    public long getDroppedEventCount() {
+        long count = 0;
+        for (MySubscription subscription : subscriptions) {
+            if (subscription.queue != null) {
+                count += subscription.queue.getDroppedCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 取消注册 , 已经取消注册时不做任何操作
+     */
+    public void unregister() {
+        eventBus.unregister(this);
+    }
+
+    /**
+     * 标记为已取消注册 , 同时停用所有订阅 , 已经在分发队列中的事件不再分发给该订阅者
+     *      订阅释放对订阅者的引用 , 订阅在压缩之前仍然留在订阅数组中 , 不能因此持有订阅者
+     * 调用时必须持有 registryLock
+     */
+    void deactivate() {
+        active = false;
+        for (MySubscription subscription : subscriptions) {
+            subscription.active = false;
+            subscription.clearSubscriber();
+        }
+    }
+}
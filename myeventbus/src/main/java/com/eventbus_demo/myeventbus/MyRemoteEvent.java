@@ -0,0 +1,14 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 从其它进程收到的事件 , 由 MyEventBridge 的读取线程发布
+ *      发布时取出事件 , 只分发给本进程的订阅者 , 不会再转发 , 避免在进程之间来回发送
+ */
+final class MyRemoteEvent {
+
+    final Object event;
+
+    MyRemoteEvent(Object event) {
+        this.event = event;
+    }
+}
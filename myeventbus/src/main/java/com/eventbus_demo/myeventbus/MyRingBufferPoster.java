@@ -0,0 +1,406 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 环形缓冲区分发器 , 开启 MyEventBusBuilder#asyncRingBuffer 后代替 MyAsyncPoster 分发 ASYNC 事件
+ *      创建时分配所有槽位 , 放入事件时只写入槽位 , 不创建节点 , 不提交任务
+ *      每个槽位有一个序号 , 发布线程通过 CAS 竞争队尾 , 写入后发布序号
+ *      固定个数的分发线程通过 CAS 竞争队头 , 每次取出一批连续的槽位 , 复制后立即释放 , 再依次调用订阅方法
+ *      缓冲区已满时按照 MyAsyncRejectionPolicy 处理 , 与线程池已满时相同
+ *      分发线程一直运行 , 通过 shutdown 停止
+ */
+final class MyRingBufferPoster implements MyPoster {
+
+    /**
+     * 每个分发线程一次最多取出的槽位个数
+     */
+    private static final int MAX_BATCH = 64;
+
+    /**
+     * YIELD / PARK 策略下 , 没有事件时先循环检查的次数
+     */
+    private static final int SPIN_TRIES = 100;
+
+    /**
+     * 一个槽位 , 创建时分配 , 循环使用
+     */
+    private static final class Slot {
+        MySubscription subscription;
+        Object event;
+        /**
+         * 批量发布时 , 同一个订阅的所有事件放入一个槽位 , 在同一个线程中按顺序分发
+         */
+        MyPendingPost batch;
+        long enqueueNanos;
+    }
+
+    private final MyEventBus eventBus;
+    private final MyAsyncRejectionPolicy rejectionPolicy;
+    private final MyWaitStrategy waitStrategy;
+
+    private final Slot[] slots;
+    /**
+     * 槽位序号 , 等于 位置 时可以放入 , 等于 位置 + 1 时可以取出
+     */
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    /**
+     * 下一个放入 / 取出的位置 , 只增不减
+     */
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final Consumer[] consumers;
+    /**
+     * 第一次放入事件时启动分发线程
+     */
+    private final AtomicBoolean started = new AtomicBoolean();
+    /**
+     * PARK 策略下正在休眠的分发线程个数
+     */
+    private final AtomicInteger parkedConsumers = new AtomicInteger();
+    /**
+     * 调用 shutdown 之后为 false , 分发线程取完已发布的槽位后退出
+     */
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity 槽位个数 , 向上取整为 2 的幂
+     * @param consumerThreads 分发线程个数
+     */
+    MyRingBufferPoster(MyEventBus eventBus, int capacity, int consumerThreads, MyWaitStrategy waitStrategy,
+                       MyAsyncRejectionPolicy rejectionPolicy) {
+        this.eventBus = eventBus;
+        this.waitStrategy = waitStrategy;
+        this.rejectionPolicy = rejectionPolicy;
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        if (size <= 0) {
+            throw new MyEventBusException("Ring buffer capacity is too large: " + capacity);
+        }
+        slots = new Slot[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+        consumers = new Consumer[consumerThreads];
+        for (int i = 0; i < consumerThreads; i++) {
+            consumers[i] = new Consumer("MyEventBus-ring-" + (i + 1));
+        }
+    }
+
+    @Override
+    public void enqueue(MySubscription subscription, Object event) {
+        publish(subscription, event, null);
+    }
+
+    @Override
+    public void enqueueAll(MySubscription subscription, List<?> events) {
+        publish(subscription, null, MyPendingPost.obtainPendingPosts(subscription, events));
+    }
+
+    private void publish(MySubscription subscription, Object event, MyPendingPost batch) {
+        if (!running) {
+            releaseBatch(batch);
+            throw new MyEventBusException("ASYNC ring buffer is shut down, event rejected");
+        }
+        long enqueueNanos = subscription.metrics != null ? System.nanoTime() : 0;
+        if (!started.get() && started.compareAndSet(false, true)) {
+            for (Consumer consumer : consumers) {
+                consumer.start();
+            }
+        }
+        while (!tryPublish(subscription, event, batch, enqueueNanos)) {
+            if (!onFull(subscription, event, batch, enqueueNanos)) {
+                return;
+            }
+        }
+        if (waitStrategy == MyWaitStrategy.PARK && parkedConsumers.get() > 0) {
+            wakeConsumer();
+        }
+    }
+
+    private boolean tryPublish(MySubscription subscription, Object event, MyPendingPost batch, long enqueueNanos) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    Slot slot = slots[index];
+                    slot.subscription = subscription;
+                    slot.event = event;
+                    slot.batch = batch;
+                    slot.enqueueNanos = enqueueNanos;
+                    // 发布该槽位 , 写入的字段对分发线程可见
+                    // PARK 策略下之后要读取休眠标记 , 需要完整的 volatile 写 , 避免与分发线程的检查重排序
+                    if (waitStrategy == MyWaitStrategy.PARK) {
+                        sequences.set(index, position + 1);
+                    } else {
+                        sequences.lazySet(index, position + 1);
+                    }
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // 槽位还没有被取出 , 缓冲区已满
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 缓冲区已满 , 按照策略处理
+     *      在分发线程中发布时总是直接调用 , 等待会造成所有分发线程互相等待
+     * @return 是否需要再次尝试放入
+     */
+    private boolean onFull(MySubscription subscription, Object event, MyPendingPost batch, long enqueueNanos) {
+        if (rejectionPolicy == MyAsyncRejectionPolicy.CALLER_RUNS || isConsumerThread()) {
+            // 在发布线程中执行 , 发布线程变慢 , 形成背压
+            invoke(subscription, event, batch, enqueueNanos);
+            return false;
+        }
+        if (rejectionPolicy == MyAsyncRejectionPolicy.ABORT) {
+            releaseBatch(batch);
+            throw new MyEventBusException("ASYNC ring buffer is full (capacity " + slots.length
+                    + "), event rejected");
+        }
+        // DISCARD : 丢弃等待时间最长的事件 , 再次尝试放入
+        discardOldest();
+        return true;
+    }
+
+    private void discardOldest() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Slot slot = slots[index];
+                    MyPendingPost batch = slot.batch;
+                    clear(slot);
+                    sequences.lazySet(index, position + mask + 1);
+                    releaseBatch(batch);
+                    return;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                // 已经被分发线程取出 , 有空闲的槽位了
+                return;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    private boolean isConsumerThread() {
+        Thread thread = Thread.currentThread();
+        return thread instanceof Consumer && ((Consumer) thread).owner() == this;
+    }
+
+    private void wakeConsumer() {
+        for (Consumer consumer : consumers) {
+            if (consumer.parked) {
+                LockSupport.unpark(consumer);
+                return;
+            }
+        }
+    }
+
+    private void invoke(MySubscription subscription, Object event, MyPendingPost batch, long enqueueNanos) {
+        if (batch == null) {
+            eventBus.invokeSubscriber(subscription, event, enqueueNanos);
+            return;
+        }
+        while (batch != null) {
+            MyPendingPost pendingPost = batch;
+            // 节点分发时会被回收 , 先记录下一个节点
+            batch = pendingPost.next;
+            eventBus.invokeSubscriber(pendingPost);
+        }
+    }
+
+    private static void releaseBatch(MyPendingPost batch) {
+        while (batch != null) {
+            MyPendingPost pendingPost = batch;
+            batch = pendingPost.next;
+            MyPendingPost.releasePendingPost(pendingPost);
+        }
+    }
+
+    private static void clear(Slot slot) {
+        slot.subscription = null;
+        slot.event = null;
+        slot.batch = null;
+    }
+
+    /**
+     * 停止分发线程 , 已经放入缓冲区的事件分发完之后退出 , 之后放入事件会抛出 MyEventBusException
+     *      应在停止发布 ASYNC 事件之后调用 , 与 shutdown 同时放入的事件可能不会分发
+     * @param timeoutMillis 等待分发线程退出的最长时间
+     * @return 分发线程是否都已经退出
+     * @throws InterruptedException
+     */
+    boolean shutdown(long timeoutMillis) throws InterruptedException {
+        running = false;
+        // 还没有启动过分发线程 , 之后也不再启动
+        if (started.compareAndSet(false, true)) {
+            return true;
+        }
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer);
+        }
+        long deadline = System.nanoTime() + timeoutMillis * 1000000L;
+        for (Consumer consumer : consumers) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1000000L;
+            if (remainingMillis > 0) {
+                consumer.join(remainingMillis);
+            }
+            if (consumer.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否有已经发布还没有取出的槽位
+     */
+    private boolean hasPublished() {
+        long position = head.get();
+        return sequences.get((int) position & mask) == position + 1;
+    }
+
+    /**
+     * 分发线程 , 取出的一批槽位先复制到自己的数组中 , 释放槽位后再调用订阅方法
+     */
+    private final class Consumer extends Thread {
+        private final MySubscription[] subscriptions = new MySubscription[MAX_BATCH];
+        private final Object[] events = new Object[MAX_BATCH];
+        private final MyPendingPost[] batches = new MyPendingPost[MAX_BATCH];
+        private final long[] enqueueNanos = new long[MAX_BATCH];
+        /**
+         * PARK 策略下是否正在休眠
+         */
+        volatile boolean parked;
+
+        Consumer(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        MyRingBufferPoster owner() {
+            return MyRingBufferPoster.this;
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                int count = claim();
+                if (count > 0) {
+                    idle = 0;
+                    dispatch(count);
+                } else if (count == 0) {
+                    // 已经停止 , 并且已发布的槽位都已经取出
+                    if (!running) {
+                        return;
+                    }
+                    idle = await(idle);
+                }
+            }
+        }
+
+        /**
+         * 取出队头连续的已发布槽位 , 复制后释放
+         * @return 取出的个数 , 没有已发布的槽位时返回 0 , 与其它分发线程竞争失败时返回 -1
+         */
+        private int claim() {
+            long position = head.get();
+            int count = 0;
+            while (count < MAX_BATCH
+                    && sequences.get((int) (position + count) & mask) == position + count + 1) {
+                count++;
+            }
+            if (count == 0) {
+                return 0;
+            }
+            if (!head.compareAndSet(position, position + count)) {
+                return -1;
+            }
+            for (int i = 0; i < count; i++) {
+                long current = position + i;
+                int index = (int) current & mask;
+                Slot slot = slots[index];
+                subscriptions[i] = slot.subscription;
+                events[i] = slot.event;
+                batches[i] = slot.batch;
+                enqueueNanos[i] = slot.enqueueNanos;
+                clear(slot);
+                sequences.lazySet(index, current + mask + 1);
+            }
+            return count;
+        }
+
+        private void dispatch(int count) {
+            for (int i = 0; i < count; i++) {
+                MySubscription subscription = subscriptions[i];
+                Object event = events[i];
+                MyPendingPost batch = batches[i];
+                subscriptions[i] = null;
+                events[i] = null;
+                batches[i] = null;
+                try {
+                    invoke(subscription, event, batch, enqueueNanos[i]);
+                } catch (Throwable e) {
+                    // 与线程池中的任务一样交给未捕获异常处理器 , 分发线程继续运行
+                    getUncaughtExceptionHandler().uncaughtException(this, e);
+                }
+            }
+        }
+
+        /**
+         * 没有事件时按照等待策略等待
+         * @param idle 连续没有事件的次数
+         * @return 新的 idle
+         */
+        private int await(int idle) {
+            switch (waitStrategy) {
+                case BUSY_SPIN:
+                    return idle;
+                case YIELD:
+                    if (idle < SPIN_TRIES) {
+                        return idle + 1;
+                    }
+                    Thread.yield();
+                    return idle;
+                case PARK:
+                default:
+                    if (idle < SPIN_TRIES) {
+                        return idle + 1;
+                    }
+                    parkedConsumers.incrementAndGet();
+                    parked = true;
+                    // 标记之后再检查一次 , 发布线程要么看到标记并唤醒 , 要么该线程看到新的事件
+                    //      shutdown 同样先修改 running 再唤醒 , 不需要超时
+                    if (!hasPublished() && running) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    parkedConsumers.decrementAndGet();
+                    return idle;
+            }
+        }
+    }
+}
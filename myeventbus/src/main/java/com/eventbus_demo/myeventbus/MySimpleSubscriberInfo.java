@@ -0,0 +1,81 @@
+package com.eventbus_demo.myeventbus;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * 生成的索引中使用的 MySubscriberInfo 实现
+ */
+public class MySimpleSubscriberInfo implements MySubscriberInfo {
+    /**
+     * 订阅类
+     */
+    private final Class<?> subscriberClass;
+    /**
+     * 订阅方法描述
+     */
+    private final MySubscriberMethodInfo[] methodInfos;
+
+    public MySimpleSubscriberInfo(Class<?> subscriberClass, MySubscriberMethodInfo[] methodInfos) {
+        this.subscriberClass = subscriberClass;
+        this.methodInfos = methodInfos;
+    }
+
+    @Override
+    public Class<?> getSubscriberClass() {
+        return subscriberClass;
+    }
+
+    @Override
+    public MySubscriberMethod[] getSubscriberMethods() {
+        MySubscriberMethod[] subscriberMethods = new MySubscriberMethod[methodInfos.length];
+        for (int i = 0; i < methodInfos.length; i++) {
+            MySubscriberMethodInfo info = methodInfos[i];
+            if (info.getInvoker() != null) {
+                // 使用生成的调用器 , 不需要反射
+                subscriberMethods[i] = new MySubscriberMethod(
+                        info.getMethodName(),   // 方法名称
+                        info.getThreadMode(),   // 线程模式
+                        info.getEventType(),    // 事件参数
+                        info.getPriority(),     // 优先级
+                        info.isSticky(),        // 是否接收粘性事件
+                        info.isBatch(),         // 是否批量接收事件
+                        info.isConflate(),      // 是否合并未分发的事件
+                        info.getQueueCapacity(),    // 订阅方法自己的队列容量
+                        info.getOverflowPolicy(),   // 队列已满时的处理策略
+                        info.getInvoker()       // 调用器
+                );
+                continue;
+            }
+            subscriberMethods[i] = new MySubscriberMethod(
+                    findMethod(info),       // 方法对象
+                    info.getThreadMode(),   // 线程模式
+                    info.getEventType(),    // 事件参数
+                    info.getPriority(),     // 优先级
+                    info.isSticky(),        // 是否接收粘性事件
+                    info.isBatch(),         // 是否批量接收事件
+                    info.isConflate(),      // 是否合并未分发的事件
+                    info.getQueueCapacity(),    // 订阅方法自己的队列容量
+                    info.getOverflowPolicy()    // 队列已满时的处理策略
+            );
+        }
+        return subscriberMethods;
+    }
+
+    /**
+     * 根据 方法名 + 参数类型 精确查找订阅方法
+     * @param info
+     * @return
+     */
+    private Method findMethod(MySubscriberMethodInfo info) {
+        try {
+            // 批量订阅方法的参数是 List
+            return subscriberClass.getMethod(info.getMethodName(),
+                    info.isBatch() ? List.class : info.getEventType());
+        } catch (NoSuchMethodException e) {
+            // 索引与订阅类不一致 , 一般是索引没有重新生成
+            throw new MyEventBusException("Could not find subscriber method in "
+                    + subscriberClass + ". Maybe the index is out of date?", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 主线程中执行超过时间预算的订阅方法的回调 , 见 MyEventBusBuilder#mainThreadWatchdog
+ *      在主线程中 , 该订阅方法执行完之后调用 , 不要在回调中做耗时操作
+ */
+public interface MySlowHandlerListener {
+    /**
+     * 订阅方法在主线程中执行超过了时间预算
+     * @param report 超时的订阅方法 , 耗时和调用栈采样
+     */
+    void onSlowHandler(MySlowHandlerReport report);
+}
@@ -0,0 +1,91 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 主线程中执行超时的订阅方法 , 见 MySlowHandlerListener
+ */
+public final class MySlowHandlerReport {
+
+    private final Class<?> subscriberClass;
+    private final String methodName;
+    private final Class<?> eventType;
+    private final long durationNanos;
+    private final int slowCount;
+    private final StackTraceElement[] stackTrace;
+    private final boolean rerouted;
+
+    MySlowHandlerReport(Class<?> subscriberClass, String methodName, Class<?> eventType, long durationNanos,
+                        int slowCount, StackTraceElement[] stackTrace, boolean rerouted) {
+        this.subscriberClass = subscriberClass;
+        this.methodName = methodName;
+        this.eventType = eventType;
+        this.durationNanos = durationNanos;
+        this.slowCount = slowCount;
+        this.stackTrace = stackTrace;
+        this.rerouted = rerouted;
+    }
+
+    public Class<?> getSubscriberClass() {
+        return subscriberClass;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * 订阅方法订阅的事件类型
+     * @return
+     */
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    /**
+     * 本次执行的耗时
+     * @return
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * 该订阅方法累计超时的次数 , 包括没有回调的次数
+     * @return
+     */
+    public int getSlowCount() {
+        return slowCount;
+    }
+
+    /**
+     * 订阅方法执行期间 , 超过时间预算时采样的主线程调用栈
+     * @return 订阅方法在看门狗线程采样之前就执行完时返回 null
+     */
+    public StackTraceElement[] getStackTrace() {
+        return stackTrace == null ? null : stackTrace.clone();
+    }
+
+    /**
+     * 该订阅方法之后的事件是否改为在 BACKGROUND 子线程中分发
+     * @return
+     */
+    public boolean isRerouted() {
+        return rerouted;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Slow main thread handler ").append(subscriberClass.getName()).append('#').append(methodName)
+                .append('(').append(eventType.getName()).append(") took ")
+                .append(durationNanos / 1000000).append("ms, slow ").append(slowCount).append(" times");
+        if (rerouted) {
+            builder.append(", rerouted to background");
+        }
+        if (stackTrace != null) {
+            for (StackTraceElement element : stackTrace) {
+                builder.append("\n    at ").append(element);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,181 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 粘性事件存储
+ *      每个事件类型只保存最近一次发布的事件
+ *      总权重超过上限时 , 按照最近最少使用的顺序淘汰
+ *
+ * 为了注册时快速找到订阅方法可以接收的粘性事件 , 同时维护 父类型 -> 粘性事件类型 索引 ,
+ *      注册时只查找订阅的事件类型对应的粘性事件 , 不需要遍历所有粘性事件
+ */
+final class MyStickyEventStore {
+
+    /**
+     * Key - 粘性事件类型
+     * Value - 该类型最近一次发布的事件
+     * 按照访问顺序排列 , 第一个是最近最少使用的
+     */
+    private final LinkedHashMap<Class<?>, Object> stickyEvents = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Key - 粘性事件类型 , 或者其父类 / 接口
+     * Value - 可以赋值给 Key 的粘性事件类型
+     */
+    private final Map<Class<?>, Set<Class<?>>> stickyTypesBySuperType = new HashMap<>();
+
+    /**
+     * Key - 粘性事件类型
+     * Value - 该事件的权重
+     */
+    private final Map<Class<?>, Integer> weights = new HashMap<>();
+
+    /**
+     * 权重上限
+     */
+    private final long maxWeight;
+
+    /**
+     * 权重计算 , 为 null 时每个事件权重为 1
+     */
+    private final MyStickyEventWeigher weigher;
+
+    /**
+     * 当前总权重
+     */
+    private long totalWeight;
+
+    MyStickyEventStore(long maxWeight, MyStickyEventWeigher weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * 保存粘性事件 , 替换同类型的旧事件 , 必要时淘汰最近最少使用的事件
+     * @param event
+     */
+    synchronized void put(Object event) {
+        Class<?> eventType = event.getClass();
+        int weight = weigher == null ? 1 : weigher.weigh(event);
+
+        Object previous = stickyEvents.put(eventType, event);
+        if (previous == null) {
+            // 新的粘性事件类型 , 加入到所有父类型的索引中
+            for (Class<?> type : MyEventBus.lookupAllEventTypes(eventType)) {
+                Set<Class<?>> stickyTypes = stickyTypesBySuperType.get(type);
+                if (stickyTypes == null) {
+                    stickyTypes = new LinkedHashSet<>();
+                    stickyTypesBySuperType.put(type, stickyTypes);
+                }
+                stickyTypes.add(eventType);
+            }
+        } else {
+            totalWeight -= weights.get(eventType);
+        }
+        weights.put(eventType, weight);
+        totalWeight += weight;
+
+        // 超过上限时淘汰 , 至少保留刚刚发布的事件
+        Iterator<Class<?>> iterator = stickyEvents.keySet().iterator();
+        while (totalWeight > maxWeight && stickyEvents.size() > 1) {
+            Class<?> eldest = iterator.next();
+            iterator.remove();
+            onRemoved(eldest);
+        }
+    }
+
+    /**
+     * 获取该类型的粘性事件
+     * @param eventType 粘性事件类型
+     * @return 没有返回 null
+     */
+    synchronized Object get(Class<?> eventType) {
+        return stickyEvents.get(eventType);
+    }
+
+    /**
+     * 移除该类型的粘性事件
+     * @param eventType 粘性事件类型
+     * @return 被移除的事件 , 没有返回 null
+     */
+    synchronized Object remove(Class<?> eventType) {
+        Object event = stickyEvents.remove(eventType);
+        if (event != null) {
+            onRemoved(eventType);
+        }
+        return event;
+    }
+
+    /**
+     * 移除该粘性事件 , 只有当前保存的就是该事件时才移除
+     * @param event 粘性事件
+     * @return 是否移除
+     */
+    synchronized boolean remove(Object event) {
+        Class<?> eventType = event.getClass();
+        if (stickyEvents.get(eventType) != event) {
+            return false;
+        }
+        stickyEvents.remove(eventType);
+        onRemoved(eventType);
+        return true;
+    }
+
+    /**
+     * 移除所有粘性事件
+     */
+    synchronized void clear() {
+        stickyEvents.clear();
+        stickyTypesBySuperType.clear();
+        weights.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * 查找订阅了 subscribedType 的订阅方法可以接收的粘性事件
+     * @param subscribedType 订阅方法的事件类型
+     * @param eventInheritance 是否包括子类型的粘性事件
+     * @return
+     */
+    synchronized List<Object> findMatching(Class<?> subscribedType, boolean eventInheritance) {
+        if (!eventInheritance) {
+            Object event = stickyEvents.get(subscribedType);
+            return event == null ? Collections.emptyList() : Collections.singletonList(event);
+        }
+        Set<Class<?>> stickyTypes = stickyTypesBySuperType.get(subscribedType);
+        if (stickyTypes == null) {
+            return Collections.emptyList();
+        }
+        List<Object> events = new ArrayList<>(stickyTypes.size());
+        for (Class<?> stickyType : stickyTypes) {
+            events.add(stickyEvents.get(stickyType));
+        }
+        return events;
+    }
+
+    /**
+     * 粘性事件被移除后 , 更新索引和权重
+     * @param eventType 被移除的粘性事件类型
+     */
+    private void onRemoved(Class<?> eventType) {
+        totalWeight -= weights.remove(eventType);
+        for (Class<?> type : MyEventBus.lookupAllEventTypes(eventType)) {
+            Set<Class<?>> stickyTypes = stickyTypesBySuperType.get(type);
+            if (stickyTypes != null) {
+                stickyTypes.remove(eventType);
+                if (stickyTypes.isEmpty()) {
+                    stickyTypesBySuperType.remove(type);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 计算粘性事件占用的权重 , 用于限制粘性事件占用的内存
+ *      例如返回事件中缓存数据的字节数 , 默认每个事件权重为 1 , 即限制粘性事件个数
+ */
+public interface MyStickyEventWeigher {
+    /**
+     * 计算粘性事件的权重
+     * @param event 粘性事件
+     * @return 权重 , 不能小于 0
+     */
+    int weigh(Object event);
+}
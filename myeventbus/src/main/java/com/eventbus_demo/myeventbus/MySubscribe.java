@@ -0,0 +1,64 @@
+package com.eventbus_demo.myeventbus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)     // 该注解保留到运行时
+@Target(ElementType.METHOD)             // 该注解作用于方法
+public @interface MySubscribe {
+    /**
+     * 注解属性, 设置线程模式, 默认是 POSTING,
+     *      即在发布线程调用订阅方法
+     * @return
+     */
+    MyThreadMode threadMode() default MyThreadMode.POSTING;
+
+    /**
+     * 注解属性, 设置订阅方法的优先级, 默认是 0
+     *      同一个发布线程中 , 优先级高的订阅方法先接收到事件
+     *      优先级高的 POSTING 订阅方法可以调用 MyEventBus#cancelEventDelivery 取消后续分发
+     * @return
+     */
+    int priority() default 0;
+
+    /**
+     * 注解属性, 是否接收粘性事件, 默认是 false
+     *      设置为 true 时 , 注册订阅者时立即接收之前通过 MyEventBus#postSticky 发布的最新事件
+     * @return
+     */
+    boolean sticky() default false;
+
+    /**
+     * 注解属性, 是否批量接收事件, 默认是 false
+     *      设置为 true 时 , 订阅方法的参数必须是 List<事件类型> ,
+     *      MyEventBus#postAll 发布的同类型事件一次性传给该方法 , post 发布的单个事件以只有一个元素的 List 传入
+     * @return
+     */
+    boolean batch() default false;
+
+    /**
+     * 注解属性, 是否合并未分发的事件, 默认是 false
+     *      设置为 true 时 , 需要切换线程分发的事件还在队列中没有分发时 , 新的事件替换旧的事件 ,
+     *      订阅方法只接收到最新的事件 , 适合位置 / 进度等只关心最新值的事件
+     *      事件实现了 MyConflatable 时 , 只合并 Key 相同的事件
+     *      在发布线程直接调用的事件没有排队 , 不会被合并
+     * @return
+     */
+    boolean conflate() default false;
+
+    /**
+     * 注解属性, ASYNC 订阅方法自己的队列容量, 默认是 0 , 即不单独排队
+     *      大于 0 时 , 该订阅方法的事件放入自己的有界队列 , 同一时刻最多占用一个线程 , 按照发布顺序依次执行
+     *      队列已满时按照 overflow 策略处理 , 只能用于 ASYNC , 不能与 conflate 同时使用
+     * @return
+     */
+    int queueCapacity() default 0;
+
+    /**
+     * 注解属性, 订阅方法自己的队列已满时的处理策略, 默认是 BLOCK
+     * @return
+     */
+    MyOverflowPolicy overflow() default MyOverflowPolicy.BLOCK;
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 订阅方法抛出异常时发布的事件 , 见 MyExceptionPolicy#POST_EVENT
+ */
+public final class MySubscriberExceptionEvent {
+
+    private final MyEventBus eventBus;
+    private final Throwable throwable;
+    private final Object causingEvent;
+    private final Object causingSubscriber;
+    private final String causingMethodName;
+    private final boolean subscriptionDisabled;
+
+    MySubscriberExceptionEvent(MyEventBus eventBus, Throwable throwable, Object causingEvent,
+                               Object causingSubscriber, String causingMethodName, boolean subscriptionDisabled) {
+        this.eventBus = eventBus;
+        this.throwable = throwable;
+        this.causingEvent = causingEvent;
+        this.causingSubscriber = causingSubscriber;
+        this.causingMethodName = causingMethodName;
+        this.subscriptionDisabled = subscriptionDisabled;
+    }
+
+    public MyEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * 订阅方法抛出的异常
+     * @return
+     */
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    /**
+     * 订阅方法正在处理的事件 , 批量订阅方法是事件的 List
+     * @return
+     */
+    public Object getCausingEvent() {
+        return causingEvent;
+    }
+
+    public Object getCausingSubscriber() {
+        return causingSubscriber;
+    }
+
+    public String getCausingMethodName() {
+        return causingMethodName;
+    }
+
+    /**
+     * 该订阅方法是否因为连续失败被停用 , 见 MyEventBusBuilder#disableSubscriberAfterFailures
+     * @return
+     */
+    public boolean isSubscriptionDisabled() {
+        return subscriptionDisabled;
+    }
+}
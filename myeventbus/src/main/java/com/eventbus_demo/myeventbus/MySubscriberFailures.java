@@ -0,0 +1,57 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个订阅方法的失败记录 , 第一次抛出异常时创建 , 见 MySubscription#getOrCreateFailures
+ *      ASYNC 订阅方法可能在多个线程中同时失败 , 计数使用原子操作
+ */
+final class MySubscriberFailures {
+
+    /**
+     * 连续失败的次数 , 成功一次后清零
+     */
+    private final AtomicInteger consecutive = new AtomicInteger();
+
+    /**
+     * 上次打印异常的时间 , 以及之后没有打印的异常个数 , 只在持有 this 锁时读写
+     */
+    private long lastLogNanos;
+    private boolean logged;
+    private int suppressed;
+
+    /**
+     * 记录一次失败
+     * @return 连续失败的次数
+     */
+    int recordFailure() {
+        return consecutive.incrementAndGet();
+    }
+
+    /**
+     * 记录一次成功 , 连续失败次数清零 , 没有失败时不写入
+     */
+    void recordSuccess() {
+        if (consecutive.get() != 0) {
+            consecutive.set(0);
+        }
+    }
+
+    /**
+     * 判断本次异常是否需要打印
+     * @param now 当前时间
+     * @param intervalNanos 两次打印的最小间隔
+     * @return 需要打印时返回上次打印之后没有打印的异常个数 , 不需要打印时返回 -1
+     */
+    synchronized int tryLog(long now, long intervalNanos) {
+        if (logged && now - lastLogNanos < intervalNanos) {
+            suppressed++;
+            return -1;
+        }
+        logged = true;
+        lastLogNanos = now;
+        int count = suppressed;
+        suppressed = 0;
+        return count;
+    }
+}
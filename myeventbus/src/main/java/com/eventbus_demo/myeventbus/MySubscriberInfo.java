@@ -0,0 +1,19 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 订阅类的索引信息
+ *      由注解处理器在编译期生成 , 注册时直接读取 , 不再反射遍历订阅类的所有方法
+ */
+public interface MySubscriberInfo {
+    /**
+     * 获取订阅类
+     * @return
+     */
+    Class<?> getSubscriberClass();
+
+    /**
+     * 获取订阅类中声明的订阅方法
+     * @return
+     */
+    MySubscriberMethod[] getSubscriberMethods();
+}
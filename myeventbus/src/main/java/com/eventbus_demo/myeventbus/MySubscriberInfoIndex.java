@@ -0,0 +1,15 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 订阅者索引
+ *      注解处理器 MyEventBusAnnotationProcessor 在编译期扫描 @MySubscribe 注解 ,
+ *      生成该接口的实现类 , 通过 MyEventBusBuilder#addIndex 添加到 MyEventBus 中
+ */
+public interface MySubscriberInfoIndex {
+    /**
+     * 查找订阅类对应的索引信息
+     * @param subscriberClass 订阅类
+     * @return 如果该类没有被索引 , 返回 null
+     */
+    MySubscriberInfo getSubscriberInfo(Class<?> subscriberClass);
+}
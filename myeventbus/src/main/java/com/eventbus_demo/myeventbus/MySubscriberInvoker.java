@@ -0,0 +1,17 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 订阅方法调用器
+ *      注解处理器为每个订阅方法生成直接调用的实现 , 分发事件时不再经过 Method.invoke ,
+ *      没有参数数组装箱 , 访问检查 , 以及 InvocationTargetException 包装
+ *      没有索引的订阅类使用 MyReflectiveInvoker
+ */
+public interface MySubscriberInvoker {
+    /**
+     * 调用订阅方法
+     * @param subscriber 订阅者对象
+     * @param event 发布者传递的消息事件
+     * @throws Exception 订阅方法抛出的异常
+     */
+    void invoke(Object subscriber, Object event) throws Exception;
+}
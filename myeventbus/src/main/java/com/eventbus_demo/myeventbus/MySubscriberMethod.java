@@ -0,0 +1,164 @@
+package com.eventbus_demo.myeventbus;
+
+import java.lang.reflect.Method;
+
+/**
+ * 该类中用于保存订阅方法相关信息
+ */
+public class MySubscriberMethod {
+    /**
+     * 订阅方法
+     *      从生成的索引中获取的订阅方法不再查找 Method 对象 , 此时为 null
+     */
+    private final Method method;
+    /**
+     * 订阅方法名称
+     */
+    private final String methodName;
+    /**
+     * 订阅方法的线程模式
+     */
+    private final MyThreadMode threadMode;
+    /**
+     * 订阅方法接收的事件类型 , 批量订阅方法中是 List 的元素类型
+     */
+    private final Class<?> eventType;
+    /**
+     * 订阅方法的优先级
+     */
+    private final int priority;
+    /**
+     * 订阅方法是否接收粘性事件
+     */
+    private final boolean sticky;
+    /**
+     * 订阅方法是否批量接收事件 , 参数是 List<eventType>
+     */
+    private final boolean batch;
+    /**
+     * 订阅方法是否合并未分发的事件
+     */
+    private final boolean conflate;
+    /**
+     * 订阅方法自己的队列容量 , 0 表示不单独排队
+     */
+    private final int queueCapacity;
+    /**
+     * 订阅方法自己的队列已满时的处理策略
+     */
+    private final MyOverflowPolicy overflowPolicy;
+    /**
+     * 订阅方法调用器
+     */
+    private final MySubscriberInvoker invoker;
+
+    /**
+     * 反射查找到的订阅方法 , 通过 Method 对象调用
+     * @param method 订阅方法
+     * @param threadMode 线程模式
+     * @param eventType 事件类型 , 批量订阅方法中是 List 的元素类型
+     * @param priority 优先级
+     * @param sticky 是否接收粘性事件
+     * @param batch 是否批量接收事件
+     * @param conflate 是否合并未分发的事件
+     * @param queueCapacity 自己的队列容量 , 0 表示不单独排队
+     * @param overflowPolicy 自己的队列已满时的处理策略
+     */
+    public MySubscriberMethod(Method method, MyThreadMode threadMode, Class<?> eventType, int priority,
+                              boolean sticky, boolean batch, boolean conflate,
+                              int queueCapacity, MyOverflowPolicy overflowPolicy) {
+        this.method = method;
+        this.methodName = method.getName();
+        this.threadMode = threadMode;
+        this.eventType = eventType;
+        this.priority = priority;
+        this.sticky = sticky;
+        this.batch = batch;
+        this.conflate = conflate;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.invoker = new MyReflectiveInvoker(method);
+        checkQueueCapacity();
+    }
+
+    /**
+     * 生成的索引中的订阅方法 , 通过生成的调用器直接调用 , 参数与反射查找时相同
+     * @param methodName 订阅方法名称
+     * @param invoker 订阅方法调用器
+     */
+    public MySubscriberMethod(String methodName, MyThreadMode threadMode, Class<?> eventType, int priority,
+                              boolean sticky, boolean batch, boolean conflate,
+                              int queueCapacity, MyOverflowPolicy overflowPolicy, MySubscriberInvoker invoker) {
+        this.method = null;
+        this.methodName = methodName;
+        this.threadMode = threadMode;
+        this.eventType = eventType;
+        this.priority = priority;
+        this.sticky = sticky;
+        this.batch = batch;
+        this.conflate = conflate;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.invoker = invoker;
+        checkQueueCapacity();
+    }
+
+    /**
+     * 订阅方法自己的队列只能用于 ASYNC , 不能与 conflate 同时使用
+     */
+    private void checkQueueCapacity() {
+        if (queueCapacity < 0) {
+            throw new MyEventBusException("queueCapacity must not be negative: " + methodName);
+        }
+        if (queueCapacity > 0 && threadMode != MyThreadMode.ASYNC) {
+            throw new MyEventBusException("queueCapacity can only be used with ASYNC: " + methodName);
+        }
+        if (queueCapacity > 0 && conflate) {
+            throw new MyEventBusException("queueCapacity and conflate can not be both set: " + methodName);
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public MyThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public boolean isSticky() {
+        return sticky;
+    }
+
+    public boolean isBatch() {
+        return batch;
+    }
+
+    public boolean isConflate() {
+        return conflate;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public MyOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public MySubscriberInvoker getInvoker() {
+        return invoker;
+    }
+}
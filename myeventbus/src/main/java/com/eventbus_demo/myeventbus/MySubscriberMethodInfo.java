@@ -0,0 +1,119 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 生成的索引中保存的订阅方法描述
+ *      只记录 方法名 + 线程模式 + 事件类型 ,
+ *      使用时通过 Class#getMethod 精确查找 , 不需要遍历所有方法
+ *      如果生成了调用器 , 则直接使用调用器 , 不需要查找 Method 对象
+ */
+public class MySubscriberMethodInfo {
+    /**
+     * 订阅方法名称
+     */
+    private final String methodName;
+    /**
+     * 订阅方法的线程模式
+     */
+    private final MyThreadMode threadMode;
+    /**
+     * 订阅方法接收的事件类型 , 批量订阅方法中是 List 的元素类型
+     */
+    private final Class<?> eventType;
+    /**
+     * 订阅方法的优先级
+     */
+    private final int priority;
+    /**
+     * 订阅方法是否接收粘性事件
+     */
+    private final boolean sticky;
+    /**
+     * 订阅方法是否批量接收事件
+     */
+    private final boolean batch;
+    /**
+     * 订阅方法是否合并未分发的事件
+     */
+    private final boolean conflate;
+    /**
+     * 订阅方法自己的队列容量
+     */
+    private final int queueCapacity;
+    /**
+     * 订阅方法自己的队列已满时的处理策略
+     */
+    private final MyOverflowPolicy overflowPolicy;
+    /**
+     * 生成的订阅方法调用器 , 可能为 null
+     */
+    private final MySubscriberInvoker invoker;
+
+    /**
+     * 注解处理器生成的代码总是传入 @MySubscribe 的全部属性
+     * @param methodName 订阅方法名称
+     * @param eventType 事件类型 , 批量订阅方法中是 List 的元素类型
+     * @param threadMode 线程模式
+     * @param priority 优先级
+     * @param sticky 是否接收粘性事件
+     * @param batch 是否批量接收事件
+     * @param conflate 是否合并未分发的事件
+     * @param queueCapacity 自己的队列容量 , 0 表示不单独排队
+     * @param overflowPolicy 自己的队列已满时的处理策略
+     * @param invoker 生成的调用器 , 为 null 时通过反射查找 Method 对象
+     */
+    public MySubscriberMethodInfo(String methodName, Class<?> eventType, MyThreadMode threadMode,
+                                  int priority, boolean sticky, boolean batch, boolean conflate,
+                                  int queueCapacity, MyOverflowPolicy overflowPolicy,
+                                  MySubscriberInvoker invoker) {
+        this.methodName = methodName;
+        this.threadMode = threadMode;
+        this.eventType = eventType;
+        this.priority = priority;
+        this.sticky = sticky;
+        this.batch = batch;
+        this.conflate = conflate;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.invoker = invoker;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public MyThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public boolean isSticky() {
+        return sticky;
+    }
+
+    public boolean isBatch() {
+        return batch;
+    }
+
+    public boolean isConflate() {
+        return conflate;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public MyOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public MySubscriberInvoker getInvoker() {
+        return invoker;
+    }
+}
@@ -0,0 +1,179 @@
+package com.eventbus_demo.myeventbus;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * ASYNC 订阅方法自己的有界队列 , 见 MySubscribe#queueCapacity
+ *      同一时刻最多只有一个任务在线程池中分发该队列 , 订阅方法按照发布顺序依次执行 ,
+ *      一个处理很慢的订阅者最多占用一个线程和 capacity 个节点 , 不会拖垮整个线程池
+ */
+final class MySubscriberQueue implements Runnable {
+
+    private final MyEventBus eventBus;
+    /**
+     * 运行分发任务的线程池 , 与 ASYNC 分发器相同
+     */
+    private final Executor executor;
+    private final int capacity;
+    private final MyOverflowPolicy overflowPolicy;
+
+    /**
+     * 队头 / 队尾 / 长度 , 只在持有 this 锁时读写
+     */
+    private MyPendingPost head;
+    private MyPendingPost tail;
+    private int size;
+    /**
+     * 是否已经提交了分发任务
+     */
+    private boolean scheduled;
+    /**
+     * 正在分发该队列的线程 , 用于判断是否是订阅方法中给自己发布事件
+     */
+    private volatile Thread drainingThread;
+    /**
+     * 队列已满被丢弃的事件个数
+     */
+    private long droppedCount;
+
+    MySubscriberQueue(MyEventBus eventBus, Executor executor, int capacity, MyOverflowPolicy overflowPolicy) {
+        this.eventBus = eventBus;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * 放入队尾 , 队列已满时按照策略处理
+     * @param subscription
+     * @param event
+     * @return 事件是否放入了队列 , 被丢弃时返回 false
+     */
+    boolean enqueue(MySubscription subscription, Object event) {
+        boolean schedule;
+        synchronized (this) {
+            if (size >= capacity && !makeRoom(subscription)) {
+                return false;
+            }
+            MyPendingPost pendingPost = MyPendingPost.obtainPendingPost(subscription, event);
+            if (tail == null) {
+                head = pendingPost;
+            } else {
+                tail.next = pendingPost;
+            }
+            tail = pendingPost;
+            size++;
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // 线程池已满 , 在发布线程中分发 , 仍然只有一个线程在分发该队列
+                run();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 队列已满 , 按照策略腾出空间
+     * 调用时必须持有 this 锁
+     * @return 是否可以放入新事件
+     */
+    private boolean makeRoom(MySubscription subscription) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                // 订阅方法中给自己发布事件 , 等待会造成死锁 , 允许超出容量
+                if (drainingThread == Thread.currentThread()) {
+                    return true;
+                }
+                try {
+                    while (size >= capacity) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    onDropped();
+                    throw new MyEventBusException("Interrupted while waiting for the queue of "
+                            + subscription.getSubscriberMethod().getMethodName(), e);
+                }
+                return true;
+            case DROP_OLDEST:
+                MyPendingPost oldest = head;
+                head = oldest.next;
+                if (head == null) {
+                    tail = null;
+                }
+                size--;
+                onDropped();
+                MyPendingPost.releasePendingPost(oldest);
+                return true;
+            case DROP_NEWEST:
+                onDropped();
+                return false;
+            case FAIL:
+            default:
+                onDropped();
+                throw new MyEventBusException("Queue of subscriber method "
+                        + subscription.getSubscriberMethod().getMethodName() + " is full (capacity "
+                        + capacity + ")");
+        }
+    }
+
+    /**
+     * 记录被丢弃的事件
+     * 调用时必须持有 this 锁
+     */
+    private void onDropped() {
+        droppedCount++;
+        eventBus.onSubscriberQueueOverflow();
+    }
+
+    @Override
+    public void run() {
+        drainingThread = Thread.currentThread();
+        try {
+            while (true) {
+                MyPendingPost pendingPost;
+                synchronized (this) {
+                    pendingPost = head;
+                    if (pendingPost == null) {
+                        // 在锁中清除 , 避免覆盖下一个分发任务的线程
+                        drainingThread = null;
+                        scheduled = false;
+                        return;
+                    }
+                    head = pendingPost.next;
+                    if (head == null) {
+                        tail = null;
+                    }
+                    size--;
+                    // 唤醒等待空间的发布线程
+                    if (overflowPolicy == MyOverflowPolicy.BLOCK) {
+                        notifyAll();
+                    }
+                }
+                eventBus.invokeSubscriber(pendingPost);
+            }
+        } finally {
+            // 订阅方法之外抛出异常而退出时 , 允许下一次 enqueue 重新提交任务
+            synchronized (this) {
+                if (drainingThread == Thread.currentThread()) {
+                    drainingThread = null;
+                    scheduled = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取队列已满被丢弃的事件个数
+     * @return
+     */
+    synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+}
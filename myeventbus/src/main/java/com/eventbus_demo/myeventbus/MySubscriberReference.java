@@ -0,0 +1,40 @@
+package com.eventbus_demo.myeventbus;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * 弱引用订阅者
+ *      同一个订阅者的所有 MySubscription 共用一个该对象 , 同时作为 registrations 的 Key
+ *      订阅者被回收后 , 该对象进入 ReferenceQueue , 在注册 / 取消注册时批量清理
+ * 按照订阅者对象的身份比较 , 订阅者被回收后只与自身相等
+ */
+final class MySubscriberReference extends WeakReference<Object> {
+
+    /**
+     * 订阅者的 identityHashCode , 订阅者被回收后仍然需要用它在 Map 中查找
+     */
+    private final int hash;
+
+    MySubscriberReference(Object subscriber, ReferenceQueue<Object> queue) {
+        super(subscriber, queue);
+        this.hash = System.identityHashCode(subscriber);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MySubscriberReference)) {
+            return false;
+        }
+        Object subscriber = get();
+        return subscriber != null && subscriber == ((MySubscriberReference) obj).get();
+    }
+}
@@ -0,0 +1,114 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 封装 订阅者对象 与 订阅方法
+ */
+public class MySubscription {
+    /**
+     * 订阅者对象 , 弱引用模式下为 null
+     *      取消注册时置为 null , 未压缩的订阅数组和分发队列中残留的 MySubscription 不再引用订阅者
+     */
+    private Object subscriber;
+    /**
+     * 弱引用模式下的订阅者 , 否则为 null
+     */
+    private final MySubscriberReference subscriberReference;
+    /**
+     * 订阅方法
+     */
+    private final MySubscriberMethod subscriberMethod;
+    /**
+     * 是否有效 , 取消注册时置为 false
+     *      取消注册之后 , 旧的快照和分发队列中可能仍然引用该对象 , 分发前检查该标记
+     */
+    volatile boolean active = true;
+    /**
+     * conflate 订阅方法的合并槽 , 否则为 null
+     */
+    final MyConflationSlot conflation;
+    /**
+     * 设置了 queueCapacity 的 ASYNC 订阅方法自己的有界队列 , 否则为 null
+     *      注册时在发布快照之前设置 , 之后不再修改
+     */
+    MySubscriberQueue queue;
+    /**
+     * 开启统计时 , 该订阅方法的耗时统计 , 否则为 null
+     *      注册时在发布快照之前设置 , 之后不再修改
+     */
+    MyDeliveryMetrics metrics;
+    /**
+     * 开启主线程看门狗时 , MAIN / MAIN_ORDERED 订阅方法的超时状态 , 否则为 null
+     *      注册时在发布快照之前设置 , 之后不再修改
+     */
+    MyMainThreadWatchdog.HandlerState watchdogState;
+    /**
+     * 订阅方法的失败记录 , 第一次抛出异常时创建 , 没有失败过时为 null
+     */
+    volatile MySubscriberFailures failures;
+    /**
+     * 注册时指定的 Key , 见 MyEventBus#register(Object, Object) , 没有指定时为 null
+     *      注册时在发布快照之前设置 , 之后不再修改
+     */
+    Object key;
+
+    public MySubscription(Object subscriber, MySubscriberMethod subscriberMethod) {
+        this.subscriber = subscriber;
+        this.subscriberReference = null;
+        this.subscriberMethod = subscriberMethod;
+        this.conflation = subscriberMethod.isConflate() ? new MyConflationSlot() : null;
+    }
+
+    MySubscription(MySubscriberReference subscriberReference, MySubscriberMethod subscriberMethod) {
+        this.subscriber = null;
+        this.subscriberReference = subscriberReference;
+        this.subscriberMethod = subscriberMethod;
+        this.conflation = subscriberMethod.isConflate() ? new MyConflationSlot() : null;
+    }
+
+    /**
+     * 获取订阅者对象
+     *      强引用模式直接返回字段 , 只有弱引用模式才需要读取引用
+     * @return 弱引用模式下订阅者已被回收 , 或者已经取消注册时返回 null
+     */
+    public Object getSubscriber() {
+        Object subscriber = this.subscriber;
+        if (subscriber != null || subscriberReference == null) {
+            return subscriber;
+        }
+        return subscriberReference.get();
+    }
+
+    /**
+     * 取消注册后释放订阅者 , 之后 getSubscriber 返回 null , 分发时跳过
+     * 调用时必须持有 registryLock
+     */
+    void clearSubscriber() {
+        subscriber = null;
+    }
+
+    /**
+     * 获取失败记录 , 不存在时创建
+     * @return
+     */
+    MySubscriberFailures getOrCreateFailures() {
+        MySubscriberFailures failures = this.failures;
+        if (failures == null) {
+            synchronized (this) {
+                failures = this.failures;
+                if (failures == null) {
+                    failures = new MySubscriberFailures();
+                    this.failures = failures;
+                }
+            }
+        }
+        return failures;
+    }
+
+    MySubscriberReference getSubscriberReference() {
+        return subscriberReference;
+    }
+
+    public MySubscriberMethod getSubscriberMethod() {
+        return subscriberMethod;
+    }
+}
\ No newline at end of file
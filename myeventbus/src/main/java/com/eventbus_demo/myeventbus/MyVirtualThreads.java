@@ -0,0 +1,66 @@
+package com.eventbus_demo.myeventbus;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程支持
+ *      Android 和 JDK 21 以下没有虚拟线程 , 通过反射调用 , 源码仍然兼容 Java 8
+ */
+public final class MyVirtualThreads {
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor 方法 , 不支持时为 null
+     *      JDK 19 / 20 中该方法是预览 API , 没有开启 --enable-preview 时调用会抛出异常 , 也视为不支持
+     */
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findFactoryMethod();
+
+    private MyVirtualThreads() {
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     * @return
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池
+     * @return
+     * @throws MyEventBusException 不支持虚拟线程
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new MyEventBusException("Virtual threads are not supported on this runtime");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (Exception e) {
+            throw new MyEventBusException("Could not create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * 查找工厂方法 , 并实际创建一次线程池 , 确认当前运行环境可以使用
+     *      线程池在提交任务前不会创建线程 , 创建后立即关闭
+     * @return 不支持时返回 null
+     */
+    private static Method findFactoryMethod() {
+        Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        try {
+            ((ExecutorService) method.invoke(null)).shutdown();
+            return method;
+        } catch (Exception e) {
+            // 预览 API 没有开启时 , UnsupportedOperationException 包装在 InvocationTargetException 中
+            return null;
+        }
+    }
+}
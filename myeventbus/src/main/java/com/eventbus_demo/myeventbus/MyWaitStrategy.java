@@ -0,0 +1,19 @@
+package com.eventbus_demo.myeventbus;
+
+/**
+ * 环形缓冲区分发器中 , 分发线程没有事件时的等待策略 , 见 MyEventBusBuilder#asyncRingBuffer
+ */
+public enum MyWaitStrategy {
+    /**
+     * 一直循环检查 , 延迟最低 , 每个分发线程一直占用一个 CPU 核 , 分发线程个数不要超过空闲的核数
+     */
+    BUSY_SPIN,
+    /**
+     * 循环检查一段时间后让出 CPU , 延迟较低 , 空闲时仍然占用 CPU
+     */
+    YIELD,
+    /**
+     * 循环检查一段时间后休眠 , 发布线程放入事件时唤醒 , 空闲时不占用 CPU , 唤醒有额外延迟
+     */
+    PARK
+}
@@ -0,0 +1,118 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * postAll 批量发布 : 按类型分组 , 切换线程时整批放入队列 , 以及批量订阅方法
+ */
+public class MyEventBusBatchPostTest {
+
+    public static class PostingSubscriber {
+        final List<Object> events = new ArrayList<>();
+
+        @MySubscribe
+        public void onString(String event) {
+            events.add(event);
+        }
+
+        @MySubscribe
+        public void onInteger(Integer event) {
+            events.add(event);
+        }
+    }
+
+    public static class BatchSubscriber {
+        final List<List<CharSequence>> batches = new ArrayList<>();
+
+        @MySubscribe(batch = true)
+        public void onEvents(List<CharSequence> events) {
+            batches.add(new ArrayList<>(events));
+        }
+    }
+
+    public static class AsyncSubscriber {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done;
+
+        AsyncSubscriber(int events) {
+            done = new CountDownLatch(events);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(String event) {
+            events.add(event);
+            done.countDown();
+        }
+    }
+
+    public static class CancelingSubscriber {
+        final MyEventBus bus;
+
+        CancelingSubscriber(MyEventBus bus) {
+            this.bus = bus;
+        }
+
+        @MySubscribe(priority = 1)
+        public void onEvent(String event) {
+            if (event.startsWith("cancel")) {
+                bus.cancelEventDelivery(event);
+            }
+        }
+    }
+
+    @Test
+    public void groupsByTypeKeepingOrderWithinType() {
+        MyEventBus bus = MyEventBus.builder().build();
+        PostingSubscriber subscriber = new PostingSubscriber();
+        bus.register(subscriber);
+        bus.postAll(Arrays.<Object>asList("a", 1, "b", 2, "c"));
+        assertEquals(Arrays.<Object>asList("a", "b", "c", 1, 2), subscriber.events);
+    }
+
+    @Test
+    public void batchSubscriberReceivesWholeGroup() {
+        MyEventBus bus = MyEventBus.builder().build();
+        BatchSubscriber subscriber = new BatchSubscriber();
+        bus.register(subscriber);
+        bus.postAll(Arrays.asList("a", "b", "c"));
+        bus.post("d");
+        assertEquals(2, subscriber.batches.size());
+        assertEquals(Arrays.<CharSequence>asList("a", "b", "c"), subscriber.batches.get(0));
+        assertEquals(Collections.<CharSequence>singletonList("d"), subscriber.batches.get(1));
+    }
+
+    @Test
+    public void cancellationAppliesPerEvent() {
+        MyEventBus bus = MyEventBus.builder().build();
+        PostingSubscriber subscriber = new PostingSubscriber();
+        bus.register(subscriber);
+        bus.register(new CancelingSubscriber(bus));
+        bus.postAll(Arrays.asList("a", "cancel", "b"));
+        assertEquals(Arrays.<Object>asList("a", "b"), subscriber.events);
+    }
+
+    @Test
+    public void threadHoppingSubscriberReceivesAllEventsInOrder() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().build();
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            events.add("event" + i);
+        }
+        AsyncSubscriber subscriber = new AsyncSubscriber(events.size());
+        bus.register(subscriber);
+        bus.postAll(events);
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        // 同一个订阅的整批事件作为一个任务 , 在同一个线程中按顺序分发
+        assertEquals(events, subscriber.events);
+    }
+}
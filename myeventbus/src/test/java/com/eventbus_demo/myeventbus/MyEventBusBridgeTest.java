@@ -0,0 +1,470 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 进程间事件桥 : 双向转发 , 发布顺序 , 合并发送 , 收到的事件不再转发 , 只接收指定的类型 , 关闭后不再转发 ,
+ *      转发失败不影响本进程的分发 , 不读取的连接超时后断开 , token 错误的连接不能收发事件
+ *      两个 MyEventBus 在同一个进程中通过本机回环地址连接 , 与两个进程相同
+ */
+public class MyEventBusBridgeTest {
+
+    public static class Ping {
+        final int id;
+
+        Ping(int id) {
+            this.id = id;
+        }
+    }
+
+    public static class Pong {
+        final int id;
+
+        Pong(int id) {
+            this.id = id;
+        }
+    }
+
+    public static class Ignored {
+    }
+
+    /**
+     * data 为 null 时无法序列化
+     */
+    public static class Blob {
+        final byte[] data;
+
+        Blob(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    static final MyEventSerializer SERIALIZER = new MyEventSerializer() {
+        @Override
+        public void write(Object event, DataOutput output) throws IOException {
+            if (event instanceof Ping) {
+                output.writeInt(((Ping) event).id);
+            } else if (event instanceof Pong) {
+                output.writeInt(((Pong) event).id);
+            } else if (event instanceof Blob) {
+                byte[] data = ((Blob) event).data;
+                if (data == null) {
+                    throw new IOException("Blob without data");
+                }
+                output.writeInt(data.length);
+                output.write(data);
+            }
+        }
+
+        @Override
+        public Object read(Class<?> eventType, DataInput input) throws IOException {
+            if (eventType == Ping.class) {
+                return new Ping(input.readInt());
+            }
+            if (eventType == Pong.class) {
+                return new Pong(input.readInt());
+            }
+            if (eventType == Blob.class) {
+                byte[] data = new byte[input.readInt()];
+                input.readFully(data);
+                return new Blob(data);
+            }
+            return new Ignored();
+        }
+    };
+
+    public static class PingSubscriber {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @MySubscribe
+        public void onEvent(Ping event) {
+            received.add(event.id);
+        }
+    }
+
+    public static class PongSubscriber {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @MySubscribe
+        public void onEvent(Pong event) {
+            received.add(event.id);
+        }
+    }
+
+    public static class BlobSubscriber {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @MySubscribe
+        public void onEvent(Blob event) {
+            received.add(event.data == null ? -1 : event.data.length);
+        }
+    }
+
+    public static class IgnoredSubscriber {
+        int count;
+
+        @MySubscribe
+        public void onEvent(Ignored event) {
+            count++;
+        }
+    }
+
+    /**
+     * 收到 Ping 时回复 Pong
+     */
+    public static class Echo {
+        final MyEventBus eventBus;
+
+        Echo(MyEventBus eventBus) {
+            this.eventBus = eventBus;
+        }
+
+        @MySubscribe
+        public void onEvent(Ping event) {
+            eventBus.post(new Pong(event.id));
+        }
+    }
+
+    private final List<MyEventBridge> bridges = new ArrayList<>();
+
+    @After
+    public void closeBridges() {
+        for (MyEventBridge bridge : bridges) {
+            bridge.close();
+        }
+    }
+
+    private MyEventBridge listen(MyEventBus eventBus) {
+        MyEventBridge bridge = MyEventBridge.builder(eventBus)
+                .serializer(SERIALIZER)
+                .forwardEventType(Ping.class)
+                .receiveEventType(Pong.class)
+                .listen(0);
+        bridges.add(bridge);
+        return bridge;
+    }
+
+    private MyEventBridge connect(MyEventBus eventBus, MyEventBridge listening) {
+        MyEventBridge bridge = MyEventBridge.builder(eventBus)
+                .serializer(SERIALIZER)
+                .forwardEventType(Pong.class)
+                .receiveEventType(Ping.class)
+                .token(listening.getToken())
+                .connect(listening.getPort());
+        bridges.add(bridge);
+        return bridge;
+    }
+
+    private static void awaitPeers(MyEventBridge bridge, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bridge.getPeerCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, bridge.getPeerCount());
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(size, list.size());
+    }
+
+    @Test
+    public void eventsAreForwardedInOrder() throws InterruptedException {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBus client = MyEventBus.builder().build();
+        MyEventBridge serverBridge = listen(server);
+        connect(client, serverBridge);
+        awaitPeers(serverBridge, 1);
+
+        PingSubscriber subscriber = new PingSubscriber();
+        client.register(subscriber);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            server.post(new Ping(i));
+            expected.add(i);
+        }
+        awaitSize(subscriber.received, 10_000);
+        assertEquals(expected, subscriber.received);
+        // 发送期间发布的事件合并到同一帧
+        assertEquals(10_000, serverBridge.getSentEventCount());
+        assertTrue(serverBridge.getSentFrameCount() <= 10_000);
+    }
+
+    @Test
+    public void postAllIsForwarded() throws InterruptedException {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBus client = MyEventBus.builder().build();
+        MyEventBridge serverBridge = listen(server);
+        connect(client, serverBridge);
+        awaitPeers(serverBridge, 1);
+
+        PingSubscriber subscriber = new PingSubscriber();
+        client.register(subscriber);
+        server.postAll(Arrays.asList(new Ping(1), new Ping(2), new Ping(3)));
+        awaitSize(subscriber.received, 3);
+        assertEquals(Arrays.asList(1, 2, 3), subscriber.received);
+    }
+
+    @Test
+    public void receivedEventsAreNotForwardedBack() throws InterruptedException {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBus client = MyEventBus.builder().build();
+        // 两边都转发和接收 Ping
+        MyEventBridge serverBridge = MyEventBridge.builder(server).serializer(SERIALIZER)
+                .forwardEventType(Ping.class).receiveEventType(Ping.class).listen(0);
+        bridges.add(serverBridge);
+        MyEventBridge clientBridge = MyEventBridge.builder(client).serializer(SERIALIZER)
+                .forwardEventType(Ping.class).receiveEventType(Ping.class)
+                .token(serverBridge.getToken()).connect(serverBridge.getPort());
+        bridges.add(clientBridge);
+        awaitPeers(serverBridge, 1);
+
+        PingSubscriber serverSubscriber = new PingSubscriber();
+        PingSubscriber clientSubscriber = new PingSubscriber();
+        server.register(serverSubscriber);
+        client.register(clientSubscriber);
+        server.post(new Ping(1));
+        awaitSize(clientSubscriber.received, 1);
+        Thread.sleep(100);
+        assertEquals(Collections.singletonList(1), serverSubscriber.received);
+        assertEquals(Collections.singletonList(1), clientSubscriber.received);
+        assertEquals(0, clientBridge.getSentEventCount());
+    }
+
+    @Test
+    public void remoteSubscriberCanReply() throws InterruptedException {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBus client = MyEventBus.builder().build();
+        MyEventBridge serverBridge = listen(server);
+        connect(client, serverBridge);
+        awaitPeers(serverBridge, 1);
+
+        client.register(new Echo(client));
+        PongSubscriber subscriber = new PongSubscriber();
+        server.register(subscriber);
+        for (int i = 0; i < 100; i++) {
+            server.post(new Ping(i));
+        }
+        awaitSize(subscriber.received, 100);
+    }
+
+    @Test
+    public void unknownTypesAreIgnored() throws InterruptedException {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBus client = MyEventBus.builder().build();
+        MyEventBridge serverBridge = MyEventBridge.builder(server).serializer(SERIALIZER)
+                .forwardEventType(Ping.class).forwardEventType(Pong.class).listen(0);
+        bridges.add(serverBridge);
+        bridges.add(MyEventBridge.builder(client).serializer(SERIALIZER)
+                .receiveEventType(Pong.class).token(serverBridge.getToken()).connect(serverBridge.getPort()));
+        awaitPeers(serverBridge, 1);
+
+        PingSubscriber pingSubscriber = new PingSubscriber();
+        PongSubscriber pongSubscriber = new PongSubscriber();
+        IgnoredSubscriber ignoredSubscriber = new IgnoredSubscriber();
+        client.register(pingSubscriber);
+        client.register(pongSubscriber);
+        client.register(ignoredSubscriber);
+        server.post(new Ping(1));
+        server.post(new Pong(2));
+        awaitSize(pongSubscriber.received, 1);
+        assertTrue(pingSubscriber.received.isEmpty());
+        assertEquals(0, ignoredSubscriber.count);
+    }
+
+    @Test
+    public void closedBridgeStopsForwarding() throws InterruptedException {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBus client = MyEventBus.builder().build();
+        MyEventBridge serverBridge = listen(server);
+        MyEventBridge clientBridge = connect(client, serverBridge);
+        awaitPeers(serverBridge, 1);
+
+        clientBridge.close();
+        awaitPeers(serverBridge, 0);
+        // 没有连接时不序列化 , 直接返回
+        server.post(new Ping(1));
+        assertEquals(0, serverBridge.getSentEventCount());
+        // 关闭后可以重新连接
+        connect(client, serverBridge);
+        awaitPeers(serverBridge, 1);
+    }
+
+    @Test
+    public void onlyOneBridgePerEventBus() {
+        MyEventBus server = MyEventBus.builder().build();
+        listen(server);
+        try {
+            listen(server);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 已经连接了事件桥
+        }
+    }
+
+    @Test
+    public void forwardFailureDoesNotAbortLocalDelivery() throws InterruptedException {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBus client = MyEventBus.builder().build();
+        MyEventBridge serverBridge = MyEventBridge.builder(server)
+                .serializer(SERIALIZER)
+                .forwardEventType(Blob.class)
+                .maxFrameSize(1024)
+                .listen(0);
+        bridges.add(serverBridge);
+        MyEventBridge clientBridge = MyEventBridge.builder(client)
+                .serializer(SERIALIZER)
+                .receiveEventType(Blob.class)
+                .token(serverBridge.getToken()).connect(serverBridge.getPort());
+        bridges.add(clientBridge);
+        awaitPeers(serverBridge, 1);
+
+        BlobSubscriber local = new BlobSubscriber();
+        server.register(local);
+        BlobSubscriber remote = new BlobSubscriber();
+        client.register(remote);
+        // 超过帧大小和无法序列化的事件只在本进程中分发 , 同一次 postAll 中之后的事件不受影响
+        server.postAll(Arrays.asList(new Blob(new byte[2048]), new Blob(null), new Blob(new byte[16])));
+        assertEquals(Arrays.asList(2048, -1, 16), local.received);
+        awaitSize(remote.received, 1);
+        assertEquals(Collections.singletonList(16), remote.received);
+    }
+
+    @Test
+    public void slowPeerIsDisconnected() throws Exception {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBus client = MyEventBus.builder().build();
+        MyEventBridge serverBridge = MyEventBridge.builder(server)
+                .serializer(SERIALIZER)
+                .forwardEventType(Blob.class)
+                .writeTimeoutMillis(200)
+                .listen(0);
+        bridges.add(serverBridge);
+        MyEventBridge clientBridge = MyEventBridge.builder(client)
+                .serializer(SERIALIZER)
+                .receiveEventType(Blob.class)
+                .token(serverBridge.getToken()).connect(serverBridge.getPort());
+        bridges.add(clientBridge);
+        awaitPeers(serverBridge, 1);
+        BlobSubscriber subscriber = new BlobSubscriber();
+        client.register(subscriber);
+
+        // 完成握手后不读取 , Socket 的缓冲区写满后发送线程不能继续写入
+        try (Socket slow = new Socket("127.0.0.1", serverBridge.getPort())) {
+            writeHello(slow, serverBridge.getToken());
+            awaitPeers(serverBridge, 2);
+            int posted = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (serverBridge.getPeerCount() == 2 && System.nanoTime() < deadline) {
+                server.post(new Blob(new byte[16 * 1024]));
+                posted++;
+            }
+            assertEquals(1, serverBridge.getPeerCount());
+            assertTrue(slow.isConnected());
+            // 正常的连接收到所有事件
+            long receiveDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (subscriber.received.size() < posted && System.nanoTime() < receiveDeadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(posted, subscriber.received.size());
+        }
+    }
+
+    @Test
+    public void connectRequiresToken() {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBridge serverBridge = listen(server);
+        try {
+            MyEventBridge.builder(MyEventBus.builder().build())
+                    .serializer(SERIALIZER)
+                    .receiveEventType(Ping.class)
+                    .connect(serverBridge.getPort());
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 没有指定 token
+        }
+    }
+
+    @Test
+    public void wrongTokenIsRejected() throws InterruptedException {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBridge serverBridge = listen(server);
+        MyEventBus client = MyEventBus.builder().build();
+        try {
+            MyEventBridge.builder(client)
+                    .serializer(SERIALIZER)
+                    .receiveEventType(Ping.class)
+                    .token("not-" + serverBridge.getToken())
+                    .connect(serverBridge.getPort());
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 监听方验证失败后断开连接
+        }
+        assertEquals(0, serverBridge.getPeerCount());
+        // 失败的连接已经关闭 , 同一个 MyEventBus 可以重新连接
+        connect(client, serverBridge);
+        awaitPeers(serverBridge, 1);
+    }
+
+    @Test
+    public void unauthenticatedPeerReceivesNothing() throws Exception {
+        MyEventBus server = MyEventBus.builder().build();
+        MyEventBridge serverBridge = MyEventBridge.builder(server)
+                .serializer(SERIALIZER)
+                .forwardEventType(Ping.class)
+                .receiveEventType(Pong.class)
+                .token("secret")
+                .listen(0);
+        bridges.add(serverBridge);
+        assertEquals("secret", serverBridge.getToken());
+        PongSubscriber subscriber = new PongSubscriber();
+        server.register(subscriber);
+
+        try (Socket socket = new Socket("127.0.0.1", serverBridge.getPort())) {
+            socket.setSoTimeout(5000);
+            writeHello(socket, "guess");
+            // 监听方不回复握手帧 , 直接断开
+            assertEquals(-1, socket.getInputStream().read());
+        }
+        assertEquals(0, serverBridge.getPeerCount());
+        server.post(new Ping(1));
+        assertEquals(0, serverBridge.getSentEventCount());
+        assertTrue(subscriber.received.isEmpty());
+    }
+
+    /**
+     * 按照 MyEventBridge 的帧格式发送连接方的握手帧 , 不转发任何类型
+     */
+    private static void writeHello(Socket socket, String token) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream hello = new DataOutputStream(bytes);
+        hello.writeInt(0x4D594252);
+        hello.writeInt(2);
+        hello.writeUTF(token);
+        hello.writeInt(0);
+        DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+        output.writeInt(bytes.size());
+        bytes.writeTo(output);
+        output.flush();
+    }
+}
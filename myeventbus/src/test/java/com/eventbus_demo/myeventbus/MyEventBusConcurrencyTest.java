@@ -0,0 +1,108 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 多线程同时 注册 / 取消注册 / 发布 时 , MyEventBus 的状态保持一致
+ */
+public class MyEventBusConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 2000;
+
+    public static class CountingSubscriber {
+        final AtomicInteger count = new AtomicInteger();
+
+        @MySubscribe
+        public void onEvent(String event) {
+            count.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void concurrentRegisterPostUnregister() throws Exception {
+        MyEventBus bus = MyEventBus.builder().build();
+
+        // 一直保持注册的订阅者 , 必须收到每一条消息
+        CountingSubscriber permanent = new CountingSubscriber();
+        bus.register(permanent);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        List<CountingSubscriber> transients = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            // 不断 注册 + 取消注册 的线程
+            CountingSubscriber subscriber = new CountingSubscriber();
+            transients.add(subscriber);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    bus.register(subscriber);
+                    bus.unregister(subscriber);
+                }
+                return null;
+            }));
+            // 不断发布消息的线程
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    bus.post("event");
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            // 任意线程抛出异常都会在这里重新抛出
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * ITERATIONS, permanent.count.get());
+
+        // 所有临时订阅者都已经取消注册 , 之后的消息只有 permanent 能收到
+        int[] before = new int[transients.size()];
+        for (int i = 0; i < before.length; i++) {
+            before[i] = transients.get(i).count.get();
+        }
+        bus.post("after");
+        for (int i = 0; i < before.length; i++) {
+            assertEquals(before[i], transients.get(i).count.get());
+        }
+        assertEquals(THREADS * ITERATIONS + 1, permanent.count.get());
+    }
+
+    @Test
+    public void getInstanceReturnsSameInstanceFromAllThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MyEventBus>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return MyEventBus.getInstance();
+            }));
+        }
+        start.countDown();
+        MyEventBus first = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<MyEventBus> future : futures) {
+            assertTrue(first == future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+    }
+}
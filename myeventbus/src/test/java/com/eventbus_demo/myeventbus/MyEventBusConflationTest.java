@@ -0,0 +1,139 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * conflate 订阅方法 : 队列中未分发的事件被新事件替换 , 只分发最新的事件
+ */
+public class MyEventBusConflationTest {
+
+    public static class Progress implements MyConflatable {
+        final String task;
+        final int percent;
+
+        Progress(String task, int percent) {
+            this.task = task;
+            this.percent = percent;
+        }
+
+        @Override
+        public Object getConflationKey() {
+            return task;
+        }
+
+        @Override
+        public String toString() {
+            return task + ":" + percent;
+        }
+    }
+
+    public static class AsyncSubscriber {
+        final List<Object> events = Collections.synchronizedList(new ArrayList<Object>());
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, conflate = true)
+        public void onEvent(Integer event) {
+            events.add(event);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, conflate = true)
+        public void onProgress(Progress event) {
+            events.add(event.toString());
+        }
+    }
+
+    public static class MainSubscriber {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @MySubscribe(threadMode = MyThreadMode.MAIN, conflate = true)
+        public void onEvent(Integer event) {
+            events.add(event);
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void onlyLatestPendingEventIsDelivered() {
+        List<Runnable> tasks = new ArrayList<>();
+        MyEventBus bus = MyEventBus.builder().asyncExecutor(tasks::add).build();
+        AsyncSubscriber subscriber = new AsyncSubscriber();
+        MyRegistration registration = bus.register(subscriber);
+
+        for (int i = 0; i < 100; i++) {
+            bus.post(i);
+        }
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(Collections.<Object>singletonList(99), subscriber.events);
+        assertEquals(99, bus.getConflatedEventCount());
+        assertEquals(99, registration.getConflatedEventCount());
+
+        // 分发之后 , 新的事件重新放入队列
+        bus.post(100);
+        assertEquals(2, tasks.size());
+        tasks.get(1).run();
+        assertEquals(Arrays.<Object>asList(99, 100), subscriber.events);
+    }
+
+    @Test
+    public void keyedEventsAreConflatedPerKey() {
+        List<Runnable> tasks = new ArrayList<>();
+        MyEventBus bus = MyEventBus.builder().asyncExecutor(tasks::add).build();
+        AsyncSubscriber subscriber = new AsyncSubscriber();
+        bus.register(subscriber);
+
+        for (int i = 1; i <= 10; i++) {
+            bus.post(new Progress("a", i * 10));
+            bus.post(new Progress("b", i));
+        }
+        assertEquals(2, tasks.size());
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        assertEquals(Arrays.<Object>asList("a:100", "b:10"), subscriber.events);
+        assertEquals(18, bus.getConflatedEventCount());
+    }
+
+    @Test
+    public void postAllDeliversLatestToMainThread() throws Exception {
+        MyExecutorMainThreadSupport mainThread = new MyExecutorMainThreadSupport();
+        MyEventBus bus = MyEventBus.builder().mainThreadSupport(mainThread).build();
+        MainSubscriber subscriber = new MainSubscriber();
+        bus.register(subscriber);
+
+        // 阻塞主线程 , 保证所有事件都在队列中等待
+        CountDownLatch release = new CountDownLatch(1);
+        mainThread.execute(() -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<Integer> events = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            events.add(i);
+        }
+        bus.postAll(events);
+        bus.post(50);
+        release.countDown();
+
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        // 等待主线程处理完队列
+        CountDownLatch drained = new CountDownLatch(1);
+        mainThread.execute(drained::countDown);
+        assertTrue(drained.await(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(50), subscriber.events);
+        assertEquals(50, bus.getConflatedEventCount());
+    }
+}
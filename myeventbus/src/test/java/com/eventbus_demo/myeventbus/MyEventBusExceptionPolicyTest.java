@@ -0,0 +1,210 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 订阅方法抛出异常时的处理策略 , 以及连续失败后停用订阅方法
+ */
+public class MyEventBusExceptionPolicyTest {
+
+    public static class FailingSubscriber {
+        final List<String> strings = new ArrayList<>();
+        final List<Integer> integers = new ArrayList<>();
+
+        @MySubscribe
+        public void onString(String event) {
+            strings.add(event);
+            if (event.startsWith("fail")) {
+                throw new IllegalStateException(event);
+            }
+        }
+
+        @MySubscribe
+        public void onInteger(Integer event) {
+            integers.add(event);
+        }
+    }
+
+    public static class MainFailingSubscriber {
+        final List<String> strings = Collections.synchronizedList(new ArrayList<String>());
+
+        @MySubscribe(threadMode = MyThreadMode.MAIN)
+        public void onString(String event) {
+            strings.add(event);
+            if (event.startsWith("fail")) {
+                throw new IllegalStateException(event);
+            }
+        }
+    }
+
+    public static class ExceptionSubscriber {
+        final List<MySubscriberExceptionEvent> events = new ArrayList<>();
+
+        @MySubscribe
+        public void onException(MySubscriberExceptionEvent event) {
+            events.add(event);
+            throw new IllegalStateException("handler also fails");
+        }
+    }
+
+    /**
+     * 执行 runnable , 返回期间输出到 System.err 的内容
+     */
+    private static String captureErr(Runnable runnable) {
+        PrintStream original = System.err;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(out, true));
+        try {
+            runnable.run();
+        } finally {
+            System.setErr(original);
+        }
+        return out.toString();
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void logPolicyIsRateLimited() {
+        MyEventBus bus = MyEventBus.builder().build();
+        FailingSubscriber subscriber = new FailingSubscriber();
+        bus.register(subscriber);
+
+        String output = captureErr(() -> {
+            for (int i = 0; i < 5; i++) {
+                bus.post("fail" + i);
+            }
+        });
+        assertEquals(5, subscriber.strings.size());
+        // 5 秒内只打印第一次
+        assertEquals(1, count(output, "Could not dispatch event java.lang.String"));
+        assertTrue(output.contains("IllegalStateException: fail0"));
+    }
+
+    @Test
+    public void postEventPolicyPublishesExceptionEvent() {
+        MyEventBus bus = MyEventBus.builder().exceptionPolicy(MyExceptionPolicy.POST_EVENT).build();
+        FailingSubscriber subscriber = new FailingSubscriber();
+        ExceptionSubscriber exceptionSubscriber = new ExceptionSubscriber();
+        bus.register(subscriber);
+        bus.register(exceptionSubscriber);
+
+        String output = captureErr(() -> bus.post("fail"));
+        assertEquals(1, exceptionSubscriber.events.size());
+        MySubscriberExceptionEvent event = exceptionSubscriber.events.get(0);
+        assertSame(bus, event.getEventBus());
+        assertEquals("fail", event.getCausingEvent());
+        assertSame(subscriber, event.getCausingSubscriber());
+        assertEquals("onString", event.getCausingMethodName());
+        assertTrue(event.getThrowable() instanceof IllegalStateException);
+        assertFalse(event.isSubscriptionDisabled());
+        // 处理异常事件的订阅方法本身失败时只打印 , 不再发布
+        assertTrue(output.contains("handler also fails"));
+    }
+
+    @Test
+    public void rethrowPolicyThrowsFromPost() {
+        MyEventBus bus = MyEventBus.builder().exceptionPolicy(MyExceptionPolicy.RETHROW).build();
+        bus.register(new FailingSubscriber());
+        try {
+            bus.post("fail");
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // 抛出异常之后 , 该线程仍然可以继续发布
+        FailingSubscriber other = new FailingSubscriber();
+        bus.register(other);
+        bus.post(1);
+        assertEquals(1, other.integers.size());
+    }
+
+    @Test
+    public void subscriptionIsDisabledAfterConsecutiveFailures() {
+        MyEventBus bus = MyEventBus.builder()
+                .exceptionPolicy(MyExceptionPolicy.POST_EVENT)
+                .disableSubscriberAfterFailures(3)
+                .build();
+        FailingSubscriber subscriber = new FailingSubscriber();
+        List<MySubscriberExceptionEvent> exceptions = new ArrayList<>();
+        bus.register(subscriber);
+        bus.register(new Object() {
+            @MySubscribe
+            public void onException(MySubscriberExceptionEvent event) {
+                exceptions.add(event);
+            }
+        });
+
+        // 成功一次后连续失败次数清零
+        bus.post("fail");
+        bus.post("fail");
+        bus.post("ok");
+        bus.post("fail");
+        bus.post("fail");
+        assertEquals(4, exceptions.size());
+        assertFalse(exceptions.get(3).isSubscriptionDisabled());
+
+        bus.post("fail");
+        assertEquals(5, exceptions.size());
+        assertTrue(exceptions.get(4).isSubscriptionDisabled());
+
+        // 停用之后不再接收事件 , 同一个订阅者的其它订阅方法不受影响
+        bus.post("again");
+        assertEquals(6, subscriber.strings.size());
+        bus.post(1);
+        assertEquals(1, subscriber.integers.size());
+
+        // 取消注册不受影响
+        bus.unregister(subscriber);
+        assertFalse(bus.isRegistered(subscriber));
+    }
+
+    @Test
+    public void rethrowOnMainThreadDoesNotStopLaterDeliveries() throws InterruptedException {
+        MyExecutorMainThreadSupport mainThread = new MyExecutorMainThreadSupport();
+        MyEventBus bus = MyEventBus.builder()
+                .mainThreadSupport(mainThread)
+                .exceptionPolicy(MyExceptionPolicy.RETHROW)
+                .build();
+        MainFailingSubscriber subscriber = new MainFailingSubscriber();
+        bus.register(subscriber);
+
+        // 在其它线程中发布 , 切换到主线程分发 , 异常在主线程中抛出
+        bus.post("fail1");
+        awaitSize(subscriber.strings, 1);
+        bus.post("ok1");
+        awaitSize(subscriber.strings, 2);
+        // 失败的事件之后已经排队的事件也会分发
+        bus.postAll(Arrays.asList("fail2", "ok2", "ok3"));
+        awaitSize(subscriber.strings, 5);
+        assertEquals(Arrays.asList("fail1", "ok1", "fail2", "ok2", "ok3"), subscriber.strings);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(size, list.size());
+    }
+}
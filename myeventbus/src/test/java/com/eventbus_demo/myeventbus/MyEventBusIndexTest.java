@@ -0,0 +1,197 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 订阅者索引 : 通过调用器分发 , 子类重写的订阅方法只分发一次 , 不在索引中的子类 / 父类 ,
+ *      requireGeneratedIndex , 不同配置的 MyEventBus 不共用方法缓存 , 反射查找的修饰符规则
+ *      索引按照注解处理器生成的代码手写
+ */
+public class MyEventBusIndexTest {
+
+    public static class Parent {
+        final List<String> received = new ArrayList<>();
+
+        @MySubscribe
+        public void onEvent(String event) {
+            received.add("parent:" + event);
+        }
+    }
+
+    public static class Child extends Parent {
+        @Override
+        @MySubscribe
+        public void onEvent(String event) {
+            received.add("child:" + event);
+        }
+    }
+
+    /**
+     * 不在索引中 , 如注解处理器跳过的类
+     */
+    public static class UnindexedChild extends Parent {
+        final List<Integer> numbers = new ArrayList<>();
+
+        @MySubscribe
+        public void onNumber(Integer event) {
+            numbers.add(event);
+        }
+    }
+
+    public static class NotIndexed {
+        @MySubscribe
+        public void onEvent(Long event) {
+        }
+    }
+
+    public interface Handler<T> {
+        void onEvent(T event);
+    }
+
+    /**
+     * final 的订阅方法 , 以及实现泛型接口时编译器生成的桥接方法 onEvent(Object)
+     */
+    public static class FinalHandler implements Handler<String> {
+        final List<Object> received = new ArrayList<>();
+
+        @Override
+        @MySubscribe
+        public final void onEvent(String event) {
+            received.add(event);
+        }
+    }
+
+    /**
+     * 与生成的索引相同 , 每个类只记录自身声明的订阅方法 , 调用器直接调用
+     *      索引没有实例状态 , 同一个索引类的 MyEventBus 共用方法缓存 , 调用次数使用静态字段
+     */
+    static final class TestIndex implements MySubscriberInfoIndex {
+        static int invocations;
+        private final Map<Class<?>, MySubscriberInfo> index = new HashMap<>();
+
+        TestIndex() {
+            put(Parent.class, new MySubscriberMethodInfo("onEvent", String.class, MyThreadMode.POSTING,
+                    0, false, false, false, 0, MyOverflowPolicy.BLOCK,
+                    (subscriber, event) -> {
+                        invocations++;
+                        ((Parent) subscriber).onEvent((String) event);
+                    }));
+            put(Child.class, new MySubscriberMethodInfo("onEvent", String.class, MyThreadMode.POSTING,
+                    0, false, false, false, 0, MyOverflowPolicy.BLOCK,
+                    (subscriber, event) -> {
+                        invocations++;
+                        ((Child) subscriber).onEvent((String) event);
+                    }));
+        }
+
+        private void put(Class<?> subscriberClass, MySubscriberMethodInfo methodInfo) {
+            index.put(subscriberClass, new MySimpleSubscriberInfo(subscriberClass,
+                    new MySubscriberMethodInfo[] {methodInfo}));
+        }
+
+        @Override
+        public MySubscriberInfo getSubscriberInfo(Class<?> subscriberClass) {
+            return index.get(subscriberClass);
+        }
+    }
+
+    @Before
+    public void resetInvocations() {
+        TestIndex.invocations = 0;
+    }
+
+    @Test
+    public void indexedMethodsUseInvoker() {
+        TestIndex index = new TestIndex();
+        MyEventBus bus = MyEventBus.builder().addIndex(index).build();
+        Parent subscriber = new Parent();
+        bus.register(subscriber);
+        bus.post("a");
+        assertEquals(1, TestIndex.invocations);
+        assertEquals(Collections.singletonList("parent:a"), subscriber.received);
+    }
+
+    @Test
+    public void overriddenMethodIsDeliveredOnce() {
+        TestIndex index = new TestIndex();
+        MyEventBus bus = MyEventBus.builder().addIndex(index).build();
+        Child subscriber = new Child();
+        bus.register(subscriber);
+        bus.post("a");
+        assertEquals(1, TestIndex.invocations);
+        assertEquals(Collections.singletonList("child:a"), subscriber.received);
+
+        // 与反射查找的结果一致
+        MyEventBus reflectionBus = MyEventBus.builder().ignoreGeneratedIndex(true).build();
+        Child reflected = new Child();
+        reflectionBus.register(reflected);
+        reflectionBus.post("a");
+        assertEquals(Collections.singletonList("child:a"), reflected.received);
+    }
+
+    @Test
+    public void unindexedSubclassKeepsItsOwnMethods() {
+        TestIndex index = new TestIndex();
+        MyEventBus bus = MyEventBus.builder().addIndex(index).build();
+        UnindexedChild subscriber = new UnindexedChild();
+        bus.register(subscriber);
+        bus.post(1);
+        bus.post("a");
+        assertEquals(Collections.singletonList(1), subscriber.numbers);
+        assertEquals(Collections.singletonList("parent:a"), subscriber.received);
+    }
+
+    @Test
+    public void requireGeneratedIndexRejectsUnindexedClasses() {
+        MyEventBus bus = MyEventBus.builder().addIndex(new TestIndex()).requireGeneratedIndex(true).build();
+        bus.register(new Child());
+        try {
+            bus.register(new NotIndexed());
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 整个继承链都不在索引中
+        }
+        try {
+            bus.register(new UnindexedChild());
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 子类声明了订阅方法 , 但不在索引中
+        }
+    }
+
+    @Test
+    public void methodCacheIsNotSharedAcrossConfigurations() {
+        // 没有索引的 MyEventBus 先通过反射查找并缓存
+        MyEventBus reflectionBus = MyEventBus.builder().build();
+        reflectionBus.register(new NotIndexed());
+
+        MyEventBus strictBus = MyEventBus.builder().addIndex(new TestIndex()).requireGeneratedIndex(true).build();
+        try {
+            strictBus.register(new NotIndexed());
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 不能使用其它配置缓存的反射结果
+        }
+    }
+
+    @Test
+    public void reflectionAcceptsFinalMethodsAndSkipsBridges() {
+        MyEventBus bus = MyEventBus.builder().ignoreGeneratedIndex(true).build();
+        FinalHandler subscriber = new FinalHandler();
+        bus.register(subscriber);
+        // 桥接方法复制了注解 , 不能作为 Object 的订阅方法
+        bus.post("a");
+        bus.post(1);
+        assertEquals(Collections.<Object>singletonList("a"), subscriber.received);
+    }
+}
@@ -0,0 +1,76 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 事件继承 : 订阅了父类 / 接口的订阅方法接收子类事件
+ */
+public class MyEventBusInheritanceTest {
+
+    public static class CharSequenceSubscriber {
+        final List<Object> events = new ArrayList<>();
+
+        @MySubscribe
+        public void onEvent(CharSequence event) {
+            events.add(event);
+        }
+    }
+
+    public static class ObjectSubscriber {
+        final List<Object> events = new ArrayList<>();
+
+        @MySubscribe
+        public void onEvent(Object event) {
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void supertypeSubscriberReceivesSubclassEvent() {
+        MyEventBus bus = MyEventBus.builder().build();
+        CharSequenceSubscriber charSequenceSubscriber = new CharSequenceSubscriber();
+        bus.register(charSequenceSubscriber);
+
+        bus.post("a");
+        bus.post(1);
+        assertEquals(1, charSequenceSubscriber.events.size());
+
+        // String 的分发缓存已经存在 , 注册新的订阅者之后必须失效
+        ObjectSubscriber objectSubscriber = new ObjectSubscriber();
+        bus.register(objectSubscriber);
+        bus.post("b");
+        assertEquals(2, charSequenceSubscriber.events.size());
+        assertEquals(1, objectSubscriber.events.size());
+
+        bus.unregister(charSequenceSubscriber);
+        bus.post("c");
+        assertEquals(2, charSequenceSubscriber.events.size());
+        assertEquals(2, objectSubscriber.events.size());
+    }
+
+    @Test
+    public void skippedTypeOnlyMatchesExactly() {
+        MyEventBus bus = MyEventBus.builder().skipEventInheritance(String.class).build();
+        CharSequenceSubscriber subscriber = new CharSequenceSubscriber();
+        bus.register(subscriber);
+
+        bus.post("a");
+        bus.post(new StringBuilder("b"));
+        assertEquals(1, subscriber.events.size());
+    }
+
+    @Test
+    public void inheritanceDisabled() {
+        MyEventBus bus = MyEventBus.builder().eventInheritance(false).build();
+        CharSequenceSubscriber subscriber = new CharSequenceSubscriber();
+        bus.register(subscriber);
+
+        bus.post("a");
+        assertEquals(0, subscriber.events.size());
+    }
+}
@@ -0,0 +1,411 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 事件日志 : 确认后不再重放 , 重启后按顺序重放未确认的事件 , 分段切换和压缩 , 末尾不完整的记录 , 进程被杀死后恢复
+ */
+public class MyEventBusJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public static class OrderPlaced {
+        final int id;
+
+        OrderPlaced(int id) {
+            this.id = id;
+        }
+    }
+
+    public static class OrderShipped {
+        final int id;
+
+        OrderShipped(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * 只写入编号
+     */
+    static final MyEventSerializer SERIALIZER = new MyEventSerializer() {
+        @Override
+        public void write(Object event, DataOutput output) throws IOException {
+            output.writeInt(event instanceof OrderPlaced ? ((OrderPlaced) event).id : ((OrderShipped) event).id);
+        }
+
+        @Override
+        public Object read(Class<?> eventType, DataInput input) throws IOException {
+            int id = input.readInt();
+            return eventType == OrderPlaced.class ? new OrderPlaced(id) : new OrderShipped(id);
+        }
+    };
+
+    public static class PostingSubscriber {
+        final List<Integer> placed = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @MySubscribe
+        public void onEvent(OrderPlaced event) {
+            placed.add(event.id);
+        }
+    }
+
+    public static class AsyncSubscriber {
+        final List<Integer> placed = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch done;
+
+        AsyncSubscriber(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(OrderPlaced event) {
+            placed.add(event.id);
+            done.countDown();
+        }
+    }
+
+    /**
+     * 一直阻塞 , 该订阅者的事件不会确认 , 使用自己的队列 , 只占用一个 ASYNC 线程
+     */
+    public static class StuckSubscriber {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, queueCapacity = 10_000)
+        public void onEvent(OrderShipped event) throws InterruptedException {
+            release.await();
+        }
+    }
+
+    public static class ShippedSubscriber {
+        final List<Integer> shipped = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @MySubscribe
+        public void onEvent(OrderShipped event) {
+            shipped.add(event.id);
+        }
+    }
+
+    private MyEventBus open(File directory) {
+        return open(directory, 64 * 1024);
+    }
+
+    private MyEventBus open(File directory, int segmentSize) {
+        return MyEventBus.builder()
+                .journal(directory, SERIALIZER)
+                .journalEventType(OrderPlaced.class)
+                .journalEventType(OrderShipped.class)
+                .journalSegmentSize(segmentSize)
+                .build();
+    }
+
+    /**
+     * 等待订阅方法返回后的确认
+     */
+    private static void awaitPendingCount(MyEventBus bus, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bus.getJournalPendingCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, bus.getJournalPendingCount());
+    }
+
+    @Test
+    public void acknowledgedEventsAreNotReplayed() throws IOException {
+        File directory = folder.newFolder();
+        MyEventBus bus = open(directory);
+        bus.register(new PostingSubscriber());
+        for (int i = 0; i < 100; i++) {
+            bus.post(new OrderPlaced(i));
+        }
+        bus.closeJournal();
+
+        MyEventBus reopened = open(directory);
+        PostingSubscriber subscriber = new PostingSubscriber();
+        reopened.register(subscriber);
+        assertEquals(0, reopened.replayJournal());
+        assertTrue(subscriber.placed.isEmpty());
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void pendingEventsAreReplayedInOrder() throws Exception {
+        File directory = folder.newFolder();
+        MyEventBus bus = open(directory);
+        StuckSubscriber stuck = new StuckSubscriber();
+        bus.register(stuck);
+        bus.register(new PostingSubscriber());
+        for (int i = 0; i < 10; i++) {
+            bus.post(new OrderShipped(i));
+            bus.post(new OrderPlaced(i));
+        }
+        // 模拟退出时 ASYNC 订阅方法还没有执行完
+        bus.closeJournal();
+        stuck.release.countDown();
+
+        MyEventBus reopened = open(directory);
+        ShippedSubscriber subscriber = new ShippedSubscriber();
+        reopened.register(subscriber);
+        assertEquals(10, reopened.replayJournal());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), subscriber.shipped);
+        // 只重放一次
+        assertEquals(0, reopened.replayJournal());
+        reopened.closeJournal();
+
+        // 重放的事件确认后不再重放
+        MyEventBus again = open(directory);
+        again.register(new ShippedSubscriber());
+        assertEquals(0, again.replayJournal());
+        again.closeJournal();
+    }
+
+    @Test
+    public void eventsWithoutSubscribersAreNotJournaled() throws IOException {
+        File directory = folder.newFolder();
+        MyEventBus bus = open(directory);
+        bus.post(new OrderShipped(1));
+        bus.closeJournal();
+
+        MyEventBus reopened = open(directory);
+        reopened.register(new ShippedSubscriber());
+        assertEquals(0, reopened.replayJournal());
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void asyncEventsAreAcknowledgedAfterDelivery() throws Exception {
+        File directory = folder.newFolder();
+        MyEventBus bus = open(directory);
+        AsyncSubscriber subscriber = new AsyncSubscriber(1000);
+        bus.register(subscriber);
+        for (int i = 0; i < 1000; i++) {
+            bus.post(new OrderPlaced(i));
+        }
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        // 订阅方法返回之后才确认
+        awaitPendingCount(bus, 0);
+        bus.closeJournal();
+
+        MyEventBus reopened = open(directory);
+        reopened.register(new PostingSubscriber());
+        assertEquals(0, reopened.replayJournal());
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void segmentsAreRolledAndCompacted() throws Exception {
+        File directory = folder.newFolder();
+        MyEventBus bus = open(directory, 4096);
+        StuckSubscriber stuck = new StuckSubscriber();
+        bus.register(stuck);
+        bus.register(new PostingSubscriber());
+        // 每个分段中只有 1 个未确认的事件
+        for (int i = 0; i < 5000; i++) {
+            if (i % 500 == 0) {
+                bus.post(new OrderShipped(i));
+            } else {
+                bus.post(new OrderPlaced(i));
+            }
+        }
+        // 同步线程在切换分段后压缩 , 刷盘之后删除旧分段
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(".log"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (segments.length > 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            segments = directory.listFiles((dir, name) -> name.endsWith(".log"));
+        }
+        assertTrue(Arrays.toString(segments), segments.length <= 2);
+        bus.closeJournal();
+        stuck.release.countDown();
+
+        MyEventBus reopened = open(directory, 4096);
+        ShippedSubscriber subscriber = new ShippedSubscriber();
+        reopened.register(subscriber);
+        assertEquals(10, reopened.replayJournal());
+        assertEquals(Arrays.asList(0, 500, 1000, 1500, 2000, 2500, 3000, 3500, 4000, 4500), subscriber.shipped);
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void tornTailIsIgnored() throws Exception {
+        File directory = folder.newFolder();
+        MyEventBus bus = open(directory);
+        StuckSubscriber stuck = new StuckSubscriber();
+        bus.register(stuck);
+        bus.post(new OrderShipped(1));
+        bus.post(new OrderShipped(2));
+        bus.closeJournal();
+        stuck.release.countDown();
+
+        // 破坏最后一条记录的内容 , 模拟写入时崩溃
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(".log"));
+        assertEquals(1, segments.length);
+        try (RandomAccessFile file = new RandomAccessFile(segments[0], "rw")) {
+            long position = 8;
+            long last = position;
+            while (true) {
+                file.seek(position);
+                int length = file.readInt();
+                if (length == 0) {
+                    break;
+                }
+                last = position;
+                position += 8 + length;
+            }
+            file.seek(last + 8 + 1);
+            file.writeLong(-1);
+        }
+
+        MyEventBus reopened = open(directory);
+        ShippedSubscriber subscriber = new ShippedSubscriber();
+        reopened.register(subscriber);
+        assertEquals(1, reopened.replayJournal());
+        assertEquals(Collections.singletonList(1), subscriber.shipped);
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void directoryIsLocked() throws IOException {
+        File directory = folder.newFolder();
+        MyEventBus bus = open(directory);
+        try {
+            open(directory);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 同一个目录只能打开一次
+        } finally {
+            bus.closeJournal();
+        }
+        open(directory).closeJournal();
+    }
+
+    @Test
+    public void concurrentPostsAreAllAcknowledged() throws Exception {
+        File directory = folder.newFolder();
+        MyEventBus bus = open(directory, 16 * 1024);
+        final AsyncSubscriber subscriber = new AsyncSubscriber(4 * 5000);
+        bus.register(subscriber);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int base = t * 5000;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    bus.post(new OrderPlaced(base + i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        awaitPendingCount(bus, 0);
+        bus.closeJournal();
+
+        MyEventBus reopened = open(directory, 16 * 1024);
+        reopened.register(new PostingSubscriber());
+        assertEquals(0, reopened.replayJournal());
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void journalRequiresEventTypes() {
+        try {
+            MyEventBus.builder().journal(new File("unused"), SERIALIZER).build();
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 没有指定写入日志的事件类型
+        }
+    }
+
+    /**
+     * 子进程发布事件后被强制杀死 , 没有执行完的事件在重启后重放 , 已经送达的不重放
+     */
+    @Test
+    public void eventsSurviveProcessKill() throws Exception {
+        File directory = folder.newFolder();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                CrashingPublisher.class.getName(), directory.getAbsolutePath())
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null && !line.equals("READY")) {
+                // 跳过其它输出
+            }
+            assertEquals("READY", line);
+        } finally {
+            process.destroyForcibly();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+
+        MyEventBus reopened = open(directory);
+        ShippedSubscriber shipped = new ShippedSubscriber();
+        PostingSubscriber placed = new PostingSubscriber();
+        reopened.register(shipped);
+        reopened.register(placed);
+        assertEquals(CrashingPublisher.COUNT, reopened.replayJournal());
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < CrashingPublisher.COUNT; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, shipped.shipped);
+        assertTrue(placed.placed.isEmpty());
+        reopened.closeJournal();
+    }
+
+    /**
+     * 子进程 : 交替发布 OrderPlaced ( 很快送达 ) 和 OrderShipped ( 一直阻塞 ) , 所有 OrderPlaced 送达后输出 READY
+     */
+    public static class CrashingPublisher {
+        static final int COUNT = 200;
+
+        public static void main(String[] args) throws InterruptedException {
+            MyEventBus bus = MyEventBus.builder()
+                    .journal(new File(args[0]), SERIALIZER)
+                    .journalEventType(OrderPlaced.class)
+                    .journalEventType(OrderShipped.class)
+                    .journalSegmentSize(64 * 1024)
+                    .build();
+            AsyncSubscriber placed = new AsyncSubscriber(COUNT);
+            bus.register(placed);
+            bus.register(new StuckSubscriber());
+            for (int i = 0; i < COUNT; i++) {
+                bus.post(new OrderPlaced(i));
+                bus.post(new OrderShipped(i));
+            }
+            placed.done.await();
+            // 订阅方法返回之后才确认 , 只剩下阻塞的 OrderShipped
+            while (bus.getJournalPendingCount() > COUNT) {
+                Thread.sleep(1);
+            }
+            System.out.println("READY");
+            System.out.flush();
+            Thread.sleep(Long.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 按照 Key 注册 / 发布 : 订阅者只接收自己的 Key 和没有 Key 的事件
+ */
+public class MyEventBusKeyedSubscriptionTest {
+
+    public static class Subscriber {
+        final String name;
+        final List<String> log;
+
+        Subscriber(String name, List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        @MySubscribe
+        public void onEvent(String event) {
+            log.add(name + ":" + event);
+        }
+    }
+
+    public static class HighPrioritySubscriber extends Subscriber {
+        HighPrioritySubscriber(String name, List<String> log) {
+            super(name, log);
+        }
+
+        @MySubscribe(priority = 10)
+        public void onHighPriority(String event) {
+            log.add(name + "!:" + event);
+        }
+    }
+
+    public static class ObjectSubscriber {
+        final List<Object> events = new ArrayList<>();
+
+        @MySubscribe
+        public void onEvent(Object event) {
+            events.add(event);
+        }
+    }
+
+    public static class ForwardingSubscriber {
+        final MyEventBus bus;
+
+        ForwardingSubscriber(MyEventBus bus) {
+            this.bus = bus;
+        }
+
+        @MySubscribe
+        public void onEvent(Integer event) {
+            bus.post("forwarded", "b");
+        }
+    }
+
+    @Test
+    public void keyedPostOnlyReachesMatchingAndUnkeyedSubscribers() {
+        MyEventBus bus = MyEventBus.builder().build();
+        List<String> log = new ArrayList<>();
+        bus.register(new Subscriber("a", log), "a");
+        bus.register(new Subscriber("b", log), "b");
+        bus.register(new Subscriber("all", log));
+
+        bus.post("x", "a");
+        assertEquals(Arrays.asList("a:x", "all:x"), log);
+
+        log.clear();
+        bus.post("y", "missing");
+        assertEquals(Collections.singletonList("all:y"), log);
+
+        // 没有 Key 时分发给所有订阅者
+        log.clear();
+        bus.post("z");
+        assertEquals(Arrays.asList("a:z", "b:z", "all:z"), log);
+    }
+
+    @Test
+    public void priorityOrderIsKept() {
+        MyEventBus bus = MyEventBus.builder().build();
+        List<String> log = new ArrayList<>();
+        bus.register(new Subscriber("all", log));
+        bus.register(new HighPrioritySubscriber("a", log), "a");
+        bus.register(new Subscriber("late", log));
+
+        bus.post("x", "a");
+        assertEquals(Arrays.asList("a!:x", "all:x", "a:x", "late:x"), log);
+    }
+
+    @Test
+    public void indexFollowsRegistryChanges() {
+        MyEventBus bus = MyEventBus.builder().build();
+        List<String> log = new ArrayList<>();
+        Subscriber a = new Subscriber("a", log);
+        bus.register(a, "a");
+        bus.post("1", "a");
+
+        bus.unregister(a);
+        bus.post("2", "a");
+        bus.register(new Subscriber("a2", log), "a");
+        bus.post("3", "a");
+        assertEquals(Arrays.asList("a:1", "a2:3"), log);
+    }
+
+    @Test
+    public void keyedPostUsesEventInheritance() {
+        MyEventBus bus = MyEventBus.builder().build();
+        ObjectSubscriber keyed = new ObjectSubscriber();
+        ObjectSubscriber other = new ObjectSubscriber();
+        bus.register(keyed, 1L);
+        bus.register(other, 2L);
+
+        bus.post("x", 1L);
+        assertEquals(Collections.<Object>singletonList("x"), keyed.events);
+        assertTrue(other.events.isEmpty());
+    }
+
+    @Test
+    public void nestedKeyedPostKeepsKey() {
+        MyEventBus bus = MyEventBus.builder().build();
+        List<String> log = new ArrayList<>();
+        bus.register(new ForwardingSubscriber(bus));
+        bus.register(new Subscriber("a", log), "a");
+        bus.register(new Subscriber("b", log), "b");
+
+        bus.post(1);
+        assertEquals(Collections.singletonList("b:forwarded"), log);
+    }
+
+    @Test
+    public void registeringAgainRequiresTheSameKey() {
+        MyEventBus bus = MyEventBus.builder().build();
+        Subscriber subscriber = new Subscriber("a", new ArrayList<String>());
+        MyRegistration registration = bus.register(subscriber, "a");
+        assertEquals("a", registration.getKey());
+        assertSame(registration, bus.register(subscriber, "a"));
+        try {
+            bus.register(subscriber, "b");
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 已经以其它 Key 注册
+        }
+        try {
+            bus.register(subscriber);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 已经以其它 Key 注册
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 主线程订阅方法看门狗 : 超时回调 , 调用栈采样 , 回调间隔 , 改为在子线程中分发
+ */
+public class MyEventBusMainThreadWatchdogTest {
+
+    public static class SlowSubscriber {
+        final BlockingQueue<Thread> threads = new LinkedBlockingQueue<>();
+
+        @MySubscribe(threadMode = MyThreadMode.MAIN_ORDERED)
+        public void onEvent(Integer sleepMillis) throws InterruptedException {
+            Thread.sleep(sleepMillis);
+            threads.add(Thread.currentThread());
+        }
+    }
+
+    private final List<MySlowHandlerReport> reports =
+            Collections.synchronizedList(new ArrayList<MySlowHandlerReport>());
+
+    private MyEventBus createBus(int rerouteAfter) {
+        MyEventBusBuilder builder = MyEventBus.builder()
+                .mainThreadSupport(new MyExecutorMainThreadSupport())
+                .mainThreadWatchdog(10, reports::add);
+        if (rerouteAfter > 0) {
+            builder.rerouteSlowMainThreadHandlers(rerouteAfter);
+        }
+        return builder.build();
+    }
+
+    private static Thread await(SlowSubscriber subscriber) throws InterruptedException {
+        Thread thread = subscriber.threads.poll(5, TimeUnit.SECONDS);
+        assertNotNull(thread);
+        return thread;
+    }
+
+    /**
+     * 订阅方法返回之后才回调 , 在主线程中再执行一个任务 , 保证之前的回调都已经完成
+     */
+    private static void sync(MyEventBus bus, SlowSubscriber subscriber) throws InterruptedException {
+        bus.post(0);
+        await(subscriber);
+    }
+
+    @Test
+    public void slowHandlerIsReportedWithStackSample() throws Exception {
+        MyEventBus bus = createBus(0);
+        SlowSubscriber subscriber = new SlowSubscriber();
+        bus.register(subscriber);
+
+        bus.post(1);
+        await(subscriber);
+        sync(bus, subscriber);
+        assertTrue(reports.isEmpty());
+
+        bus.post(100);
+        await(subscriber);
+        sync(bus, subscriber);
+        assertEquals(1, reports.size());
+        MySlowHandlerReport report = reports.get(0);
+        assertEquals(SlowSubscriber.class, report.getSubscriberClass());
+        assertEquals("onEvent", report.getMethodName());
+        assertEquals(Integer.class, report.getEventType());
+        assertTrue(report.getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(1, report.getSlowCount());
+        assertFalse(report.isRerouted());
+
+        // 调用栈是在订阅方法执行期间采样的
+        StackTraceElement[] stackTrace = report.getStackTrace();
+        assertNotNull(stackTrace);
+        boolean found = false;
+        for (StackTraceElement element : stackTrace) {
+            if (element.getClassName().equals(SlowSubscriber.class.getName())
+                    && element.getMethodName().equals("onEvent")) {
+                found = true;
+            }
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void reportsAreRateLimitedPerHandler() throws Exception {
+        MyEventBus bus = createBus(0);
+        SlowSubscriber subscriber = new SlowSubscriber();
+        bus.register(subscriber);
+
+        for (int i = 0; i < 3; i++) {
+            bus.post(20);
+            await(subscriber);
+        }
+        sync(bus, subscriber);
+        // 同一个订阅方法 10 秒内只回调一次
+        assertEquals(1, reports.size());
+    }
+
+    @Test
+    public void slowHandlerIsReroutedToBackground() throws Exception {
+        MyEventBus bus = createBus(2);
+        SlowSubscriber subscriber = new SlowSubscriber();
+        bus.register(subscriber);
+
+        bus.post(20);
+        assertTrue(await(subscriber).getName().startsWith("MyEventBus-main"));
+        bus.post(20);
+        assertTrue(await(subscriber).getName().startsWith("MyEventBus-main"));
+        // 等待第 2 次超时的回调完成
+        sync(bus, subscriber);
+
+        // 第 2 次超时时改为在子线程中分发 , 并立即回调
+        assertEquals(2, reports.size());
+        assertTrue(reports.get(1).isRerouted());
+        assertEquals(2, reports.get(1).getSlowCount());
+
+        bus.post(20);
+        assertTrue(await(subscriber).getName().startsWith("MyEventBus-background"));
+        // 子线程中的分发不再监控
+        assertEquals(2, reports.size());
+    }
+
+    @Test(expected = MyEventBusException.class)
+    public void rerouteWithoutWatchdogFails() {
+        MyEventBus.builder().rerouteSlowMainThreadHandlers(2).build();
+    }
+}
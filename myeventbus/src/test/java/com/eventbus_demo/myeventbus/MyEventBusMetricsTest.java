@@ -0,0 +1,148 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计 : 计数器 , 按事件类型 / 订阅方法统计的排队耗时和执行耗时
+ */
+public class MyEventBusMetricsTest {
+
+    public static class PostingSubscriber {
+        int received;
+
+        @MySubscribe
+        public void onEvent(String event) {
+            received++;
+            if ("fail".equals(event)) {
+                throw new IllegalStateException(event);
+            }
+        }
+    }
+
+    public static class AsyncSubscriber {
+        int received;
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(Integer event) {
+            received++;
+        }
+    }
+
+    public static class OverloadedSubscriber {
+        @MySubscribe
+        public void onEvent(String event) {
+        }
+
+        @MySubscribe
+        public void onEvent(Integer event) {
+        }
+    }
+
+    @Test
+    public void metricsAreDisabledByDefault() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.register(new PostingSubscriber());
+        bus.post("a");
+        assertNull(bus.getMetricsSnapshot());
+    }
+
+    @Test
+    public void countersTrackPostsDeliveriesAndExceptions() {
+        MyEventBus bus = MyEventBus.builder().metricsEnabled(true).build();
+        PostingSubscriber subscriber = new PostingSubscriber();
+        bus.register(subscriber);
+
+        bus.post("a");
+        bus.post("fail");
+        bus.post(1L);
+        bus.postAll(Arrays.asList("b", "c", 2.0));
+
+        MyMetricsSnapshot snapshot = bus.getMetricsSnapshot();
+        assertEquals(6, snapshot.getPostCount());
+        assertEquals(4, snapshot.getDeliveryCount());
+        assertEquals(2, snapshot.getNoSubscriberCount());
+        assertEquals(1, snapshot.getExceptionCount());
+        assertEquals(4, subscriber.received);
+
+        String key = PostingSubscriber.class.getName() + "#onEvent(java.lang.String)";
+        assertEquals(4, snapshot.getExecutionBySubscriber().get(key).getCount());
+        assertEquals(4, snapshot.getExecutionByEventType().get(String.class.getName()).getCount());
+        // 在发布线程直接调用 , 没有排队
+        assertEquals(0, snapshot.getQueueWaitBySubscriber().get(key).getCount());
+        assertTrue(snapshot.toString().contains(key));
+    }
+
+    @Test
+    public void overloadedMethodsAreTrackedSeparately() {
+        MyEventBus bus = MyEventBus.builder().metricsEnabled(true).build();
+        bus.register(new OverloadedSubscriber());
+
+        bus.post("a");
+        bus.post(1);
+        bus.post(2);
+
+        MyMetricsSnapshot snapshot = bus.getMetricsSnapshot();
+        String prefix = OverloadedSubscriber.class.getName() + "#onEvent";
+        assertEquals(2, snapshot.getExecutionBySubscriber().size());
+        assertEquals(1, snapshot.getExecutionBySubscriber().get(prefix + "(java.lang.String)").getCount());
+        assertEquals(2, snapshot.getExecutionBySubscriber().get(prefix + "(java.lang.Integer)").getCount());
+        assertEquals(1, snapshot.getExecutionByEventType().get(String.class.getName()).getCount());
+        assertEquals(2, snapshot.getExecutionByEventType().get(Integer.class.getName()).getCount());
+    }
+
+    @Test
+    public void queueWaitIsRecordedForQueuedDeliveries() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        MyEventBus bus = MyEventBus.builder().metricsEnabled(true).asyncExecutor(tasks::add).build();
+        AsyncSubscriber subscriber = new AsyncSubscriber();
+        bus.register(subscriber);
+
+        bus.post(1);
+        bus.post(2);
+        Thread.sleep(2);
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        assertEquals(2, subscriber.received);
+
+        MyLatencySnapshot queueWait = bus.getMetricsSnapshot().getQueueWaitByEventType().get(Integer.class.getName());
+        assertNotNull(queueWait);
+        assertEquals(2, queueWait.getCount());
+        assertTrue(queueWait.getMaxNanos() >= 2_000_000);
+        assertTrue(queueWait.getPercentileNanos(50) >= 1_000_000);
+    }
+
+    @Test
+    public void histogramBucketsByPowerOfTwo() {
+        MyLatencyHistogram histogram = new MyLatencyHistogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(100);
+        histogram.record(1000);
+        histogram.record(-5);
+
+        MyLatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(5, snapshot.getCount());
+        assertEquals(1101, snapshot.getTotalNanos());
+        assertEquals(1000, snapshot.getMaxNanos());
+        long[] buckets = snapshot.getBucketCounts();
+        assertEquals(2, buckets[0]);
+        assertEquals(1, buckets[1]);
+        // 100 在 [64, 128) , 1000 在 [512, 1024)
+        assertEquals(1, buckets[7]);
+        assertEquals(1, buckets[10]);
+        assertEquals(127, snapshot.getPercentileNanos(80));
+        // 不超过记录的最大值
+        assertEquals(1000, snapshot.getPercentileNanos(100));
+        assertEquals(0, snapshot.getPercentileNanos(0));
+    }
+}
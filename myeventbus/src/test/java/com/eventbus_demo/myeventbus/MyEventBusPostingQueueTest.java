@@ -0,0 +1,62 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 订阅方法中再次 post 的事件 , 在当前事件分发完成之后再分发
+ */
+public class MyEventBusPostingQueueTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    public class RepostingSubscriber {
+        private final MyEventBus bus;
+
+        RepostingSubscriber(MyEventBus bus) {
+            this.bus = bus;
+        }
+
+        @MySubscribe(priority = 1)
+        public void onString(String event) {
+            calls.add("first:" + event);
+            if (event.length() < 3) {
+                bus.post(event + "!");
+            }
+            bus.post(event.length());
+        }
+
+        @MySubscribe
+        public void onStringLater(String event) {
+            calls.add("second:" + event);
+        }
+
+        @MySubscribe
+        public void onInteger(Integer event) {
+            calls.add("int:" + event);
+        }
+    }
+
+    @Test
+    public void nestedPostsAreDeliveredInOrder() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.register(new RepostingSubscriber(bus));
+
+        bus.post("ab");
+        assertEquals(Arrays.asList(
+                "first:ab", "second:ab",
+                "first:ab!", "second:ab!",
+                "int:2",
+                "int:3"), calls);
+
+        // 外层分发结束后 , 下一次 post 正常分发
+        calls.clear();
+        bus.post(7);
+        assertEquals(Arrays.asList("int:7"), calls);
+    }
+}
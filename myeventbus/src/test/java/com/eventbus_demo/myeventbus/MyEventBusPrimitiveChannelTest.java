@@ -0,0 +1,207 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 基本类型事件通道 : 发布线程回调 , 环形缓冲区子线程回调 , 缓冲区已满的处理策略
+ */
+public class MyEventBusPrimitiveChannelTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 子线程中回调 , 第一个值阻塞直到 release
+     */
+    private static class BlockingListener implements MyIntListener {
+        final List<Integer> values = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done;
+
+        BlockingListener(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onValue(int value) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            values.add(value);
+            done.countDown();
+        }
+    }
+
+    private MyEventBus createBus() {
+        return MyEventBus.builder().asyncExecutor(executor).build();
+    }
+
+    @Test
+    public void postingListenersAreCalledInOrder() {
+        MyEventBus bus = createBus();
+        MyLongChannel channel = bus.getLongChannel("frame");
+        List<String> log = new ArrayList<>();
+        MyLongListener first = value -> log.add("first:" + value);
+        channel.subscribe(first);
+        channel.subscribe(value -> log.add("second:" + value));
+
+        channel.publish(1L);
+        channel.publish(Long.MAX_VALUE);
+        assertEquals(Arrays.asList("first:1", "second:1",
+                "first:" + Long.MAX_VALUE, "second:" + Long.MAX_VALUE), log);
+
+        assertTrue(channel.unsubscribe(first));
+        assertFalse(channel.unsubscribe(first));
+        log.clear();
+        channel.publish(2L);
+        assertEquals(Collections.singletonList("second:2"), log);
+    }
+
+    @Test
+    public void sameNameReturnsSameChannel() {
+        MyEventBus bus = createBus();
+        MyIntChannel channel = bus.getIntChannel("sensor");
+        assertSame(channel, bus.getIntChannel("sensor"));
+        assertEquals("sensor", channel.getName());
+        try {
+            bus.getDoubleChannel("sensor");
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 同一个名称只能对应一种类型
+        }
+    }
+
+    @Test
+    public void ringBufferDeliversInPublishOrder() throws Exception {
+        MyEventBus bus = createBus();
+        MyDoubleChannel channel = bus.getDoubleChannel("sample");
+        List<Double> values = Collections.synchronizedList(new ArrayList<Double>());
+        CountDownLatch done = new CountDownLatch(1000);
+        channel.subscribe(value -> {
+            values.add(value);
+            done.countDown();
+        }, 64, MyOverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 1000; i++) {
+            channel.publish(i + 0.5);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + 0.5, values.get(i), 0);
+        }
+        assertEquals(0, channel.getDroppedCount());
+    }
+
+    @Test
+    public void dropNewestWhenFull() throws Exception {
+        MyEventBus bus = createBus();
+        MyIntChannel channel = bus.getIntChannel("sensor");
+        BlockingListener listener = new BlockingListener(3);
+        channel.subscribe(listener, 2, MyOverflowPolicy.DROP_NEWEST);
+
+        channel.publish(1);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            channel.publish(i);
+        }
+        listener.release.countDown();
+        assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2, 3), listener.values);
+        assertEquals(2, channel.getDroppedCount());
+        assertEquals(2, bus.getDroppedEventCount());
+    }
+
+    @Test
+    public void dropOldestWhenFull() throws Exception {
+        MyEventBus bus = createBus();
+        MyIntChannel channel = bus.getIntChannel("sensor");
+        BlockingListener listener = new BlockingListener(3);
+        channel.subscribe(listener, 2, MyOverflowPolicy.DROP_OLDEST);
+
+        channel.publish(1);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            channel.publish(i);
+        }
+        listener.release.countDown();
+        assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 4, 5), listener.values);
+        assertEquals(2, channel.getDroppedCount());
+    }
+
+    @Test
+    public void failWhenFull() throws Exception {
+        MyEventBus bus = createBus();
+        MyIntChannel channel = bus.getIntChannel("sensor");
+        BlockingListener listener = new BlockingListener(1);
+        channel.subscribe(listener, 2, MyOverflowPolicy.FAIL);
+
+        channel.publish(1);
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        channel.publish(2);
+        channel.publish(3);
+        try {
+            channel.publish(4);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 缓冲区已满
+        } finally {
+            listener.release.countDown();
+        }
+        assertEquals(1, channel.getDroppedCount());
+    }
+
+    @Test
+    public void listenerExceptionFollowsExceptionPolicy() {
+        MyEventBus bus = MyEventBus.builder().exceptionPolicy(MyExceptionPolicy.RETHROW).build();
+        MyIntChannel channel = bus.getIntChannel("sensor");
+        channel.subscribe(value -> {
+            throw new IllegalStateException("bad value " + value);
+        });
+        try {
+            channel.publish(7);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertTrue(e.getMessage().contains("onValue"));
+        }
+    }
+
+    @Test
+    public void sameListenerCannotSubscribeTwice() {
+        MyIntChannel channel = createBus().getIntChannel("sensor");
+        MyIntListener listener = value -> { };
+        channel.subscribe(listener);
+        assertTrue(channel.hasListeners());
+        try {
+            channel.subscribe(listener, 16, MyOverflowPolicy.BLOCK);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 已经注册
+        }
+    }
+}
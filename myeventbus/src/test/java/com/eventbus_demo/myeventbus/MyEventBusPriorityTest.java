@@ -0,0 +1,109 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 按优先级分发事件 , 以及取消事件分发
+ */
+public class MyEventBusPriorityTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    public class LowSubscriber {
+        @MySubscribe(priority = -1)
+        public void onEvent(String event) {
+            calls.add("low");
+        }
+    }
+
+    public class DefaultSubscriber {
+        @MySubscribe
+        public void onEvent(String event) {
+            calls.add("default");
+        }
+    }
+
+    public class HighSubscriber {
+        @MySubscribe(priority = 10)
+        public void onEvent(CharSequence event) {
+            calls.add("high");
+        }
+    }
+
+    public class MinSubscriber {
+        @MySubscribe(priority = Integer.MIN_VALUE)
+        public void onEvent(String event) {
+            calls.add("min");
+        }
+    }
+
+    public class MaxSubscriber {
+        @MySubscribe(priority = Integer.MAX_VALUE)
+        public void onEvent(CharSequence event) {
+            calls.add("max");
+        }
+    }
+
+    public class CancelingSubscriber {
+        private final MyEventBus bus;
+
+        CancelingSubscriber(MyEventBus bus) {
+            this.bus = bus;
+        }
+
+        @MySubscribe(priority = 5)
+        public void onEvent(String event) {
+            calls.add("cancel");
+            bus.cancelEventDelivery(event);
+        }
+    }
+
+    @Test
+    public void deliversInPriorityOrderRegardlessOfRegistrationOrder() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.register(new LowSubscriber());
+        bus.register(new DefaultSubscriber());
+        bus.register(new HighSubscriber());
+
+        bus.post("event");
+        assertEquals(Arrays.asList("high", "default", "low"), calls);
+    }
+
+    @Test
+    public void extremePrioritiesDoNotOverflow() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.register(new MinSubscriber());
+        bus.register(new DefaultSubscriber());
+        bus.register(new MaxSubscriber());
+
+        bus.post("event");
+        assertEquals(Arrays.asList("max", "default", "min"), calls);
+    }
+
+    @Test
+    public void cancelStopsLowerPriorityDelivery() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.register(new LowSubscriber());
+        bus.register(new CancelingSubscriber(bus));
+        bus.register(new HighSubscriber());
+
+        bus.post("event");
+        assertEquals(Arrays.asList("high", "cancel"), calls);
+
+        // 取消只对当前事件有效
+        calls.clear();
+        bus.post(new StringBuilder("other"));
+        assertEquals(Arrays.asList("high"), calls);
+    }
+
+    @Test(expected = MyEventBusException.class)
+    public void cancelOutsideHandlerFails() {
+        MyEventBus.builder().build().cancelEventDelivery("event");
+    }
+}
@@ -0,0 +1,148 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 注册句柄 : 取消注册 , 重复注册 , 大量订阅者依次取消注册 , 以及取消注册后订阅者可以被回收
+ */
+public class MyEventBusRegistrationTest {
+
+    public static class Subscriber {
+        final List<Object> events = new ArrayList<>();
+
+        @MySubscribe
+        public void onEvent(String event) {
+            events.add(event);
+        }
+
+        @MySubscribe
+        public void onEvent(Integer event) {
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void registrationHandleUnregisters() {
+        MyEventBus bus = MyEventBus.builder().build();
+        Subscriber subscriber = new Subscriber();
+        MyRegistration registration = bus.register(subscriber);
+        assertTrue(registration.isActive());
+        assertTrue(bus.isRegistered(subscriber));
+        assertSame(subscriber, registration.getSubscriber());
+
+        bus.post("first");
+        registration.unregister();
+        bus.post("second");
+        bus.post(2);
+        assertFalse(registration.isActive());
+        assertFalse(bus.isRegistered(subscriber));
+        assertEquals(1, subscriber.events.size());
+
+        // 重复取消注册不做任何操作
+        registration.unregister();
+        bus.unregister(subscriber);
+    }
+
+    @Test
+    public void unregisterUnknownSubscriberIsNoOp() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.unregister(new Subscriber());
+        assertFalse(bus.isRegistered(new Subscriber()));
+    }
+
+    @Test
+    public void registeringTwiceReturnsSameHandle() {
+        MyEventBus bus = MyEventBus.builder().build();
+        Subscriber subscriber = new Subscriber();
+        MyRegistration registration = bus.register(subscriber);
+        assertSame(registration, bus.register(subscriber));
+        bus.post("event");
+        assertEquals(1, subscriber.events.size());
+    }
+
+    @Test
+    public void staleHandleDoesNotUnregisterNewRegistration() {
+        MyEventBus bus = MyEventBus.builder().build();
+        Subscriber subscriber = new Subscriber();
+        MyRegistration first = bus.register(subscriber);
+        first.unregister();
+        MyRegistration second = bus.register(subscriber);
+        first.unregister();
+        assertTrue(second.isActive());
+        bus.post("event");
+        assertEquals(1, subscriber.events.size());
+    }
+
+    @Test
+    public void unregisterManySubscribersInAnyOrder() {
+        MyEventBus bus = MyEventBus.builder().build();
+        List<Subscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Subscriber subscriber = new Subscriber();
+            bus.register(subscriber);
+            subscribers.add(subscriber);
+        }
+        // 取消注册偶数位置的订阅者 , 剩余的订阅者仍然接收事件
+        for (int i = 0; i < subscribers.size(); i += 2) {
+            bus.unregister(subscribers.get(i));
+        }
+        bus.post("event");
+        for (int i = 0; i < subscribers.size(); i++) {
+            assertEquals(i % 2 == 0 ? 0 : 1, subscribers.get(i).events.size());
+        }
+        for (int i = 1; i < subscribers.size(); i += 2) {
+            bus.unregister(subscribers.get(i));
+        }
+        bus.post("event");
+        for (int i = 0; i < subscribers.size(); i++) {
+            assertFalse(bus.isRegistered(subscribers.get(i)));
+            assertEquals(i % 2 == 0 ? 0 : 1, subscribers.get(i).events.size());
+        }
+    }
+
+    @Test
+    public void unregisteredSubscriberCanBeCollected() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().build();
+        List<Subscriber> live = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Subscriber subscriber = new Subscriber();
+            bus.register(subscriber);
+            live.add(subscriber);
+        }
+        // 无效的订阅没有超过一半 , 订阅数组不会压缩 , 仍然保留该订阅
+        WeakReference<Object> unregistered = registerPostAndUnregister(bus);
+        for (int i = 0; i < 50 && unregistered.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(unregistered.get());
+
+        // 之后注册的订阅者拷贝数组时移除无效的订阅 , 其它订阅者不受影响
+        Subscriber late = new Subscriber();
+        bus.register(late);
+        bus.post("event");
+        assertEquals(1, late.events.size());
+        for (Subscriber subscriber : live) {
+            assertEquals(2, subscriber.events.size());
+        }
+    }
+
+    private static WeakReference<Object> registerPostAndUnregister(MyEventBus bus) {
+        Subscriber subscriber = new Subscriber();
+        bus.register(subscriber);
+        // 分发缓存中也保存了该订阅
+        bus.post("event");
+        bus.unregister(subscriber);
+        return new WeakReference<Object>(subscriber);
+    }
+}
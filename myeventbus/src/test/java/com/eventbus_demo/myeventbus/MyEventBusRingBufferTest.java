@@ -0,0 +1,239 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 环形缓冲区分发 ASYNC 事件 : 等待策略 , 多个分发线程 , 批量发布的顺序 , 缓冲区已满的处理策略 , 停止分发线程
+ */
+public class MyEventBusRingBufferTest {
+
+    public static class AsyncSubscriber {
+        final Set<Integer> received = ConcurrentHashMap.newKeySet();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final CountDownLatch done;
+
+        AsyncSubscriber(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(Integer event) {
+            threads.add(Thread.currentThread().getName());
+            received.add(event);
+            done.countDown();
+        }
+    }
+
+    public static class BatchSubscriber {
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(3);
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(String event) {
+            events.add(event);
+            done.countDown();
+        }
+    }
+
+    public static class BlockingSubscriber {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        final List<String> callerThreads = Collections.synchronizedList(new ArrayList<String>());
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(Integer event) throws InterruptedException {
+            count.incrementAndGet();
+            if (event == 0) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            } else {
+                callerThreads.add(Thread.currentThread().getName());
+            }
+        }
+    }
+
+    private static void deliverAll(MyWaitStrategy waitStrategy) throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().asyncRingBuffer(256, 2, waitStrategy).build();
+        AsyncSubscriber subscriber = new AsyncSubscriber(10_000);
+        bus.register(subscriber);
+        for (int i = 0; i < 10_000; i++) {
+            bus.post(i);
+        }
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertEquals(10_000, subscriber.received.size());
+        for (String thread : subscriber.threads) {
+            assertTrue(thread, thread.startsWith("MyEventBus-ring-") || thread.equals(Thread.currentThread().getName()));
+        }
+        assertTrue(bus.shutdownAsyncRingBuffer(5000));
+    }
+
+    /**
+     * 停止之后分发线程退出 , 已经放入的事件仍然分发 , 之后发布 ASYNC 事件被拒绝
+     */
+    private static void shutdownStopsConsumers(MyWaitStrategy waitStrategy) throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().asyncRingBuffer(256, 2, waitStrategy).build();
+        AsyncSubscriber subscriber = new AsyncSubscriber(100);
+        bus.register(subscriber);
+        for (int i = 0; i < 100; i++) {
+            bus.post(i);
+        }
+        assertTrue(bus.shutdownAsyncRingBuffer(5000));
+        assertEquals(0, subscriber.done.getCount());
+        try {
+            bus.post(100);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 已经停止
+        }
+    }
+
+    @Test
+    public void shutdownStopsBusySpinConsumers() throws InterruptedException {
+        shutdownStopsConsumers(MyWaitStrategy.BUSY_SPIN);
+    }
+
+    @Test
+    public void shutdownStopsYieldConsumers() throws InterruptedException {
+        shutdownStopsConsumers(MyWaitStrategy.YIELD);
+    }
+
+    @Test
+    public void shutdownStopsParkedConsumers() throws InterruptedException {
+        shutdownStopsConsumers(MyWaitStrategy.PARK);
+    }
+
+    @Test
+    public void shutdownBeforeFirstPost() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().asyncRingBuffer(16, 1, MyWaitStrategy.BUSY_SPIN).build();
+        assertTrue(bus.shutdownAsyncRingBuffer(0));
+        // 没有开启 asyncRingBuffer 时什么也不做
+        assertTrue(MyEventBus.builder().build().shutdownAsyncRingBuffer(0));
+    }
+
+    @Test
+    public void busySpinDeliversAllEvents() throws InterruptedException {
+        deliverAll(MyWaitStrategy.BUSY_SPIN);
+    }
+
+    @Test
+    public void yieldDeliversAllEvents() throws InterruptedException {
+        deliverAll(MyWaitStrategy.YIELD);
+    }
+
+    @Test
+    public void parkDeliversAllEvents() throws InterruptedException {
+        deliverAll(MyWaitStrategy.PARK);
+    }
+
+    @Test
+    public void parkedConsumerIsWokenUp() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().asyncRingBuffer(16, 1, MyWaitStrategy.PARK).build();
+        AsyncSubscriber subscriber = new AsyncSubscriber(2);
+        bus.register(subscriber);
+        bus.post(1);
+        // 等待分发线程进入休眠
+        Thread.sleep(50);
+        bus.post(2);
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertTrue(bus.shutdownAsyncRingBuffer(5000));
+    }
+
+    @Test
+    public void batchIsDeliveredInOrderOnOneThread() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().asyncRingBuffer(16, 4, MyWaitStrategy.YIELD).build();
+        BatchSubscriber subscriber = new BatchSubscriber();
+        bus.register(subscriber);
+        bus.postAll(Arrays.asList("a", "b", "c"));
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("a", "b", "c"), subscriber.events);
+        assertTrue(bus.shutdownAsyncRingBuffer(5000));
+    }
+
+    @Test
+    public void callerRunsWhenFull() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().asyncRingBuffer(2, 1, MyWaitStrategy.YIELD).build();
+        BlockingSubscriber subscriber = new BlockingSubscriber();
+        bus.register(subscriber);
+        bus.post(0);
+        assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+        // 分发线程被阻塞 , 2 个槽位放满后在发布线程中执行
+        bus.post(1);
+        bus.post(2);
+        bus.post(3);
+        assertEquals(Collections.singletonList(Thread.currentThread().getName()), subscriber.callerThreads);
+        subscriber.release.countDown();
+        assertTrue(bus.shutdownAsyncRingBuffer(5000));
+    }
+
+    @Test
+    public void abortWhenFull() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder()
+                .asyncRingBuffer(2, 1, MyWaitStrategy.YIELD)
+                .asyncRejectionPolicy(MyAsyncRejectionPolicy.ABORT)
+                .build();
+        BlockingSubscriber subscriber = new BlockingSubscriber();
+        bus.register(subscriber);
+        bus.post(0);
+        assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+        bus.post(1);
+        bus.post(2);
+        try {
+            bus.post(3);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 缓冲区已满
+        } finally {
+            subscriber.release.countDown();
+        }
+        assertTrue(bus.shutdownAsyncRingBuffer(5000));
+    }
+
+    @Test
+    public void discardDropsOldestWhenFull() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder()
+                .asyncRingBuffer(2, 1, MyWaitStrategy.YIELD)
+                .asyncRejectionPolicy(MyAsyncRejectionPolicy.DISCARD)
+                .build();
+        BlockingSubscriber subscriber = new BlockingSubscriber();
+        bus.register(subscriber);
+        bus.post(0);
+        assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            bus.post(i);
+        }
+        subscriber.release.countDown();
+        // 1 和 2 被丢弃 , 分发 0 / 3 / 4
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscriber.count.get() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(20);
+        assertEquals(3, subscriber.count.get());
+        assertTrue(bus.shutdownAsyncRingBuffer(5000));
+    }
+
+    @Test
+    public void ringBufferAndVirtualThreadsAreExclusive() {
+        try {
+            MyEventBus.builder().asyncRingBuffer(16, 1, MyWaitStrategy.PARK).asyncVirtualThreads(true).build();
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 不能同时设置
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 粘性事件 : 注册时重放 , 以及权重上限淘汰
+ */
+public class MyEventBusStickyTest {
+
+    public static class StickySubscriber {
+        final List<Object> events = new ArrayList<>();
+
+        @MySubscribe(sticky = true)
+        public void onEvent(CharSequence event) {
+            events.add(event);
+        }
+    }
+
+    public static class NonStickySubscriber {
+        final List<Object> events = new ArrayList<>();
+
+        @MySubscribe
+        public void onEvent(String event) {
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void replaysLatestStickyEventOnRegister() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.postSticky("first");
+        bus.postSticky("second");
+        bus.postSticky(new StringBuilder("builder"));
+        bus.postSticky(1);
+
+        StickySubscriber subscriber = new StickySubscriber();
+        bus.register(subscriber);
+        // 每个类型只保留最近一次发布的事件 , Integer 不是 CharSequence
+        assertEquals(2, subscriber.events.size());
+        assertTrue(subscriber.events.contains("second"));
+
+        NonStickySubscriber nonSticky = new NonStickySubscriber();
+        bus.register(nonSticky);
+        assertEquals(0, nonSticky.events.size());
+    }
+
+    @Test
+    public void removeStickyEvent() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.postSticky("event");
+        assertEquals("event", bus.getStickyEvent(String.class));
+        assertEquals("event", bus.removeStickyEvent(String.class));
+        assertNull(bus.getStickyEvent(String.class));
+
+        StickySubscriber subscriber = new StickySubscriber();
+        bus.register(subscriber);
+        assertEquals(0, subscriber.events.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenOverWeight() {
+        MyEventBus bus = MyEventBus.builder()
+                .stickyEventMaxWeight(10)
+                .stickyEventWeigher(event -> event.toString().length())
+                .build();
+        bus.postSticky("12345");
+        bus.postSticky(new StringBuilder("1234"));
+        assertEquals("12345", bus.getStickyEvent(String.class));
+        // String 刚被访问过 , 超过上限时淘汰 StringBuilder
+        bus.postSticky(12);
+        assertNull(bus.getStickyEvent(StringBuilder.class));
+        assertEquals("12345", bus.getStickyEvent(String.class));
+        assertEquals(Integer.valueOf(12), bus.getStickyEvent(Integer.class));
+
+        StickySubscriber subscriber = new StickySubscriber();
+        bus.register(subscriber);
+        assertEquals(1, subscriber.events.size());
+    }
+}
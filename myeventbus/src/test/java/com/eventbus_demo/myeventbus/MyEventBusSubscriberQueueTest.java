@@ -0,0 +1,213 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ASYNC 订阅方法自己的有界队列 : 队列已满时按照 overflow 策略处理 , 订阅方法按照发布顺序依次执行
+ */
+public class MyEventBusSubscriberQueueTest {
+
+    public static class DropOldestSubscriber {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, queueCapacity = 3, overflow = MyOverflowPolicy.DROP_OLDEST)
+        public void onEvent(Integer event) {
+            events.add(event);
+        }
+    }
+
+    public static class DropNewestSubscriber {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, queueCapacity = 3, overflow = MyOverflowPolicy.DROP_NEWEST)
+        public void onEvent(Integer event) {
+            events.add(event);
+        }
+    }
+
+    public static class FailSubscriber {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, queueCapacity = 2, overflow = MyOverflowPolicy.FAIL)
+        public void onEvent(Integer event) {
+            events.add(event);
+        }
+    }
+
+    public static class BlockingSubscriber {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done;
+
+        BlockingSubscriber(int count) {
+            done = new CountDownLatch(count);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, queueCapacity = 2)
+        public void onEvent(Integer event) throws InterruptedException {
+            release.await(5, TimeUnit.SECONDS);
+            events.add(event);
+            done.countDown();
+        }
+    }
+
+    public static class OrderedSubscriber {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch done;
+        volatile boolean concurrent;
+        private volatile boolean running;
+
+        OrderedSubscriber(int count) {
+            done = new CountDownLatch(count);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC, queueCapacity = 16)
+        public void onEvent(Integer event) {
+            if (running) {
+                concurrent = true;
+            }
+            running = true;
+            events.add(event);
+            running = false;
+            done.countDown();
+        }
+    }
+
+    public static class InvalidSubscriber {
+        @MySubscribe(threadMode = MyThreadMode.BACKGROUND, queueCapacity = 4)
+        public void onEvent(Integer event) {
+        }
+    }
+
+    @Test
+    public void dropOldestKeepsLatestEvents() {
+        List<Runnable> tasks = new ArrayList<>();
+        MyEventBus bus = MyEventBus.builder().asyncExecutor(tasks::add).build();
+        DropOldestSubscriber subscriber = new DropOldestSubscriber();
+        MyRegistration registration = bus.register(subscriber);
+
+        for (int i = 0; i < 10; i++) {
+            bus.post(i);
+        }
+        // 同一时刻只有一个分发任务
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(Arrays.asList(7, 8, 9), subscriber.events);
+        assertEquals(7, registration.getDroppedEventCount());
+        assertEquals(7, bus.getDroppedEventCount());
+    }
+
+    @Test
+    public void dropNewestKeepsQueuedEvents() {
+        List<Runnable> tasks = new ArrayList<>();
+        MyEventBus bus = MyEventBus.builder().asyncExecutor(tasks::add).build();
+        DropNewestSubscriber subscriber = new DropNewestSubscriber();
+        MyRegistration registration = bus.register(subscriber);
+
+        bus.postAll(Arrays.asList(0, 1, 2, 3, 4));
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(Arrays.asList(0, 1, 2), subscriber.events);
+        assertEquals(2, registration.getDroppedEventCount());
+
+        // 队列清空之后可以继续放入 , 重新提交分发任务
+        bus.post(5);
+        assertEquals(2, tasks.size());
+        tasks.get(1).run();
+        assertEquals(Arrays.asList(0, 1, 2, 5), subscriber.events);
+    }
+
+    @Test
+    public void failThrowsWhenQueueIsFull() {
+        List<Runnable> tasks = new ArrayList<>();
+        MyEventBus bus = MyEventBus.builder().asyncExecutor(tasks::add).build();
+        FailSubscriber subscriber = new FailSubscriber();
+        bus.register(subscriber);
+
+        bus.post(0);
+        bus.post(1);
+        try {
+            bus.post(2);
+            fail("Expected MyEventBusException");
+        } catch (MyEventBusException expected) {
+            // 队列已满
+        }
+        tasks.get(0).run();
+        assertEquals(Arrays.asList(0, 1), subscriber.events);
+        assertEquals(1, bus.getDroppedEventCount());
+    }
+
+    @Test
+    public void blockWaitsForSpaceWithoutDroppingEvents() throws Exception {
+        int count = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            MyEventBus bus = MyEventBus.builder().asyncExecutor(executor).build();
+            BlockingSubscriber subscriber = new BlockingSubscriber(count);
+            bus.register(subscriber);
+
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    bus.post(i);
+                }
+            });
+            publisher.start();
+            // 订阅方法阻塞 , 发布线程放入 1 个正在执行的事件 + 2 个排队的事件之后等待
+            publisher.join(200);
+            assertTrue(publisher.isAlive());
+
+            subscriber.release.countDown();
+            publisher.join(5000);
+            assertFalse(publisher.isAlive());
+            assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+            assertEquals(count, subscriber.events.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(Integer.valueOf(i), subscriber.events.get(i));
+            }
+            assertEquals(0, bus.getDroppedEventCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void eventsAreDeliveredInOrderOnOneThreadAtATime() throws Exception {
+        int count = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            MyEventBus bus = MyEventBus.builder().asyncExecutor(executor).build();
+            OrderedSubscriber subscriber = new OrderedSubscriber(count);
+            bus.register(subscriber);
+
+            for (int i = 0; i < count; i++) {
+                bus.post(i);
+            }
+            assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+            assertFalse(subscriber.concurrent);
+            for (int i = 0; i < count; i++) {
+                assertEquals(Integer.valueOf(i), subscriber.events.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = MyEventBusException.class)
+    public void queueCapacityRequiresAsync() {
+        MyEventBus.builder().build().register(new InvalidSubscriber());
+    }
+}
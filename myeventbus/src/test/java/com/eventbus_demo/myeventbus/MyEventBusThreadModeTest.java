@@ -0,0 +1,156 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MAIN 切换到主线程 , BACKGROUND 使用一个子线程按顺序分发 , ASYNC 使用有上限的线程池
+ *      普通 JVM 中的主线程是 MyExecutorMainThreadSupport 中的单线程线程池
+ */
+public class MyEventBusThreadModeTest {
+
+    private static final int EVENTS = 200;
+
+    public static class BackgroundSubscriber {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final CountDownLatch done = new CountDownLatch(EVENTS);
+
+        @MySubscribe(threadMode = MyThreadMode.BACKGROUND)
+        public void onEvent(Integer event) {
+            events.add(event);
+            threads.add(Thread.currentThread());
+            done.countDown();
+        }
+    }
+
+    public static class BlockingAsyncSubscriber {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final CountDownLatch done;
+
+        BlockingAsyncSubscriber(int events) {
+            done = new CountDownLatch(events);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.ASYNC)
+        public void onEvent(String event) throws InterruptedException {
+            threads.add(Thread.currentThread());
+            if (Thread.currentThread().getName().startsWith("MyEventBus-async")) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            done.countDown();
+        }
+    }
+
+    public static class MainSubscriber {
+        final List<String> calls = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(2);
+        volatile boolean mainThread = true;
+
+        @MySubscribe(threadMode = MyThreadMode.MAIN)
+        public void onMain(String event) {
+            onEvent("main:" + event);
+        }
+
+        @MySubscribe(threadMode = MyThreadMode.MAIN_ORDERED)
+        public void onMainOrdered(String event) {
+            onEvent("ordered:" + event);
+        }
+
+        private void onEvent(String call) {
+            calls.add(call);
+            if (!Thread.currentThread().getName().startsWith("MyEventBus-main")) {
+                mainThread = false;
+            }
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void mainOrderedIsAlwaysQueued() throws Exception {
+        MyExecutorMainThreadSupport mainThread = new MyExecutorMainThreadSupport();
+        MyEventBus bus = MyEventBus.builder().mainThreadSupport(mainThread).build();
+        MainSubscriber subscriber = new MainSubscriber();
+        bus.register(subscriber);
+
+        // 在主线程中发布 , MAIN 立即执行 , MAIN_ORDERED 在发布完成后执行
+        mainThread.execute(() -> {
+            bus.post("a");
+            subscriber.calls.add("posted");
+        });
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("main:a", "posted", "ordered:a"), subscriber.calls);
+        assertTrue(subscriber.mainThread);
+    }
+
+    @Test
+    public void backgroundIsSerialAndOrdered() throws Exception {
+        MyExecutorMainThreadSupport mainThread = new MyExecutorMainThreadSupport();
+        MyEventBus bus = MyEventBus.builder().mainThreadSupport(mainThread).build();
+        BackgroundSubscriber subscriber = new BackgroundSubscriber();
+        bus.register(subscriber);
+
+        // 在主线程中发布 , 切换到子线程分发
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            expected.add(i);
+        }
+        mainThread.execute(() -> {
+            for (int i = 0; i < EVENTS; i++) {
+                bus.post(i);
+            }
+        });
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertEquals(expected, subscriber.events);
+        assertEquals(1, subscriber.threads.size());
+        assertTrue(subscriber.threads.iterator().next().getName().startsWith("MyEventBus-background"));
+    }
+
+    @Test
+    public void asyncPoolIsBoundedAndCallerRunsWhenSaturated() throws Exception {
+        MyEventBus bus = MyEventBus.builder()
+                .asyncThreadPoolSize(2)
+                .asyncQueueCapacity(2)
+                .asyncRejectionPolicy(MyAsyncRejectionPolicy.CALLER_RUNS)
+                .build();
+        // 2 个线程阻塞 + 2 个在队列中 , 第 5 个在发布线程中执行
+        BlockingAsyncSubscriber subscriber = new BlockingAsyncSubscriber(5);
+        bus.register(subscriber);
+
+        for (int i = 0; i < 5; i++) {
+            bus.post("event");
+        }
+        assertTrue(subscriber.threads.contains(Thread.currentThread()));
+
+        subscriber.release.countDown();
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertEquals(3, subscriber.threads.size());
+    }
+
+    @Test
+    public void customAsyncExecutorIsUsed() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        MyEventBus bus = MyEventBus.builder().asyncExecutor(tasks::add).build();
+        BlockingAsyncSubscriber subscriber = new BlockingAsyncSubscriber(1);
+        bus.register(subscriber);
+
+        bus.post("event");
+        assertEquals(1, tasks.size());
+        assertEquals(1, subscriber.done.getCount());
+
+        tasks.get(0).run();
+        assertEquals(0, subscriber.done.getCount());
+    }
+}
@@ -0,0 +1,102 @@
+package com.eventbus_demo.myeventbus;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 弱引用订阅者 : 未取消注册的订阅者被回收后不再接收事件 , 并在注册时批量清理
+ */
+public class MyEventBusWeakSubscriberTest {
+
+    static final AtomicInteger RECEIVED = new AtomicInteger();
+
+    public static class LeakySubscriber {
+        @MySubscribe
+        public void onEvent(String event) {
+            RECEIVED.incrementAndGet();
+        }
+    }
+
+    public static class Subscriber {
+        final List<Object> events = new ArrayList<>();
+
+        @MySubscribe
+        public void onEvent(String event) {
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void reachableSubscriberStillReceivesAndUnregisters() {
+        MyEventBus bus = MyEventBus.builder().weakSubscribers(true).build();
+        Subscriber subscriber = new Subscriber();
+        bus.register(subscriber);
+        bus.post("first");
+        bus.unregister(subscriber);
+        bus.post("second");
+        assertEquals(1, subscriber.events.size());
+        assertEquals(0, bus.purgeStaleSubscribers());
+    }
+
+    @Test
+    public void collectedSubscriberIsPurged() throws InterruptedException {
+        MyEventBus bus = MyEventBus.builder().weakSubscribers(true).build();
+        RECEIVED.set(0);
+        WeakReference<Object> collected = registerLeakySubscriber(bus);
+        awaitCollected(collected);
+
+        bus.post("event");
+        assertEquals(0, RECEIVED.get());
+        assertEquals(1, awaitPurge(bus));
+        assertEquals(0, bus.purgeStaleSubscribers());
+
+        // 清理之后仍然可以正常注册
+        Subscriber subscriber = new Subscriber();
+        bus.register(subscriber);
+        bus.post("event");
+        assertEquals(1, subscriber.events.size());
+    }
+
+    @Test
+    public void strongModeNeverPurges() {
+        MyEventBus bus = MyEventBus.builder().build();
+        bus.register(new LeakySubscriber());
+        System.gc();
+        assertEquals(0, bus.purgeStaleSubscribers());
+    }
+
+    private static WeakReference<Object> registerLeakySubscriber(MyEventBus bus) {
+        LeakySubscriber subscriber = new LeakySubscriber();
+        bus.register(subscriber);
+        return new WeakReference<Object>(subscriber);
+    }
+
+    private static void awaitCollected(WeakReference<Object> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    /**
+     * 引用被回收后由 GC 线程异步放入 ReferenceQueue , 等待入队之后再清理
+     */
+    private static int awaitPurge(MyEventBus bus) throws InterruptedException {
+        int purged = 0;
+        for (int i = 0; i < 100 && purged == 0; i++) {
+            purged = bus.purgeStaleSubscribers();
+            if (purged == 0) {
+                Thread.sleep(10);
+            }
+        }
+        return purged;
+    }
+}